@@ -865,8 +865,9 @@ public class Const {
   public static final String KETTLE_CARTE_OBJECT_TIMEOUT_MINUTES = "KETTLE_CARTE_OBJECT_TIMEOUT_MINUTES";
 
   /**
-   * System wide parameter: the maximum number of step performance snapshots to keep in memory. Set to 0 to keep all
-   * snapshots indefinitely (default)
+   * System wide parameter: the maximum number of step performance snapshots to keep in memory per step copy. Once
+   * reached, neighbouring snapshots are merged so the whole run stays covered at a lower resolution. When not set or 0,
+   * 1000 snapshots are kept. Set to -1 to keep all snapshots of a run.
    */
   public static final String KETTLE_STEP_PERFORMANCE_SNAPSHOT_LIMIT = "KETTLE_STEP_PERFORMANCE_SNAPSHOT_LIMIT";
 
@@ -890,6 +891,23 @@ public class Const {
    */
   public static final String KETTLE_LOGGING_REGISTRY_PURGE_TIMEOUT = "KETTLE_LOGGING_REGISTRY_PURGE_TIMEOUT";
 
+  /**
+   * A variable to write the step, performance, channel, metrics and job entry log table records in the background,
+   * batched together with the records of other running transformations and jobs. Set to Y to enable.
+   */
+  public static final String KETTLE_LOG_TABLE_ASYNC_WRITES = "KETTLE_LOG_TABLE_ASYNC_WRITES";
+
+  /**
+   * A variable to configure the number of milliseconds between two background writes of log table records.
+   */
+  public static final String KETTLE_LOG_TABLE_ASYNC_WRITE_INTERVAL = "KETTLE_LOG_TABLE_ASYNC_WRITE_INTERVAL";
+
+  /**
+   * A variable to configure the number of milliseconds between two pushes of the metrics to the registered metrics
+   * exporters.
+   */
+  public static final String KETTLE_METRICS_EXPORT_INTERVAL = "KETTLE_METRICS_EXPORT_INTERVAL";
+
   /**
    * A variable to configure the kettle log tab refresh delay.
    */
@@ -922,6 +940,60 @@ public class Const {
    */
   public static final String KETTLE_PLUGIN_PACKAGES = "KETTLE_PLUGIN_PACKAGES";
 
+  /**
+   * Name of the environment variable to specify the file in which the annotations found in the plugin jar files are
+   * kept between runs. Defaults to plugin-scan-index.xml in the Kettle directory.
+   */
+  public static final String KETTLE_PLUGIN_SCAN_INDEX_FILE = "KETTLE_PLUGIN_SCAN_INDEX_FILE";
+
+  /**
+   * Set this variable to Y to scan all plugin jar files on every start-up instead of reusing the plugin scan index.
+   */
+  public static final String KETTLE_DISABLE_PLUGIN_SCAN_INDEX = "KETTLE_DISABLE_PLUGIN_SCAN_INDEX";
+
+  /**
+   * Set this variable to Y to search the plugins of a plugin type only when they are first needed, or to N to search
+   * all plugin types at start-up. When not set, Pan and Kitchen search lazily and the other clients don't.
+   */
+  public static final String KETTLE_LAZY_PLUGIN_TYPE_INIT = "KETTLE_LAZY_PLUGIN_TYPE_INIT";
+
+  /**
+   * Set this variable to Y to let the "Transformation Executor" step prepare its sub-transformation once and reuse it
+   * for every group of rows. This only happens when all the steps of the sub-transformation can be reset, see
+   * {@code StepInterface.resetForReuse()}. Otherwise a new transformation is started for every group, as is the
+   * default.
+   */
+  public static final String KETTLE_TRANS_EXECUTOR_REUSE_TRANS = "KETTLE_TRANS_EXECUTOR_REUSE_TRANS";
+
+  /**
+   * Set this variable to Y to splice the steps of the mappings into the transformation that uses them instead of
+   * running them as a sub-transformation, see {@code MappingInliner}. The inlined steps are named after the mapping
+   * step. Mappings that use parameters or that other steps refer to by name are still executed as a
+   * sub-transformation.
+   */
+  public static final String KETTLE_INLINE_MAPPINGS = "KETTLE_INLINE_MAPPINGS";
+
+  /**
+   * The maximum number of threads a job uses to run the job entries that are launched in parallel. Job entries that
+   * don't get a thread are run by the job entry waiting for them. When not set or 0, a job uses one thread per
+   * processor.
+   */
+  public static final String KETTLE_JOB_MAX_PARALLEL_ENTRIES = "KETTLE_JOB_MAX_PARALLEL_ENTRIES";
+
+  /**
+   * The maximum number of result rows a job entry or transformation keeps in memory. Additional rows are written to a
+   * temporary file and read back when they are needed, see {@code SpillableRowList}. When not set or 0, all result
+   * rows are kept in memory.
+   */
+  public static final String KETTLE_RESULT_ROWS_MAX_IN_MEMORY = "KETTLE_RESULT_ROWS_MAX_IN_MEMORY";
+
+  /**
+   * Set this variable to Y to keep the transformations and jobs that job entries and steps load from files or from a
+   * repository in a process-wide cache, see {@code MetaCache}. A cached transformation or job is loaded again once
+   * its file or repository object is modified.
+   */
+  public static final String KETTLE_USE_META_CACHE = "KETTLE_USE_META_CACHE";
+
   /**
    * Name of the environment variable that contains the size of the transformation rowset size. This overwrites values
    * that you set transformation settings.
@@ -156,7 +156,7 @@ public class Result implements Cloneable {
     result = false;
 
     exitStatus = 0;
-    rows = new ArrayList<RowMetaAndData>();
+    rows = new SpillableRowList();
     resultFiles = new ConcurrentHashMap<String, ResultFile>();
 
     stopped = false;
@@ -213,7 +213,9 @@ public class Result implements Cloneable {
       Result result = (Result) super.clone();
 
       // Clone result rows and files as well...
-      if ( rows != null ) {
+      if ( rows instanceof SpillableRowList ) {
+        result.setRows( ( (SpillableRowList) rows ).copy( true ) );
+      } else if ( rows != null ) {
         List<RowMetaAndData> clonedRows = new ArrayList<RowMetaAndData>();
         for ( int i = 0; i < rows.size(); i++ ) {
           clonedRows.add( ( rows.get( i ) ).clone() );
@@ -511,6 +513,21 @@ public class Result implements Cloneable {
     this.rows = rows;
   }
 
+  /**
+   * Sets the resulting rowset and releases the rows it replaces, see {@link #dispose()}. Use this rather than
+   * {@link #setRows(List)} when nothing else refers to the rows replaced.
+   *
+   * @param rows
+   *          The List of rows to set.
+   */
+  public void replaceRows( List<RowMetaAndData> rows ) {
+    List<RowMetaAndData> replaced = this.rows;
+    this.rows = rows;
+    if ( replaced != rows ) {
+      SpillableRowList.release( replaced );
+    }
+  }
+
   /**
    * Returns whether the transformation or job was stopped before completion
    *
@@ -530,6 +547,14 @@ public class Result implements Cloneable {
     this.stopped = stopped;
   }
 
+  /**
+   * Releases the rows of this result once they were passed on. Rows that were written to a temporary file are gone
+   * afterwards, the file is deleted unless a copy of the rows still uses it.
+   */
+  public void dispose() {
+    SpillableRowList.release( rows );
+  }
+
   /**
    * Clears the numbers in this result, setting them all to zero. Also deletes the logging text
    */
@@ -0,0 +1,461 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2021 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.pentaho.di.core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.apache.commons.vfs2.FileObject;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.util.EnvUtil;
+import org.pentaho.di.core.vfs.KettleVFS;
+
+/**
+ * A list of rows that keeps a limited number of rows in memory. Once the limit is reached, the rows in memory are
+ * written to a temporary file in the binary row format and read back when the list is iterated. The limit is taken
+ * from the {@link Const#KETTLE_RESULT_ROWS_MAX_IN_MEMORY} variable, without it all rows stay in memory and the list
+ * behaves like an {@link ArrayList}.
+ * <p>
+ * The rows that were written to disk can't be replaced or removed, only rows can be added after them. Copies of the
+ * list share the temporary file and read back new row objects from it. Iterating the list streams the rows from
+ * disk, {@link #get(int)} only does so efficiently as long as the rows are fetched in ascending order.
+ * <p>
+ * A list that is no longer needed should be closed, see {@link #close()}: the temporary file is deleted as soon as the
+ * last list using it is closed or cleared.
+ *
+ * @see Result#getRows()
+ */
+public class SpillableRowList extends AbstractList<RowMetaAndData> {
+
+  private static final String TEMP_FILE_PREFIX = "result_rows";
+
+  private final int maxRowsInMemory;
+
+  /** The last rows of the list, the ones that were not written to disk */
+  private List<RowMetaAndData> memory;
+
+  /** The file holding the first rows of the list, shared with the copies of this list */
+  private SpillFile spillFile;
+
+  /** The number of rows of the spill file that belong to this list */
+  private int spilledRows;
+
+  /** Reads the spilled rows for {@link #get(int)} */
+  private RowReader cursor;
+
+  /** The readers of the spill file opened by this list and its iterators that were not closed yet */
+  private final List<RowReader> readers = new ArrayList<RowReader>();
+
+  public SpillableRowList() {
+    this( Const.toInt( EnvUtil.getSystemProperty( Const.KETTLE_RESULT_ROWS_MAX_IN_MEMORY ), 0 ) );
+  }
+
+  /**
+   * @param maxRowsInMemory
+   *          the number of rows kept in memory before they are written to disk, 0 to keep all rows in memory
+   */
+  public SpillableRowList( int maxRowsInMemory ) {
+    this.maxRowsInMemory = maxRowsInMemory;
+    this.memory = new ArrayList<RowMetaAndData>();
+  }
+
+  /**
+   * Copies a list of result rows. Unlike {@code new ArrayList<>( rows )} this doesn't read the rows of a spillable list
+   * into memory.
+   *
+   * @param rows
+   *          the rows to copy
+   * @return a list with the same rows
+   */
+  public static List<RowMetaAndData> copyOf( List<RowMetaAndData> rows ) {
+    if ( rows instanceof SpillableRowList ) {
+      return ( (SpillableRowList) rows ).copy( false );
+    }
+    return new ArrayList<RowMetaAndData>( rows );
+  }
+
+  /**
+   * Closes a list of result rows if it is a spillable list, see {@link #close()}.
+   *
+   * @param rows
+   *          the rows to release, can be null
+   */
+  public static void release( List<RowMetaAndData> rows ) {
+    if ( rows instanceof SpillableRowList ) {
+      ( (SpillableRowList) rows ).close();
+    }
+  }
+
+  /**
+   * Copies this list. The rows on disk are not copied, the copy reads them back from the same file.
+   *
+   * @param cloneRows
+   *          true to clone the rows held in memory, false to have the copy refer to the same row objects
+   * @return the copy
+   */
+  public SpillableRowList copy( boolean cloneRows ) {
+    SpillableRowList copy = new SpillableRowList( maxRowsInMemory );
+    if ( spillFile != null ) {
+      spillFile.retain();
+    }
+    copy.spillFile = spillFile;
+    copy.spilledRows = spilledRows;
+    for ( RowMetaAndData row : memory ) {
+      copy.memory.add( cloneRows ? row.clone() : row );
+    }
+    return copy;
+  }
+
+  /**
+   * @return true if some of the rows of this list were written to disk
+   */
+  public boolean isSpilled() {
+    return spilledRows > 0;
+  }
+
+  @Override
+  public int size() {
+    return spilledRows + memory.size();
+  }
+
+  @Override
+  public RowMetaAndData get( int index ) {
+    if ( index < 0 || index >= size() ) {
+      throw new IndexOutOfBoundsException( "Index: " + index + ", Size: " + size() );
+    }
+    if ( index >= spilledRows ) {
+      return memory.get( index - spilledRows );
+    }
+    try {
+      if ( cursor == null || cursor.position > index ) {
+        closeCursor();
+        cursor = openReader();
+      }
+      RowMetaAndData row;
+      do {
+        row = cursor.next();
+      } while ( cursor.position <= index );
+      if ( cursor.position == spilledRows ) {
+        closeCursor();
+      }
+      return row;
+    } catch ( KettleException | IOException e ) {
+      throw new RuntimeException( "Unable to read back result row " + index + " from disk", e );
+    }
+  }
+
+  @Override
+  public boolean add( RowMetaAndData row ) {
+    if ( maxRowsInMemory > 0 && memory.size() >= maxRowsInMemory ) {
+      spill();
+    }
+    memory.add( row );
+    modCount++;
+    return true;
+  }
+
+  @Override
+  public void add( int index, RowMetaAndData row ) {
+    if ( index == size() ) {
+      add( row );
+    } else {
+      memory.add( memoryIndex( index ), row );
+      modCount++;
+    }
+  }
+
+  @Override
+  public RowMetaAndData set( int index, RowMetaAndData row ) {
+    return memory.set( memoryIndex( index ), row );
+  }
+
+  @Override
+  public RowMetaAndData remove( int index ) {
+    RowMetaAndData row = memory.remove( memoryIndex( index ) );
+    modCount++;
+    return row;
+  }
+
+  @Override
+  public void clear() {
+    close();
+  }
+
+  /**
+   * Removes all the rows and gives up the temporary file: the readers opened on it are closed and the file is deleted
+   * unless a copy of this list still uses it. The list can still be used afterwards, it is empty.
+   */
+  public void close() {
+    closeReaders();
+    if ( spillFile != null ) {
+      spillFile.release();
+      spillFile = null;
+    }
+    spilledRows = 0;
+    memory.clear();
+    modCount++;
+  }
+
+  @Override
+  public Iterator<RowMetaAndData> iterator() {
+    return new RowIterator();
+  }
+
+  private int memoryIndex( int index ) {
+    if ( index < spilledRows && index >= 0 ) {
+      throw new UnsupportedOperationException( "Result row " + index + " was written to disk and can't be modified" );
+    }
+    return index - spilledRows;
+  }
+
+  private void spill() {
+    closeReaders();
+    try {
+      if ( spillFile == null ) {
+        spillFile = new SpillFile();
+      }
+      if ( !spillFile.append( spilledRows, memory ) ) {
+        // A copy of this list added rows of its own to the file, continue in a file of our own
+        //
+        SpillFile copy = new SpillFile();
+        RowReader reader = new RowReader( spillFile );
+        try {
+          List<RowMetaAndData> rows = new ArrayList<RowMetaAndData>();
+          for ( int i = 0; i < spilledRows; i++ ) {
+            rows.add( reader.next() );
+            if ( rows.size() >= maxRowsInMemory ) {
+              copy.append( copy.nrRows, rows );
+              rows.clear();
+            }
+          }
+          copy.append( copy.nrRows, rows );
+        } finally {
+          reader.close();
+        }
+        copy.append( spilledRows, memory );
+        spillFile.release();
+        spillFile = copy;
+      }
+      spilledRows += memory.size();
+      memory.clear();
+    } catch ( KettleException | IOException e ) {
+      throw new RuntimeException( "Unable to write result rows to disk", e );
+    }
+  }
+
+  private RowReader openReader() throws KettleException, IOException {
+    RowReader reader = new RowReader( spillFile );
+    readers.add( reader );
+    return reader;
+  }
+
+  private void closeReader( RowReader reader ) {
+    reader.close();
+    readers.remove( reader );
+  }
+
+  private void closeCursor() {
+    if ( cursor != null ) {
+      closeReader( cursor );
+      cursor = null;
+    }
+  }
+
+  private void closeReaders() {
+    for ( RowReader reader : readers ) {
+      reader.close();
+    }
+    readers.clear();
+    cursor = null;
+  }
+
+  /**
+   * A temporary file the rows are appended to. A row is written as a flag telling whether its metadata is different
+   * from the one of the previous row, the metadata if it is, and the data. The file counts the lists using it and is
+   * deleted when the last one releases it.
+   */
+  private static class SpillFile {
+    private final FileObject fileObject;
+    private final DataOutputStream outputStream;
+    private RowMetaInterface lastRowMeta;
+    private int nrRows;
+    private int references = 1;
+
+    SpillFile() throws KettleException {
+      fileObject = KettleVFS.createTempFile( TEMP_FILE_PREFIX, KettleVFS.Suffix.TMP );
+      outputStream =
+        new DataOutputStream( new BufferedOutputStream( KettleVFS.getOutputStream( fileObject, false ), 500000 ) );
+    }
+
+    /**
+     * Appends rows to the file if it holds the expected number of rows.
+     *
+     * @return false if the file doesn't hold the expected number of rows, nothing is written in that case
+     */
+    synchronized boolean append( int expectedNrRows, List<RowMetaAndData> rows ) throws KettleException,
+      IOException {
+      if ( nrRows != expectedNrRows ) {
+        return false;
+      }
+      for ( RowMetaAndData row : rows ) {
+        RowMetaInterface rowMeta = row.getRowMeta();
+        if ( rowMeta != lastRowMeta ) {
+          outputStream.writeBoolean( true );
+          rowMeta.writeMeta( outputStream );
+          lastRowMeta = rowMeta;
+        } else {
+          outputStream.writeBoolean( false );
+        }
+        rowMeta.writeData( outputStream, row.getData() );
+        nrRows++;
+      }
+      return true;
+    }
+
+    synchronized DataInputStream openInputStream() throws KettleException, IOException {
+      if ( references == 0 ) {
+        throw new IOException( "The result rows file " + fileObject.getName() + " was already deleted" );
+      }
+      outputStream.flush();
+      return new DataInputStream( new BufferedInputStream( KettleVFS.getInputStream( fileObject ), 50000 ) );
+    }
+
+    synchronized void retain() {
+      references++;
+    }
+
+    synchronized void release() {
+      if ( references > 0 && --references == 0 ) {
+        delete();
+      }
+    }
+
+    private void delete() {
+      try {
+        outputStream.close();
+      } catch ( IOException e ) {
+        // Ignore errors
+      }
+      try {
+        fileObject.delete();
+      } catch ( IOException e ) {
+        // Ignore errors
+      }
+    }
+
+    /**
+     * Last resort for lists that were never closed, the file is normally deleted by {@link #release()}.
+     */
+    @Override
+    protected void finalize() throws Throwable {
+      try {
+        if ( references > 0 ) {
+          references = 0;
+          delete();
+        }
+      } finally {
+        super.finalize();
+      }
+    }
+  }
+
+  private static class RowReader {
+    private final DataInputStream inputStream;
+    private RowMetaInterface rowMeta;
+    private int position;
+
+    RowReader( SpillFile spillFile ) throws KettleException, IOException {
+      this.inputStream = spillFile.openInputStream();
+    }
+
+    RowMetaAndData next() throws KettleException, IOException {
+      if ( inputStream.readBoolean() ) {
+        rowMeta = new RowMeta( inputStream );
+      }
+      Object[] data = rowMeta.readData( inputStream );
+      position++;
+      return new RowMetaAndData( rowMeta, data );
+    }
+
+    void close() {
+      try {
+        inputStream.close();
+      } catch ( IOException e ) {
+        // Ignore errors
+      }
+    }
+  }
+
+  private class RowIterator implements Iterator<RowMetaAndData> {
+    private final int nrSpilledRows = spilledRows;
+    private int position;
+    private RowReader reader;
+    private int expectedModCount = modCount;
+
+    @Override
+    public boolean hasNext() {
+      return position < size();
+    }
+
+    @Override
+    public RowMetaAndData next() {
+      if ( modCount != expectedModCount ) {
+        throw new ConcurrentModificationException();
+      }
+      if ( position >= size() ) {
+        throw new NoSuchElementException();
+      }
+      RowMetaAndData row;
+      if ( position < nrSpilledRows ) {
+        try {
+          if ( reader == null ) {
+            reader = openReader();
+          }
+          row = reader.next();
+        } catch ( KettleException | IOException e ) {
+          throw new RuntimeException( "Unable to read back result row " + position + " from disk", e );
+        }
+        if ( reader.position == nrSpilledRows ) {
+          closeReader( reader );
+          reader = null;
+        }
+      } else {
+        row = memory.get( position - nrSpilledRows );
+      }
+      position++;
+      return row;
+    }
+  }
+}
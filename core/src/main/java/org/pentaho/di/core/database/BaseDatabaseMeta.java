@@ -266,7 +266,15 @@ public abstract class BaseDatabaseMeta implements Cloneable, DatabaseInterfaceEx
       "logAbandoned", "false",
       "Flag to log stack traces for application code which abandoned a Statement or Connection.\n"
         + "Logging of abandoned Statements and Connections adds overhead for every Connection open or "
-        + "new Statement because a stack trace has to be generated." ), };
+        + "new Statement because a stack trace has to be generated." ),
+    new DatabaseConnectionPoolParameter(
+      "poolImplementation", "dbcp",
+      "The connection pool implementation to use: dbcp (the default) or fast.\n"
+        + "The fast pool hands out connections without locking and pre-creates the initial connections." ),
+    new DatabaseConnectionPoolParameter(
+      "leakDetectionThreshold", "0",
+      "Only used by the fast pool: the number of milliseconds a connection can be in use before it is logged "
+        + "as a possible leak, together with the stack trace of the code that obtained it. 0 disables leak detection." ), };
 
   private static final String FIELDNAME_PROTECTOR = "_";
 
@@ -1765,6 +1773,52 @@ public abstract class BaseDatabaseMeta implements Cloneable, DatabaseInterfaceEx
     return "insert into " + schemaTable + "(" + keyField + ", " + versionField + ") values (0, 1)";
   }
 
+  /**
+   * Builds a standard SQL:2003 MERGE statement for the databases that support it. Subclasses can return the result of
+   * this method from {@link #getSQLMergeFromTable(String, String, String[], String[], String[])}.
+   *
+   * @return the MERGE statement applying the staging table to the target table.
+   */
+  protected String getSQLAnsiMergeFromTable( String schemaTable, String stagingSchemaTable, String[] keyColumns,
+    String[] insertColumns, String[] updateColumns ) {
+    StringBuilder sql = new StringBuilder( 256 );
+    sql.append( "MERGE INTO " ).append( schemaTable ).append( " t USING " ).append( stagingSchemaTable )
+      .append( " s ON ( " );
+    for ( int i = 0; i < keyColumns.length; i++ ) {
+      if ( i > 0 ) {
+        sql.append( " AND " );
+      }
+      sql.append( "t." ).append( keyColumns[i] ).append( " = s." ).append( keyColumns[i] );
+    }
+    sql.append( " )" ).append( Const.CR );
+    if ( updateColumns.length > 0 ) {
+      sql.append( "WHEN MATCHED THEN UPDATE SET " );
+      for ( int i = 0; i < updateColumns.length; i++ ) {
+        if ( i > 0 ) {
+          sql.append( ", " );
+        }
+        sql.append( updateColumns[i] ).append( " = s." ).append( updateColumns[i] );
+      }
+      sql.append( Const.CR );
+    }
+    sql.append( "WHEN NOT MATCHED THEN INSERT ( " );
+    for ( int i = 0; i < insertColumns.length; i++ ) {
+      if ( i > 0 ) {
+        sql.append( ", " );
+      }
+      sql.append( insertColumns[i] );
+    }
+    sql.append( " ) VALUES ( " );
+    for ( int i = 0; i < insertColumns.length; i++ ) {
+      if ( i > 0 ) {
+        sql.append( ", " );
+      }
+      sql.append( "s." ).append( insertColumns[i] );
+    }
+    sql.append( " )" );
+    return sql.toString();
+  }
+
   /**
    * @return true if this is a relational database you can explore. Return false for SAP, PALO, etc.
    */
@@ -0,0 +1,59 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2021 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * A pool of database connections as managed by {@link ConnectionPoolUtil}. Connections handed out by the pool are
+ * given back by closing them.
+ */
+public interface ConnectionPoolInterface {
+
+  /**
+   * Borrows a connection from the pool, waiting for one to be returned if the pool is exhausted.
+   *
+   * @return the connection
+   * @throws SQLException in case no connection could be obtained
+   */
+  Connection getConnection() throws SQLException;
+
+  /**
+   * @return the number of connections currently handed out by the pool
+   */
+  int getNumActive();
+
+  /**
+   * @return the number of connections currently waiting in the pool to be handed out
+   */
+  int getNumIdle();
+
+  /**
+   * Closes all idle connections and releases the resources of the pool.
+   *
+   * @throws SQLException in case the pool couldn't be closed properly
+   */
+  void close() throws SQLException;
+}
@@ -30,12 +30,17 @@ import org.pentaho.di.core.database.util.DatabaseUtil;
 import org.pentaho.di.core.encryption.Encr;
 import org.pentaho.di.core.exception.KettleDatabaseException;
 import org.pentaho.di.core.logging.LogChannelInterface;
+import org.pentaho.di.core.logging.Metrics;
 import org.pentaho.di.i18n.BaseMessages;
 
-import javax.sql.DataSource;
-
 import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -63,27 +68,30 @@ public class ConnectionPoolUtil {
   public static final String REMOVE_ABANDONED = "removeAbandoned";
   public static final String REMOVE_ABANDONED_TIMEOUT = "removeAbandonedTimeout";
   public static final String LOG_ABANDONED = "logAbandoned";
+  public static final String POOL_IMPLEMENTATION = "poolImplementation";
+  public static final String LEAK_DETECTION_THRESHOLD = "leakDetectionThreshold";
+
+  /** The commons-dbcp connection pool, the default */
+  public static final String POOL_IMPLEMENTATION_DBCP = "dbcp";
+
+  /** The light-weight {@link FastConnectionPool} */
+  public static final String POOL_IMPLEMENTATION_FAST = "fast";
+
   private static Class<?> PKG = Database.class; // for i18n purposes, needed by Translator2!!
 
-  private static ConcurrentMap<String, BasicDataSource> dataSources = new ConcurrentHashMap<String, BasicDataSource>();
+  private static ConcurrentMap<String, ConnectionPoolInterface> dataSources =
+    new ConcurrentHashMap<String, ConnectionPoolInterface>();
+
+  // PDI-12947: a pool is only created once. Creation is locked per pool so that steps connecting to different
+  // databases don't wait for each other. A lock is dropped once its pool exists: from then on nobody takes it.
+  private static final ConcurrentMap<String, ReentrantLock> locks = new ConcurrentHashMap<String, ReentrantLock>();
 
-  // PDI-12947
-  private static final ReentrantLock lock = new ReentrantLock();
+  // The data source name contains the password, so pools are reported under the connection name
+  private static final Map<String, String> poolNames = new HashMap<String, String>();
 
   public static final int defaultInitialNrOfConnections = 5;
   public static final int defaultMaximumNrOfConnections = 10;
 
-  private static boolean isDataSourceRegistered( DatabaseMeta dbMeta, String partitionId )
-    throws KettleDatabaseException {
-    try {
-      String name = getDataSourceName( dbMeta, partitionId );
-      return dataSources.containsKey( name );
-    } catch ( Exception e ) {
-      throw new KettleDatabaseException( BaseMessages.getString( PKG,
-          "Database.UnableToCheckIfConnectionPoolExists.Exception" ), e );
-    }
-  }
-
   public static Connection getConnection( LogChannelInterface log, DatabaseMeta dbMeta, String partitionId )
     throws Exception {
     return getConnection( log, dbMeta, partitionId, dbMeta.getInitialPoolSize(), dbMeta.getMaximumPoolSize() );
@@ -91,16 +99,84 @@ public class ConnectionPoolUtil {
 
   public static Connection getConnection( LogChannelInterface log, DatabaseMeta dbMeta, String partitionId,
       int initialSize, int maximumSize ) throws Exception {
-    lock.lock();
-    try {
-      if ( !isDataSourceRegistered( dbMeta, partitionId ) ) {
-        addPoolableDataSource( log, dbMeta, partitionId, initialSize, maximumSize );
+    String name = getDataSourceName( dbMeta, partitionId );
+    ConnectionPoolInterface pool = dataSources.get( name );
+    if ( pool == null ) {
+      ReentrantLock lock = locks.computeIfAbsent( name, key -> new ReentrantLock() );
+      lock.lock();
+      try {
+        pool = dataSources.get( name );
+        if ( pool == null ) {
+          pool = addPoolableDataSource( log, dbMeta, partitionId, initialSize, maximumSize );
+        }
+      } finally {
+        // Threads still waiting for the lock find the pool once they get it. The lock is kept when the pool couldn't
+        // be created, so the next attempts still take turns.
+        if ( dataSources.containsKey( name ) ) {
+          locks.remove( name, lock );
+        }
+        lock.unlock();
       }
-    } finally {
-      lock.unlock();
     }
-    BasicDataSource ds = dataSources.get( getDataSourceName( dbMeta, partitionId ) );
-    return ds.getConnection();
+
+    long startTime = System.currentTimeMillis();
+    Connection connection = pool.getConnection();
+    if ( log.isGatheringMetrics() ) {
+      long waitTime = System.currentTimeMillis() - startTime;
+      String subject = dbMeta.getName();
+      log.snap( Metrics.METRIC_DATABASE_POOL_GET_CONNECTION_COUNT, subject );
+      log.snap( Metrics.METRIC_DATABASE_POOL_WAIT_TIME_SUM, subject, waitTime );
+      log.snap( Metrics.METRIC_DATABASE_POOL_WAIT_TIME_MAX, subject, waitTime );
+      log.snap( Metrics.METRIC_DATABASE_POOL_ACTIVE_MAX, subject, pool.getNumActive() );
+      log.snap( Metrics.METRIC_DATABASE_POOL_IDLE_MIN, subject, pool.getNumIdle() );
+    }
+    return connection;
+  }
+
+  /**
+   * Returns the pool for the given database connection and partition, if it was created already.
+   *
+   * @param dbMeta
+   *          the database connection
+   * @param partitionId
+   *          the partition ID or null
+   * @return the connection pool or null if there isn't any
+   */
+  public static ConnectionPoolInterface getConnectionPool( DatabaseMeta dbMeta, String partitionId ) {
+    return dataSources.get( getDataSourceName( dbMeta, partitionId ) );
+  }
+
+  /**
+   * Returns all connection pools created so far, by connection name (and partition). If several pools were created
+   * for the same connection, for example with different credentials, a sequence number is appended to the name.
+   *
+   * @return the connection pools by name
+   */
+  public static Map<String, ConnectionPoolInterface> getConnectionPools() {
+    Map<String, ConnectionPoolInterface> pools = new HashMap<String, ConnectionPoolInterface>();
+    synchronized ( poolNames ) {
+      for ( Map.Entry<String, ConnectionPoolInterface> entry : dataSources.entrySet() ) {
+        String poolName = poolNames.get( entry.getKey() );
+        if ( poolName != null ) {
+          pools.put( poolName, entry.getValue() );
+        }
+      }
+    }
+    return Collections.unmodifiableMap( pools );
+  }
+
+  private static void registerPoolName( String dataSourceName, String poolName ) {
+    synchronized ( poolNames ) {
+      if ( poolNames.containsKey( dataSourceName ) ) {
+        return;
+      }
+      String uniqueName = poolName;
+      int nr = 2;
+      while ( poolNames.containsValue( uniqueName ) ) {
+        uniqueName = poolName + " #" + nr++;
+      }
+      poolNames.put( dataSourceName, uniqueName );
+    }
   }
 
   // BACKLOG-674
@@ -273,13 +349,104 @@ public class ConnectionPoolUtil {
 
   }
 
+  @VisibleForTesting
+  static FastConnectionPool createFastConnectionPool( LogChannelInterface log, DatabaseMeta databaseMeta,
+      String partitionId, int initialSize, int maximumSize ) throws KettleDatabaseException {
+    Properties properties = new Properties( databaseMeta.getConnectionPoolingProperties() );
+    properties = environmentSubstitute( properties, databaseMeta );
+
+    String url = databaseMeta.environmentSubstitute( databaseMeta.getURL( partitionId ) );
+    String userName = databaseMeta.environmentSubstitute( databaseMeta.getUsername() );
+    String password = Encr.decryptPasswordOptionallyEncrypted(
+      databaseMeta.environmentSubstitute( databaseMeta.getPassword() ) );
+    Properties connectionProperties = new Properties();
+    connectionProperties.put( "user", Const.NVL( userName, "" ) );
+    connectionProperties.put( "password", Const.NVL( password, "" ) );
+
+    String value = properties.getProperty( MAX_ACTIVE );
+    if ( !Utils.isEmpty( value ) ) {
+      maximumSize = Integer.valueOf( value );
+    }
+    value = properties.getProperty( INITIAL_SIZE );
+    if ( !Utils.isEmpty( value ) ) {
+      initialSize = Integer.valueOf( value );
+    }
+
+    FastConnectionPool pool = new FastConnectionPool( databaseMeta.getName(),
+      getDriver( databaseMeta, url ), url, connectionProperties, maximumSize, log );
+
+    value = properties.getProperty( MAX_IDLE );
+    if ( !Utils.isEmpty( value ) ) {
+      pool.setMaxIdle( Integer.valueOf( value ) );
+    }
+    value = properties.getProperty( MAX_WAIT );
+    if ( !Utils.isEmpty( value ) ) {
+      pool.setMaxWait( Long.valueOf( value ) );
+    }
+    value = properties.getProperty( VALIDATION_QUERY );
+    if ( !Utils.isEmpty( value ) ) {
+      pool.setValidationQuery( value );
+    }
+    value = properties.getProperty( TEST_ON_BORROW );
+    if ( !Utils.isEmpty( value ) ) {
+      pool.setTestOnBorrow( Boolean.valueOf( value ) );
+    }
+    value = properties.getProperty( DEFAULT_AUTO_COMMIT );
+    if ( !Utils.isEmpty( value ) ) {
+      pool.setDefaultAutoCommit( Boolean.valueOf( value ) );
+    }
+    value = properties.getProperty( DEFAULT_READ_ONLY );
+    if ( !Utils.isEmpty( value ) ) {
+      pool.setDefaultReadOnly( Boolean.valueOf( value ) );
+    }
+    value = properties.getProperty( DEFAULT_TRANSACTION_ISOLATION );
+    if ( !Utils.isEmpty( value ) ) {
+      pool.setDefaultTransactionIsolation( Integer.valueOf( value ) );
+    }
+    value = properties.getProperty( DEFAULT_CATALOG );
+    if ( !Utils.isEmpty( value ) ) {
+      pool.setDefaultCatalog( value );
+    }
+    value = properties.getProperty( LEAK_DETECTION_THRESHOLD );
+    if ( !Utils.isEmpty( value ) ) {
+      pool.setLeakDetectionThreshold( Long.valueOf( value ) );
+    }
+
+    try {
+      pool.prefill( initialSize );
+    } catch ( SQLException e ) {
+      throw new KettleDatabaseException( BaseMessages.getString( PKG,
+          "Database.UnableToPreLoadConnectionToConnectionPool.Exception" ), e );
+    }
+    return pool;
+  }
+
+  private static Driver getDriver( DatabaseMeta databaseMeta, String url ) throws KettleDatabaseException {
+    String clazz = databaseMeta.getDriverClass();
+    try {
+      ClassLoader classLoader = databaseMeta.getDatabaseInterface() != null
+        ? databaseMeta.getDatabaseInterface().getClass().getClassLoader()
+        : ConnectionPoolUtil.class.getClassLoader();
+      Class<?> driverClass = Class.forName( clazz, true, classLoader );
+      try {
+        return DriverManager.getDriver( url );
+      } catch ( SQLException e ) {
+        // The driver isn't visible to the DriverManager from here, use it directly
+        return (Driver) driverClass.newInstance();
+      }
+    } catch ( Exception e ) {
+      throw new KettleDatabaseException( BaseMessages.getString( PKG,
+          "Database.Exception.UnableToFindClassMissingDriver", clazz, databaseMeta.getPluginId() ), e );
+    }
+  }
+
   /**
    * This method verifies that it's possible to get connection fron a datasource
    *
    * @param ds
    * @throws KettleDatabaseException
    */
-  private static void testDataSource( DataSource ds ) throws KettleDatabaseException {
+  private static void testDataSource( ConnectionPoolInterface ds ) throws KettleDatabaseException {
     Connection conn = null;
     try {
       conn = ds.getConnection();
@@ -301,22 +468,34 @@ public class ConnectionPoolUtil {
    * @param maximumSize
    * @throws KettleDatabaseException
    */
-  private static void addPoolableDataSource( LogChannelInterface log, DatabaseMeta databaseMeta, String partitionId,
-      int initialSize, int maximumSize ) throws KettleDatabaseException {
+  private static ConnectionPoolInterface addPoolableDataSource( LogChannelInterface log, DatabaseMeta databaseMeta,
+      String partitionId, int initialSize, int maximumSize ) throws KettleDatabaseException {
     if ( log.isBasic() ) {
       log.logBasic( BaseMessages.getString( PKG, "Database.CreatingConnectionPool", databaseMeta.getName() ) );
     }
 
-    BasicDataSource ds = new BasicDataSource();
-    configureDataSource( ds, databaseMeta, partitionId, initialSize, maximumSize );
+    ConnectionPoolInterface ds;
+    Properties poolingProperties = new Properties( databaseMeta.getConnectionPoolingProperties() );
+    String implementation = databaseMeta.environmentSubstitute( poolingProperties.getProperty( POOL_IMPLEMENTATION ) );
+    if ( POOL_IMPLEMENTATION_FAST.equalsIgnoreCase( implementation ) ) {
+      ds = createFastConnectionPool( log, databaseMeta, partitionId, initialSize, maximumSize );
+    } else {
+      BasicDataSource basicDataSource = new BasicDataSource();
+      configureDataSource( basicDataSource, databaseMeta, partitionId, initialSize, maximumSize );
+      ds = new DbcpConnectionPool( basicDataSource );
+    }
     // check if datasource is valid
     testDataSource( ds );
     // register data source
-    dataSources.put( getDataSourceName( databaseMeta, partitionId ), ds );
+    String dataSourceName = getDataSourceName( databaseMeta, partitionId );
+    registerPoolName( dataSourceName,
+      databaseMeta.getName() + ( Utils.isEmpty( partitionId ) ? "" : "/" + partitionId ) );
+    dataSources.put( dataSourceName, ds );
 
     if ( log.isBasic() ) {
       log.logBasic( BaseMessages.getString( PKG, "Database.CreatedConnectionPool", databaseMeta.getName() ) );
     }
+    return ds;
   }
 
   protected static String buildPoolName( DatabaseMeta dbMeta, String partitionId ) {
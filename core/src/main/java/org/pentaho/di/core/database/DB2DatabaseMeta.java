@@ -469,4 +469,10 @@ public class DB2DatabaseMeta extends BaseDatabaseMeta implements DatabaseInterfa
   public boolean supportsOptionsInURL() {
     return false;
   }
+
+  @Override
+  public String getSQLMergeFromTable( String schemaTable, String stagingSchemaTable, String[] keyColumns,
+    String[] insertColumns, String[] updateColumns ) {
+    return getSQLAnsiMergeFromTable( schemaTable, stagingSchemaTable, keyColumns, insertColumns, updateColumns );
+  }
 }
@@ -131,6 +131,17 @@ public class Database implements VariableSpace, LoggingObjectInterface, Closeabl
 
   private static final Map<String, Set<String>> registeredDrivers = new HashMap<>();
 
+  /**
+   * The approximate number of bytes a single round trip of a streamed result set should transfer when the fetch size
+   * is adapted to the width of the rows.
+   */
+  static final int ADAPTIVE_FETCH_BUFFER_SIZE = 4 * 1024 * 1024;
+
+  /**
+   * The smallest fetch size handed to the driver when the fetch size is adapted to the width of the rows.
+   */
+  static final int ADAPTIVE_FETCH_SIZE_MINIMUM = 100;
+
   private DatabaseMeta databaseMeta;
 
   private static final String DATA_SERVICES_PLUGIN_ID = "KettleThin";
@@ -138,6 +149,9 @@ public class Database implements VariableSpace, LoggingObjectInterface, Closeabl
   private int rowlimit;
   private int commitsize;
 
+  /** true if openQuery() switched off auto-commit to stream a result set, closeQuery() switches it on again */
+  private boolean autoCommitDisabledForStreaming;
+
   private Connection connection;
 
   private Statement selStmt;
@@ -675,6 +689,13 @@ public class Database implements VariableSpace, LoggingObjectInterface, Closeabl
       }
       pstmtSeq = null;
     }
+    try {
+      restoreAutoCommitAfterStreaming();
+    } catch ( SQLException ex ) {
+      // cannot do anything about this but log it
+      log.logError( "Error enabling auto-commit:" + Const.CR + ex.getMessage() );
+      log.logError( Const.getStackTracker( ex ) );
+    }
 
     // See if there are other steps using this connection in a connection
     // group.
@@ -784,6 +805,8 @@ public class Database implements VariableSpace, LoggingObjectInterface, Closeabl
     commitsize = commsize;
     String onOff = ( commitsize <= 0 ? "on" : "off" );
     try {
+      // The caller decides about auto-commit from now on, closing a streamed query must not change it back
+      autoCommitDisabledForStreaming = false;
       connection.setAutoCommit( commitsize <= 0 );
       if ( log.isDetailed() ) {
         log.logDetailed( "Auto commit " + onOff );
@@ -797,6 +820,7 @@ public class Database implements VariableSpace, LoggingObjectInterface, Closeabl
 
   public void setAutoCommit( boolean useAutoCommit ) throws KettleDatabaseException {
     try {
+      autoCommitDisabledForStreaming = false;
       connection.setAutoCommit( useAutoCommit );
     } catch ( SQLException e ) {
       if ( useAutoCommit ) {
@@ -1726,7 +1750,7 @@ public class Database implements VariableSpace, LoggingObjectInterface, Closeabl
 
         if ( canWeSetFetchSize( pstmt ) ) {
           int maxRows = pstmt.getMaxRows();
-          int fs = Const.FETCH_SIZE <= maxRows ? maxRows : Const.FETCH_SIZE;
+          int fs = getQueryFetchSize( maxRows );
           if ( databaseMeta.isMySQLVariant() ) {
             setMysqlFetchSize( pstmt, fs, maxRows );
           } else {
@@ -1734,6 +1758,7 @@ public class Database implements VariableSpace, LoggingObjectInterface, Closeabl
           }
 
           pstmt.setFetchDirection( fetchMode );
+          disableAutoCommitForStreaming();
         }
 
         if ( rowlimit > 0 && databaseMeta.supportsSetMaxRows() ) {
@@ -1748,14 +1773,9 @@ public class Database implements VariableSpace, LoggingObjectInterface, Closeabl
         selStmt = connection.createStatement();
         log.snap( Metrics.METRIC_DATABASE_CREATE_SQL_STOP, databaseMeta.getName() );
         if ( canWeSetFetchSize( selStmt ) ) {
-          int fs = Const.FETCH_SIZE <= selStmt.getMaxRows() ? selStmt.getMaxRows() : Const.FETCH_SIZE;
-          if ( databaseMeta.getDatabaseInterface().isMySQLVariant()
-            && databaseMeta.isStreamingResults() ) {
-            selStmt.setFetchSize( Integer.MIN_VALUE );
-          } else {
-            selStmt.setFetchSize( fs );
-          }
+          selStmt.setFetchSize( getQueryFetchSize( selStmt.getMaxRows() ) );
           selStmt.setFetchDirection( fetchMode );
+          disableAutoCommitForStreaming();
         }
         if ( rowlimit > 0 && databaseMeta.supportsSetMaxRows() ) {
           selStmt.setMaxRows( rowlimit );
@@ -1772,6 +1792,8 @@ public class Database implements VariableSpace, LoggingObjectInterface, Closeabl
       // of Strings in result rows.
       //
       rowMeta = getRowInfo( res.getMetaData(), databaseMeta.isMySQLVariant(), lazyConversion );
+
+      adaptFetchSize( res, rowMeta );
     } catch ( SQLException ex ) {
       throw new KettleDatabaseException( "An error occurred executing SQL: " + Const.CR + sql, ex );
     } catch ( Exception e ) {
@@ -1785,9 +1807,94 @@ public class Database implements VariableSpace, LoggingObjectInterface, Closeabl
 
   private boolean canWeSetFetchSize( Statement statement ) throws SQLException {
     return databaseMeta.isFetchSizeSupported()
-      && ( statement.getMaxRows() > 0
-      || databaseMeta.getDatabaseInterface() instanceof PostgreSQLDatabaseMeta
-      || ( databaseMeta.isMySQLVariant() && databaseMeta.isStreamingResults() ) );
+      && ( statement.getMaxRows() > 0 || databaseMeta.getStreamingFetchSize() != 0 );
+  }
+
+  /**
+   * Gets the fetch size of a query before it is executed: the streaming fetch size of the database, or
+   * Const.FETCH_SIZE if the database has none, raised to the maximum number of rows of the statement.
+   */
+  private int getQueryFetchSize( int maxRows ) {
+    int fs = databaseMeta.getStreamingFetchSize();
+    if ( fs == 0 ) {
+      fs = Const.FETCH_SIZE;
+    } else if ( fs < 0 ) {
+      // Drivers streaming row by row (MySQL) are given the value as is
+      return fs;
+    }
+    return fs <= maxRows ? maxRows : fs;
+  }
+
+  /**
+   * Some drivers only stream a result set while auto-commit is off and read it into memory completely otherwise.
+   * Auto-commit is switched off until the query is closed, but only when it was on: a connection that is already in a
+   * transaction streams anyway and its transaction is left alone.
+   */
+  private void disableAutoCommitForStreaming() throws SQLException {
+    if ( databaseMeta.isStreamingRequiringNoAutoCommit() && !autoCommitDisabledForStreaming
+      && connection.getAutoCommit() ) {
+      connection.setAutoCommit( false );
+      autoCommitDisabledForStreaming = true;
+    }
+  }
+
+  /**
+   * Puts auto-commit back on if openQuery() switched it off and nobody changed it since.
+   */
+  private void restoreAutoCommitAfterStreaming() throws SQLException {
+    if ( autoCommitDisabledForStreaming ) {
+      autoCommitDisabledForStreaming = false;
+      if ( !connection.getAutoCommit() ) {
+        connection.setAutoCommit( true );
+      }
+    }
+  }
+
+  /**
+   * Sets the fetch size of an open result set based on the width of its rows, for drivers that honor it.
+   */
+  private void adaptFetchSize( ResultSet res, RowMetaInterface rowMeta ) throws SQLException {
+    if ( !databaseMeta.isFetchSizeSupported() || !databaseMeta.supportsAdaptiveFetchSize() || res.getFetchSize() < 0 ) {
+      return;
+    }
+    int maxFetchSize = rowlimit > 0 ? Math.min( rowlimit, Const.FETCH_SIZE ) : Const.FETCH_SIZE;
+    int fetchSize = getAdaptiveFetchSize( rowMeta, maxFetchSize );
+    res.setFetchSize( fetchSize );
+    if ( log.isDebug() ) {
+      log.logDebug( "Adapted the fetch size to " + fetchSize + " rows" );
+    }
+  }
+
+  /**
+   * Calculates the number of rows that fit in {@link #ADAPTIVE_FETCH_BUFFER_SIZE}, based on the expected width of the
+   * rows.
+   *
+   * @param rowMeta      the layout of the rows in the result set
+   * @param maxFetchSize the maximum fetch size to return
+   * @return the fetch size
+   */
+  static int getAdaptiveFetchSize( RowMetaInterface rowMeta, int maxFetchSize ) {
+    long rowWidth = 0;
+    for ( ValueMetaInterface valueMeta : rowMeta.getValueMetaList() ) {
+      rowWidth += getExpectedWidth( valueMeta );
+    }
+    long fetchSize = ADAPTIVE_FETCH_BUFFER_SIZE / Math.max( rowWidth, 1L );
+    return (int) Math.max( Math.min( ADAPTIVE_FETCH_SIZE_MINIMUM, maxFetchSize ), Math.min( fetchSize, maxFetchSize ) );
+  }
+
+  private static int getExpectedWidth( ValueMetaInterface valueMeta ) {
+    int length = valueMeta.getLength();
+    switch ( valueMeta.getType() ) {
+      case ValueMetaInterface.TYPE_STRING:
+        // Characters are stored as UTF-16 by the drivers
+        return length > 0 ? 2 * Math.min( length, 32000 ) : 512;
+      case ValueMetaInterface.TYPE_BINARY:
+        return length > 0 ? Math.min( length, 64000 ) : 4096;
+      case ValueMetaInterface.TYPE_BIGNUMBER:
+        return 32;
+      default:
+        return 16;
+    }
   }
 
   public ResultSet openQuery( PreparedStatement ps, RowMetaInterface params, Object[] data )
@@ -1804,7 +1911,7 @@ public class Database implements VariableSpace, LoggingObjectInterface, Closeabl
 
       if ( canWeSetFetchSize( ps ) ) {
         int maxRows = ps.getMaxRows();
-        int fs = Const.FETCH_SIZE <= maxRows ? maxRows : Const.FETCH_SIZE;
+        int fs = getQueryFetchSize( maxRows );
         // mysql have some restriction on fetch size assignment
         if ( databaseMeta.isMySQLVariant() ) {
           setMysqlFetchSize( ps, fs, maxRows );
@@ -2130,6 +2237,35 @@ public class Database implements VariableSpace, LoggingObjectInterface, Closeabl
     return retval;
   }
 
+  /**
+   * Gets the increment of a sequence from the data dictionary.
+   *
+   * @param schemaName   The schema of the sequence or null
+   * @param sequenceName The name of the sequence
+   * @return the increment of the sequence or null if the database can't tell
+   */
+  public Long getSequenceIncrement( String schemaName, String sequenceName ) throws KettleDatabaseException {
+    if ( !databaseMeta.supportsSequences() ) {
+      return null;
+    }
+
+    String schemaSequence = databaseMeta.getQuotedSchemaTableCombination( schemaName, sequenceName );
+    String sql = databaseMeta.getSQLSequenceIncrement( schemaSequence );
+    if ( sql == null ) {
+      return null;
+    }
+    try {
+      RowMetaAndData row = getOneRow( sql );
+      if ( row.getData() == null ) {
+        return null;
+      }
+      return row.getInteger( 0 );
+    } catch ( Exception e ) {
+      throw new KettleDatabaseException( "Unexpected error getting the increment of sequence ["
+        + schemaSequence + "]", e );
+    }
+  }
+
   /**
    * Check if an index on certain fields in a table exists.
    *
@@ -2590,6 +2726,7 @@ public class Database implements VariableSpace, LoggingObjectInterface, Closeabl
         pstmt.close();
         pstmt = null;
       }
+      restoreAutoCommitAfterStreaming();
     } catch ( SQLException ex ) {
       throw new KettleDatabaseException( "Couldn't close query: resultset or prepared statements", ex );
     }
@@ -3177,9 +3314,30 @@ public class Database implements VariableSpace, LoggingObjectInterface, Closeabl
    */
   public String getCreateTableStatement( String tableName, RowMetaInterface fields, String tk,
                                          boolean useAutoinc, String pk, boolean semicolon ) {
+    return getCreateTableStatement( databaseMeta.getDatabaseInterface().getCreateTableStatement(), tableName, fields,
+      tk, useAutoinc, pk, semicolon );
+  }
+
+  /**
+   * Generates the SQL to create a table that only exists for the current connection and is dropped when it closes.
+   *
+   * @param tableName the table name, obtained from {@link DatabaseMeta#getSessionTableName(String)} and quoted
+   *                  properly in advance. Session tables can't be created in a schema.
+   * @param fields    the fields
+   * @return the SQL needed to create the table or null if the database has no tables that only exist for a connection
+   */
+  public String getCreateSessionTableStatement( String tableName, RowMetaInterface fields ) {
+    String createSessionTable = databaseMeta.getDatabaseInterface().getCreateSessionTableStatement();
+    if ( createSessionTable == null ) {
+      return null;
+    }
+    return getCreateTableStatement( createSessionTable, tableName, fields, null, false, null, false );
+  }
+
+  private String getCreateTableStatement( String createTable, String tableName, RowMetaInterface fields, String tk,
+                                          boolean useAutoinc, String pk, boolean semicolon ) {
     StringBuilder retval = new StringBuilder();
-    DatabaseInterface databaseInterface = databaseMeta.getDatabaseInterface();
-    retval.append( databaseInterface.getCreateTableStatement() );
+    retval.append( createTable );
 
     retval.append( tableName + Const.CR );
     retval.append( "(" ).append( Const.CR );
@@ -367,6 +367,17 @@ public interface DatabaseInterface extends Cloneable {
    */
   String getSQLSequenceExists( String sequenceName );
 
+  /**
+   * Get the increment of a sequence from the data dictionary.
+   *
+   * @param sequenceName
+   *          The sequence to check
+   * @return The SQL to get the increment of the sequence in the first column or null if the database can't tell
+   */
+  default String getSQLSequenceIncrement( String sequenceName ) {
+    return null;
+  }
+
   /**
    * Checks whether or not the command setFetchSize() is supported by the JDBC driver...
    *
@@ -1239,6 +1250,78 @@ public interface DatabaseInterface extends Cloneable {
     return new SqlScriptParser( true );
   }
 
+  /**
+   * Generates a single set-based statement that applies all rows of a staging table to a target table: rows of which
+   * the key columns match an existing target row update that row, the other rows are inserted. The key columns need to
+   * be covered by a primary key or unique index on the target table for the upsert style dialects.
+   *
+   * @param schemaTable
+   *          the quoted schema-table name of the target table
+   * @param stagingSchemaTable
+   *          the quoted schema-table name of the staging table, using the same column names as the target table
+   * @param keyColumns
+   *          the quoted key columns, matched on equality
+   * @param insertColumns
+   *          the quoted columns to insert for new rows
+   * @param updateColumns
+   *          the quoted columns to update for matching rows, empty to leave matching rows untouched
+   * @return the merge statement or null if this database has no set-based merge or upsert syntax.
+   */
+  default String getSQLMergeFromTable( String schemaTable, String stagingSchemaTable, String[] keyColumns,
+    String[] insertColumns, String[] updateColumns ) {
+    return null;
+  }
+
+  /**
+   * Gets the start of a statement creating a table that only exists for the current connection and is dropped when the
+   * connection closes, the counterpart of {@link #getCreateTableStatement()}. These tables can't be created in a
+   * schema.
+   *
+   * @return the start of the statement, like "CREATE TEMPORARY TABLE ", or null if this database has no such tables
+   */
+  default String getCreateSessionTableStatement() {
+    return null;
+  }
+
+  /**
+   * Gets the name to create a table under that only exists for the current connection, see
+   * {@link #getCreateSessionTableStatement()}.
+   *
+   * @param tableName
+   *          the name of the table
+   * @return the name the table is created and used with
+   */
+  default String getSessionTableName( String tableName ) {
+    return tableName;
+  }
+
+  /**
+   * Gets the fetch size to set on a query of unknown size before it is executed, so that the driver streams the
+   * result set in chunks instead of loading it into memory completely.
+   *
+   * @return the fetch size, 0 to keep the driver default or Integer.MIN_VALUE for drivers that stream row by row when
+   *         given that value (MySQL)
+   */
+  default int getStreamingFetchSize() {
+    return 0;
+  }
+
+  /**
+   * @return true if the driver only fetches a result set in chunks of the fetch size while auto-commit is disabled, and
+   *         loads it into memory completely otherwise (PostgreSQL)
+   */
+  default boolean isStreamingRequiringNoAutoCommit() {
+    return false;
+  }
+
+  /**
+   * @return true if the driver honors a fetch size that is changed on an open result set, so that it can be adapted
+   *         to the width of the rows that are returned
+   */
+  default boolean supportsAdaptiveFetchSize() {
+    return false;
+  }
+
   /**
    * @return true if database supports the standard table output step
    */
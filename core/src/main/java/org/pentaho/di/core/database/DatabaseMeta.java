@@ -1308,6 +1308,10 @@ public class DatabaseMeta extends SharedObjectBase implements Cloneable, XMLInte
     return databaseInterface.getSQLSequenceExists( sequenceName );
   }
 
+  public String getSQLSequenceIncrement( String sequenceName ) {
+    return databaseInterface.getSQLSequenceIncrement( sequenceName );
+  }
+
   public boolean supportsBitmapIndex() {
     return databaseInterface.supportsBitmapIndex();
   }
@@ -2992,6 +2996,67 @@ public class DatabaseMeta extends SharedObjectBase implements Cloneable, XMLInte
     return databaseInterface.getSQLInsertAutoIncUnknownDimensionRow( schemaTable, keyField, versionField );
   }
 
+  /**
+   * Get the SQL to apply all rows of a staging table to a target table in one set-based operation.
+   *
+   * @param schemaTable
+   *          the quoted schema-table name of the target table
+   * @param stagingSchemaTable
+   *          the quoted schema-table name of the staging table
+   * @param keyColumns
+   *          the quoted key columns
+   * @param insertColumns
+   *          the quoted columns to insert for new rows
+   * @param updateColumns
+   *          the quoted columns to update for matching rows
+   * @return the merge statement or null if the database doesn't support a set-based merge.
+   */
+  public String getSQLMergeFromTable( String schemaTable, String stagingSchemaTable, String[] keyColumns,
+    String[] insertColumns, String[] updateColumns ) {
+    return databaseInterface.getSQLMergeFromTable( schemaTable, stagingSchemaTable, keyColumns, insertColumns,
+      updateColumns );
+  }
+
+  /**
+   * @return true if the database can create tables that only exist for the current connection
+   * @see DatabaseInterface#getCreateSessionTableStatement()
+   */
+  public boolean supportsSessionTables() {
+    return databaseInterface.getCreateSessionTableStatement() != null;
+  }
+
+  /**
+   * @param tableName
+   *          the name of the table
+   * @return the name to create and use a table under that only exists for the current connection
+   * @see DatabaseInterface#getSessionTableName(String)
+   */
+  public String getSessionTableName( String tableName ) {
+    return databaseInterface.getSessionTableName( tableName );
+  }
+
+  /**
+   * @return the fetch size to set on a query of unknown size to stream its result set, 0 for the driver default
+   * @see DatabaseInterface#getStreamingFetchSize()
+   */
+  public int getStreamingFetchSize() {
+    return databaseInterface.getStreamingFetchSize();
+  }
+
+  /**
+   * @return true if the driver only streams result sets while auto-commit is disabled
+   */
+  public boolean isStreamingRequiringNoAutoCommit() {
+    return databaseInterface.isStreamingRequiringNoAutoCommit();
+  }
+
+  /**
+   * @return true if the fetch size of an open result set can be adapted to the width of its rows
+   */
+  public boolean supportsAdaptiveFetchSize() {
+    return databaseInterface.supportsAdaptiveFetchSize();
+  }
+
   /**
    * @return true if this is a relational database you can explore. Return false for SAP, PALO, etc.
    */
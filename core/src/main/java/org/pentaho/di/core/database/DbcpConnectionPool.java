@@ -0,0 +1,68 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2021 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import org.apache.commons.dbcp.BasicDataSource;
+
+/**
+ * The default connection pool, backed by a commons-dbcp {@link BasicDataSource}.
+ */
+public class DbcpConnectionPool implements ConnectionPoolInterface {
+
+  private final BasicDataSource dataSource;
+
+  public DbcpConnectionPool( BasicDataSource dataSource ) {
+    this.dataSource = dataSource;
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return dataSource.getConnection();
+  }
+
+  @Override
+  public int getNumActive() {
+    return dataSource.getNumActive();
+  }
+
+  @Override
+  public int getNumIdle() {
+    return dataSource.getNumIdle();
+  }
+
+  @Override
+  public void close() throws SQLException {
+    dataSource.close();
+  }
+
+  /**
+   * @return the underlying commons-dbcp data source
+   */
+  public BasicDataSource getDataSource() {
+    return dataSource;
+  }
+}
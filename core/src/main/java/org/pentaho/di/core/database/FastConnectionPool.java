@@ -0,0 +1,489 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2021 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.Driver;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Deque;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.pentaho.di.core.database.util.DatabaseUtil;
+import org.pentaho.di.core.logging.LogChannelInterface;
+import org.pentaho.di.core.util.Utils;
+import org.pentaho.di.i18n.BaseMessages;
+
+/**
+ * A light-weight connection pool. Idle connections are kept in a lock-free deque and the maximum number of active
+ * connections is enforced with a semaphore, so borrowing and returning a connection never blocks on a monitor unless
+ * the pool is exhausted.<br>
+ * <br>
+ * Connections that stay borrowed for longer than the leak detection threshold are reported once, together with the
+ * stack trace of the code that borrowed them. The borrowed connections are swept for leaks in the background, so a
+ * leak is reported even when nobody asks the pool for a connection anymore.
+ */
+public class FastConnectionPool implements ConnectionPoolInterface {
+  private static Class<?> PKG = Database.class; // for i18n purposes, needed by Translator2!!
+
+  /** The shortest time between two sweeps for leaked connections, in milliseconds */
+  private static final long MIN_LEAK_DETECTION_INTERVAL = 100L;
+
+  private static final ScheduledExecutorService leakDetector = Executors.newSingleThreadScheduledExecutor( r -> {
+    Thread thread = new Thread( r, "Connection pool leak detection" );
+    thread.setDaemon( true );
+    return thread;
+  } );
+
+  private final String name;
+  private final Driver driver;
+  private final String url;
+  private final Properties connectionProperties;
+  private final int maxActive;
+  private final Semaphore permits;
+
+  private final Deque<Connection> idleConnections = new ConcurrentLinkedDeque<Connection>();
+  private final AtomicInteger numIdle = new AtomicInteger();
+  private final Set<PooledConnectionHandler> borrowedConnections =
+    ConcurrentHashMap.<PooledConnectionHandler>newKeySet();
+
+  private LogChannelInterface log;
+  private int maxIdle = -1;
+  private long maxWait = -1L;
+  private String validationQuery;
+  private boolean testOnBorrow = true;
+  private Boolean defaultAutoCommit;
+  private Boolean defaultReadOnly;
+  private Integer defaultTransactionIsolation;
+  private String defaultCatalog;
+  private long leakDetectionThreshold;
+  private ScheduledFuture<?> leakDetection;
+
+  private volatile boolean closed;
+
+  /**
+   * @param name
+   *          the name of the pool, used in log messages
+   * @param driver
+   *          the JDBC driver to create the physical connections with
+   * @param url
+   *          the JDBC URL to connect to
+   * @param connectionProperties
+   *          the connection properties (user, password, ...) passed to the driver
+   * @param maxActive
+   *          the maximum number of connections that can be borrowed at the same time
+   * @param log
+   *          the log channel to report leaked connections on
+   */
+  public FastConnectionPool( String name, Driver driver, String url, Properties connectionProperties, int maxActive,
+    LogChannelInterface log ) {
+    this.name = name;
+    this.driver = driver;
+    this.url = url;
+    this.connectionProperties = connectionProperties;
+    this.maxActive = maxActive > 0 ? maxActive : Integer.MAX_VALUE;
+    this.permits = new Semaphore( this.maxActive );
+    this.log = log;
+  }
+
+  /**
+   * Creates the given number of physical connections up front so that the first steps connecting to the database
+   * don't have to wait for them.
+   *
+   * @param initialSize
+   *          the number of connections to create
+   * @throws SQLException
+   *           in case a connection couldn't be created
+   */
+  public void prefill( int initialSize ) throws SQLException {
+    int size = Math.min( initialSize, maxActive );
+    for ( int i = numIdle.get(); i < size; i++ ) {
+      Connection connection = createConnection();
+      idleConnections.offerLast( connection );
+      numIdle.incrementAndGet();
+    }
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    if ( closed ) {
+      throw new SQLException( BaseMessages.getString( PKG, "Database.Pool.Closed", name ) );
+    }
+    acquirePermit();
+    try {
+      Connection connection = pollIdleConnection();
+      if ( connection == null ) {
+        connection = createConnection();
+      }
+      PooledConnectionHandler handler = new PooledConnectionHandler( connection, leakDetectionThreshold > 0 );
+      borrowedConnections.add( handler );
+      return (Connection) Proxy.newProxyInstance(
+        Connection.class.getClassLoader(), new Class<?>[] { Connection.class }, handler );
+    } catch ( SQLException | RuntimeException e ) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  private void acquirePermit() throws SQLException {
+    if ( permits.tryAcquire() ) {
+      return;
+    }
+    try {
+      if ( maxWait < 0 ) {
+        permits.acquire();
+      } else if ( !permits.tryAcquire( maxWait, TimeUnit.MILLISECONDS ) ) {
+        throw new SQLException( BaseMessages.getString( PKG, "Database.Pool.Exhausted", name,
+          String.valueOf( maxActive ), String.valueOf( maxWait ) ) );
+      }
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      throw new SQLException( BaseMessages.getString( PKG, "Database.Pool.Interrupted", name ), e );
+    }
+  }
+
+  private Connection pollIdleConnection() {
+    Connection connection;
+    while ( ( connection = idleConnections.pollFirst() ) != null ) {
+      numIdle.decrementAndGet();
+      if ( isValid( connection, testOnBorrow ) ) {
+        return connection;
+      }
+      DatabaseUtil.closeSilently( connection );
+    }
+    return null;
+  }
+
+  private Connection createConnection() throws SQLException {
+    Connection connection = driver.connect( url, connectionProperties );
+    if ( connection == null ) {
+      throw new SQLException( BaseMessages.getString( PKG, "Database.Pool.DriverDoesNotAcceptURL", url ) );
+    }
+    try {
+      applyDefaults( connection );
+    } catch ( SQLException e ) {
+      DatabaseUtil.closeSilently( connection );
+      throw e;
+    }
+    return connection;
+  }
+
+  private void applyDefaults( Connection connection ) throws SQLException {
+    if ( defaultAutoCommit != null && connection.getAutoCommit() != defaultAutoCommit ) {
+      connection.setAutoCommit( defaultAutoCommit );
+    }
+    if ( defaultReadOnly != null && connection.isReadOnly() != defaultReadOnly ) {
+      connection.setReadOnly( defaultReadOnly );
+    }
+    if ( defaultTransactionIsolation != null ) {
+      connection.setTransactionIsolation( defaultTransactionIsolation );
+    }
+    if ( defaultCatalog != null ) {
+      connection.setCatalog( defaultCatalog );
+    }
+  }
+
+  private boolean isValid( Connection connection, boolean validate ) {
+    try {
+      if ( connection.isClosed() ) {
+        return false;
+      }
+      if ( validate && !Utils.isEmpty( validationQuery ) ) {
+        try ( Statement statement = connection.createStatement() ) {
+          statement.execute( validationQuery );
+        }
+      }
+      return true;
+    } catch ( SQLException e ) {
+      return false;
+    }
+  }
+
+  private void returnConnection( PooledConnectionHandler handler ) {
+    borrowedConnections.remove( handler );
+    Connection connection = handler.connection;
+    try {
+      if ( closed || !isValid( connection, false ) || ( maxIdle >= 0 && numIdle.get() >= maxIdle ) ) {
+        DatabaseUtil.closeSilently( connection );
+        return;
+      }
+      try {
+        if ( !connection.getAutoCommit() ) {
+          connection.rollback();
+        }
+        applyDefaults( connection );
+      } catch ( SQLException e ) {
+        DatabaseUtil.closeSilently( connection );
+        return;
+      }
+      idleConnections.offerFirst( connection );
+      numIdle.incrementAndGet();
+    } finally {
+      permits.release();
+    }
+  }
+
+  @VisibleForTesting
+  void detectLeaks() {
+    try {
+      long now = System.currentTimeMillis();
+      for ( PooledConnectionHandler handler : borrowedConnections ) {
+        if ( now - handler.borrowTime > leakDetectionThreshold && handler.leakReported.compareAndSet( false, true ) ) {
+          log.logError( BaseMessages.getString( PKG, "Database.Pool.PossibleLeak", name,
+            String.valueOf( now - handler.borrowTime ) ), handler.borrowStack );
+        }
+      }
+    } catch ( RuntimeException e ) {
+      // An exception would cancel the sweeps
+      log.logError( e.getMessage(), e );
+    }
+  }
+
+  @Override
+  public int getNumActive() {
+    return borrowedConnections.size();
+  }
+
+  @Override
+  public int getNumIdle() {
+    return numIdle.get();
+  }
+
+  @Override
+  public void close() throws SQLException {
+    closed = true;
+    synchronized ( this ) {
+      if ( leakDetection != null ) {
+        leakDetection.cancel( false );
+        leakDetection = null;
+      }
+    }
+    Connection connection;
+    while ( ( connection = idleConnections.pollFirst() ) != null ) {
+      numIdle.decrementAndGet();
+      DatabaseUtil.closeSilently( connection );
+    }
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public int getMaxActive() {
+    return maxActive;
+  }
+
+  public int getMaxIdle() {
+    return maxIdle;
+  }
+
+  /**
+   * @param maxIdle
+   *          the maximum number of idle connections kept in the pool, negative for no limit
+   */
+  public void setMaxIdle( int maxIdle ) {
+    this.maxIdle = maxIdle;
+  }
+
+  public long getMaxWait() {
+    return maxWait;
+  }
+
+  /**
+   * @param maxWait
+   *          the maximum number of milliseconds to wait for a connection when the pool is exhausted, negative to wait
+   *          indefinitely
+   */
+  public void setMaxWait( long maxWait ) {
+    this.maxWait = maxWait;
+  }
+
+  public String getValidationQuery() {
+    return validationQuery;
+  }
+
+  public void setValidationQuery( String validationQuery ) {
+    this.validationQuery = validationQuery;
+  }
+
+  public boolean isTestOnBorrow() {
+    return testOnBorrow;
+  }
+
+  public void setTestOnBorrow( boolean testOnBorrow ) {
+    this.testOnBorrow = testOnBorrow;
+  }
+
+  public void setDefaultAutoCommit( Boolean defaultAutoCommit ) {
+    this.defaultAutoCommit = defaultAutoCommit;
+  }
+
+  public void setDefaultReadOnly( Boolean defaultReadOnly ) {
+    this.defaultReadOnly = defaultReadOnly;
+  }
+
+  public void setDefaultTransactionIsolation( Integer defaultTransactionIsolation ) {
+    this.defaultTransactionIsolation = defaultTransactionIsolation;
+  }
+
+  public void setDefaultCatalog( String defaultCatalog ) {
+    this.defaultCatalog = defaultCatalog;
+  }
+
+  public long getLeakDetectionThreshold() {
+    return leakDetectionThreshold;
+  }
+
+  /**
+   * @param leakDetectionThreshold
+   *          the number of milliseconds a connection can be borrowed before it is reported as a possible leak, 0 to
+   *          disable leak detection
+   */
+  public synchronized void setLeakDetectionThreshold( long leakDetectionThreshold ) {
+    this.leakDetectionThreshold = leakDetectionThreshold;
+    if ( leakDetection != null ) {
+      leakDetection.cancel( false );
+      leakDetection = null;
+    }
+    if ( leakDetectionThreshold > 0 && !closed ) {
+      long interval = Math.max( leakDetectionThreshold / 2, MIN_LEAK_DETECTION_INTERVAL );
+      leakDetection = leakDetector.scheduleWithFixedDelay( this::detectLeaks, interval, interval,
+        TimeUnit.MILLISECONDS );
+    }
+  }
+
+  /**
+   * Hands out the physical connection until the connection is closed, which returns it to the pool.
+   */
+  private class PooledConnectionHandler implements InvocationHandler {
+    private final Connection connection;
+    private final long borrowTime;
+    private final Throwable borrowStack;
+    private final AtomicBoolean leakReported = new AtomicBoolean();
+    private final AtomicBoolean returned = new AtomicBoolean();
+
+    PooledConnectionHandler( Connection connection, boolean recordStack ) {
+      this.connection = connection;
+      this.borrowTime = System.currentTimeMillis();
+      this.borrowStack = recordStack ? new Throwable( "Connection borrowed from pool " + name ) : null;
+    }
+
+    @Override
+    public Object invoke( Object proxy, Method method, Object[] args ) throws Throwable {
+      String methodName = method.getName();
+      if ( "close".equals( methodName ) && method.getParameterCount() == 0 ) {
+        if ( returned.compareAndSet( false, true ) ) {
+          returnConnection( this );
+        }
+        return null;
+      }
+      if ( "isClosed".equals( methodName ) && method.getParameterCount() == 0 ) {
+        return returned.get() || connection.isClosed();
+      }
+      if ( "equals".equals( methodName ) && method.getParameterCount() == 1 ) {
+        return proxy == args[0];
+      }
+      if ( "hashCode".equals( methodName ) && method.getParameterCount() == 0 ) {
+        return System.identityHashCode( proxy );
+      }
+      if ( "toString".equals( methodName ) && method.getParameterCount() == 0 ) {
+        return "Pooled connection of " + name + " : " + connection;
+      }
+      if ( returned.get() ) {
+        throw new SQLException( BaseMessages.getString( PKG, "Database.Pool.ConnectionClosed", name ) );
+      }
+      try {
+        Object result = method.invoke( connection, args );
+        Class<?> type = method.getReturnType();
+        if ( result != null && ( Statement.class.isAssignableFrom( type ) || DatabaseMetaData.class.equals( type ) ) ) {
+          return wrap( type, result, proxy );
+        }
+        return result;
+      } catch ( InvocationTargetException e ) {
+        throw e.getCause();
+      }
+    }
+  }
+
+  private static Object wrap( Class<?> type, Object target, Object parent ) {
+    return Proxy.newProxyInstance( type.getClassLoader(), new Class<?>[] { type }, new ChildHandler( target, parent ) );
+  }
+
+  /**
+   * Hands out a statement, result set or database meta-data of a pooled connection. Navigating back with
+   * getConnection() or getStatement() gives the proxy it came from, never the physical connection: closing that would
+   * take it away from the pool.
+   */
+  private static class ChildHandler implements InvocationHandler {
+    private final Object target;
+    private final Object parent;
+
+    ChildHandler( Object target, Object parent ) {
+      this.target = target;
+      this.parent = parent;
+    }
+
+    @Override
+    public Object invoke( Object proxy, Method method, Object[] args ) throws Throwable {
+      String methodName = method.getName();
+      if ( method.getParameterCount() == 0
+        && ( "getConnection".equals( methodName ) || "getStatement".equals( methodName ) ) ) {
+        return parent;
+      }
+      if ( "equals".equals( methodName ) && method.getParameterCount() == 1 ) {
+        return proxy == args[0];
+      }
+      if ( "hashCode".equals( methodName ) && method.getParameterCount() == 0 ) {
+        return System.identityHashCode( proxy );
+      }
+      try {
+        Object result = method.invoke( target, args );
+        Class<?> type = method.getReturnType();
+        if ( result != null && target instanceof Statement && ResultSet.class.equals( type ) ) {
+          return wrap( type, result, proxy );
+        }
+        return result;
+      } catch ( InvocationTargetException e ) {
+        throw e.getCause();
+      }
+    }
+  }
+}
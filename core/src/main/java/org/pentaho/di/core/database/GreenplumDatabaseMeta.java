@@ -46,4 +46,13 @@ public class GreenplumDatabaseMeta extends PostgreSQLDatabaseMeta implements Dat
   public boolean supportsErrorHandlingOnBatchUpdates() {
     return false;
   }
+
+  /**
+   * INSERT ... ON CONFLICT is not available here.
+   */
+  @Override
+  public String getSQLMergeFromTable( String schemaTable, String stagingSchemaTable, String[] keyColumns,
+    String[] insertColumns, String[] updateColumns ) {
+    return null;
+  }
 }
@@ -26,4 +26,12 @@ public class InfiniDbDatabaseMeta extends MySQLDatabaseMeta implements DatabaseI
 
   // Only has a different ID to catch exceptions here and there.
 
+  /**
+   * INSERT ... ON DUPLICATE KEY UPDATE is not available here.
+   */
+  @Override
+  public String getSQLMergeFromTable( String schemaTable, String stagingSchemaTable, String[] keyColumns,
+    String[] insertColumns, String[] updateColumns ) {
+    return null;
+  }
 }
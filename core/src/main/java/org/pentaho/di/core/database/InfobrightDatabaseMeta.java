@@ -37,4 +37,12 @@ public class InfobrightDatabaseMeta extends MySQLDatabaseMeta implements Databas
     addExtraOption( getPluginId(), "characterEncoding", "UTF-8" );
   }
 
+  /**
+   * INSERT ... ON DUPLICATE KEY UPDATE is not available here.
+   */
+  @Override
+  public String getSQLMergeFromTable( String schemaTable, String stagingSchemaTable, String[] keyColumns,
+    String[] insertColumns, String[] updateColumns ) {
+    return null;
+  }
 }
@@ -540,4 +540,26 @@ public class MSSQLServerDatabaseMeta extends BaseDatabaseMeta implements Databas
     return 8000;
   }
 
+  /**
+   * SQL Server requires a MERGE statement to be terminated by a semicolon.
+   */
+  @Override
+  public String getSQLMergeFromTable( String schemaTable, String stagingSchemaTable, String[] keyColumns,
+    String[] insertColumns, String[] updateColumns ) {
+    return getSQLAnsiMergeFromTable( schemaTable, stagingSchemaTable, keyColumns, insertColumns, updateColumns )
+      + ";";
+  }
+
+  /**
+   * Local temporary tables are regular tables with a name starting with #, see {@link #getSessionTableName(String)}.
+   */
+  @Override
+  public String getCreateSessionTableStatement() {
+    return getCreateTableStatement();
+  }
+
+  @Override
+  public String getSessionTableName( String tableName ) {
+    return "#" + tableName;
+  }
 }
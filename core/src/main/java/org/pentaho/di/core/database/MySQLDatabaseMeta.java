@@ -553,4 +553,44 @@ public class MySQLDatabaseMeta extends BaseDatabaseMeta implements DatabaseInter
       throw new KettleDatabaseException( String.format( "%s: %s", BaseMessages.getString( PKG, "MySQLDatabaseMeta.Exception.LegacyColumnNameException" ), e.getMessage() ), e );
     }
   }
+
+  /**
+   * The driver reads the complete result set into memory unless the fetch size is Integer.MIN_VALUE, which is only
+   * done when result streaming is enabled on the connection.
+   */
+  @Override public int getStreamingFetchSize() {
+    return isStreamingResults() ? Integer.MIN_VALUE : 0;
+  }
+
+  /**
+   * Uses INSERT ... ON DUPLICATE KEY UPDATE. Without update columns the first key column is assigned to itself so that
+   * existing rows are left untouched without resorting to INSERT IGNORE, which would also hide other errors.
+   */
+  @Override public String getSQLMergeFromTable( String schemaTable, String stagingSchemaTable, String[] keyColumns,
+    String[] insertColumns, String[] updateColumns ) {
+    String columns = String.join( ", ", insertColumns );
+    StringBuilder sql = new StringBuilder( 256 );
+    sql.append( "INSERT INTO " ).append( schemaTable ).append( " ( " ).append( columns ).append( " )" )
+      .append( Const.CR );
+    sql.append( "SELECT " ).append( columns ).append( " FROM " ).append( stagingSchemaTable ).append( Const.CR );
+    sql.append( "ON DUPLICATE KEY UPDATE " );
+    if ( updateColumns.length == 0 ) {
+      sql.append( keyColumns[0] ).append( " = " ).append( keyColumns[0] );
+    } else {
+      for ( int i = 0; i < updateColumns.length; i++ ) {
+        if ( i > 0 ) {
+          sql.append( ", " );
+        }
+        sql.append( updateColumns[i] ).append( " = VALUES(" ).append( updateColumns[i] ).append( ")" );
+      }
+    }
+    return sql.toString();
+  }
+
+  /**
+   * Temporary tables are only visible to the connection that created them and dropped when it closes.
+   */
+  @Override public String getCreateSessionTableStatement() {
+    return "CREATE TEMPORARY TABLE ";
+  }
 }
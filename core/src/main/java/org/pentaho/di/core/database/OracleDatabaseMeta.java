@@ -202,6 +202,25 @@ public class OracleDatabaseMeta extends BaseDatabaseMeta implements DatabaseInte
     return sql;
   }
 
+  /**
+   * Get the increment of a sequence from the data dictionary. (Oracle version)
+   *
+   * @param sequenceName
+   *          The sequence to check, optionally prefixed by its owner
+   * @return The SQL to get the increment of the sequence
+   */
+  @Override
+  public String getSQLSequenceIncrement( String sequenceName ) {
+    int dotPos = sequenceName.indexOf( '.' );
+    if ( dotPos == -1 ) {
+      return "SELECT INCREMENT_BY FROM USER_SEQUENCES WHERE SEQUENCE_NAME = '" + sequenceName.toUpperCase() + "'";
+    }
+    String schemaName = sequenceName.substring( 0, dotPos );
+    String seqName = sequenceName.substring( dotPos + 1 );
+    return "SELECT INCREMENT_BY FROM ALL_SEQUENCES WHERE SEQUENCE_NAME = '"
+      + seqName.toUpperCase() + "' AND SEQUENCE_OWNER = '" + schemaName.toUpperCase() + "'";
+  }
+
   /**
    * Get the current value of a database sequence
    *
@@ -678,4 +697,19 @@ public class OracleDatabaseMeta extends BaseDatabaseMeta implements DatabaseInte
   public void setStrictBigNumberInterpretation( boolean strictBigNumberInterpretation ) {
     getAttributes().setProperty( STRICT_BIGNUMBER_INTERPRETATION, strictBigNumberInterpretation ? "Y" : "N" );
   }
+
+  /**
+   * The driver always streams, but pre-fetches only 10 rows per round trip by default. The row pre-fetch is raised on
+   * the open result set, based on the width of the rows, since the driver sizes its buffers for the maximum width.
+   */
+  @Override
+  public boolean supportsAdaptiveFetchSize() {
+    return true;
+  }
+
+  @Override
+  public String getSQLMergeFromTable( String schemaTable, String stagingSchemaTable, String[] keyColumns,
+    String[] insertColumns, String[] updateColumns ) {
+    return getSQLAnsiMergeFromTable( schemaTable, stagingSchemaTable, keyColumns, insertColumns, updateColumns );
+  }
 }
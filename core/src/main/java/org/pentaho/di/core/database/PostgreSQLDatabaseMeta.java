@@ -92,6 +92,27 @@ public class PostgreSQLDatabaseMeta extends BaseDatabaseMeta implements Database
     return true;
   }
 
+  /**
+   * Without a fetch size the driver reads the complete result set into memory.
+   */
+  @Override
+  public int getStreamingFetchSize() {
+    return Const.FETCH_SIZE;
+  }
+
+  /**
+   * The driver only uses a cursor to fetch the rows in chunks when auto-commit is off.
+   */
+  @Override
+  public boolean isStreamingRequiringNoAutoCommit() {
+    return true;
+  }
+
+  @Override
+  public boolean supportsAdaptiveFetchSize() {
+    return true;
+  }
+
   /**
    * @return true if the database supports bitmap indexes
    */
@@ -199,6 +220,25 @@ public class PostgreSQLDatabaseMeta extends BaseDatabaseMeta implements Database
         + sequenceName.toLowerCase() + "'";
   }
 
+  /**
+   * Get the increment of a sequence from the information schema. (PostgreSQL version)
+   *
+   * @param sequenceName
+   *          The sequence to check, optionally prefixed by its schema
+   * @return The SQL to get the increment of the sequence
+   */
+  @Override
+  public String getSQLSequenceIncrement( String sequenceName ) {
+    String seqName = sequenceName.replace( "\"", "" );
+    String sql = "SELECT increment FROM information_schema.sequences WHERE ";
+    int dotPos = seqName.indexOf( '.' );
+    if ( dotPos != -1 ) {
+      sql += "sequence_schema = '" + seqName.substring( 0, dotPos ).toLowerCase() + "' AND ";
+      seqName = seqName.substring( dotPos + 1 );
+    }
+    return sql + "sequence_name = '" + seqName.toLowerCase() + "'";
+  }
+
   /**
    * Generates the SQL statement to add a column to the specified table
    *
@@ -572,4 +612,38 @@ public class PostgreSQLDatabaseMeta extends BaseDatabaseMeta implements Database
   public int getMaxTextFieldLength() {
     return GB_LIMIT;
   }
+
+  /**
+   * Uses INSERT ... ON CONFLICT, available as of PostgreSQL 9.5.
+   */
+  @Override
+  public String getSQLMergeFromTable( String schemaTable, String stagingSchemaTable, String[] keyColumns,
+    String[] insertColumns, String[] updateColumns ) {
+    String columns = String.join( ", ", insertColumns );
+    StringBuilder sql = new StringBuilder( 256 );
+    sql.append( "INSERT INTO " ).append( schemaTable ).append( " ( " ).append( columns ).append( " )" )
+      .append( Const.CR );
+    sql.append( "SELECT " ).append( columns ).append( " FROM " ).append( stagingSchemaTable ).append( Const.CR );
+    sql.append( "ON CONFLICT ( " ).append( String.join( ", ", keyColumns ) ).append( " ) DO " );
+    if ( updateColumns.length == 0 ) {
+      sql.append( "NOTHING" );
+    } else {
+      sql.append( "UPDATE SET " );
+      for ( int i = 0; i < updateColumns.length; i++ ) {
+        if ( i > 0 ) {
+          sql.append( ", " );
+        }
+        sql.append( updateColumns[i] ).append( " = EXCLUDED." ).append( updateColumns[i] );
+      }
+    }
+    return sql.toString();
+  }
+
+  /**
+   * Temporary tables are created in a schema of their own and dropped at the end of the session.
+   */
+  @Override
+  public String getCreateSessionTableStatement() {
+    return "CREATE TEMPORARY TABLE ";
+  }
 }
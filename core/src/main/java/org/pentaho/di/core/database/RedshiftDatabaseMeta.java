@@ -154,4 +154,13 @@ public class RedshiftDatabaseMeta extends PostgreSQLDatabaseMeta {
     }
     return "";
   }
+
+  /**
+   * INSERT ... ON CONFLICT is not available here.
+   */
+  @Override
+  public String getSQLMergeFromTable( String schemaTable, String stagingSchemaTable, String[] keyColumns,
+    String[] insertColumns, String[] updateColumns ) {
+    return null;
+  }
 }
@@ -0,0 +1,378 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2021 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.logging;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.RowMetaAndData;
+import org.pentaho.di.core.database.Database;
+import org.pentaho.di.core.database.DatabaseMeta;
+import org.pentaho.di.core.exception.KettleDatabaseException;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.util.EnvUtil;
+import org.pentaho.di.core.variables.VariableSpace;
+import org.pentaho.di.i18n.BaseMessages;
+
+/**
+ * Writes log table records in the background. The records handed over by all running transformations and jobs are
+ * collected for a short while (see {@link Const#KETTLE_LOG_TABLE_ASYNC_WRITE_INTERVAL}) and then written per log table
+ * with batched inserts. The connection to every log database is kept open while records keep coming in.
+ * <p>
+ * Only records that are inserted once are written this way: the transformation and job log tables are still written
+ * right away because their records are updated later on. Whatever is still queued is written when the Kettle
+ * environment or the JVM shuts down.
+ */
+public class LogTableWriter {
+  private static Class<?> PKG = LogTableWriter.class; // for i18n purposes, needed by Translator2!!
+
+  private static final int DEFAULT_WRITE_INTERVAL = 1000;
+
+  private static final int COMMIT_SIZE = 1000;
+
+  /**
+   * The number of milliseconds a connection to a log database stays open without records to write.
+   */
+  private static final long CONNECTION_IDLE_TIMEOUT = 60000L;
+
+  private static LogTableWriter instance;
+
+  private final LinkedBlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+  private final Map<String, Database> connections = new HashMap<>();
+  private final Map<String, Long> connectionsLastUsed = new HashMap<>();
+
+  private final LoggingObjectInterface loggingObject;
+  private final LogChannelInterface log;
+  private final long writeInterval;
+
+  private final Thread thread;
+  private final Thread shutdownHook;
+  private volatile boolean stopped;
+
+  LogTableWriter( long writeInterval ) {
+    this.writeInterval = writeInterval;
+    loggingObject = new SimpleLoggingObject( "Log table writer", LoggingObjectType.GENERAL, null );
+    log = new LogChannel( loggingObject );
+
+    thread = new Thread( this::run, "Log table writer" );
+    thread.setDaemon( true );
+    thread.start();
+
+    shutdownHook = new Thread( this::shutdown, "Log table writer shutdown" );
+    Runtime.getRuntime().addShutdownHook( shutdownHook );
+  }
+
+  /**
+   * @return the log table writer, started on first use
+   */
+  public static synchronized LogTableWriter getInstance() {
+    if ( instance == null ) {
+      instance = new LogTableWriter( Const.toInt(
+        EnvUtil.getSystemProperty( Const.KETTLE_LOG_TABLE_ASYNC_WRITE_INTERVAL ), DEFAULT_WRITE_INTERVAL ) );
+    }
+    return instance;
+  }
+
+  /**
+   * Writes the records that are still queued and stops the log table writer, if it was started.
+   */
+  public static synchronized void shutdownInstance() {
+    if ( instance != null ) {
+      instance.shutdown();
+      try {
+        Runtime.getRuntime().removeShutdownHook( instance.shutdownHook );
+      } catch ( IllegalStateException e ) {
+        // The JVM is shutting down already
+      }
+      instance = null;
+    }
+  }
+
+  /**
+   * @param space
+   *          the variables of the transformation or job writing to a log table
+   * @return true if the log table records should be handed over to the log table writer
+   */
+  public static boolean isAsynchronous( VariableSpace space ) {
+    return "Y".equalsIgnoreCase( space.getVariable( Const.KETTLE_LOG_TABLE_ASYNC_WRITES, "N" ) );
+  }
+
+  /**
+   * Queues the log records of the given subjects. The records are created right away, they are inserted later on.
+   *
+   * @param space
+   *          the variables to resolve the connection, schema and table name with
+   * @param logTable
+   *          the log table to write to
+   * @param subjects
+   *          the subjects to create a log record for
+   * @param parent
+   *          the parent of the subjects, if the log table needs it
+   * @param cleanup
+   *          true if the records that timed out should be removed from the log table after writing
+   * @throws KettleException
+   *           in case a log record can't be created
+   */
+  public void write( VariableSpace space, LogTableCoreInterface logTable, List<?> subjects, Object parent,
+    boolean cleanup ) throws KettleException {
+    List<RowMetaAndData> records = new ArrayList<>( subjects.size() );
+    for ( Object subject : subjects ) {
+      RowMetaAndData record = logTable.getLogRecord( LogStatus.START, subject, parent );
+      if ( record != null ) {
+        records.add( record );
+      }
+    }
+    Request request = new Request( space, logTable, records, cleanup );
+    if ( stopped ) {
+      writeRequests( Collections.singletonList( request ) );
+      closeConnections( true );
+    } else {
+      queue.add( request );
+    }
+  }
+
+  /**
+   * Waits until all records queued so far are written.
+   */
+  public void flush() throws InterruptedException {
+    if ( !stopped ) {
+      CountDownLatch latch = new CountDownLatch( 1 );
+      queue.add( new Request( latch, false ) );
+      await( latch );
+    }
+  }
+
+  /**
+   * Writes the records that are still queued and stops the background thread. Records handed over after this are
+   * written right away.
+   */
+  public void shutdown() {
+    if ( stopped ) {
+      return;
+    }
+    CountDownLatch latch = new CountDownLatch( 1 );
+    queue.add( new Request( latch, true ) );
+    try {
+      await( latch );
+      thread.join();
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void await( CountDownLatch latch ) throws InterruptedException {
+    while ( !latch.await( writeInterval, TimeUnit.MILLISECONDS ) ) {
+      if ( !thread.isAlive() ) {
+        return;
+      }
+    }
+  }
+
+  private void run() {
+    List<Request> requests = new ArrayList<>();
+    while ( !stopped ) {
+      try {
+        // Wait for records and then give the other transformations and jobs some time to hand over theirs
+        //
+        Request request = queue.take();
+        requests.add( request );
+        long deadline = System.currentTimeMillis() + writeInterval;
+        while ( request.latch == null ) {
+          long wait = deadline - System.currentTimeMillis();
+          request = wait > 0 ? queue.poll( wait, TimeUnit.MILLISECONDS ) : null;
+          if ( request == null ) {
+            break;
+          }
+          requests.add( request );
+        }
+        queue.drainTo( requests );
+        writeRequests( requests );
+      } catch ( InterruptedException e ) {
+        stopped = true;
+        queue.drainTo( requests );
+        writeRequests( requests );
+      } finally {
+        for ( Request done : requests ) {
+          if ( done.latch != null ) {
+            stopped |= done.stop;
+            done.latch.countDown();
+          }
+        }
+        requests.clear();
+      }
+      closeConnections( stopped );
+    }
+  }
+
+  private synchronized void writeRequests( List<Request> requests ) {
+    // Group the records per log table
+    //
+    Map<String, List<Request>> groups = new LinkedHashMap<>();
+    for ( Request request : requests ) {
+      if ( request.logTable != null ) {
+        groups.computeIfAbsent( request.getKey(), key -> new ArrayList<>() ).add( request );
+      }
+    }
+    groups.values().forEach( this::writeGroup );
+  }
+
+  private void writeGroup( List<Request> group ) {
+    Request first = group.get( 0 );
+    int nrRecords = 0;
+    try {
+      Database db = getConnection( first );
+      for ( Request request : group ) {
+        for ( RowMetaAndData record : request.records ) {
+          if ( nrRecords++ == 0 ) {
+            db.prepareInsert( record.getRowMeta(), first.schemaName, first.tableName );
+          }
+          db.setValuesInsert( record.getRowMeta(), record.getData() );
+          db.insertRow( true );
+        }
+      }
+      if ( nrRecords > 0 ) {
+        db.insertFinished( true );
+      }
+      if ( group.stream().anyMatch( request -> request.cleanup ) ) {
+        db.cleanupLogRecords( first.logTable );
+      }
+      if ( !db.isAutoCommit() ) {
+        db.commit( true );
+      }
+      if ( log.isDetailed() ) {
+        log.logDetailed( BaseMessages.getString( PKG, "LogTableWriter.Log.RecordsWritten", nrRecords,
+          first.tableName ) );
+      }
+    } catch ( Exception e ) {
+      log.logError( BaseMessages.getString( PKG, "LogTableWriter.Error.UnableToWriteRecords", first.tableName ), e );
+      closeConnection( first.connectionKey );
+    }
+  }
+
+  private Database getConnection( Request request ) throws KettleDatabaseException {
+    Database db = connections.get( request.connectionKey );
+    if ( db == null ) {
+      db = new Database( loggingObject, request.databaseMeta );
+      db.copyVariablesFrom( request.space );
+      db.connect();
+      db.setCommit( COMMIT_SIZE );
+      connections.put( request.connectionKey, db );
+    }
+    connectionsLastUsed.put( request.connectionKey, System.currentTimeMillis() );
+    return db;
+  }
+
+  private synchronized void closeConnections( boolean all ) {
+    long now = System.currentTimeMillis();
+    Iterator<Map.Entry<String, Long>> iterator = connectionsLastUsed.entrySet().iterator();
+    while ( iterator.hasNext() ) {
+      Map.Entry<String, Long> entry = iterator.next();
+      if ( all || now - entry.getValue() > CONNECTION_IDLE_TIMEOUT ) {
+        Database db = connections.remove( entry.getKey() );
+        if ( db != null ) {
+          db.disconnect();
+        }
+        iterator.remove();
+      }
+    }
+  }
+
+  private void closeConnection( String connectionKey ) {
+    Database db = connections.remove( connectionKey );
+    connectionsLastUsed.remove( connectionKey );
+    if ( db != null ) {
+      db.disconnect();
+    }
+  }
+
+  private static class Request {
+    private final VariableSpace space;
+    private final LogTableCoreInterface logTable;
+    private final DatabaseMeta databaseMeta;
+    private final String connectionKey;
+    private final String schemaName;
+    private final String tableName;
+    private final List<RowMetaAndData> records;
+    private final boolean cleanup;
+
+    private final CountDownLatch latch;
+    private final boolean stop;
+
+    private Request( VariableSpace space, LogTableCoreInterface logTable, List<RowMetaAndData> records,
+      boolean cleanup ) {
+      this.space = space;
+      this.logTable = logTable;
+      this.databaseMeta = logTable.getDatabaseMeta();
+      this.schemaName = space.environmentSubstitute( logTable.getActualSchemaName() );
+      this.tableName = space.environmentSubstitute( logTable.getActualTableName() );
+      this.records = records;
+      this.cleanup = cleanup;
+      this.latch = null;
+      this.stop = false;
+
+      String url;
+      try {
+        url = space.environmentSubstitute( databaseMeta.getURL() );
+      } catch ( KettleDatabaseException e ) {
+        url = databaseMeta.getName();
+      }
+      this.connectionKey =
+        databaseMeta.getName() + "|" + url + "|" + space.environmentSubstitute( databaseMeta.getUsername() );
+    }
+
+    /**
+     * A request to signal once everything queued before it is written.
+     */
+    private Request( CountDownLatch latch, boolean stop ) {
+      this.space = null;
+      this.logTable = null;
+      this.databaseMeta = null;
+      this.connectionKey = null;
+      this.schemaName = null;
+      this.tableName = null;
+      this.records = null;
+      this.cleanup = false;
+      this.latch = latch;
+      this.stop = stop;
+    }
+
+    private String getKey() {
+      StringBuilder key = new StringBuilder( connectionKey ).append( '|' ).append( schemaName ).append( '|' )
+        .append( tableName );
+      if ( !records.isEmpty() ) {
+        key.append( '|' ).append( records.get( 0 ).getRowMeta().toStringMeta() );
+      }
+      return key.toString();
+    }
+  }
+}
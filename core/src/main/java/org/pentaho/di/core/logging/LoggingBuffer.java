@@ -27,28 +27,54 @@ import org.pentaho.di.core.Const;
 import org.pentaho.di.core.util.Utils;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
- * This class keeps the last N lines in a buffer
+ * This class keeps the last N lines in a buffer.
+ * <p>
+ * The lines are kept in a ring: every line gets the next sequence number and is stored in the position of the ring
+ * that sequence points to, overwriting the oldest line. Appending a line takes no lock. Next to the ring the lines of
+ * every log channel are indexed so that the lines of a transformation or job can be retrieved without looking at the
+ * lines of all the others.
  *
  * @author matt
  */
 public class LoggingBuffer {
+  /**
+   * The initial number of positions in the ring of a buffer without a maximum number of lines. The ring doubles in
+   * size when half of its positions hold a line.
+   */
+  private static final int UNLIMITED_INITIAL_CAPACITY = 1024;
+
+  /**
+   * The index key for lines logged without a log channel id.
+   */
+  private static final String NO_CHANNEL = "";
+
   private String name;
 
-  private List<BufferLine> buffer;
-  private ReadWriteLock lock = new ReentrantReadWriteLock();
+  private volatile Ring ring;
+  private final AtomicLong sequence = new AtomicLong();
+  private final AtomicInteger nrLines = new AtomicInteger();
+  private final ConcurrentMap<String, ChannelLines> channels = new ConcurrentHashMap<>();
 
-  private int bufferSize;
+  private volatile int bufferSize;
 
   private KettleLogLayout layout;
 
@@ -58,10 +84,7 @@ public class LoggingBuffer {
 
   public LoggingBuffer( int bufferSize ) {
     this.bufferSize = bufferSize;
-    // The buffer overflow protection allows it to be overflowed for 1 item within a single thread.
-    // Considering a possible high contention, let's set it's max overflow size to be 10%.
-    // Anyway, even an overflow goes higher than 10%, it wouldn't cost us too much.
-    buffer = new ArrayList<>( (int) ( bufferSize * 1.1 ) );
+    ring = new Ring( bufferSize > 0 ? bufferSize : UNLIMITED_INITIAL_CAPACITY );
     layout = new KettleLogLayout( true );
     eventListeners = new CopyOnWriteArrayList<>();
   }
@@ -70,16 +93,24 @@ public class LoggingBuffer {
    * @return the number (sequence, 1..N) of the last log line. If no records are present in the buffer, 0 is returned.
    */
   public int getLastBufferLineNr() {
-    lock.readLock().lock();
-    try {
-      if ( buffer.size() > 0 ) {
-        return buffer.get( buffer.size() - 1 ).getNr();
-      } else {
-        return 0;
+    Ring r = ring;
+    long last = sequence.get() - 1;
+    for ( long seq = last; seq >= 0 && seq > last - r.capacity; seq-- ) {
+      Slot slot = r.slots.get( r.index( seq ) );
+      if ( slot != null && slot.seq == seq ) {
+        if ( !slot.isRemoved() ) {
+          return slot.line.getNr();
+        }
+      } else if ( bufferSize <= 0 ) {
+        // Without a maximum the line can be stored on another position
+        //
+        break;
       }
-    } finally {
-      lock.readLock().unlock();
     }
+    // Without a maximum the ring can hold lines older than one round...
+    //
+    List<Slot> slots = r.getSlots();
+    return slots.isEmpty() ? 0 : slots.get( slots.size() - 1 ).line.getNr();
   }
 
   /**
@@ -91,19 +122,36 @@ public class LoggingBuffer {
    */
   public List<KettleLoggingEvent> getLogBufferFromTo( List<String> channelId, boolean includeGeneral, int from,
                                                       int to ) {
-    lock.readLock().lock();
-    try {
-      Stream<BufferLine> bufferStream = buffer.stream().filter( line -> line.getNr() > from && line.getNr() <= to );
-      if ( !Utils.isEmpty( channelId ) ) {
-        bufferStream = bufferStream.filter( line -> {
-          String logChannelId = getLogChId( line );
-          return includeGeneral ? isGeneral( logChannelId ) || channelId.contains( logChannelId ) : channelId.contains( logChannelId );
-        } );
+    List<Slot> slots;
+    if ( Utils.isEmpty( channelId ) ) {
+      slots = ring.getSlots();
+    } else {
+      Set<String> keys = new HashSet<>();
+      for ( String id : channelId ) {
+        keys.add( getChannelKey( id ) );
+      }
+      if ( includeGeneral ) {
+        for ( String key : channels.keySet() ) {
+          if ( isGeneral( key ) ) {
+            keys.add( key );
+          }
+        }
       }
-      return bufferStream.map( BufferLine::getEvent ).collect( Collectors.toList() );
-    } finally {
-      lock.readLock().unlock();
+      slots = new ArrayList<>();
+      for ( String key : keys ) {
+        ChannelLines lines = channels.get( key );
+        if ( lines != null ) {
+          for ( Slot slot : lines.slots ) {
+            if ( !slot.isRemoved() ) {
+              slots.add( slot );
+            }
+          }
+        }
+      }
+      slots.sort( Slot.BY_SEQUENCE );
     }
+    return slots.stream().map( slot -> slot.line ).filter( line -> line.getNr() > from && line.getNr() <= to )
+      .map( BufferLine::getEvent ).collect( Collectors.toList() );
   }
 
   /**
@@ -154,14 +202,19 @@ public class LoggingBuffer {
 
   public void doAppend( KettleLoggingEvent event ) {
     if ( event.getMessage() instanceof LogMessage ) {
-      lock.writeLock().lock();
-      try {
-        buffer.add( new BufferLine( event ) );
-        while ( bufferSize > 0 && buffer.size() > bufferSize ) {
-          buffer.remove( 0 );
-        }
-      } finally {
-        lock.writeLock().unlock();
+      String key = getChannelKey( ( (LogMessage) event.getMessage() ).getLogChannelId() );
+      Slot slot = new Slot( sequence.getAndIncrement(), new BufferLine( event ), key );
+      nrLines.incrementAndGet();
+      store( slot );
+
+      // Index the line for its channel. When the (empty) lines of the channel were dropped from the index in the
+      // meantime, add the line to the new lines of the channel.
+      //
+      ChannelLines lines = getChannelLines( key );
+      lines.slots.add( slot );
+      while ( channels.get( key ) != lines ) {
+        lines = getChannelLines( key );
+        lines.slots.add( slot );
       }
     }
   }
@@ -187,11 +240,13 @@ public class LoggingBuffer {
   }
 
   public void clear() {
-    lock.writeLock().lock();
-    try {
-      buffer.clear();
-    } finally {
-      lock.writeLock().unlock();
+    Ring r = ring;
+    for ( Slot slot : r.getSlots() ) {
+      remove( slot );
+    }
+    channels.clear();
+    if ( bufferSize <= 0 && r.capacity > UNLIMITED_INITIAL_CAPACITY ) {
+      resize( r, UNLIMITED_INITIAL_CAPACITY );
     }
   }
 
@@ -207,13 +262,17 @@ public class LoggingBuffer {
    */
   public void setMaxNrLines( int maxNrLines ) {
     this.bufferSize = maxNrLines;
+    Ring r = ring;
+    if ( maxNrLines > 0 && maxNrLines != r.capacity ) {
+      resize( r, maxNrLines );
+    }
   }
 
   /**
    * @return the nrLines
    */
   public int getNrLines() {
-    return buffer.size();
+    return nrLines.get();
   }
 
   /**
@@ -222,25 +281,22 @@ public class LoggingBuffer {
    * @param id the id of the logging channel to remove
    */
   public void removeChannelFromBuffer( String id ) {
-    lock.writeLock().lock();
-    try {
-      buffer.removeIf( line -> id.equals( getLogChId( line ) ) );
-    } finally {
-      lock.writeLock().unlock();
+    ChannelLines lines = channels.remove( getChannelKey( id ) );
+    if ( lines != null ) {
+      lines.slots.forEach( this::remove );
     }
   }
 
   public int size() {
-    return buffer.size();
+    return nrLines.get();
   }
 
   public void removeGeneralMessages() {
-    lock.writeLock().lock();
-    try {
-      buffer.removeIf( line -> isGeneral( getLogChId( line ) ) );
-    } finally {
-      lock.writeLock().unlock();
-    }
+    channels.forEach( ( key, lines ) -> {
+      if ( isGeneral( key ) && channels.remove( key, lines ) ) {
+        lines.slots.forEach( this::remove );
+      }
+    } );
   }
 
   /**
@@ -253,7 +309,7 @@ public class LoggingBuffer {
   @Deprecated
   @VisibleForTesting
   public Iterator<BufferLine> getBufferIterator() {
-    return buffer.iterator();
+    return ring.getSlots().stream().map( slot -> slot.line ).iterator();
   }
 
   /**
@@ -262,17 +318,12 @@ public class LoggingBuffer {
   @Deprecated
   public String dump() {
     StringBuilder buf = new StringBuilder( 50000 );
-    lock.readLock().lock();
-    try {
-      buffer.forEach( line -> {
-        LogMessage message = (LogMessage) line.getEvent().getMessage();
-        buf.append( message.getLogChannelId() ).append( "\t" )
-                .append( message.getSubject() ).append( "\n" );
-      } );
-      return buf.toString();
-    } finally {
-      lock.readLock().unlock();
-    }
+    ring.getSlots().forEach( slot -> {
+      LogMessage message = (LogMessage) slot.line.getEvent().getMessage();
+      buf.append( message.getLogChannelId() ).append( "\t" )
+              .append( message.getSubject() ).append( "\n" );
+    } );
+    return buf.toString();
   }
 
   /**
@@ -282,11 +333,12 @@ public class LoggingBuffer {
    */
   @Deprecated
   public void removeBufferLines( List<BufferLine> linesToRemove ) {
-    lock.writeLock().lock();
-    try {
-      buffer.removeAll( linesToRemove );
-    } finally {
-      lock.writeLock().unlock();
+    Map<BufferLine, Boolean> lines = new IdentityHashMap<>();
+    linesToRemove.forEach( line -> lines.put( line, Boolean.TRUE ) );
+    for ( Slot slot : ring.getSlots() ) {
+      if ( lines.containsKey( slot.line ) ) {
+        remove( slot );
+      }
     }
   }
 
@@ -297,34 +349,17 @@ public class LoggingBuffer {
    */
   @Deprecated
   public List<BufferLine> getBufferLinesBefore( long minTimeBoundary ) {
-    lock.readLock().lock();
-    try {
-      return buffer.stream().filter( line -> line.getEvent().timeStamp < minTimeBoundary )
-        .collect( Collectors.toList() );
-    } finally {
-      lock.readLock().unlock();
-    }
+    return ring.getSlots().stream().map( slot -> slot.line )
+      .filter( line -> line.getEvent().timeStamp < minTimeBoundary ).collect( Collectors.toList() );
   }
 
   public void removeBufferLinesBefore( long minTimeBoundary ) {
-    // Using HashSet even though BufferLine does not implement hashcode and equals,
-    // we just need to remove the exact objects we have found and put in the set.
-    Set<BufferLine> linesToRemove = new HashSet<>();
-    lock.writeLock().lock();
-    try {
-      for ( BufferLine bufferLine : buffer ) {
-        if ( bufferLine.getEvent().timeStamp < minTimeBoundary ) {
-          linesToRemove.add( bufferLine );
-        } else {
-          break;
-        }
+    for ( Slot slot : ring.getSlots() ) {
+      if ( slot.line.getEvent().timeStamp < minTimeBoundary ) {
+        remove( slot );
+      } else {
+        break;
       }
-      // removeAll should run fast against a HashSet,
-      // since ArrayList.batchRemove check for each element of a collection given if it is in the ArrayList.
-      // Thus, removeAll should run in a linear time.
-      buffer.removeAll( linesToRemove );
-    } finally {
-      lock.writeLock().unlock();
     }
   }
 
@@ -341,12 +376,193 @@ public class LoggingBuffer {
     eventListeners.remove( listener );
   }
 
+  @VisibleForTesting
+  int getRingCapacity() {
+    return ring.capacity;
+  }
+
+  /**
+   * Stores the line in the ring. When the ring is replaced while doing so, the line is stored in the new ring as well.
+   */
+  private void store( Slot slot ) {
+    Ring r = ring;
+    store( r, slot );
+    for ( Ring current = ring; current != r; current = ring ) {
+      r = current;
+      store( r, slot );
+    }
+  }
+
+  private void store( Ring r, Slot slot ) {
+    int index = r.index( slot.seq );
+    int probes = 0;
+    while ( !slot.isRemoved() ) {
+      Slot current = r.slots.get( index );
+      if ( current == slot ) {
+        return;
+      }
+      if ( current == null || current.isRemoved() || ( bufferSize > 0 && current.seq < slot.seq ) ) {
+        if ( r.slots.compareAndSet( index, current, slot ) ) {
+          if ( current != null ) {
+            evict( current );
+          }
+          return;
+        }
+      } else if ( bufferSize > 0 ) {
+        // A newer line already took this position, this line dropped out of the buffer right away.
+        //
+        evict( slot );
+        return;
+      } else if ( nrLines.get() < r.capacity / 2 && ++probes < r.capacity ) {
+        // No limit: an older line that is still kept holds this position, use the next free one. The ring only grows
+        // once half of it is in use, so lines that are kept for long don't make it grow on every round.
+        //
+        index = index + 1 == r.capacity ? 0 : index + 1;
+      } else {
+        // No limit and the ring is filling up: make room, the caller stores the line in the larger ring
+        //
+        resize( r, r.capacity * 2 );
+        return;
+      }
+    }
+  }
+
+  /**
+   * Replaces the ring with one of the given capacity and copies the lines over, oldest first.
+   */
+  private synchronized void resize( Ring expected, int capacity ) {
+    Ring old = ring;
+    if ( old != expected ) {
+      return;
+    }
+    ring = new Ring( capacity );
+    for ( Slot slot : old.getSlots() ) {
+      store( slot );
+    }
+  }
+
+  /**
+   * Removes the line. A line that was moved to another position of the ring of an unlimited buffer keeps that position
+   * until a new line takes it: it is marked as removed and no longer returned.
+   */
+  private void remove( Slot slot ) {
+    Ring r = ring;
+    r.slots.compareAndSet( r.index( slot.seq ), slot, null );
+    evict( slot );
+  }
+
+  /**
+   * Marks the line as removed and drops the removed lines at the head of its channel from the index.
+   */
+  private void evict( Slot slot ) {
+    if ( slot.markRemoved() ) {
+      nrLines.decrementAndGet();
+      ChannelLines lines = channels.get( slot.channelKey );
+      if ( lines != null ) {
+        // The oldest lines of a channel are typically the first to go
+        //
+        Slot head = lines.slots.peek();
+        while ( head != null && head.isRemoved() ) {
+          lines.slots.remove( head );
+          head = lines.slots.peek();
+        }
+        if ( head == null ) {
+          channels.computeIfPresent( slot.channelKey, ( key, value ) -> value.slots.isEmpty() ? null : value );
+        }
+      }
+    }
+  }
+
+  private ChannelLines getChannelLines( String key ) {
+    ChannelLines lines = channels.get( key );
+    if ( lines == null ) {
+      lines = channels.computeIfAbsent( key, k -> new ChannelLines() );
+    }
+    return lines;
+  }
+
+  private static String getChannelKey( String logChannelId ) {
+    return logChannelId == null ? NO_CHANNEL : logChannelId;
+  }
+
   private boolean isGeneral( String logChannelId ) {
     LoggingObjectInterface loggingObject = loggingRegistry.getLoggingObject( logChannelId );
     return loggingObject != null && LoggingObjectType.GENERAL.equals( loggingObject.getObjectType() );
   }
 
-  private static String getLogChId( BufferLine bufferLine ) {
-    return ( (LogMessage) bufferLine.getEvent().getMessage() ).getLogChannelId();
+  /**
+   * A position in the ring: the line with its sequence number.
+   */
+  private static final class Slot {
+    private static final AtomicIntegerFieldUpdater<Slot> REMOVED =
+      AtomicIntegerFieldUpdater.newUpdater( Slot.class, "removed" );
+    private static final Comparator<Slot> BY_SEQUENCE = Comparator.comparingLong( slot -> slot.seq );
+
+    private final long seq;
+    private final BufferLine line;
+    private final String channelKey;
+    private volatile int removed;
+
+    private Slot( long seq, BufferLine line, String channelKey ) {
+      this.seq = seq;
+      this.line = line;
+      this.channelKey = channelKey;
+    }
+
+    private boolean isRemoved() {
+      return removed != 0;
+    }
+
+    /**
+     * @return true if this call removed the line, false if it was removed already
+     */
+    private boolean markRemoved() {
+      return REMOVED.compareAndSet( this, 0, 1 );
+    }
+  }
+
+  private static final class Ring {
+    private final int capacity;
+    private final AtomicReferenceArray<Slot> slots;
+
+    private Ring( int capacity ) {
+      this.capacity = capacity;
+      this.slots = new AtomicReferenceArray<>( capacity );
+    }
+
+    private int index( long seq ) {
+      return (int) ( seq % capacity );
+    }
+
+    /**
+     * @return the lines in the ring, oldest first
+     */
+    private List<Slot> getSlots() {
+      List<Slot> list = new ArrayList<>( capacity );
+      for ( int i = 0; i < capacity; i++ ) {
+        Slot slot = slots.get( i );
+        if ( slot != null && !slot.isRemoved() ) {
+          list.add( slot );
+        }
+      }
+      list.sort( Slot.BY_SEQUENCE );
+      // A line that was copied to a new ring while it was appended can be stored twice
+      //
+      List<Slot> unique = new ArrayList<>( list.size() );
+      for ( Slot slot : list ) {
+        if ( unique.isEmpty() || unique.get( unique.size() - 1 ) != slot ) {
+          unique.add( slot );
+        }
+      }
+      return unique;
+    }
+  }
+
+  /**
+   * The lines of one log channel, oldest first. Whether the channel is a general one is looked up in the logging
+   * registry when the lines are retrieved, since the type of the logging object can change.
+   */
+  private static final class ChannelLines {
+    private final Queue<Slot> slots = new ConcurrentLinkedQueue<>();
   }
 }
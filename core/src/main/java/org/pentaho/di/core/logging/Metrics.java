@@ -94,6 +94,19 @@ public class Metrics implements MetricsInterface {
   public static Metrics METRIC_DATABASE_GET_ROW_MAX_TIME = new Metrics(
     MetricsSnapshotType.MAX, "METRIC_DATABASE_GET_ROW_MAX_TIME", "Get row from DB (max time)" );
 
+  // Database connection pools
+  //
+  public static Metrics METRIC_DATABASE_POOL_GET_CONNECTION_COUNT = new Metrics(
+    MetricsSnapshotType.COUNT, "METRIC_DATABASE_POOL_GET_CONNECTION_COUNT", "Get connection from pool (count)" );
+  public static Metrics METRIC_DATABASE_POOL_WAIT_TIME_SUM = new Metrics(
+    MetricsSnapshotType.SUM, "METRIC_DATABASE_POOL_WAIT_TIME_SUM", "Wait for pooled connection (total time)" );
+  public static Metrics METRIC_DATABASE_POOL_WAIT_TIME_MAX = new Metrics(
+    MetricsSnapshotType.MAX, "METRIC_DATABASE_POOL_WAIT_TIME_MAX", "Wait for pooled connection (max time)" );
+  public static Metrics METRIC_DATABASE_POOL_ACTIVE_MAX = new Metrics(
+    MetricsSnapshotType.MAX, "METRIC_DATABASE_POOL_ACTIVE_MAX", "Active pooled connections (max)" );
+  public static Metrics METRIC_DATABASE_POOL_IDLE_MIN = new Metrics(
+    MetricsSnapshotType.MIN, "METRIC_DATABASE_POOL_IDLE_MIN", "Idle pooled connections (min)" );
+
   // Plugin registry...
   //
   public static Metrics METRIC_PLUGIN_REGISTRY_REGISTER_EXTENSIONS_START = new Metrics(
@@ -133,6 +146,10 @@ public class Metrics implements MetricsInterface {
     MetricsSnapshotType.START, "METRIC_STEP_INIT", "Initialize a step" );
   public static Metrics METRIC_STEP_INIT_STOP = new Metrics(
     MetricsSnapshotType.STOP, "METRIC_STEP_INIT", "Initialize a step" );
+  public static Metrics METRIC_STEP_CACHE_HIT_COUNT = new Metrics(
+    MetricsSnapshotType.COUNT, "METRIC_STEP_CACHE_HIT_COUNT", "Number of lookups served from the step cache" );
+  public static Metrics METRIC_STEP_CACHE_MISS_COUNT = new Metrics(
+    MetricsSnapshotType.COUNT, "METRIC_STEP_CACHE_MISS_COUNT", "Number of lookups not found in the step cache" );
 
   // Logging back-end
   //
@@ -0,0 +1,50 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2021 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.metrics;
+
+import java.util.List;
+import java.util.Map;
+
+import org.pentaho.di.core.database.ConnectionPoolInterface;
+import org.pentaho.di.core.database.ConnectionPoolUtil;
+
+/**
+ * Collects the number of active and idle connections of the database connection pools.
+ */
+public class ConnectionPoolMetricsCollector implements MetricsCollectorInterface {
+
+  @Override
+  public void collect( List<MetricFamily> families ) {
+    MetricFamily active = new MetricFamily( "kettle_db_pool_active_connections",
+      "Number of connections handed out by a database connection pool.", MetricFamily.Type.GAUGE );
+    MetricFamily idle = new MetricFamily( "kettle_db_pool_idle_connections",
+      "Number of idle connections in a database connection pool.", MetricFamily.Type.GAUGE );
+    for ( Map.Entry<String, ConnectionPoolInterface> entry : ConnectionPoolUtil.getConnectionPools().entrySet() ) {
+      active.addSample( entry.getValue().getNumActive(), "pool", entry.getKey() );
+      idle.addSample( entry.getValue().getNumIdle(), "pool", entry.getKey() );
+    }
+    families.add( active );
+    families.add( idle );
+  }
+}
@@ -0,0 +1,76 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2021 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.metrics;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+
+/**
+ * Collects the memory, thread and garbage collection statistics of the JVM.
+ */
+public class JvmMetricsCollector implements MetricsCollectorInterface {
+
+  @Override
+  public void collect( List<MetricFamily> families ) {
+    MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    MemoryUsage heap = memory.getHeapMemoryUsage();
+    MemoryUsage nonHeap = memory.getNonHeapMemoryUsage();
+    families.add( new MetricFamily( "jvm_memory_used_bytes", "Used bytes of a given JVM memory area.",
+      MetricFamily.Type.GAUGE )
+      .addSample( heap.getUsed(), "area", "heap" )
+      .addSample( nonHeap.getUsed(), "area", "nonheap" ) );
+    families.add( new MetricFamily( "jvm_memory_committed_bytes", "Committed bytes of a given JVM memory area.",
+      MetricFamily.Type.GAUGE )
+      .addSample( heap.getCommitted(), "area", "heap" )
+      .addSample( nonHeap.getCommitted(), "area", "nonheap" ) );
+    families.add( new MetricFamily( "jvm_memory_max_bytes", "Max bytes of a given JVM memory area.",
+      MetricFamily.Type.GAUGE )
+      .addSample( heap.getMax(), "area", "heap" )
+      .addSample( nonHeap.getMax(), "area", "nonheap" ) );
+
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    families.add( new MetricFamily( "jvm_threads_current", "Current thread count of the JVM.",
+      MetricFamily.Type.GAUGE ).addSample( threads.getThreadCount() ) );
+    families.add( new MetricFamily( "jvm_threads_daemon", "Daemon thread count of the JVM.",
+      MetricFamily.Type.GAUGE ).addSample( threads.getDaemonThreadCount() ) );
+
+    MetricFamily gcCount = new MetricFamily( "jvm_gc_collection_count_total",
+      "Number of garbage collections of a given collector.", MetricFamily.Type.COUNTER );
+    MetricFamily gcTime = new MetricFamily( "jvm_gc_collection_seconds_total",
+      "Time spent in garbage collections of a given collector.", MetricFamily.Type.COUNTER );
+    for ( GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans() ) {
+      gcCount.addSample( gc.getCollectionCount(), "gc", gc.getName() );
+      gcTime.addSample( gc.getCollectionTime() / 1000.0, "gc", gc.getName() );
+    }
+    families.add( gcCount );
+    families.add( gcTime );
+
+    families.add( new MetricFamily( "process_uptime_seconds", "Uptime of the JVM.", MetricFamily.Type.GAUGE )
+      .addSample( ManagementFactory.getRuntimeMXBean().getUptime() / 1000.0 ) );
+  }
+}
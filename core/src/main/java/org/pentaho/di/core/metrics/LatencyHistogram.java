@@ -0,0 +1,116 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2021 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of durations with fixed, exponentially growing buckets. Recording a duration only increments
+ * a couple of {@link LongAdder}s so it's cheap enough to be done for every row a step processes. Readers see a
+ * slightly inconsistent view while values are being recorded, which is fine for monitoring purposes.
+ */
+public class LatencyHistogram {
+
+  /** The upper bounds of the buckets in seconds, the last bucket (+Inf) is implied */
+  private static final double[] BUCKET_BOUNDS = { 0.00001, 0.0001, 0.001, 0.01, 0.1, 1.0, 10.0 };
+
+  private static final long[] BUCKET_BOUNDS_NANOS = new long[ BUCKET_BOUNDS.length ];
+
+  static {
+    for ( int i = 0; i < BUCKET_BOUNDS.length; i++ ) {
+      BUCKET_BOUNDS_NANOS[ i ] = Math.round( BUCKET_BOUNDS[ i ] * TimeUnit.SECONDS.toNanos( 1 ) );
+    }
+  }
+
+  private final LongAdder[] buckets;
+  private final LongAdder sumNanos;
+
+  public LatencyHistogram() {
+    buckets = new LongAdder[ BUCKET_BOUNDS.length + 1 ];
+    for ( int i = 0; i < buckets.length; i++ ) {
+      buckets[ i ] = new LongAdder();
+    }
+    sumNanos = new LongAdder();
+  }
+
+  /**
+   * @param nanos
+   *          the duration to record in nanoseconds
+   */
+  public void record( long nanos ) {
+    int i = 0;
+    while ( i < BUCKET_BOUNDS_NANOS.length && nanos > BUCKET_BOUNDS_NANOS[ i ] ) {
+      i++;
+    }
+    buckets[ i ].increment();
+    sumNanos.add( nanos );
+  }
+
+  /**
+   * @return the upper bounds of the buckets in seconds, without the implied +Inf bucket
+   */
+  public static double[] getBucketBounds() {
+    return BUCKET_BOUNDS.clone();
+  }
+
+  /**
+   * @return the cumulative number of durations per bucket (less than or equal to the bound), the last one being the
+   *         total count
+   */
+  public long[] getCumulativeCounts() {
+    long[] counts = new long[ buckets.length ];
+    long total = 0L;
+    for ( int i = 0; i < buckets.length; i++ ) {
+      total += buckets[ i ].sum();
+      counts[ i ] = total;
+    }
+    return counts;
+  }
+
+  /**
+   * @return the number of recorded durations
+   */
+  public long getCount() {
+    long total = 0L;
+    for ( LongAdder bucket : buckets ) {
+      total += bucket.sum();
+    }
+    return total;
+  }
+
+  /**
+   * @return the sum of all recorded durations in nanoseconds
+   */
+  public long getSumNanos() {
+    return sumNanos.sum();
+  }
+
+  public void reset() {
+    for ( LongAdder bucket : buckets ) {
+      bucket.reset();
+    }
+    sumNanos.reset();
+  }
+}
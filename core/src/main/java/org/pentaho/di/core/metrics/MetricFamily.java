@@ -0,0 +1,161 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2021 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A named metric with its samples, following the Prometheus data model: a counter or gauge has one sample per set of
+ * labels, a histogram has a <code>_bucket</code> sample per bound and a <code>_sum</code> and <code>_count</code>
+ * sample per set of labels.
+ */
+public class MetricFamily {
+
+  public enum Type {
+    COUNTER, GAUGE, HISTOGRAM;
+  }
+
+  public static class Sample {
+    private final String name;
+    private final String[] labels;
+    private final double value;
+
+    /**
+     * @param name
+     *          the name of the sample
+     * @param labels
+     *          alternating label names and values
+     * @param value
+     *          the value of the sample
+     */
+    public Sample( String name, String[] labels, double value ) {
+      this.name = name;
+      this.labels = labels;
+      this.value = value;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * @return alternating label names and values
+     */
+    public String[] getLabels() {
+      return labels;
+    }
+
+    public double getValue() {
+      return value;
+    }
+  }
+
+  private final String name;
+  private final String help;
+  private final Type type;
+  private final List<Sample> samples;
+
+  /**
+   * @param name
+   *          the metric name, for counters ending in <code>_total</code> by convention
+   * @param help
+   *          a description of the metric
+   * @param type
+   *          the type of the metric
+   */
+  public MetricFamily( String name, String help, Type type ) {
+    this.name = name;
+    this.help = help;
+    this.type = type;
+    this.samples = new ArrayList<>();
+  }
+
+  /**
+   * Adds the value of a counter or gauge.
+   *
+   * @param value
+   *          the value
+   * @param labels
+   *          alternating label names and values
+   * @return this metric family
+   */
+  public MetricFamily addSample( double value, String... labels ) {
+    samples.add( new Sample( name, labels, value ) );
+    return this;
+  }
+
+  /**
+   * Adds the buckets, sum (in seconds) and count of a histogram.
+   *
+   * @param histogram
+   *          the histogram
+   * @param labels
+   *          alternating label names and values
+   * @return this metric family
+   */
+  public MetricFamily addHistogram( LatencyHistogram histogram, String... labels ) {
+    double[] bounds = LatencyHistogram.getBucketBounds();
+    long[] counts = histogram.getCumulativeCounts();
+    for ( int i = 0; i < counts.length; i++ ) {
+      String le = i < bounds.length ? Double.toString( bounds[ i ] ) : "+Inf";
+      samples.add( new Sample( name + "_bucket", withLabel( labels, "le", le ), counts[ i ] ) );
+    }
+    samples.add( new Sample( name + "_sum", labels, histogram.getSumNanos() / 1.0E9 ) );
+    samples.add( new Sample( name + "_count", labels, counts[ counts.length - 1 ] ) );
+    return this;
+  }
+
+  private static String[] withLabel( String[] labels, String labelName, String labelValue ) {
+    String[] result = new String[ labels.length + 2 ];
+    System.arraycopy( labels, 0, result, 0, labels.length );
+    result[ labels.length ] = labelName;
+    result[ labels.length + 1 ] = labelValue;
+    return result;
+  }
+
+  /**
+   * Adds the samples of another family with the same name, type and help to this one.
+   */
+  public void addSamples( MetricFamily other ) {
+    samples.addAll( other.samples );
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getHelp() {
+    return help;
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  public List<Sample> getSamples() {
+    return Collections.unmodifiableList( samples );
+  }
+}
@@ -0,0 +1,41 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2021 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.metrics;
+
+import java.util.List;
+
+/**
+ * A source of runtime metrics, registered with {@link MetricsExport}. Collectors are called by whichever thread
+ * scrapes or exports the metrics so they should only read counters and never block the threads doing the work.
+ */
+public interface MetricsCollectorInterface {
+
+  /**
+   * Adds the current values of the metrics of this collector to the list.
+   *
+   * @param families
+   *          the list to add the metric families to
+   */
+  void collect( List<MetricFamily> families );
+}
@@ -0,0 +1,145 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2021 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.metrics;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.logging.LogChannel;
+import org.pentaho.di.core.util.EnvUtil;
+import org.pentaho.di.i18n.BaseMessages;
+
+/**
+ * The registry of metrics collectors and exporters. By default the JVM and the database connection pools are
+ * collected, Carte adds the transformations and jobs it runs. The metrics can be scraped with {@link #collect()} (for
+ * example by the Prometheus endpoint of Carte) and are pushed to all registered exporters every
+ * {@link Const#KETTLE_METRICS_EXPORT_INTERVAL} milliseconds.
+ */
+public class MetricsExport {
+  private static Class<?> PKG = MetricsExport.class; // for i18n purposes, needed by Translator2!!
+
+  public static final int DEFAULT_EXPORT_INTERVAL = 15000;
+
+  private static final MetricsExport instance = new MetricsExport();
+
+  private final List<MetricsCollectorInterface> collectors;
+  private final List<MetricsExporterInterface> exporters;
+  private ScheduledExecutorService scheduler;
+
+  MetricsExport() {
+    collectors = new CopyOnWriteArrayList<>();
+    exporters = new CopyOnWriteArrayList<>();
+    collectors.add( new JvmMetricsCollector() );
+    collectors.add( new ConnectionPoolMetricsCollector() );
+  }
+
+  public static MetricsExport getInstance() {
+    return instance;
+  }
+
+  public void addCollector( MetricsCollectorInterface collector ) {
+    collectors.add( collector );
+  }
+
+  public void removeCollector( MetricsCollectorInterface collector ) {
+    collectors.remove( collector );
+  }
+
+  /**
+   * Registers an exporter, starting the periodic export if this is the first one.
+   */
+  public synchronized void addExporter( MetricsExporterInterface exporter ) {
+    exporters.add( exporter );
+    if ( scheduler == null ) {
+      long interval = Const.toInt(
+        EnvUtil.getSystemProperty( Const.KETTLE_METRICS_EXPORT_INTERVAL ), DEFAULT_EXPORT_INTERVAL );
+      scheduler = Executors.newSingleThreadScheduledExecutor( r -> {
+        Thread thread = new Thread( r, "Metrics export" );
+        thread.setDaemon( true );
+        return thread;
+      } );
+      scheduler.scheduleWithFixedDelay( this::export, interval, interval, TimeUnit.MILLISECONDS );
+    }
+  }
+
+  /**
+   * Removes an exporter, stopping the periodic export if it was the last one.
+   */
+  public synchronized void removeExporter( MetricsExporterInterface exporter ) {
+    exporters.remove( exporter );
+    if ( exporters.isEmpty() && scheduler != null ) {
+      scheduler.shutdown();
+      scheduler = null;
+    }
+  }
+
+  /**
+   * @return the current metrics of all collectors, metric families with the same name are combined
+   */
+  public List<MetricFamily> collect() {
+    Map<String, MetricFamily> byName = new LinkedHashMap<>();
+    for ( MetricsCollectorInterface collector : collectors ) {
+      List<MetricFamily> families = new ArrayList<>();
+      try {
+        collector.collect( families );
+      } catch ( RuntimeException e ) {
+        LogChannel.GENERAL.logError( BaseMessages.getString( PKG, "MetricsExport.Error.UnableToCollect",
+          collector.getClass().getName() ), e );
+      }
+      for ( MetricFamily family : families ) {
+        MetricFamily existing = byName.putIfAbsent( family.getName(), family );
+        if ( existing != null ) {
+          existing.addSamples( family );
+        }
+      }
+    }
+    return new ArrayList<>( byName.values() );
+  }
+
+  /**
+   * Collects the metrics and hands them to all registered exporters.
+   */
+  public void export() {
+    if ( exporters.isEmpty() ) {
+      return;
+    }
+    List<MetricFamily> families = collect();
+    for ( MetricsExporterInterface exporter : exporters ) {
+      try {
+        exporter.export( families );
+      } catch ( KettleException | RuntimeException e ) {
+        LogChannel.GENERAL.logError( BaseMessages.getString( PKG, "MetricsExport.Error.UnableToExport",
+          exporter.getName() ), e );
+      }
+    }
+  }
+}
@@ -0,0 +1,50 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2021 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.metrics;
+
+import java.util.List;
+
+import org.pentaho.di.core.exception.KettleException;
+
+/**
+ * Publishes the collected metrics to a monitoring system. Exporters registered with {@link MetricsExport} are called
+ * periodically with all metrics, the Prometheus endpoint of Carte doesn't need one as it is scraped instead.
+ */
+public interface MetricsExporterInterface {
+
+  /**
+   * @return a name to identify the exporter in the log
+   */
+  String getName();
+
+  /**
+   * Publishes the metrics.
+   *
+   * @param families
+   *          all collected metric families
+   * @throws KettleException
+   *           in case the metrics couldn't be published
+   */
+  void export( List<MetricFamily> families ) throws KettleException;
+}
@@ -0,0 +1,112 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2021 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Writes metric families in the Prometheus text exposition format (version 0.0.4).
+ */
+public class PrometheusTextFormat {
+
+  public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+  private PrometheusTextFormat() {
+  }
+
+  public static void write( Writer writer, List<MetricFamily> families ) throws IOException {
+    for ( MetricFamily family : families ) {
+      writer.write( "# HELP " );
+      writer.write( family.getName() );
+      writer.write( ' ' );
+      writer.write( escape( family.getHelp(), false ) );
+      writer.write( '\n' );
+      writer.write( "# TYPE " );
+      writer.write( family.getName() );
+      writer.write( ' ' );
+      writer.write( family.getType().name().toLowerCase( Locale.ROOT ) );
+      writer.write( '\n' );
+
+      for ( MetricFamily.Sample sample : family.getSamples() ) {
+        writer.write( sample.getName() );
+        String[] labels = sample.getLabels();
+        if ( labels.length > 0 ) {
+          writer.write( '{' );
+          for ( int i = 0; i + 1 < labels.length; i += 2 ) {
+            if ( i > 0 ) {
+              writer.write( ',' );
+            }
+            writer.write( labels[ i ] );
+            writer.write( "=\"" );
+            writer.write( escape( labels[ i + 1 ], true ) );
+            writer.write( '"' );
+          }
+          writer.write( '}' );
+        }
+        writer.write( ' ' );
+        writer.write( formatValue( sample.getValue() ) );
+        writer.write( '\n' );
+      }
+    }
+  }
+
+  static String formatValue( double value ) {
+    if ( Double.isNaN( value ) ) {
+      return "NaN";
+    }
+    if ( Double.isInfinite( value ) ) {
+      return value > 0 ? "+Inf" : "-Inf";
+    }
+    if ( value == Math.rint( value ) && Math.abs( value ) < 1.0E15 ) {
+      return Long.toString( (long) value );
+    }
+    return Double.toString( value );
+  }
+
+  /**
+   * Escapes backslashes and new lines and, in label values, double quotes.
+   */
+  static String escape( String value, boolean quotes ) {
+    if ( value == null ) {
+      return "";
+    }
+    StringBuilder escaped = new StringBuilder( value.length() );
+    for ( int i = 0; i < value.length(); i++ ) {
+      char c = value.charAt( i );
+      if ( c == '\\' ) {
+        escaped.append( "\\\\" );
+      } else if ( c == '\n' ) {
+        escaped.append( "\\n" );
+      } else if ( c == '"' && quotes ) {
+        escaped.append( "\\\"" );
+      } else {
+        escaped.append( c );
+      }
+    }
+    return escaped.toString();
+  }
+}
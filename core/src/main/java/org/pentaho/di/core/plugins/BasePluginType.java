@@ -56,7 +56,6 @@ import org.pentaho.di.core.vfs.KettleVFS;
 import org.pentaho.di.core.xml.XMLHandler;
 import org.pentaho.di.i18n.BaseMessages;
 import org.pentaho.di.i18n.GlobalMessageUtil;
-import org.scannotation.AnnotationDB;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 
@@ -397,12 +396,15 @@ public abstract class BasePluginType implements PluginTypeInterface {
         }
 
         if ( fileObjects != null ) {
+          // Scan the jar files that were not seen by a previous plugin type in parallel
+          //
+          jarFileCache.scanArchives( fileObjects );
+
           for ( FileObject fileObject : fileObjects ) {
             // These are the jar files : find annotations in it...
             //
             try {
-              AnnotationDB annotationDB = jarFileCache.getAnnotationDB( fileObject );
-              Set<String> impls = annotationDB.getAnnotationIndex().get( annotationClassName );
+              Set<String> impls = jarFileCache.getAnnotationIndex( fileObject ).get( annotationClassName );
               if ( impls != null ) {
 
                 for ( String fil : impls ) {
@@ -23,11 +23,21 @@
 package org.pentaho.di.core.plugins;
 
 import java.io.IOException;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
+import org.apache.commons.vfs2.FileContent;
 import org.apache.commons.vfs2.FileObject;
 import org.pentaho.di.core.exception.KettleFileException;
+import org.pentaho.di.core.logging.LogChannel;
+import org.pentaho.di.core.util.ExecutorUtil;
 import org.scannotation.AnnotationDB;
 
 public class JarFileCache {
@@ -38,18 +48,30 @@ public class JarFileCache {
 
   private final Map<FileObject, AnnotationDB> annotationMap;
 
+  private final Map<FileObject, Map<String, Set<String>>> annotationIndexMap;
+
+  private PluginScanIndex scanIndex;
+
+  private boolean scanIndexLoaded;
+
   private JarFileCache() {
-    annotationMap = new HashMap<>();
-    folderMap = new HashMap<>();
+    annotationMap = new ConcurrentHashMap<>();
+    folderMap = new ConcurrentHashMap<>();
+    annotationIndexMap = new ConcurrentHashMap<>();
   }
 
-  public static JarFileCache getInstance() {
+  public static synchronized JarFileCache getInstance() {
     if ( cache == null ) {
       cache = new JarFileCache();
     }
     return cache;
   }
 
+  /**
+   * @deprecated this scans all the annotations of the jar file on every start-up, use
+   * {@link #getAnnotationIndex(FileObject)} to find the annotated classes.
+   */
+  @Deprecated
   public AnnotationDB getAnnotationDB( FileObject fileObject ) throws IOException {
     AnnotationDB result = annotationMap.get( fileObject );
     if ( result == null ) {
@@ -60,6 +82,115 @@ public class JarFileCache {
     return result;
   }
 
+  /**
+   * Gets the class names per class annotation of a jar file. The index is taken from the persistent plugin scan index
+   * when the jar file didn't change since it was last scanned.
+   *
+   * @param fileObject the jar file
+   * @return the class names per annotation class name
+   * @throws IOException in case the jar file can't be read
+   */
+  public Map<String, Set<String>> getAnnotationIndex( FileObject fileObject ) throws IOException {
+    Map<String, Set<String>> result = annotationIndexMap.get( fileObject );
+    if ( result == null ) {
+      result = loadAnnotationIndex( fileObject );
+      annotationIndexMap.put( fileObject, result );
+    }
+    return result;
+  }
+
+  /**
+   * Scans the jar files that are not indexed yet in parallel.
+   *
+   * @param fileObjects the jar files to scan
+   */
+  public void scanArchives( FileObject[] fileObjects ) {
+    Queue<FileObject> toScan = new ConcurrentLinkedQueue<>();
+    for ( FileObject fileObject : fileObjects ) {
+      if ( !annotationIndexMap.containsKey( fileObject ) ) {
+        toScan.add( fileObject );
+      }
+    }
+    int threads = Math.min( toScan.size(), Runtime.getRuntime().availableProcessors() );
+    if ( threads <= 1 ) {
+      return;
+    }
+    getScanIndex();
+
+    List<Future<?>> futures = new ArrayList<>( threads );
+    for ( int i = 0; i < threads; i++ ) {
+      futures.add( ExecutorUtil.getExecutor().submit( () -> {
+        FileObject fileObject;
+        while ( ( fileObject = toScan.poll() ) != null ) {
+          try {
+            getAnnotationIndex( fileObject );
+          } catch ( Exception e ) {
+            // The error is reported again when the plugin type asks for this jar file
+            LogChannel.GENERAL.logDebug( "Error while scanning jar plugin: '" + fileObject + "'", e );
+          }
+        }
+      } ) );
+    }
+    for ( Future<?> future : futures ) {
+      try {
+        future.get();
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch ( ExecutionException e ) {
+        LogChannel.GENERAL.logDebug( "Error while scanning jar plugins", e );
+      }
+    }
+  }
+
+  private Map<String, Set<String>> loadAnnotationIndex( FileObject fileObject ) throws IOException {
+    PluginScanIndex index = getScanIndex();
+    String path = null;
+    long size = -1L;
+    long modified = -1L;
+    if ( index != null ) {
+      path = fileObject.getName().getURI();
+      FileContent content = fileObject.getContent();
+      size = content.getSize();
+      modified = content.getLastModifiedTime();
+      Map<String, Set<String>> result = index.get( path, size, modified );
+      if ( result != null ) {
+        return result;
+      }
+    }
+
+    // Only the class annotations are used to find plugins
+    //
+    AnnotationDB annotationDB = new AnnotationDB();
+    annotationDB.setScanMethodAnnotations( false );
+    annotationDB.setScanParameterAnnotations( false );
+    annotationDB.setScanFieldAnnotations( false );
+    annotationDB.scanArchives( fileObject.getURL() );
+    Map<String, Set<String>> result = annotationDB.getAnnotationIndex();
+
+    if ( index != null ) {
+      index.put( path, size, modified, result );
+    }
+    return result;
+  }
+
+  private synchronized PluginScanIndex getScanIndex() {
+    if ( !scanIndexLoaded ) {
+      scanIndex = PluginScanIndex.createDefault();
+      scanIndexLoaded = true;
+    }
+    return scanIndex;
+  }
+
+  /**
+   * Writes the persistent plugin scan index if any jar file was scanned.
+   */
+  public synchronized void saveScanIndex() {
+    if ( scanIndex != null && scanIndex.save() ) {
+      LogChannel.GENERAL.logDebug( "Plugin scan index written to " + scanIndex.getFile() );
+    }
+  }
+
   public FileObject[] getFileObjects( PluginFolderInterface pluginFolderInterface ) throws KettleFileException {
     FileObject[] result = folderMap.get( pluginFolderInterface );
     if ( result == null ) {
@@ -69,8 +200,11 @@ public class JarFileCache {
     return result;
   }
 
-  public void clear() {
+  public synchronized void clear() {
     annotationMap.clear();
     folderMap.clear();
+    annotationIndexMap.clear();
+    scanIndex = null;
+    scanIndexLoaded = false;
   }
 }
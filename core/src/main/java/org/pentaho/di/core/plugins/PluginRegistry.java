@@ -23,6 +23,7 @@
 package org.pentaho.di.core.plugins;
 
 import org.pentaho.di.core.Const;
+import org.pentaho.di.core.KettleClientEnvironment;
 import org.pentaho.di.core.exception.KettlePluginClassMapException;
 import org.pentaho.di.core.exception.KettlePluginException;
 import org.pentaho.di.core.logging.KettleLogStore;
@@ -99,6 +100,9 @@ public class PluginRegistry {
   private final Map<Class<? extends PluginTypeInterface>, Set<PluginTypeListener>> listeners = new HashMap<>();
 
   private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+  /** The plugin types that are registered but not searched for plugins yet, see {@link #isLazyInit()} */
+  private final Map<Class<? extends PluginTypeInterface>, PendingType> pendingTypes = new ConcurrentHashMap<>();
   private static final int WAIT_FOR_PLUGIN_TO_BE_AVAILABLE_LIMIT = 3000;
 
 
@@ -164,6 +168,9 @@ public class PluginRegistry {
   }
 
   public void removePlugin( Class<? extends PluginTypeInterface> pluginType, PluginInterface plugin ) {
+    // Otherwise a later search would bring it back
+    searchPendingTypes( pluginType );
+
     lock.writeLock().lock();
     try {
       URLClassLoader ucl;
@@ -280,6 +287,8 @@ public class PluginRegistry {
    * @return The list of plugins
    */
   public <T extends PluginInterface, K extends PluginTypeInterface> List<T> getPlugins( Class<K> type ) {
+    searchPendingTypes( type );
+
     List<T> result;
     lock.readLock().lock();
     try {
@@ -337,6 +346,8 @@ public class PluginRegistry {
    *         registry in any way.
    */
   public List<String> getCategories( Class<? extends PluginTypeInterface> pluginType ) {
+    searchPendingTypes( pluginType );
+
     lock.readLock().lock();
     try {
       return new ArrayList<>( categoryMap.get( pluginType ) );
@@ -572,7 +583,14 @@ public class PluginRegistry {
     log.snap( Metrics.METRIC_PLUGIN_REGISTRY_REGISTER_EXTENSIONS_STOP );
 
     log.snap( Metrics.METRIC_PLUGIN_REGISTRY_PLUGIN_REGISTRATION_START );
+    boolean lazyInit = isLazyInit();
     for ( final PluginTypeInterface pluginType : pluginTypes ) {
+      if ( lazyInit ) {
+        // Only make the type known, the plugins are searched the first time somebody asks for them
+        //
+        registry.deferType( pluginType );
+        continue;
+      }
       log.snap( Metrics.METRIC_PLUGIN_REGISTRY_PLUGIN_TYPE_REGISTRATION_START, pluginType.getName() );
       registry.registerType( pluginType );
       log.snap( Metrics.METRIC_PLUGIN_REGISTRY_PLUGIN_TYPE_REGISTRATION_STOP, pluginType.getName() );
@@ -589,13 +607,82 @@ public class PluginRegistry {
      * System.out.println("   - "+duration.toString()+"          Total="+total); }
      */
 
+    // Keep the annotations found in the jar files for the next start-up
+    //
+    JarFileCache.getInstance().saveScanIndex();
+
     // Clear the jar file cache so that we don't waste memory...
+    // The pending plugin types still need it.
     //
-    if ( !keepCache ) {
+    if ( !keepCache && !lazyInit ) {
       JarFileCache.getInstance().clear();
     }
   }
 
+  /**
+   * The plugin types are searched for plugins on demand instead of all at once in {@link #init()} when the
+   * KETTLE_LAZY_PLUGIN_TYPE_INIT variable is set to Y. When it is not set this is the case for Pan and Kitchen: they
+   * only need the few plugin types used by the transformation or job they run.
+   *
+   * @return true if the plugin types are searched the first time their plugins are asked for
+   */
+  public static boolean isLazyInit() {
+    String lazyInit = EnvUtil.getSystemProperty( Const.KETTLE_LAZY_PLUGIN_TYPE_INIT );
+    if ( !Utils.isEmpty( lazyInit ) ) {
+      return "Y".equalsIgnoreCase( lazyInit );
+    }
+    KettleClientEnvironment.ClientType client = KettleClientEnvironment.getInstance().getClient();
+    return client == KettleClientEnvironment.ClientType.PAN || client == KettleClientEnvironment.ClientType.KITCHEN;
+  }
+
+  private void deferType( PluginTypeInterface pluginType ) {
+    registerPluginType( pluginType.getClass() );
+    pendingTypes.put( pluginType.getClass(), new PendingType( pluginType ) );
+  }
+
+  /**
+   * Searches the plugins of the pending plugin types that are or extend the given type.
+   */
+  private void searchPendingTypes( Class<? extends PluginTypeInterface> type ) {
+    if ( pendingTypes.isEmpty() ) {
+      return;
+    }
+    for ( PendingType pending : pendingTypes.values() ) {
+      if ( Const.classIsOrExtends( pending.pluginType.getClass(), type ) ) {
+        pending.search();
+      }
+    }
+  }
+
+  private class PendingType {
+    private final PluginTypeInterface pluginType;
+    private boolean searching;
+
+    private PendingType( PluginTypeInterface pluginType ) {
+      this.pluginType = pluginType;
+    }
+
+    /**
+     * Other threads wait until the search is done, the searching thread itself sees the plugins found so far.
+     */
+    private synchronized void search() {
+      if ( searching || pendingTypes.get( pluginType.getClass() ) != this ) {
+        return;
+      }
+      searching = true;
+      try {
+        log.snap( Metrics.METRIC_PLUGIN_REGISTRY_PLUGIN_TYPE_REGISTRATION_START, pluginType.getName() );
+        registerType( pluginType );
+        log.snap( Metrics.METRIC_PLUGIN_REGISTRY_PLUGIN_TYPE_REGISTRATION_STOP, pluginType.getName() );
+        JarFileCache.getInstance().saveScanIndex();
+      } catch ( KettlePluginException e ) {
+        log.logError( "Unable to search plugins of type '" + pluginType.getName() + "'", e );
+      } finally {
+        pendingTypes.remove( pluginType.getClass(), this );
+      }
+    }
+  }
+
   private void registerType( PluginTypeInterface pluginType ) throws KettlePluginException {
     registerPluginType( pluginType.getClass() );
 
@@ -1035,6 +1122,8 @@ public class PluginRegistry {
     if ( path.endsWith( "/" ) ) {
       path = path.substring( 0, path.length() - 1 );
     }
+    searchPendingTypes( PluginTypeInterface.class );
+
     List<PluginInterface> result = new ArrayList<PluginInterface>();
     lock.readLock().lock();
     try {
@@ -1066,6 +1155,7 @@ public class PluginRegistry {
     try {
       pluginTypes.clear();
       extensions.clear();
+      pendingTypes.clear();
       pluginMap.clear();
       classLoaderMap.clear();
       classLoaderGroupsMap.clear();
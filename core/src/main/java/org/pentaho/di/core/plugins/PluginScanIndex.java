@@ -0,0 +1,231 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2021 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.pentaho.di.core.plugins;
+
+import java.io.File;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.util.EnvUtil;
+import org.pentaho.di.core.xml.XMLHandler;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+
+/**
+ * An on-disk index of the class annotations found in the plugin jar files. Scanning every jar for annotations takes
+ * most of the plugin registry start-up time while the jars hardly ever change between two runs, so the annotation
+ * index of every jar is stored together with its size and modification time and reused for as long as those match.
+ */
+public class PluginScanIndex {
+
+  public static final String XML_TAG = "plugin_scan_index";
+
+  private static final String JAR_TAG = "jar";
+  private static final String ANNOTATION_TAG = "annotation";
+
+  /** The default name of the index file in the Kettle directory */
+  public static final String DEFAULT_FILENAME = "plugin-scan-index.xml";
+
+  private final File file;
+
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+  private volatile boolean changed;
+
+  public PluginScanIndex( File file ) {
+    this.file = file;
+  }
+
+  /**
+   * @return the index configured with the KETTLE_PLUGIN_SCAN_INDEX_FILE variable or null if the index is disabled
+   * with KETTLE_DISABLE_PLUGIN_SCAN_INDEX
+   */
+  public static PluginScanIndex createDefault() {
+    if ( "Y".equalsIgnoreCase( EnvUtil.getSystemProperty( Const.KETTLE_DISABLE_PLUGIN_SCAN_INDEX, "N" ) ) ) {
+      return null;
+    }
+    String filename = EnvUtil.getSystemProperty( Const.KETTLE_PLUGIN_SCAN_INDEX_FILE,
+      Const.getKettleDirectory() + Const.FILE_SEPARATOR + DEFAULT_FILENAME );
+    PluginScanIndex index = new PluginScanIndex( new File( filename ) );
+    index.load();
+    return index;
+  }
+
+  /**
+   * Reads the index file. A missing or unreadable file simply leaves the index empty: it only speeds things up.
+   */
+  public void load() {
+    entries.clear();
+    changed = false;
+    if ( !file.isFile() ) {
+      return;
+    }
+    try {
+      Document document = XMLHandler.loadXMLFile( file );
+      Node indexNode = XMLHandler.getSubNode( document, XML_TAG );
+      for ( Node jarNode : XMLHandler.getNodes( indexNode, JAR_TAG ) ) {
+        Map<String, Set<String>> annotationIndex = new HashMap<>();
+        for ( Node annotationNode : XMLHandler.getNodes( jarNode, ANNOTATION_TAG ) ) {
+          Set<String> classNames = new HashSet<>();
+          for ( Node classNode : XMLHandler.getNodes( annotationNode, "class" ) ) {
+            classNames.add( XMLHandler.getNodeValue( classNode ) );
+          }
+          annotationIndex.put( XMLHandler.getTagValue( annotationNode, "name" ), classNames );
+        }
+        String path = XMLHandler.getTagValue( jarNode, "path" );
+        entries.put( path, new Entry( Const.toLong( XMLHandler.getTagValue( jarNode, "size" ), -1L ),
+          Const.toLong( XMLHandler.getTagValue( jarNode, "modified" ), -1L ), annotationIndex ) );
+      }
+    } catch ( Exception e ) {
+      entries.clear();
+    }
+  }
+
+  /**
+   * Writes the index file if anything changed since it was loaded.
+   *
+   * @return true if the file was written
+   */
+  public boolean save() {
+    removeMissing();
+    if ( !changed ) {
+      return false;
+    }
+    File tempFile = null;
+    try {
+      File folder = file.getAbsoluteFile().getParentFile();
+      if ( folder != null && !folder.isDirectory() && !folder.mkdirs() ) {
+        return false;
+      }
+      // Write to a temporary file first so that a concurrent start-up never reads half an index
+      //
+      tempFile = File.createTempFile( "plugin-scan-index", ".tmp", folder );
+      try ( Writer writer = new OutputStreamWriter( Files.newOutputStream( tempFile.toPath() ),
+        StandardCharsets.UTF_8 ) ) {
+        writer.write( XMLHandler.getXMLHeader() );
+        writer.write( XMLHandler.openTag( XML_TAG ) + Const.CR );
+        for ( Map.Entry<String, Entry> entry : entries.entrySet() ) {
+          writer.write( getXML( entry.getKey(), entry.getValue() ) );
+        }
+        writer.write( XMLHandler.closeTag( XML_TAG ) + Const.CR );
+      }
+      Files.move( tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING );
+      changed = false;
+      return true;
+    } catch ( Exception e ) {
+      if ( tempFile != null ) {
+        tempFile.delete();
+      }
+      return false;
+    }
+  }
+
+  private String getXML( String path, Entry entry ) {
+    StringBuilder xml = new StringBuilder();
+    xml.append( "  " ).append( XMLHandler.openTag( JAR_TAG ) ).append( Const.CR );
+    xml.append( "    " ).append( XMLHandler.addTagValue( "path", path ) );
+    xml.append( "    " ).append( XMLHandler.addTagValue( "size", entry.size ) );
+    xml.append( "    " ).append( XMLHandler.addTagValue( "modified", entry.modified ) );
+    for ( Map.Entry<String, Set<String>> annotation : entry.annotationIndex.entrySet() ) {
+      xml.append( "    " ).append( XMLHandler.openTag( ANNOTATION_TAG ) );
+      xml.append( XMLHandler.addTagValue( "name", annotation.getKey(), false ) );
+      for ( String className : new TreeSet<>( annotation.getValue() ) ) {
+        xml.append( XMLHandler.addTagValue( "class", className, false ) );
+      }
+      xml.append( XMLHandler.closeTag( ANNOTATION_TAG ) ).append( Const.CR );
+    }
+    xml.append( "  " ).append( XMLHandler.closeTag( JAR_TAG ) ).append( Const.CR );
+    return xml.toString();
+  }
+
+  /**
+   * @param path     the path of the jar file
+   * @param size     the current size of the jar file
+   * @param modified the current modification time of the jar file
+   * @return the class annotation index of the jar file or null if the jar file wasn't indexed or changed since
+   */
+  public Map<String, Set<String>> get( String path, long size, long modified ) {
+    Entry entry = entries.get( path );
+    if ( entry == null || entry.size != size || entry.modified != modified ) {
+      return null;
+    }
+    return entry.annotationIndex;
+  }
+
+  /**
+   * Stores the class annotation index of a jar file, replacing the one of an older version of the file.
+   */
+  public void put( String path, long size, long modified, Map<String, Set<String>> annotationIndex ) {
+    entries.put( path, new Entry( size, modified, Collections.unmodifiableMap( annotationIndex ) ) );
+    changed = true;
+  }
+
+  /**
+   * Forgets the local jar files that no longer exist.
+   */
+  public void removeMissing() {
+    for ( String path : entries.keySet() ) {
+      try {
+        URI uri = new URI( path );
+        if ( "file".equals( uri.getScheme() ) && !new File( uri ).exists() ) {
+          entries.remove( path );
+          changed = true;
+        }
+      } catch ( Exception e ) {
+        // Not a local file, keep it
+      }
+    }
+  }
+
+  public File getFile() {
+    return file;
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  private static class Entry {
+    private final long size;
+    private final long modified;
+    private final Map<String, Set<String>> annotationIndex;
+
+    private Entry( long size, long modified, Map<String, Set<String>> annotationIndex ) {
+      this.size = size;
+      this.modified = modified;
+      this.annotationIndex = annotationIndex;
+    }
+  }
+}
@@ -87,6 +87,16 @@ public interface VariableSpace {
    */
   void setVariable( String variableName, String variableValue );
 
+  /**
+   * Gets a counter that changes every time variables are set in this space, so that values derived from the variables
+   * can be cached as long as it stays the same.
+   *
+   * @return the change counter, or -1 if this space doesn't keep one
+   */
+  default long getVariablesChangeCount() {
+    return -1;
+  }
+
   /**
    * Get the value of a variable with a default in case the variable is not found.
    *
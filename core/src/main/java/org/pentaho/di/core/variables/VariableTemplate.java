@@ -0,0 +1,204 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2021 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.pentaho.di.core.variables;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.pentaho.di.core.util.StringUtil;
+
+/**
+ * A string with %%VAR%% and ${VAR} variables, parsed once into literal and variable segments so that it can be resolved
+ * without searching the string for variables again. The result is the same as the one of
+ * {@link StringUtil#environmentSubstitute(String, Map, boolean)}. The templates that can't be split in segments without
+ * changing that result, for example because they contain $[..] hex values, and the variable values that contain
+ * variables themselves are left to StringUtil.
+ */
+public class VariableTemplate {
+  private static final int MAX_CACHED_TEMPLATES = 10000;
+
+  private static final Map<String, VariableTemplate> templates = new ConcurrentHashMap<>();
+
+  private final String template;
+
+  /** The literals around the variables, one more than there are variables. Null if StringUtil does the work */
+  private final String[] literals;
+  private final String[] names;
+  private final boolean[] windows;
+
+  private VariableTemplate( String template ) {
+    this.template = template;
+
+    List<String> literalList = new ArrayList<>();
+    List<String> nameList = new ArrayList<>();
+    List<Boolean> windowsList = new ArrayList<>();
+    boolean simple = !template.contains( StringUtil.HEX_OPEN );
+
+    // The %%VAR%% variables are substituted first, the ${VAR} ones in what's left
+    //
+    String rest = template;
+    int i = rest.indexOf( StringUtil.WINDOWS_OPEN );
+    while ( simple && i > -1 ) {
+      int j = rest.indexOf( StringUtil.WINDOWS_CLOSE, i + StringUtil.WINDOWS_OPEN.length() );
+      if ( j < 0 ) {
+        break;
+      }
+      String name = rest.substring( i + StringUtil.WINDOWS_OPEN.length(), j );
+      String literal = rest.substring( 0, i );
+      // A missing variable is left as is and must not start a ${VAR} variable
+      simple = name.indexOf( '$' ) < 0 && addUnixSegments( literal, true, literalList, nameList, windowsList );
+      nameList.add( name );
+      windowsList.add( true );
+      rest = rest.substring( j + StringUtil.WINDOWS_CLOSE.length() );
+      i = rest.indexOf( StringUtil.WINDOWS_OPEN );
+    }
+    simple = simple && addUnixSegments( rest, false, literalList, nameList, windowsList );
+
+    if ( simple ) {
+      literals = literalList.toArray( new String[0] );
+      names = nameList.toArray( new String[0] );
+      windows = new boolean[windowsList.size()];
+      for ( int k = 0; k < windows.length; k++ ) {
+        windows[k] = windowsList.get( k );
+      }
+    } else {
+      literals = null;
+      names = null;
+      windows = null;
+    }
+  }
+
+  /**
+   * Splits a part of the template that has no %%VAR%% variables in literals and ${VAR} variables.
+   *
+   * @param beforeVariable true if a %%VAR%% variable follows this part
+   * @return false if the part can't be split without changing the result of the substitution
+   */
+  private static boolean addUnixSegments( String part, boolean beforeVariable, List<String> literalList,
+                                          List<String> nameList, List<Boolean> windowsList ) {
+    String rest = part;
+    int i = rest.indexOf( StringUtil.UNIX_OPEN );
+    while ( i > -1 ) {
+      int j = rest.indexOf( StringUtil.UNIX_CLOSE, i + StringUtil.UNIX_OPEN.length() );
+      if ( j < 0 ) {
+        // The closing brace could come from the value of the next %%VAR%% variable
+        if ( beforeVariable ) {
+          return false;
+        }
+        break;
+      }
+      String literal = rest.substring( 0, i );
+      if ( literal.endsWith( "$" ) ) {
+        return false;
+      }
+      literalList.add( literal );
+      nameList.add( rest.substring( i + StringUtil.UNIX_OPEN.length(), j ) );
+      windowsList.add( false );
+      rest = rest.substring( j + StringUtil.UNIX_CLOSE.length() );
+      i = rest.indexOf( StringUtil.UNIX_OPEN );
+    }
+    if ( beforeVariable && rest.endsWith( "$" ) ) {
+      // The value could complete a ${VAR} variable or a $[..] hex value
+      return false;
+    }
+    literalList.add( rest );
+    return true;
+  }
+
+  /**
+   * Gets the template for a string from a bounded cache, parsing it if needed.
+   *
+   * @param template the string with variables
+   * @return the template
+   */
+  public static VariableTemplate compile( String template ) {
+    VariableTemplate variableTemplate = templates.get( template );
+    if ( variableTemplate == null ) {
+      variableTemplate = new VariableTemplate( template );
+      if ( templates.size() >= MAX_CACHED_TEMPLATES ) {
+        templates.clear();
+      }
+      templates.put( template, variableTemplate );
+    }
+    return variableTemplate;
+  }
+
+  /**
+   * @param aString the string to check
+   * @return true if the string could contain a variable or hex value to substitute
+   */
+  public static boolean hasVariables( String aString ) {
+    return aString != null
+      && ( aString.contains( StringUtil.UNIX_OPEN ) || aString.contains( StringUtil.WINDOWS_OPEN )
+      || aString.contains( StringUtil.HEX_OPEN ) );
+  }
+
+  /**
+   * Substitutes the variables in the template.
+   *
+   * @param variables          the variable values by name
+   * @param escapeHexDelimiter true to leave $[..] hex values as they are
+   * @return the template with the variables substituted
+   */
+  public String resolve( Map<String, String> variables, boolean escapeHexDelimiter ) {
+    if ( literals == null ) {
+      return StringUtil.environmentSubstitute( template, variables, escapeHexDelimiter );
+    }
+    if ( names.length == 0 ) {
+      return template;
+    }
+
+    StringBuilder result = new StringBuilder( template.length() + 16 * names.length );
+    for ( int i = 0; i < names.length; i++ ) {
+      result.append( literals[i] );
+      String value = variables.get( names[i] );
+      if ( value == null ) {
+        if ( windows[i] ) {
+          result.append( StringUtil.WINDOWS_OPEN ).append( names[i] ).append( StringUtil.WINDOWS_CLOSE );
+        } else {
+          result.append( StringUtil.UNIX_OPEN ).append( names[i] ).append( StringUtil.UNIX_CLOSE );
+        }
+      } else if ( value.indexOf( '$' ) >= 0 || windows[i] && value.contains( StringUtil.WINDOWS_OPEN ) ) {
+        // Variables in variables and hex values
+        return StringUtil.environmentSubstitute( template, variables, escapeHexDelimiter );
+      } else {
+        result.append( value );
+      }
+    }
+    result.append( literals[names.length] );
+    return result.toString();
+  }
+
+  public String getTemplate() {
+    return template;
+  }
+
+  /**
+   * @return the number of variables in the template, or -1 if it's not split in segments
+   */
+  public int getNrVariables() {
+    return names == null ? -1 : names.length;
+  }
+}
@@ -34,6 +34,7 @@ import java.util.Hashtable;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 
 /**
  * This class is an implementation of VariableSpace
@@ -41,8 +42,18 @@ import java.util.concurrent.ConcurrentHashMap;
  * @author Sven Boden
  */
 public class Variables implements VariableSpace {
+  private static final int MAX_CACHED_SUBSTITUTIONS = 1000;
+
+  private static final AtomicLongFieldUpdater<Variables> CHANGE_COUNT =
+    AtomicLongFieldUpdater.newUpdater( Variables.class, "changeCount" );
+
   private Map<String, String> properties;
 
+  private volatile long changeCount;
+
+  /** The last substitution result per string, valid as long as the change count doesn't change */
+  private volatile Map<String, Substitution> substitutions;
+
   private VariableSpace parent;
 
   private Map<String, String> injection;
@@ -82,6 +93,7 @@ public class Variables implements VariableSpace {
       for ( int idx = 0; idx < variableNames.length; idx++ ) {
         properties.put( variableNames[idx], space.getVariable( variableNames[idx] ) );
       }
+      changed();
     }
   }
 
@@ -139,6 +151,7 @@ public class Variables implements VariableSpace {
       injection = null;
     }
     initialized = true;
+    changed();
   }
 
   @Override
@@ -154,24 +167,49 @@ public class Variables implements VariableSpace {
     } else {
       properties.remove( variableName );
     }
+    changed();
   }
 
   @Override
-  public String environmentSubstitute( String aString ) {
-    if ( aString == null || aString.length() == 0 ) {
-      return aString;
-    }
+  public long getVariablesChangeCount() {
+    return changeCount;
+  }
+
+  private void changed() {
+    CHANGE_COUNT.incrementAndGet( this );
+  }
 
-    return StringUtil.environmentSubstitute( aString, properties );
+  @Override
+  public String environmentSubstitute( String aString ) {
+    return environmentSubstitute( aString, false );
   }
 
   @Override
   public String environmentSubstitute( String aString, boolean escapeHexDelimiter ) {
-    if ( aString == null || aString.length() == 0 ) {
+    if ( !VariableTemplate.hasVariables( aString ) ) {
       return aString;
     }
 
-    return StringUtil.environmentSubstitute( aString, properties, escapeHexDelimiter );
+    // Steps substitute the same strings for every row, so keep the last results until a variable changes
+    //
+    long count = changeCount;
+    Map<String, Substitution> cache = substitutions;
+    if ( cache == null ) {
+      cache = new ConcurrentHashMap<>();
+      substitutions = cache;
+    }
+    Substitution substitution = cache.get( aString );
+    if ( substitution != null && substitution.changeCount == count
+      && substitution.escapeHexDelimiter == escapeHexDelimiter ) {
+      return substitution.result;
+    }
+
+    String result = VariableTemplate.compile( aString ).resolve( properties, escapeHexDelimiter );
+    if ( cache.size() >= MAX_CACHED_SUBSTITUTIONS ) {
+      cache.clear();
+    }
+    cache.put( aString, new Substitution( count, escapeHexDelimiter, result ) );
+    return result;
   }
 
   /**
@@ -228,6 +266,7 @@ public class Variables implements VariableSpace {
           }
         }
         injection = null;
+        changed();
       }
     } else {
       // We have our own personal copy, so changes afterwards
@@ -261,4 +300,16 @@ public class Variables implements VariableSpace {
     return properties;
   }
 
+  private static class Substitution {
+    private final long changeCount;
+    private final boolean escapeHexDelimiter;
+    private final String result;
+
+    private Substitution( long changeCount, boolean escapeHexDelimiter, String result ) {
+      this.changeCount = changeCount;
+      this.escapeHexDelimiter = escapeHexDelimiter;
+      this.result = result;
+    }
+  }
+
 }
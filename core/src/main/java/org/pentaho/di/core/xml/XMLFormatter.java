@@ -2,7 +2,7 @@
  *
  * Pentaho Data Integration
  *
- * Copyright (C) 2016-2017 by Hitachi Vantara : http://www.pentaho.com
+ * Copyright (C) 2016-2021 by Hitachi Vantara : http://www.pentaho.com
  *
  *******************************************************************************
  *
@@ -21,10 +21,17 @@
  ******************************************************************************/
 package org.pentaho.di.core.xml;
 
+import java.io.IOException;
+import java.io.PipedReader;
+import java.io.PipedWriter;
+import java.io.Reader;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLOutputFactory;
@@ -33,6 +40,10 @@ import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
 import javax.xml.stream.XMLStreamWriter;
 
+import org.apache.commons.io.IOUtils;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.util.ExecutorUtil;
+
 /**
  * XML formatting for better VCS diff.
  * 
@@ -43,6 +54,15 @@ import javax.xml.stream.XMLStreamWriter;
  */
 public class XMLFormatter {
   private static final String STEP_PREFIX = "  ";
+  private static final int PIPE_SIZE = 65536;
+
+  /**
+   * Writes an unformatted XML document, see {@link XMLFormatter#format(XMLProducer, Writer)}.
+   */
+  @FunctionalInterface
+  public interface XMLProducer {
+    void writeXML( Writer writer ) throws KettleException, IOException;
+  }
 
   private static XMLInputFactory INPUT_FACTORY = XMLInputFactory.newInstance();
   private static XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newInstance();
@@ -52,18 +72,93 @@ public class XMLFormatter {
   }
 
   public static String format( String xml ) {
+    StringWriter result = new StringWriter();
+    try {
+      format( new StringReader( xml ), result );
+    } catch ( XMLStreamException ex ) {
+      throw new RuntimeException( ex );
+    }
+    return result.toString();
+  }
+
+  /**
+   * Formats the XML that the producer writes. The producer runs on the calling thread while another thread formats the
+   * document as it is written, so the document is never kept in memory as a whole. A producer failing half way leaves
+   * part of the document in the output: write to a temporary file and move it in place once done to keep an existing
+   * file intact.
+   *
+   * @param producer the code writing the unformatted XML
+   * @param out      the writer to send the formatted XML to, it's not closed
+   * @throws KettleException in case the XML couldn't be written or formatted
+   */
+  public static void format( XMLProducer producer, Writer out ) throws KettleException {
+    PipedWriter pipe = new PipedWriter();
+    Reader xml;
+    try {
+      xml = new PipedReader( pipe, PIPE_SIZE );
+    } catch ( IOException e ) {
+      throw new KettleException( e );
+    }
+    Future<?> formatting = ExecutorUtil.getExecutor().submit( () -> {
+      // Closing the reader when formatting fails makes the producer fail rather than wait for room in the pipe
+      //
+      try ( Reader reader = xml ) {
+        format( reader, out );
+      }
+      return null;
+    } );
+
+    Exception producerFailure = null;
+    try {
+      producer.writeXML( pipe );
+    } catch ( KettleException | IOException | RuntimeException e ) {
+      producerFailure = e;
+    } finally {
+      IOUtils.closeQuietly( pipe );
+    }
+
+    Throwable formatterFailure = null;
+    try {
+      formatting.get();
+    } catch ( ExecutionException e ) {
+      formatterFailure = e.getCause();
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      throw new KettleException( e );
+    }
+
+    // The producer fails writing to the pipe once the formatter gave up, the formatter knows why
+    //
+    if ( producerFailure != null && ( formatterFailure == null || !( producerFailure instanceof IOException ) ) ) {
+      if ( producerFailure instanceof KettleException ) {
+        throw (KettleException) producerFailure;
+      }
+      throw new KettleException( producerFailure );
+    }
+    if ( formatterFailure != null ) {
+      throw new KettleException( formatterFailure );
+    }
+  }
+
+  /**
+   * Formats the XML read from the reader to the writer one event at a time.
+   *
+   * @param xml the XML to format
+   * @param out the writer to send the formatted XML to, it's not closed
+   * @throws XMLStreamException in case the XML can't be parsed or written
+   */
+  public static void format( Reader xml, Writer out ) throws XMLStreamException {
     XMLStreamReader rd = null;
     XMLStreamWriter wr = null;
 
-    StringWriter result = new StringWriter();
     try {
-      rd = INPUT_FACTORY.createXMLStreamReader( new StringReader( xml ) );
+      rd = INPUT_FACTORY.createXMLStreamReader( xml );
 
       synchronized ( OUTPUT_FACTORY ) {
         // BACKLOG-18743: This object was not thread safe in some scenarios
         // causing the `result` variable to have data from other concurrent executions
         // and making the final output invalid.
-        wr = OUTPUT_FACTORY.createXMLStreamWriter( result );
+        wr = OUTPUT_FACTORY.createXMLStreamWriter( out );
       }
 
       StartElementBuffer startElementBuffer = null;
@@ -153,10 +248,6 @@ public class XMLFormatter {
       }
 
       wr.flush();
-
-      return result.toString();
-    } catch ( XMLStreamException ex ) {
-      throw new RuntimeException( ex );
     } finally {
       try {
         if ( wr != null ) {
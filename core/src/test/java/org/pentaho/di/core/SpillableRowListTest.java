@@ -0,0 +1,202 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2021 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.pentaho.di.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaString;
+import org.pentaho.di.junit.rules.RestorePDIEnvironment;
+
+public class SpillableRowListTest {
+  @ClassRule public static RestorePDIEnvironment env = new RestorePDIEnvironment();
+
+  @BeforeClass
+  public static void setUpBeforeClass() throws KettleException {
+    KettleClientEnvironment.init();
+  }
+
+  @Test
+  public void testRowsStayInMemoryWithoutLimit() {
+    SpillableRowList rows = new SpillableRowList( 0 );
+    RowMetaAndData first = createRow( 0 );
+    rows.add( first );
+    for ( int i = 1; i < 1000; i++ ) {
+      rows.add( createRow( i ) );
+    }
+
+    assertFalse( rows.isSpilled() );
+    assertEquals( 1000, rows.size() );
+    assertSame( first, rows.get( 0 ) );
+    rows.remove( 0 );
+    assertEquals( 999, rows.size() );
+  }
+
+  @Test
+  public void testRowsAreReadBackFromDisk() throws Exception {
+    SpillableRowList rows = new SpillableRowList( 10 );
+    for ( int i = 0; i < 105; i++ ) {
+      rows.add( createRow( i ) );
+    }
+
+    assertTrue( rows.isSpilled() );
+    assertEquals( 105, rows.size() );
+    int i = 0;
+    for ( RowMetaAndData row : rows ) {
+      assertRow( i++, row );
+    }
+    assertEquals( 105, i );
+
+    // Ascending, then going back
+    //
+    for ( i = 0; i < rows.size(); i++ ) {
+      assertRow( i, rows.get( i ) );
+    }
+    assertRow( 3, rows.get( 3 ) );
+    assertRow( 104, rows.get( 104 ) );
+  }
+
+  @Test
+  public void testRowsWithDifferentMetadata() throws Exception {
+    SpillableRowList rows = new SpillableRowList( 2 );
+    rows.add( createRow( 0 ) );
+    RowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaString( "other" ) );
+    rows.add( new RowMetaAndData( rowMeta, "other value" ) );
+    rows.add( createRow( 2 ) );
+    rows.add( createRow( 3 ) );
+
+    List<RowMetaAndData> copy = SpillableRowList.copyOf( rows );
+    assertEquals( 4, copy.size() );
+    assertRow( 0, copy.get( 0 ) );
+    assertEquals( "other value", copy.get( 1 ).getString( "other", null ) );
+    assertEquals( 1, copy.get( 1 ).size() );
+    assertRow( 2, copy.get( 2 ) );
+  }
+
+  @Test
+  public void testCopiesShareTheSpilledRows() throws Exception {
+    SpillableRowList rows = new SpillableRowList( 10 );
+    for ( int i = 0; i < 25; i++ ) {
+      rows.add( createRow( i ) );
+    }
+    SpillableRowList copy = rows.copy( true );
+    assertNotSame( rows.get( 24 ), copy.get( 24 ) );
+
+    // Both lists continue with rows of their own
+    //
+    for ( int i = 25; i < 50; i++ ) {
+      rows.add( createRow( i ) );
+      copy.add( createRow( 1000 + i ) );
+    }
+
+    assertEquals( 50, rows.size() );
+    assertEquals( 50, copy.size() );
+    Iterator<RowMetaAndData> original = rows.iterator();
+    Iterator<RowMetaAndData> copied = copy.iterator();
+    for ( int i = 0; i < 50; i++ ) {
+      assertRow( i, original.next() );
+      assertRow( i < 25 ? i : 1000 + i, copied.next() );
+    }
+    assertFalse( original.hasNext() );
+    assertFalse( copied.hasNext() );
+
+    copy.clear();
+    assertEquals( 0, copy.size() );
+    assertEquals( 50, rows.size() );
+  }
+
+  /**
+   * The temporary file is shared by the copies of a list and deleted when the last of them lets go of it, even if an
+   * iterator was left half way.
+   */
+  @Test
+  public void testSpillFileIsDeletedWhenLastCopyIsClosed() throws Exception {
+    int nrFiles = countSpillFiles();
+    SpillableRowList rows = new SpillableRowList( 10 );
+    for ( int i = 0; i < 25; i++ ) {
+      rows.add( createRow( i ) );
+    }
+    SpillableRowList copy = rows.copy( false );
+    Iterator<RowMetaAndData> abandoned = rows.iterator();
+    assertRow( 0, abandoned.next() );
+    assertEquals( nrFiles + 1, countSpillFiles() );
+
+    rows.close();
+    assertEquals( 0, rows.size() );
+    assertEquals( nrFiles + 1, countSpillFiles() );
+    assertRow( 3, copy.get( 3 ) );
+
+    copy.clear();
+    assertEquals( nrFiles, countSpillFiles() );
+  }
+
+  @Test
+  public void testSpilledRowsCantBeModified() {
+    SpillableRowList rows = new SpillableRowList( 5 );
+    for ( int i = 0; i < 12; i++ ) {
+      rows.add( createRow( i ) );
+    }
+    try {
+      rows.remove( 0 );
+      fail( "Rows on disk can't be removed" );
+    } catch ( UnsupportedOperationException e ) {
+      // expected
+    }
+    rows.remove( 11 );
+    assertEquals( 11, rows.size() );
+  }
+
+  private static int countSpillFiles() {
+    File[] files = new File( System.getProperty( "java.io.tmpdir" ) ).listFiles(
+      ( dir, name ) -> name.startsWith( "result_rows_" ) );
+    return files == null ? 0 : files.length;
+  }
+
+  private static RowMetaAndData createRow( int nr ) {
+    RowMetaAndData row = new RowMetaAndData();
+    row.addValue( new ValueMetaInteger( "nr" ), Long.valueOf( nr ) );
+    row.addValue( new ValueMetaString( "name" ), "row " + nr );
+    return row;
+  }
+
+  private static void assertRow( int nr, RowMetaAndData row ) throws Exception {
+    assertEquals( nr, row.getInteger( "nr", -1L ) );
+    assertEquals( "row " + nr, row.getString( "name", null ) );
+  }
+}
@@ -40,15 +40,21 @@ import java.sql.Connection;
 import java.sql.Driver;
 import java.sql.DriverManager;
 import java.sql.DriverPropertyInfo;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.Map;
 import java.util.Properties;
 import java.util.UUID;
 import java.util.logging.Logger;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.when;
@@ -57,6 +63,7 @@ import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 
 /**
  * User: Dzmitry Stsiapanau Date: 12/11/13 Time: 1:59 PM
@@ -128,6 +135,95 @@ public class ConnectionPoolUtilTest implements Driver {
     assertTrue( conn != null );
   }
 
+  @Test
+  public void testGetConnectionFromFastPool() throws Exception {
+    Properties poolProperties = new Properties();
+    poolProperties.setProperty( ConnectionPoolUtil.POOL_IMPLEMENTATION, ConnectionPoolUtil.POOL_IMPLEMENTATION_FAST );
+    when( dbMeta.getConnectionPoolingProperties() ).thenReturn( poolProperties );
+    when( dbMeta.getName() ).thenReturn( "CP4" );
+    when( dbMeta.getPassword() ).thenReturn( PASSWORD );
+
+    Connection conn = ConnectionPoolUtil.getConnection( logChannelInterface, dbMeta, "", 1, 2 );
+    assertNotNull( conn );
+    ConnectionPoolInterface pool = ConnectionPoolUtil.getConnectionPool( dbMeta, "" );
+    assertTrue( pool instanceof FastConnectionPool );
+    assertEquals( 1, pool.getNumActive() );
+    assertEquals( 0, pool.getNumIdle() );
+
+    conn.close();
+    assertTrue( conn.isClosed() );
+    assertEquals( 0, pool.getNumActive() );
+    assertEquals( 1, pool.getNumIdle() );
+
+    // Once the pool exists, its creation lock is no longer needed
+    //
+    Map<?, ?> locks = (Map<?, ?>) getInternalState( ConnectionPoolUtil.class, "locks" );
+    assertFalse( locks.containsKey( ConnectionPoolUtil.getDataSourceName( dbMeta, "" ) ) );
+  }
+
+  @Test
+  public void testFastPoolStatementsHandOutPooledConnection() throws Exception {
+    Connection physical = mock( Connection.class );
+    Statement statement = mock( Statement.class );
+    ResultSet resultSet = mock( ResultSet.class );
+    when( physical.createStatement() ).thenReturn( statement );
+    when( statement.getConnection() ).thenReturn( physical );
+    when( statement.executeQuery( anyString() ) ).thenReturn( resultSet );
+    when( resultSet.getStatement() ).thenReturn( statement );
+    Driver driver = mock( Driver.class );
+    when( driver.connect( anyString(), any( Properties.class ) ) ).thenReturn( physical );
+    FastConnectionPool pool =
+      new FastConnectionPool( "CP6", driver, "jdbc:foo://server:111", new Properties(), 1, logChannelInterface );
+
+    Connection conn = pool.getConnection();
+    Statement pooledStatement = conn.createStatement();
+    assertSame( conn, pooledStatement.getConnection() );
+    assertSame( pooledStatement, pooledStatement.executeQuery( "SELECT 1" ).getStatement() );
+
+    // Closing the connection a statement hands out returns it to the pool rather than closing it
+    //
+    pooledStatement.getConnection().close();
+    verify( physical, never() ).close();
+    assertEquals( 1, pool.getNumIdle() );
+  }
+
+  @Test
+  public void testFastPoolSweepsForLeaks() throws Exception {
+    Driver driver = mock( Driver.class );
+    when( driver.connect( anyString(), any( Properties.class ) ) ).thenAnswer( invocation -> mock( Connection.class ) );
+    FastConnectionPool pool =
+      new FastConnectionPool( "CP7", driver, "jdbc:foo://server:111", new Properties(), 2, logChannelInterface );
+    pool.setLeakDetectionThreshold( 1 );
+    try {
+      // Nobody asks the pool for another connection: the leak is found by the background sweep
+      //
+      pool.getConnection();
+      verify( logChannelInterface, timeout( 5000 ) ).logError( anyString(), any( Throwable.class ) );
+    } finally {
+      pool.close();
+    }
+  }
+
+  @Test
+  public void testFastPoolWaitsForReturnedConnection() throws Exception {
+    Driver driver = mock( Driver.class );
+    when( driver.connect( anyString(), any( Properties.class ) ) ).thenAnswer( invocation -> mock( Connection.class ) );
+    FastConnectionPool pool =
+      new FastConnectionPool( "CP5", driver, "jdbc:foo://server:111", new Properties(), 1, logChannelInterface );
+    pool.setMaxWait( 10 );
+
+    Connection conn = pool.getConnection();
+    try {
+      pool.getConnection();
+      fail( "The pool should be exhausted" );
+    } catch ( SQLException e ) {
+      // expected
+    }
+    conn.close();
+    assertNotNull( pool.getConnection() );
+    verify( driver ).connect( anyString(), any( Properties.class ) );
+  }
+
   @Test
   public void testGetConnectionName() throws Exception {
     when( dbMeta.getName() ).thenReturn( "CP2" );
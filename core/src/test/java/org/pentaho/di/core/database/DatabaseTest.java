@@ -31,6 +31,7 @@ import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.AdditionalMatchers.aryEq;
@@ -54,6 +55,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Types;
 import java.util.List;
 import java.util.Properties;
@@ -77,9 +79,12 @@ import org.pentaho.di.core.exception.KettleDatabaseBatchException;
 import org.pentaho.di.core.exception.KettleDatabaseException;
 import org.pentaho.di.core.logging.LogLevel;
 import org.pentaho.di.core.logging.LoggingObjectInterface;
+import org.pentaho.di.core.row.RowMeta;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
 import org.pentaho.di.core.row.value.ValueMetaNumber;
+import org.pentaho.di.core.row.value.ValueMetaString;
 import org.pentaho.di.core.variables.VariableSpace;
 import org.pentaho.di.junit.rules.RestorePDIEnvironment;
 import org.springframework.mock.jndi.SimpleNamingContextBuilder;
@@ -621,6 +626,109 @@ public class DatabaseTest {
     assertEquals( ValueMetaInterface.TYPE_BINARY, valueMeta.getType() );
   }
 
+  @Test
+  public void postgresQueryIsStreamedWithAutoCommitOff() throws Exception {
+    Statement statement = mock( Statement.class );
+    when( statement.executeQuery( anyString() ) ).thenReturn( rs );
+    when( rs.getMetaData() ).thenReturn( rsMetaData );
+    Connection connection = mockConnection( dbMetaData );
+    when( connection.createStatement() ).thenReturn( statement );
+    when( connection.getAutoCommit() ).thenReturn( true );
+
+    DatabaseMeta meta = new DatabaseMeta();
+    meta.setDatabaseInterface( new PostgreSQLDatabaseMeta() );
+    Database db = new Database( log, meta );
+    db.setConnection( connection );
+
+    ResultSet res = db.openQuery( sql );
+    verify( statement ).setFetchSize( Const.FETCH_SIZE );
+    verify( connection ).setAutoCommit( false );
+    verify( connection, never() ).setAutoCommit( true );
+
+    when( connection.getAutoCommit() ).thenReturn( false );
+    db.closeQuery( res );
+    verify( connection ).setAutoCommit( true );
+  }
+
+  @Test
+  public void streamedQueryLeavesOpenTransactionAlone() throws Exception {
+    Statement statement = mock( Statement.class );
+    when( statement.executeQuery( anyString() ) ).thenReturn( rs );
+    when( rs.getMetaData() ).thenReturn( rsMetaData );
+    Connection connection = mockConnection( dbMetaData );
+    when( connection.createStatement() ).thenReturn( statement );
+    when( connection.getAutoCommit() ).thenReturn( false );
+
+    DatabaseMeta meta = new DatabaseMeta();
+    meta.setDatabaseInterface( new PostgreSQLDatabaseMeta() );
+    Database db = new Database( log, meta );
+    db.setConnection( connection );
+
+    db.closeQuery( db.openQuery( sql ) );
+    verify( connection, never() ).setAutoCommit( anyBoolean() );
+  }
+
+  @Test
+  public void streamedQueryKeepsAutoCommitChosenWhileOpen() throws Exception {
+    Statement statement = mock( Statement.class );
+    when( statement.executeQuery( anyString() ) ).thenReturn( rs );
+    when( rs.getMetaData() ).thenReturn( rsMetaData );
+    Connection connection = mockConnection( dbMetaData );
+    when( connection.createStatement() ).thenReturn( statement );
+    when( connection.getAutoCommit() ).thenReturn( true );
+
+    DatabaseMeta meta = new DatabaseMeta();
+    meta.setDatabaseInterface( new PostgreSQLDatabaseMeta() );
+    Database db = new Database( log, meta );
+    db.setConnection( connection );
+
+    ResultSet res = db.openQuery( sql );
+    db.setAutoCommit( false );
+    when( connection.getAutoCommit() ).thenReturn( false );
+    db.closeQuery( res );
+    verify( connection, never() ).setAutoCommit( true );
+  }
+
+  @Test
+  public void queryUsesStreamingFetchSizeOfDialect() throws Exception {
+    Statement statement = mock( Statement.class );
+    when( statement.executeQuery( anyString() ) ).thenReturn( rs );
+    when( rs.getMetaData() ).thenReturn( rsMetaData );
+    Connection connection = mockConnection( dbMetaData );
+    when( connection.createStatement() ).thenReturn( statement );
+
+    DatabaseMeta meta = new DatabaseMeta();
+    meta.setDatabaseInterface( new PostgreSQLDatabaseMeta() {
+      @Override
+      public int getStreamingFetchSize() {
+        return 250;
+      }
+    } );
+    Database db = new Database( log, meta );
+    db.setConnection( connection );
+
+    db.openQuery( sql );
+    verify( statement ).setFetchSize( 250 );
+  }
+
+  @Test
+  public void testGetAdaptiveFetchSize() {
+    RowMetaInterface narrowRow = new RowMeta();
+    narrowRow.addValueMeta( new ValueMetaInteger( "id" ) );
+    assertEquals( Const.FETCH_SIZE, Database.getAdaptiveFetchSize( narrowRow, Const.FETCH_SIZE ) );
+    assertEquals( 50, Database.getAdaptiveFetchSize( narrowRow, 50 ) );
+
+    RowMetaInterface wideRow = new RowMeta();
+    wideRow.addValueMeta( new ValueMetaInteger( "id" ) );
+    wideRow.addValueMeta( new ValueMetaString( "description", 4000, 0 ) );
+    assertEquals( Database.ADAPTIVE_FETCH_BUFFER_SIZE / ( 16 + 8000 ),
+      Database.getAdaptiveFetchSize( wideRow, Const.FETCH_SIZE ) );
+
+    RowMetaInterface hugeRow = new RowMeta();
+    hugeRow.addValueMeta( new ValueMetaString( "document", 1000000, 0 ) );
+    assertEquals( Database.ADAPTIVE_FETCH_SIZE_MINIMUM, Database.getAdaptiveFetchSize( hugeRow, Const.FETCH_SIZE ) );
+  }
+
   private String concatWordsForRegexp( String... words ) {
     String emptySpace = "\\s*";
     StringBuilder sb = new StringBuilder( emptySpace );
@@ -34,6 +34,7 @@ import static org.mockito.Mockito.doThrow;
 import com.mysql.cj.jdbc.Driver;
 import org.junit.Before;
 import org.junit.Test;
+import org.pentaho.di.core.Const;
 import org.pentaho.di.core.exception.KettleDatabaseException;
 import org.pentaho.di.core.row.value.ValueMetaBigNumber;
 import org.pentaho.di.core.row.value.ValueMetaBinary;
@@ -421,4 +422,14 @@ public class MySQLDatabaseMetaTest {
       assert( key.startsWith( "foobar." ) );
     }
   }
+
+  @Test
+  public void testGetSQLMergeFromTable() {
+    assertEquals( "INSERT INTO FOO ( ID, NAME ) SELECT ID, NAME FROM STG ON DUPLICATE KEY UPDATE NAME = VALUES(NAME)",
+      nativeMeta.getSQLMergeFromTable( "FOO", "STG", new String[] { "ID" }, new String[] { "ID", "NAME" },
+        new String[] { "NAME" } ).replace( Const.CR, " " ) );
+    assertEquals( "INSERT INTO FOO ( ID, NAME ) SELECT ID, NAME FROM STG ON DUPLICATE KEY UPDATE ID = ID",
+      nativeMeta.getSQLMergeFromTable( "FOO", "STG", new String[] { "ID" }, new String[] { "ID", "NAME" },
+        new String[0] ).replace( Const.CR, " " ) );
+  }
 }
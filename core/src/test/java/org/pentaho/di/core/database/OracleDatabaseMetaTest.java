@@ -37,6 +37,7 @@ import org.junit.Test;
 import org.mockito.Mockito;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
+import org.pentaho.di.core.Const;
 import org.pentaho.di.core.KettleClientEnvironment;
 import org.pentaho.di.core.exception.KettleDatabaseException;
 import org.pentaho.di.core.row.RowMetaInterface;
@@ -317,4 +318,16 @@ public class OracleDatabaseMetaTest {
       nativeMeta.getAddColumnStatement( "FOO", new ValueMetaTimestamp( "FOO" ), "", false, "", false ) );
   }
 
+  @Test
+  public void testGetSQLMergeFromTable() {
+    assertEquals( "MERGE INTO FOO t USING STG s ON ( t.ID = s.ID AND t.VERSION = s.VERSION ) "
+      + "WHEN MATCHED THEN UPDATE SET NAME = s.NAME "
+      + "WHEN NOT MATCHED THEN INSERT ( ID, VERSION, NAME ) VALUES ( s.ID, s.VERSION, s.NAME )",
+      nativeMeta.getSQLMergeFromTable( "FOO", "STG", new String[] { "ID", "VERSION" },
+        new String[] { "ID", "VERSION", "NAME" }, new String[] { "NAME" } ).replace( Const.CR, " " ) );
+    assertEquals( "MERGE INTO FOO t USING STG s ON ( t.ID = s.ID ) "
+      + "WHEN NOT MATCHED THEN INSERT ( ID ) VALUES ( s.ID )",
+      nativeMeta.getSQLMergeFromTable( "FOO", "STG", new String[] { "ID" }, new String[] { "ID" }, new String[0] )
+        .replace( Const.CR, " " ) );
+  }
 }
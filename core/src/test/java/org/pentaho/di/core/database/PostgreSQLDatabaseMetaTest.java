@@ -29,6 +29,7 @@ import static org.junit.Assert.assertTrue;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.pentaho.di.core.Const;
 import org.pentaho.di.core.row.value.ValueMetaBigNumber;
 import org.pentaho.di.core.row.value.ValueMetaBoolean;
 import org.pentaho.di.core.row.value.ValueMetaDate;
@@ -258,4 +259,13 @@ public class PostgreSQLDatabaseMetaTest {
     assertNull( nativeMeta.getSQLUnlockTables(  new String[] { "FOO" } ) );
   }
 
+  @Test
+  public void testGetSQLMergeFromTable() {
+    assertEquals( "INSERT INTO FOO ( ID, NAME ) SELECT ID, NAME FROM STG ON CONFLICT ( ID ) DO UPDATE SET NAME = EXCLUDED.NAME",
+      nativeMeta.getSQLMergeFromTable( "FOO", "STG", new String[] { "ID" }, new String[] { "ID", "NAME" },
+        new String[] { "NAME" } ).replace( Const.CR, " " ) );
+    assertEquals( "INSERT INTO FOO ( ID, NAME ) SELECT ID, NAME FROM STG ON CONFLICT ( ID ) DO NOTHING",
+      nativeMeta.getSQLMergeFromTable( "FOO", "STG", new String[] { "ID" }, new String[] { "ID", "NAME" },
+        new String[0] ).replace( Const.CR, " " ) );
+  }
 }
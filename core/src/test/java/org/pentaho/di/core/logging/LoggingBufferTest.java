@@ -26,7 +26,9 @@ import org.junit.Assert;
 import org.junit.Test;
 import org.pentaho.di.core.Const;
 
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -186,4 +188,72 @@ public class LoggingBufferTest {
     Assert.assertEquals( 10, loggingBuffer.size() );
   }
 
+  @Test
+  public void testGetLogBufferFromToForChannel() {
+    LoggingBuffer loggingBuffer = new LoggingBuffer( 10 );
+    for ( int i = 0; i < 15; i++ ) {
+      KettleLoggingEvent event = new KettleLoggingEvent();
+      event.setMessage( new LogMessage( "line " + i, i % 3 == 0 ? "1" : "2", LogLevel.BASIC ) );
+      event.setTimeStamp( i );
+      loggingBuffer.addLogggingEvent( event );
+    }
+    // Lines 5 to 14 are left, 6, 9 and 12 belong to channel 1
+    List<KettleLoggingEvent> events =
+      loggingBuffer.getLogBufferFromTo( Collections.singletonList( "1" ), false, 0, Integer.MAX_VALUE );
+    Assert.assertEquals( 3, events.size() );
+    Assert.assertEquals( "line 6", ( (LogMessage) events.get( 0 ).getMessage() ).getMessage() );
+    Assert.assertEquals( "line 12", ( (LogMessage) events.get( 2 ).getMessage() ).getMessage() );
+
+    int lastLineNr = loggingBuffer.getLastBufferLineNr();
+    Assert.assertEquals( 1,
+      loggingBuffer.getLogBufferFromTo( Collections.singletonList( "1" ), false, lastLineNr - 3, lastLineNr ).size() );
+  }
+
+  @Test
+  public void testUnlimitedBufferGrows() {
+    LoggingBuffer loggingBuffer = new LoggingBuffer( 0 );
+    for ( int i = 0; i < 3000; i++ ) {
+      KettleLoggingEvent event = new KettleLoggingEvent();
+      event.setMessage( new LogMessage( "test", LogLevel.BASIC ) );
+      event.setTimeStamp( i );
+      loggingBuffer.addLogggingEvent( event );
+    }
+    Assert.assertEquals( 3000, loggingBuffer.size() );
+
+    loggingBuffer.setMaxNrLines( 100 );
+    Assert.assertEquals( 100, loggingBuffer.size() );
+    Assert.assertEquals( 2900L, loggingBuffer.getBufferIterator().next().getEvent().getTimeStamp() );
+  }
+
+  @Test
+  public void testUnlimitedBufferDoesNotGrowForOldLines() {
+    LoggingBuffer loggingBuffer = new LoggingBuffer( 0 );
+    KettleLoggingEvent kept = new KettleLoggingEvent();
+    kept.setMessage( new LogMessage( "kept", "kept", LogLevel.BASIC ) );
+    loggingBuffer.addLogggingEvent( kept );
+
+    // The line of the kept channel sits in the way every time the sequence wraps around the ring
+    //
+    for ( int i = 0; i < 100000; i++ ) {
+      KettleLoggingEvent event = new KettleLoggingEvent();
+      event.setMessage( new LogMessage( "line " + i, "short-lived", LogLevel.BASIC ) );
+      loggingBuffer.addLogggingEvent( event );
+      if ( i % 100 == 99 ) {
+        loggingBuffer.removeChannelFromBuffer( "short-lived" );
+      }
+    }
+    Assert.assertEquals( 1, loggingBuffer.size() );
+    Assert.assertTrue( loggingBuffer.getRingCapacity() <= 1024 );
+    Assert.assertSame( kept, loggingBuffer.getBufferIterator().next().getEvent() );
+
+    KettleLoggingEvent last = new KettleLoggingEvent();
+    last.setMessage( new LogMessage( "last", "short-lived", LogLevel.BASIC ) );
+    loggingBuffer.addLogggingEvent( last );
+    List<KettleLoggingEvent> events =
+      loggingBuffer.getLogBufferFromTo( Collections.singletonList( "short-lived" ), false, 0, Integer.MAX_VALUE );
+    Assert.assertEquals( 1, events.size() );
+    Assert.assertSame( last, events.get( 0 ) );
+    Assert.assertEquals( 2, loggingBuffer.size() );
+  }
+
 }
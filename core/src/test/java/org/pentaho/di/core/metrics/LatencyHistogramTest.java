@@ -0,0 +1,71 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2021 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.metrics;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class LatencyHistogramTest {
+
+  @Test
+  public void testRecord() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record( TimeUnit.MICROSECONDS.toNanos( 5 ) );
+    histogram.record( TimeUnit.MICROSECONDS.toNanos( 10 ) );
+    histogram.record( TimeUnit.MILLISECONDS.toNanos( 2 ) );
+    histogram.record( TimeUnit.SECONDS.toNanos( 60 ) );
+
+    assertEquals( 8, LatencyHistogram.getBucketBounds().length + 1 );
+    assertArrayEquals( new long[] { 2, 2, 2, 3, 3, 3, 3, 4 }, histogram.getCumulativeCounts() );
+    assertEquals( 4, histogram.getCount() );
+    assertEquals( TimeUnit.MICROSECONDS.toNanos( 2015 ) + TimeUnit.SECONDS.toNanos( 60 ), histogram.getSumNanos() );
+
+    histogram.reset();
+    assertEquals( 0, histogram.getCount() );
+    assertEquals( 0, histogram.getSumNanos() );
+  }
+
+  @Test
+  public void testConcurrentRecord() throws Exception {
+    final LatencyHistogram histogram = new LatencyHistogram();
+    Thread[] threads = new Thread[ 4 ];
+    for ( int i = 0; i < threads.length; i++ ) {
+      threads[ i ] = new Thread( () -> {
+        for ( int j = 0; j < 10000; j++ ) {
+          histogram.record( j );
+        }
+      } );
+      threads[ i ].start();
+    }
+    for ( Thread thread : threads ) {
+      thread.join();
+    }
+    assertEquals( 40000, histogram.getCount() );
+    assertEquals( 4L * ( 9999L * 10000L / 2 ), histogram.getSumNanos() );
+  }
+}
@@ -0,0 +1,83 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2021 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.metrics;
+
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PrometheusTextFormatTest {
+
+  @Test
+  public void testWriteCounterAndGauge() throws Exception {
+    List<MetricFamily> families = new ArrayList<>();
+    families.add( new MetricFamily( "kettle_step_lines_read_total", "Rows read.", MetricFamily.Type.COUNTER )
+      .addSample( 42, "trans", "my \"trans\"", "step", "a\\b\nc" ) );
+    families.add( new MetricFamily( "jvm_threads_current", "Threads.", MetricFamily.Type.GAUGE ).addSample( 1.5 ) );
+
+    StringWriter writer = new StringWriter();
+    PrometheusTextFormat.write( writer, families );
+
+    assertEquals( "# HELP kettle_step_lines_read_total Rows read.\n"
+      + "# TYPE kettle_step_lines_read_total counter\n"
+      + "kettle_step_lines_read_total{trans=\"my \\\"trans\\\"\",step=\"a\\\\b\\nc\"} 42\n"
+      + "# HELP jvm_threads_current Threads.\n"
+      + "# TYPE jvm_threads_current gauge\n"
+      + "jvm_threads_current 1.5\n", writer.toString() );
+  }
+
+  @Test
+  public void testWriteHistogram() throws Exception {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record( TimeUnit.MILLISECONDS.toNanos( 500 ) );
+    List<MetricFamily> families = new ArrayList<>();
+    families.add( new MetricFamily( "kettle_step_process_row_seconds", "Time per row.", MetricFamily.Type.HISTOGRAM )
+      .addHistogram( histogram, "step", "s" ) );
+
+    StringWriter writer = new StringWriter();
+    PrometheusTextFormat.write( writer, families );
+    String text = writer.toString();
+
+    assertTrue( text.contains( "# TYPE kettle_step_process_row_seconds histogram\n" ) );
+    assertTrue( text.contains( "kettle_step_process_row_seconds_bucket{step=\"s\",le=\"0.1\"} 0\n" ) );
+    assertTrue( text.contains( "kettle_step_process_row_seconds_bucket{step=\"s\",le=\"1.0\"} 1\n" ) );
+    assertTrue( text.contains( "kettle_step_process_row_seconds_bucket{step=\"s\",le=\"+Inf\"} 1\n" ) );
+    assertTrue( text.contains( "kettle_step_process_row_seconds_sum{step=\"s\"} 0.5\n" ) );
+    assertTrue( text.contains( "kettle_step_process_row_seconds_count{step=\"s\"} 1\n" ) );
+  }
+
+  @Test
+  public void testFormatValue() {
+    assertEquals( "NaN", PrometheusTextFormat.formatValue( Double.NaN ) );
+    assertEquals( "+Inf", PrometheusTextFormat.formatValue( Double.POSITIVE_INFINITY ) );
+    assertEquals( "-3", PrometheusTextFormat.formatValue( -3.0 ) );
+    assertEquals( "0.25", PrometheusTextFormat.formatValue( 0.25 ) );
+  }
+}
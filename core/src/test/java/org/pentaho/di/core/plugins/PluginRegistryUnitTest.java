@@ -24,6 +24,7 @@ package org.pentaho.di.core.plugins;
 
 import org.junit.ClassRule;
 import org.junit.Test;
+import org.pentaho.di.core.Const;
 import org.pentaho.di.core.exception.KettlePluginClassMapException;
 import org.pentaho.di.core.exception.KettlePluginException;
 import org.pentaho.di.core.extension.PluginMockInterface;
@@ -48,6 +49,7 @@ import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -198,4 +200,28 @@ public class PluginRegistryUnitTest {
     registry.registerPlugin( ValueMetaPluginType.class, plugin );
     verify( plugin, atLeast( 4 ) ).merge( any() );
   }
+
+  @Test
+  public void testLazyPluginTypeInit() throws Exception {
+    System.setProperty( Const.KETTLE_LAZY_PLUGIN_TYPE_INIT, "Y" );
+    PluginRegistry registry = PluginRegistry.getInstance();
+    registry.reset();
+    try {
+      PluginTypeInterface lazyType = mock( PluginTypeInterface.class );
+      PluginRegistry.addPluginType( lazyType );
+      PluginRegistry.init( true );
+
+      // The type is known but not searched yet
+      assertTrue( registry.getPluginTypes().contains( lazyType.getClass() ) );
+      verify( lazyType, never() ).searchPlugins();
+
+      // Searched once, on first use
+      registry.getPlugins( lazyType.getClass() );
+      registry.getPlugins( lazyType.getClass() );
+      verify( lazyType, times( 1 ) ).searchPlugins();
+    } finally {
+      System.clearProperty( Const.KETTLE_LAZY_PLUGIN_TYPE_INIT );
+      registry.reset();
+    }
+  }
 }
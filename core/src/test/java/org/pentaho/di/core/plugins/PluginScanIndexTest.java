@@ -0,0 +1,107 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2021 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.pentaho.di.core.plugins;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PluginScanIndexTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void testSaveAndLoad() throws Exception {
+    File jar = temporaryFolder.newFile( "plugin.jar" );
+    String path = jar.toURI().toString();
+    File file = new File( temporaryFolder.getRoot(), "index.xml" );
+
+    PluginScanIndex index = new PluginScanIndex( file );
+    index.put( path, 100L, 12345L, createAnnotationIndex() );
+    assertTrue( index.save() );
+    assertFalse( index.save() );
+
+    PluginScanIndex loaded = new PluginScanIndex( file );
+    loaded.load();
+    assertEquals( createAnnotationIndex(), loaded.get( path, 100L, 12345L ) );
+  }
+
+  @Test
+  public void testChangedJarIsNotReused() throws Exception {
+    String path = temporaryFolder.newFile( "plugin.jar" ).toURI().toString();
+    PluginScanIndex index = new PluginScanIndex( new File( temporaryFolder.getRoot(), "index.xml" ) );
+    index.put( path, 100L, 12345L, createAnnotationIndex() );
+
+    assertNull( index.get( path, 101L, 12345L ) );
+    assertNull( index.get( path, 100L, 12346L ) );
+    assertNull( index.get( path + "x", 100L, 12345L ) );
+  }
+
+  @Test
+  public void testMissingJarsAreForgotten() throws Exception {
+    File jar = temporaryFolder.newFile( "plugin.jar" );
+    File file = new File( temporaryFolder.getRoot(), "index.xml" );
+    PluginScanIndex index = new PluginScanIndex( file );
+    index.put( jar.toURI().toString(), 100L, 12345L, createAnnotationIndex() );
+    index.put( new File( temporaryFolder.getRoot(), "removed.jar" ).toURI().toString(), 100L, 12345L,
+      createAnnotationIndex() );
+    index.save();
+
+    PluginScanIndex loaded = new PluginScanIndex( file );
+    loaded.load();
+    assertEquals( 1, loaded.size() );
+  }
+
+  @Test
+  public void testUnreadableFileIsIgnored() throws Exception {
+    File file = temporaryFolder.newFile( "index.xml" );
+    Files.write( file.toPath(), "not xml".getBytes() );
+    PluginScanIndex index = new PluginScanIndex( file );
+    index.load();
+    assertEquals( 0, index.size() );
+  }
+
+  private static Map<String, Set<String>> createAnnotationIndex() {
+    Map<String, Set<String>> annotationIndex = new HashMap<>();
+    annotationIndex.put( "org.pentaho.di.core.annotations.Step",
+      new HashSet<>( Arrays.asList( "org.example.FirstStepMeta", "org.example.SecondStepMeta" ) ) );
+    annotationIndex.put( "org.pentaho.di.core.annotations.JobEntry",
+      new HashSet<>( Collections.singletonList( "org.example.JobEntryExample" ) ) );
+    return annotationIndex;
+  }
+}
@@ -0,0 +1,74 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2021 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.pentaho.di.core.variables;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+import org.pentaho.di.core.util.StringUtil;
+
+public class VariableTemplateTest {
+
+  private static final String[] TEMPLATES = {
+    "plain text", "${A}", "%%A%%", "${A}/${B}.txt", "%%A%%${B}", "${Missing}/x", "%%Missing%%", "${A", "%%A",
+    "${A%%B%%}", "$%%A%%{B}", "$${A}", "$[41,42]${A}", "${${A}}", "%%${A}%%", "}${A}{", "%%%A%%%", "${}", "%%%%",
+  };
+
+  private static final String[][] VALUES = {
+    { "v1", "v2" }, { "", "" }, { "${B}", "x" }, { "%%B%%", "y" }, { "{B}", "[41]" }, { "$", "%" }, { "a%b", "c}" },
+  };
+
+  @Test
+  public void testSameAsStringUtil() {
+    for ( String[] values : VALUES ) {
+      Map<String, String> variables = new HashMap<>();
+      variables.put( "A", values[0] );
+      variables.put( "B", values[1] );
+      for ( String template : TEMPLATES ) {
+        for ( boolean escapeHex : new boolean[] { false, true } ) {
+          assertEquals( template + " with " + variables,
+            StringUtil.environmentSubstitute( template, variables, escapeHex ),
+            VariableTemplate.compile( template ).resolve( variables, escapeHex ) );
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testSegments() {
+    assertEquals( 0, VariableTemplate.compile( "plain text" ).getNrVariables() );
+    assertEquals( 3, VariableTemplate.compile( "${A}/%%B%%/${C}.txt" ).getNrVariables() );
+    // Left to StringUtil
+    assertEquals( -1, VariableTemplate.compile( "$[41]${A}" ).getNrVariables() );
+    assertEquals( -1, VariableTemplate.compile( "${A%%B%%}" ).getNrVariables() );
+  }
+
+  @Test
+  public void testCompileIsCached() {
+    assertSame( VariableTemplate.compile( "${Cached}" ), VariableTemplate.compile( "${Cached}" ) );
+  }
+}
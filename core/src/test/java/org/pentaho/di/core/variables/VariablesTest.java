@@ -172,4 +172,23 @@ public class VariablesTest {
     assertArrayEquals( new String[]{ "DataOne", "TheDataOne" },
       vars.environmentSubstitute( new String[]{ "${VarOne}", "The${VarOne}" } ) );
   }
+
+  @Test
+  public void testEnvironmentSubstituteAfterChange() {
+    Variables vars = new Variables();
+    vars.setVariable( "Dir", "/in" );
+    long count = vars.getVariablesChangeCount();
+
+    assertEquals( "/in/file.txt", vars.environmentSubstitute( "${Dir}/file.txt" ) );
+    assertEquals( "/in/file.txt", vars.environmentSubstitute( "${Dir}/file.txt" ) );
+    assertEquals( count, vars.getVariablesChangeCount() );
+
+    vars.setVariable( "Dir", "/out" );
+    assertTrue( vars.getVariablesChangeCount() != count );
+    assertEquals( "/out/file.txt", vars.environmentSubstitute( "${Dir}/file.txt" ) );
+
+    vars.setVariable( "Hex", "$[41]" );
+    assertEquals( "A", vars.environmentSubstitute( "${Hex}" ) );
+    assertEquals( "$[41]", vars.environmentSubstitute( "${Hex}", true ) );
+  }
 }
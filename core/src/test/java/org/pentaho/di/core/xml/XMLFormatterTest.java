@@ -22,14 +22,21 @@
 package org.pentaho.di.core.xml;
 
 import static org.custommonkey.xmlunit.XMLAssert.assertXMLEqual;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.InputStream;
+import java.io.StringWriter;
+
+import javax.xml.stream.XMLStreamException;
 
 import org.apache.commons.io.IOUtils;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
 import org.custommonkey.xmlunit.XMLUnit;
+import org.pentaho.di.core.exception.KettleException;
 
 public class XMLFormatterTest {
 
@@ -93,4 +100,47 @@ public class XMLFormatterTest {
     String result = XMLFormatter.format( inXml );
     assertXMLEqual( expectedXml, result );
   }
+
+  @Test
+  public void testStreaming() throws Exception {
+    String inXml;
+    try ( InputStream in = XMLFormatterTest.class.getResourceAsStream( "XMLFormatterIn2.xml" ) ) {
+      inXml = IOUtils.toString( in );
+    }
+
+    StringWriter result = new StringWriter();
+    XMLFormatter.format( writer -> writer.write( inXml ), result );
+    assertEquals( XMLFormatter.format( inXml ), result.toString() );
+  }
+
+  @Test
+  public void testStreamingProducerError() throws Exception {
+    StringWriter result = new StringWriter();
+    try {
+      XMLFormatter.format( writer -> {
+        writer.write( "<transformation><info>" );
+        throw new KettleException( "producer failed" );
+      }, result );
+      fail();
+    } catch ( KettleException e ) {
+      assertTrue( e.getMessage().contains( "producer failed" ) );
+    }
+  }
+
+  @Test
+  public void testStreamingFormatterError() throws Exception {
+    StringWriter result = new StringWriter();
+    try {
+      XMLFormatter.format( writer -> {
+        writer.write( "<transformation></info>" );
+        // Keep writing: the producer mustn't wait for a formatter that gave up
+        for ( int i = 0; i < 100000; i++ ) {
+          writer.write( "<step><name>step</name></step>" );
+        }
+      }, result );
+      fail();
+    } catch ( KettleException e ) {
+      assertTrue( e.getCause() instanceof XMLStreamException );
+    }
+  }
 }
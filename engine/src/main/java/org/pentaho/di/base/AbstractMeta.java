@@ -1281,6 +1281,11 @@ public abstract class AbstractMeta implements ChangedFlagInterface, UndoInterfac
     return variables.environmentSubstitute( aString );
   }
 
+  @Override
+  public long getVariablesChangeCount() {
+    return variables.getVariablesChangeCount();
+  }
+
   /*
    * (non-javadoc)
    *
@@ -0,0 +1,518 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2021 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.pentaho.di.base;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.database.DatabaseMeta;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.util.EnvUtil;
+import org.pentaho.di.core.variables.VariableSpace;
+import org.pentaho.di.core.variables.Variables;
+import org.pentaho.di.core.vfs.KettleVFS;
+import org.pentaho.di.job.JobHopMeta;
+import org.pentaho.di.job.JobMeta;
+import org.pentaho.di.job.entry.JobEntryCopy;
+import org.pentaho.di.repository.ObjectId;
+import org.pentaho.di.repository.Repository;
+import org.pentaho.di.repository.RepositoryDirectoryInterface;
+import org.pentaho.di.repository.RepositoryObject;
+import org.pentaho.di.repository.RepositoryObjectType;
+import org.pentaho.di.trans.TransHopMeta;
+import org.pentaho.di.trans.TransMeta;
+import org.pentaho.di.trans.step.StepErrorMeta;
+import org.pentaho.di.trans.step.StepMeta;
+import org.pentaho.metastore.api.IMetaStore;
+
+/**
+ * A process-wide cache of the transformations and jobs that job entries and steps load from files or from a
+ * repository, enabled with the {@link Const#KETTLE_USE_META_CACHE} variable. A cached transformation or job is reused
+ * as long as the modification time of its file, or the modification date of its repository object, stays the same.
+ * <p>
+ * The cached metadata itself is never handed out: every load returns a copy with its own variables, initialized the
+ * same way loading the file or repository object would. The steps and job entries of a copy refer to the database
+ * connections of the copy, so that every execution resolves the variables of its connections on its own.
+ */
+public class MetaCache {
+
+  /** The maximum number of transformations and jobs kept, the least recently used ones are dropped first */
+  private static final int MAX_ENTRIES = 500;
+
+  private static final MetaCache INSTANCE = new MetaCache();
+
+  private final Map<String, CachedMeta> cache =
+    Collections.synchronizedMap( new LinkedHashMap<String, CachedMeta>( 16, 0.75f, true ) {
+      @Override
+      protected boolean removeEldestEntry( Map.Entry<String, CachedMeta> eldest ) {
+        return size() > MAX_ENTRIES;
+      }
+    } );
+
+  public static MetaCache getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * @param space
+   *          the variables of the job entry or step loading the metadata, can be null
+   * @return true if loaded transformations and jobs should be taken from the cache
+   */
+  public boolean isEnabled( VariableSpace space ) {
+    String value = space == null ? null : space.getVariable( Const.KETTLE_USE_META_CACHE );
+    return "Y".equalsIgnoreCase( Const.NVL( value, EnvUtil.getSystemProperty( Const.KETTLE_USE_META_CACHE ) ) );
+  }
+
+  /**
+   * Loads a transformation from a file, the equivalent of
+   * {@link TransMeta#TransMeta(String, IMetaStore, Repository, boolean, VariableSpace,
+   * org.pentaho.di.core.gui.OverwritePrompter)}.
+   */
+  public TransMeta loadTransMeta( String filename, IMetaStore metaStore, Repository rep,
+                                  boolean setInternalVariables, VariableSpace parentSpace ) throws KettleException {
+    FileObject file = KettleVFS.getFileObject( filename, parentSpace );
+    long lastModified = getLastModified( file );
+    if ( lastModified < 0 ) {
+      return new TransMeta( filename, metaStore, rep, setInternalVariables, parentSpace, null );
+    }
+    String key = getFileKey( file, rep );
+
+    TransMeta transMeta = copyTransMeta( key, lastModified, parentSpace );
+    if ( transMeta == null ) {
+      TransMeta template = new TransMeta( filename, metaStore, rep, setInternalVariables, parentSpace, null );
+      resetVariables( template, null );
+      template.setInternalKettleVariables();
+      transMeta = putTransMeta( key, lastModified, template, parentSpace );
+    }
+    if ( setInternalVariables ) {
+      transMeta.setInternalKettleVariables();
+    } else if ( rep == null ) {
+      // Loading the file sets the filename variables in any case
+      //
+      transMeta.setFilename( transMeta.getFilename() );
+    }
+    transMeta.setRepository( rep );
+    transMeta.setMetaStore( metaStore );
+    return transMeta;
+  }
+
+  /**
+   * Loads the last revision of a transformation from a repository, the equivalent of
+   * {@link Repository#loadTransformation(String, RepositoryDirectoryInterface,
+   * org.pentaho.di.core.ProgressMonitorListener, boolean, String)}.
+   */
+  public TransMeta loadTransMeta( Repository rep, String name, RepositoryDirectoryInterface directory )
+    throws KettleException {
+    ObjectId objectId = rep.getTransformationID( name, directory );
+    Date modifiedDate = getModifiedDate( rep, objectId, RepositoryObjectType.TRANSFORMATION );
+    if ( modifiedDate == null ) {
+      return rep.loadTransformation( name, directory, null, true, null );
+    }
+    String key = getRepositoryKey( rep, objectId, RepositoryObjectType.TRANSFORMATION );
+
+    TransMeta transMeta = copyTransMeta( key, modifiedDate.getTime(), null );
+    if ( transMeta == null ) {
+      TransMeta template = rep.loadTransformation( name, directory, null, true, null );
+      resetVariables( template, null );
+      template.setInternalKettleVariables();
+      transMeta = putTransMeta( key, modifiedDate.getTime(), template, null );
+    }
+    transMeta.setInternalKettleVariables();
+    transMeta.setRepository( rep );
+    return transMeta;
+  }
+
+  /**
+   * Loads the last revision of a transformation from a repository, the equivalent of
+   * {@link Repository#loadTransformation(ObjectId, String)}.
+   */
+  public TransMeta loadTransMeta( Repository rep, ObjectId objectId ) throws KettleException {
+    Date modifiedDate = getModifiedDate( rep, objectId, RepositoryObjectType.TRANSFORMATION );
+    if ( modifiedDate == null ) {
+      return rep.loadTransformation( objectId, null );
+    }
+    String key = getRepositoryKey( rep, objectId, RepositoryObjectType.TRANSFORMATION );
+
+    TransMeta transMeta = copyTransMeta( key, modifiedDate.getTime(), null );
+    if ( transMeta == null ) {
+      TransMeta template = rep.loadTransformation( objectId, null );
+      resetVariables( template, null );
+      template.setInternalKettleVariables();
+      transMeta = putTransMeta( key, modifiedDate.getTime(), template, null );
+    }
+    transMeta.setInternalKettleVariables();
+    transMeta.setRepository( rep );
+    return transMeta;
+  }
+
+  /**
+   * Loads a job from a file, the equivalent of
+   * {@link JobMeta#JobMeta(VariableSpace, String, Repository, IMetaStore, org.pentaho.di.core.gui.OverwritePrompter)}.
+   */
+  public JobMeta loadJobMeta( VariableSpace parentSpace, String filename, Repository rep, IMetaStore metaStore )
+    throws KettleException {
+    FileObject file = KettleVFS.getFileObject( filename, parentSpace );
+    long lastModified = getLastModified( file );
+    if ( lastModified < 0 ) {
+      return new JobMeta( parentSpace, filename, rep, metaStore, null );
+    }
+    String key = getFileKey( file, rep );
+
+    JobMeta jobMeta = copyJobMeta( key, lastModified, parentSpace );
+    if ( jobMeta == null ) {
+      JobMeta template = new JobMeta( parentSpace, filename, rep, metaStore, null );
+      resetVariables( template, null );
+      template.setInternalKettleVariables();
+      jobMeta = putJobMeta( key, lastModified, template, parentSpace );
+    }
+    jobMeta.setInternalKettleVariables();
+    jobMeta.setRepository( rep );
+    jobMeta.setMetaStore( metaStore );
+    return jobMeta;
+  }
+
+  /**
+   * Loads the last revision of a job from a repository, the equivalent of
+   * {@link Repository#loadJob(String, RepositoryDirectoryInterface, org.pentaho.di.core.ProgressMonitorListener,
+   * String)}.
+   */
+  public JobMeta loadJobMeta( Repository rep, String name, RepositoryDirectoryInterface directory )
+    throws KettleException {
+    ObjectId objectId = rep.getJobId( name, directory );
+    Date modifiedDate = getModifiedDate( rep, objectId, RepositoryObjectType.JOB );
+    if ( modifiedDate == null ) {
+      return rep.loadJob( name, directory, null, null );
+    }
+    String key = getRepositoryKey( rep, objectId, RepositoryObjectType.JOB );
+
+    JobMeta jobMeta = copyJobMeta( key, modifiedDate.getTime(), null );
+    if ( jobMeta == null ) {
+      JobMeta template = rep.loadJob( name, directory, null, null );
+      resetVariables( template, null );
+      template.setInternalKettleVariables();
+      jobMeta = putJobMeta( key, modifiedDate.getTime(), template, null );
+    }
+    jobMeta.setInternalKettleVariables();
+    jobMeta.setRepository( rep );
+    return jobMeta;
+  }
+
+  /**
+   * Loads the last revision of a job from a repository, the equivalent of
+   * {@link Repository#loadJob(ObjectId, String)}.
+   */
+  public JobMeta loadJobMeta( Repository rep, ObjectId objectId ) throws KettleException {
+    Date modifiedDate = getModifiedDate( rep, objectId, RepositoryObjectType.JOB );
+    if ( modifiedDate == null ) {
+      return rep.loadJob( objectId, null );
+    }
+    String key = getRepositoryKey( rep, objectId, RepositoryObjectType.JOB );
+
+    JobMeta jobMeta = copyJobMeta( key, modifiedDate.getTime(), null );
+    if ( jobMeta == null ) {
+      JobMeta template = rep.loadJob( objectId, null );
+      resetVariables( template, null );
+      template.setInternalKettleVariables();
+      jobMeta = putJobMeta( key, modifiedDate.getTime(), template, null );
+    }
+    jobMeta.setInternalKettleVariables();
+    jobMeta.setRepository( rep );
+    return jobMeta;
+  }
+
+  /**
+   * Removes all transformations and jobs from the cache.
+   */
+  public void clear() {
+    cache.clear();
+  }
+
+  private TransMeta copyTransMeta( String key, long lastModified, VariableSpace parentSpace ) {
+    CachedMeta cachedMeta = cache.get( key );
+    if ( cachedMeta == null || cachedMeta.lastModified != lastModified
+      || !( cachedMeta.meta instanceof TransMeta ) ) {
+      return null;
+    }
+    return copy( (TransMeta) cachedMeta.meta, parentSpace );
+  }
+
+  private TransMeta putTransMeta( String key, long lastModified, TransMeta template, VariableSpace parentSpace )
+    throws KettleException {
+    TransMeta transMeta = copy( template, parentSpace );
+    if ( transMeta == null ) {
+      throw new KettleException( "Unable to copy transformation [" + template.getName() + "]" );
+    }
+    cache.put( key, new CachedMeta( template, lastModified ) );
+    return transMeta;
+  }
+
+  private JobMeta copyJobMeta( String key, long lastModified, VariableSpace parentSpace ) {
+    CachedMeta cachedMeta = cache.get( key );
+    if ( cachedMeta == null || cachedMeta.lastModified != lastModified || !( cachedMeta.meta instanceof JobMeta ) ) {
+      return null;
+    }
+    return copy( (JobMeta) cachedMeta.meta, parentSpace );
+  }
+
+  private JobMeta putJobMeta( String key, long lastModified, JobMeta template, VariableSpace parentSpace )
+    throws KettleException {
+    JobMeta jobMeta = copy( template, parentSpace );
+    if ( jobMeta == null ) {
+      throw new KettleException( "Unable to copy job [" + template.getName() + "]" );
+    }
+    cache.put( key, new CachedMeta( template, lastModified ) );
+    return jobMeta;
+  }
+
+  /**
+   * Copies a cached transformation. Unlike {@link TransMeta#clone()} the hops and error handling of the copy point to
+   * the steps of the copy and the copy gets variables of its own.
+   */
+  static TransMeta copy( TransMeta template, VariableSpace parentSpace ) {
+    TransMeta transMeta;
+    Map<DatabaseMeta, DatabaseMeta> databases;
+    synchronized ( template ) {
+      transMeta = (TransMeta) template.realClone( false );
+      if ( transMeta == null ) {
+        return null;
+      }
+      databases = mapDatabases( template, transMeta );
+    }
+    for ( int i = 0; i < transMeta.nrTransHops(); i++ ) {
+      TransHopMeta hop = transMeta.getTransHop( i );
+      hop.setFromStep( transMeta.findStep( hop.getFromStep().getName() ) );
+      hop.setToStep( transMeta.findStep( hop.getToStep().getName() ) );
+    }
+    for ( StepMeta stepMeta : transMeta.getSteps() ) {
+      StepErrorMeta stepErrorMeta = stepMeta.getStepErrorMeta();
+      if ( stepErrorMeta != null ) {
+        stepErrorMeta.setSourceStep( stepMeta );
+        if ( stepErrorMeta.getTargetStep() != null ) {
+          stepErrorMeta.setTargetStep( transMeta.findStep( stepErrorMeta.getTargetStep().getName() ) );
+        }
+      }
+      if ( !replaceDatabases( stepMeta.getStepMetaInterface(), databases ) ) {
+        return null;
+      }
+    }
+    // The hops changed without the transformation knowing
+    //
+    transMeta.clearCaches();
+    resetVariables( transMeta, parentSpace );
+    // The transformation constructor initializes the variables once more, without the parent
+    //
+    transMeta.initializeVariablesFrom( null );
+    transMeta.clearChanged();
+    return transMeta;
+  }
+
+  /**
+   * Copies a cached job. Unlike {@link JobMeta#clone()} the hops of the copy point to the job entries of the copy and
+   * the copy gets variables of its own.
+   */
+  static JobMeta copy( JobMeta template, VariableSpace parentSpace ) {
+    JobMeta jobMeta;
+    Map<DatabaseMeta, DatabaseMeta> databases;
+    synchronized ( template ) {
+      jobMeta = (JobMeta) template.realClone( false );
+      if ( jobMeta == null ) {
+        return null;
+      }
+      databases = mapDatabases( template, jobMeta );
+    }
+    for ( int i = 0; i < jobMeta.nrJobEntries(); i++ ) {
+      JobEntryCopy jobEntry = jobMeta.getJobEntry( i );
+      jobEntry.setParentJobMeta( jobMeta );
+      if ( !replaceDatabases( jobEntry.getEntry(), databases ) ) {
+        return null;
+      }
+    }
+    for ( int i = 0; i < jobMeta.nrJobHops(); i++ ) {
+      JobHopMeta hop = jobMeta.getJobHop( i );
+      JobEntryCopy from = hop.getFromEntry();
+      JobEntryCopy to = hop.getToEntry();
+      hop.setFromEntry( jobMeta.findJobEntry( from.getName(), from.getNr(), true ) );
+      hop.setToEntry( jobMeta.findJobEntry( to.getName(), to.getNr(), true ) );
+    }
+    resetVariables( jobMeta, parentSpace );
+    jobMeta.clearChanged();
+    return jobMeta;
+  }
+
+  /**
+   * @return the database connections of the cached metadata, mapped by identity to the connection of the copy with
+   *         the same name
+   */
+  private static Map<DatabaseMeta, DatabaseMeta> mapDatabases( AbstractMeta template, AbstractMeta copy ) {
+    Map<DatabaseMeta, DatabaseMeta> databases = new IdentityHashMap<>();
+    for ( DatabaseMeta databaseMeta : template.getDatabases() ) {
+      DatabaseMeta copied = copy.findDatabase( databaseMeta.getName() );
+      if ( copied != null ) {
+        databases.put( databaseMeta, copied );
+      }
+    }
+    return databases;
+  }
+
+  /**
+   * Points the database connections a step or job entry refers to in fields of type {@link DatabaseMeta},
+   * DatabaseMeta[] or a list of DatabaseMeta to the connections of the copy. The clone of a step or job entry shares
+   * these fields with the cached metadata, so arrays and lists are replaced rather than changed.
+   *
+   * @return false if a field could not be changed
+   */
+  private static boolean replaceDatabases( Object meta, Map<DatabaseMeta, DatabaseMeta> databases ) {
+    if ( meta == null || databases.isEmpty() ) {
+      return true;
+    }
+    try {
+      for ( Class<?> type = meta.getClass(); type != null && type != Object.class; type = type.getSuperclass() ) {
+        for ( Field field : type.getDeclaredFields() ) {
+          if ( Modifier.isStatic( field.getModifiers() ) ) {
+            continue;
+          }
+          Object value;
+          if ( field.getType() == DatabaseMeta.class ) {
+            field.setAccessible( true );
+            value = databases.get( field.get( meta ) );
+          } else if ( field.getType() == DatabaseMeta[].class ) {
+            field.setAccessible( true );
+            value = replaceDatabases( (DatabaseMeta[]) field.get( meta ), databases );
+          } else if ( List.class.isAssignableFrom( field.getType() ) ) {
+            field.setAccessible( true );
+            value = replaceDatabases( (List<?>) field.get( meta ), databases );
+          } else {
+            continue;
+          }
+          if ( value != null ) {
+            field.set( meta, value );
+          }
+        }
+      }
+      return true;
+    } catch ( IllegalAccessException | RuntimeException e ) {
+      return false;
+    }
+  }
+
+  /**
+   * @return a copy of the array with the connections of the copy, null if it refers to none of the cached metadata
+   */
+  private static DatabaseMeta[] replaceDatabases( DatabaseMeta[] array, Map<DatabaseMeta, DatabaseMeta> databases ) {
+    DatabaseMeta[] replaced = null;
+    for ( int i = 0; array != null && i < array.length; i++ ) {
+      DatabaseMeta copied = databases.get( array[i] );
+      if ( copied != null ) {
+        if ( replaced == null ) {
+          replaced = array.clone();
+        }
+        replaced[i] = copied;
+      }
+    }
+    return replaced;
+  }
+
+  /**
+   * @return a copy of the list with the connections of the copy, null if it refers to none of the cached metadata
+   */
+  private static List<Object> replaceDatabases( List<?> list, Map<DatabaseMeta, DatabaseMeta> databases ) {
+    if ( list == null ) {
+      return null;
+    }
+    List<Object> replaced = null;
+    for ( int i = 0; i < list.size(); i++ ) {
+      Object element = list.get( i );
+      DatabaseMeta copied = element instanceof DatabaseMeta ? databases.get( element ) : null;
+      if ( copied != null ) {
+        if ( replaced == null ) {
+          replaced = new ArrayList<Object>( list );
+        }
+        replaced.set( i, copied );
+      }
+    }
+    return replaced;
+  }
+
+  private static void resetVariables( AbstractMeta meta, VariableSpace parentSpace ) {
+    meta.shareVariablesWith( new Variables() );
+    meta.initializeVariablesFrom( parentSpace );
+    for ( DatabaseMeta databaseMeta : meta.getDatabases() ) {
+      databaseMeta.shareVariablesWith( meta );
+    }
+  }
+
+  private static String getFileKey( FileObject file, Repository rep ) {
+    String key = "file:" + file.getName().getURI();
+    return rep == null ? key : key + "@" + rep.getName();
+  }
+
+  /**
+   * @return the modification time of the file, -1 if the file doesn't exist
+   */
+  private static long getLastModified( FileObject file ) throws KettleException {
+    try {
+      return file.exists() ? file.getContent().getLastModifiedTime() : -1L;
+    } catch ( FileSystemException e ) {
+      throw new KettleException( "Unable to get the modification time of file [" + file.getName().getURI() + "]",
+        e );
+    }
+  }
+
+  private static String getRepositoryKey( Repository rep, ObjectId objectId, RepositoryObjectType objectType ) {
+    // Different users may see different objects
+    //
+    String user = rep.getUserInfo() == null ? "" : rep.getUserInfo().getLogin();
+    return "repository:" + rep.getName() + ":" + user + ":" + objectType.getTypeDescription() + ":"
+      + objectId.getId();
+  }
+
+  private static Date getModifiedDate( Repository rep, ObjectId objectId, RepositoryObjectType objectType )
+    throws KettleException {
+    if ( objectId == null ) {
+      return null;
+    }
+    RepositoryObject objectInformation = rep.getObjectInformation( objectId, objectType );
+    return objectInformation == null ? null : objectInformation.getModifiedDate();
+  }
+
+  private static class CachedMeta {
+    private final AbstractMeta meta;
+    private final long lastModified;
+
+    CachedMeta( AbstractMeta meta, long lastModified ) {
+      this.meta = meta;
+      this.lastModified = lastModified;
+    }
+  }
+}
@@ -22,9 +22,12 @@
 
 package org.pentaho.di.core;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Date;
 
 import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.xml.XMLHandler;
 import org.pentaho.di.repository.ObjectId;
 import org.pentaho.di.repository.RepositoryDirectoryInterface;
 import org.pentaho.di.repository.RepositoryElementInterface;
@@ -66,6 +69,22 @@ public interface EngineMetaInterface extends RepositoryElementInterface {
 
   String getXML() throws KettleException;
 
+  /**
+   * Writes the XML representation, including the XML header, to the given stream.
+   *
+   * @param outputStream
+   *          the stream to write to, it's not closed
+   * @throws KettleException
+   *           if any errors occur during generation or writing of the XML
+   */
+  default void writeXML( OutputStream outputStream ) throws KettleException {
+    try {
+      outputStream.write( ( XMLHandler.getXMLHeader() + getXML() ).getBytes( Const.XML_ENCODING ) );
+    } catch ( IOException e ) {
+      throw new KettleException( e );
+    }
+  }
+
   /**
    * Gets the file type.
    *
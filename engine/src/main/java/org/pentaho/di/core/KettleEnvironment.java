@@ -30,6 +30,7 @@ import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.exception.KettlePluginException;
 import org.pentaho.di.core.lifecycle.KettleLifecycleSupport;
 import org.pentaho.di.core.logging.LogTablePluginType;
+import org.pentaho.di.core.logging.LogTableWriter;
 import org.pentaho.di.core.logging.LoggingRegistry;
 import org.pentaho.di.core.plugins.CartePluginType;
 import org.pentaho.di.core.plugins.EnginePluginType;
@@ -199,6 +200,7 @@ public class KettleEnvironment {
   }
 
   private static void shutdown( KettleLifecycleSupport kettleLifecycleSupport ) {
+    LogTableWriter.shutdownInstance();
     if ( isInitialized() ) {
       try {
         kettleLifecycleSupport.onEnvironmentShutdown();
@@ -0,0 +1,134 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2021 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.pentaho.di.core.injection.bean;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Creates the accessors used to read and write the levels of injection properties. Public methods of classes visible
+ * from here are called through classes generated by {@link LambdaMetafactory} instead of reflection. Fields, and
+ * methods a generated class can't call, are still accessed through reflection: field access is cheap already.
+ */
+final class BeanAccessors {
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+  /**
+   * Reads a value from the object owning it.
+   */
+  interface Getter {
+    Object get( Object owner ) throws Exception;
+  }
+
+  /**
+   * Writes a value to the object owning it.
+   */
+  interface Setter {
+    void set( Object owner, Object value ) throws Exception;
+  }
+
+  private BeanAccessors() {
+  }
+
+  static Getter getter( Field field ) {
+    return field::get;
+  }
+
+  static Setter setter( Field field ) {
+    return field::set;
+  }
+
+  static Getter getter( Method method ) {
+    if ( isLinkable( method ) ) {
+      try {
+        MethodType instantiated = MethodType.methodType( wrap( method.getReturnType() ), method.getDeclaringClass() );
+        CallSite site = LambdaMetafactory.metafactory( LOOKUP, "get", MethodType.methodType( Getter.class ),
+          MethodType.methodType( Object.class, Object.class ), LOOKUP.unreflect( method ), instantiated );
+        return (Getter) site.getTarget().invoke();
+      } catch ( Throwable e ) {
+        // Use reflection
+      }
+    }
+    return owner -> method.invoke( owner );
+  }
+
+  static Setter setter( Method method ) {
+    if ( isLinkable( method ) ) {
+      try {
+        MethodType instantiated =
+          MethodType.methodType( void.class, method.getDeclaringClass(), wrap( method.getParameterTypes()[0] ) );
+        CallSite site = LambdaMetafactory.metafactory( LOOKUP, "set", MethodType.methodType( Setter.class ),
+          MethodType.methodType( void.class, Object.class, Object.class ), LOOKUP.unreflect( method ), instantiated );
+        return (Setter) site.getTarget().invoke();
+      } catch ( Throwable e ) {
+        // Use reflection
+      }
+    }
+    return ( owner, value ) -> method.invoke( owner, value );
+  }
+
+  /**
+   * A generated class can only call a method it can link to: a public method of a public class, with a signature made
+   * of classes it can load.
+   */
+  private static boolean isLinkable( Method method ) {
+    if ( !Modifier.isPublic( method.getModifiers() ) || !isLinkable( method.getDeclaringClass() )
+      || !isLinkable( method.getReturnType() ) ) {
+      return false;
+    }
+    for ( Class<?> type : method.getParameterTypes() ) {
+      if ( !isLinkable( type ) ) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isLinkable( Class<?> type ) {
+    while ( type.isArray() ) {
+      type = type.getComponentType();
+    }
+    if ( type.isPrimitive() ) {
+      return true;
+    }
+    for ( Class<?> c = type; c != null; c = c.getEnclosingClass() ) {
+      if ( !Modifier.isPublic( c.getModifiers() ) ) {
+        return false;
+      }
+    }
+    try {
+      return Class.forName( type.getName(), false, BeanAccessors.class.getClassLoader() ) == type;
+    } catch ( ClassNotFoundException | LinkageError e ) {
+      return false;
+    }
+  }
+
+  private static Class<?> wrap( Class<?> type ) {
+    return type.isPrimitive() && type != void.class ? MethodType.methodType( type ).wrap().returnType() : type;
+  }
+}
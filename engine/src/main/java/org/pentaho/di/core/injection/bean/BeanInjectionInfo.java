@@ -22,6 +22,7 @@
 
 package org.pentaho.di.core.injection.bean;
 
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -31,6 +32,7 @@ import java.util.Map;
 import java.util.Set;
 
 import org.apache.commons.lang.StringUtils;
+import org.pentaho.di.core.injection.AfterInjection;
 import org.pentaho.di.core.injection.Injection;
 import org.pentaho.di.core.injection.InjectionSupported;
 import org.pentaho.di.core.logging.KettleLogStore;
@@ -44,6 +46,14 @@ public class BeanInjectionInfo {
   private static LogChannelInterface LOG =
       KettleLogStore.getLogChannelInterfaceFactory().create( BeanInjectionInfo.class );
 
+  /** The info is collected once per class, it doesn't change afterwards. */
+  private static final ClassValue<BeanInjectionInfo> INFOS = new ClassValue<BeanInjectionInfo>() {
+    @Override
+    protected BeanInjectionInfo computeValue( Class<?> type ) {
+      return new BeanInjectionInfo( type );
+    }
+  };
+
   protected final Class<?> clazz;
   private final InjectionSupported clazzAnnotation;
   private Map<String, Property> properties = new HashMap<>();
@@ -51,12 +61,25 @@ public class BeanInjectionInfo {
   /** Used only for fast group search during initialize. */
   private Map<String, Group> groupsMap = new HashMap<>();
   private Set<String> hideProperties = new HashSet<>();
+  private List<Method> afterInjectionMethods = new ArrayList<>();
 
   public static boolean isInjectionSupported( Class<?> clazz ) {
     InjectionSupported annotation = clazz.getAnnotation( InjectionSupported.class );
     return annotation != null;
   }
 
+  /**
+   * Returns the injection info of a class. Unlike the constructor, the annotations of the class are only collected the
+   * first time, after that the same info is returned.
+   *
+   * @param clazz
+   *          the class supporting injection
+   * @return the injection info of the class
+   */
+  public static BeanInjectionInfo getInjectionInfo( Class<?> clazz ) {
+    return INFOS.get( clazz );
+  }
+
   public BeanInjectionInfo( Class<?> clazz ) {
     LOG.logDebug( "Collect bean injection info for " + clazz );
     try {
@@ -82,7 +105,14 @@ public class BeanInjectionInfo {
       root.leafClass = clazz;
       root.init( this );
 
+      for ( Method m : clazz.getDeclaredMethods() ) {
+        if ( m.getAnnotation( AfterInjection.class ) != null ) {
+          afterInjectionMethods.add( m );
+        }
+      }
+
       properties = Collections.unmodifiableMap( properties );
+      afterInjectionMethods = Collections.unmodifiableList( afterInjectionMethods );
       groupsList = Collections.unmodifiableList( groupsList );
       groupsMap = null;
     } catch ( Throwable ex ) {
@@ -103,6 +133,13 @@ public class BeanInjectionInfo {
     return groupsList;
   }
 
+  /**
+   * @return the methods declared by the class annotated with {@link AfterInjection}
+   */
+  public List<Method> getAfterInjectionMethods() {
+    return afterInjectionMethods;
+  }
+
   protected void addInjectionProperty( Injection metaInj, BeanLevelInfo leaf ) {
     if ( StringUtils.isBlank( metaInj.name() ) ) {
       throw new RuntimeException( "Property name shouldn't be blank in the " + clazz );
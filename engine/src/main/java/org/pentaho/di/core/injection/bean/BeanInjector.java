@@ -24,6 +24,7 @@ package org.pentaho.di.core.injection.bean;
 
 import org.pentaho.di.core.RowMetaAndData;
 import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.exception.KettleValueException;
 import org.pentaho.di.core.injection.AfterInjection;
 
 import java.lang.reflect.Array;
@@ -120,7 +121,7 @@ public class BeanInjector {
     Object obj = root;
     for ( int i = 1, arrIndex = 0; i < prop.path.size(); i++ ) {
       BeanLevelInfo s = prop.path.get( i );
-      obj = s.field.get( obj );
+      obj = s.getValue( obj );
       if ( obj == null ) {
         return null; // some value in path is null - return empty
       }
@@ -179,7 +180,7 @@ public class BeanInjector {
     if ( prop.pathArraysCount == 0 ) {
       // no arrays in path
       try {
-        setProperty( root, prop, 0, data != null ? data.get( 0 ) : null, dataName, dataValue );
+        setProperty( root, prop, 0, 0, data != null ? data.get( 0 ) : null, dataName, dataValue );
       } catch ( Exception ex ) {
         throw new KettleException( "Error inject property '" + propName + "' into " + root.getClass(), ex );
       }
@@ -187,15 +188,16 @@ public class BeanInjector {
       // one array in path
       try {
         if ( data != null ) {
+          int size = getInjectedSize( prop, data, dataName );
           for ( int i = 0; i < data.size(); i++ ) {
-            setProperty( root, prop, i, data.get( i ), dataName, dataValue );
+            setProperty( root, prop, i, size, data.get( i ), dataName, dataValue );
           }
         } else {
           allocateCollectionField( root, info, propName );
           for ( int i = 0;; i++ ) {
             // NOTE: case when constant value is provided and need to fill out all entries with the same value
             // assumption is the field array/list size allocated to correct size
-            boolean found = setProperty( root, prop, i, null, null, dataValue );
+            boolean found = setProperty( root, prop, i, 0, null, null, dataValue );
             if ( !found ) {
               break;
             }
@@ -213,10 +215,30 @@ public class BeanInjector {
   }
 
   /**
-   * Sets data from RowMetaAndData, or constant value from dataValue depends on 'data != null'.
+   * Works out the size of the array or list in the path of a property after injecting the given rows, so it is
+   * extended once rather than once per row. Rows with an empty value don't extend an array or list of values.
    */
-  private boolean setProperty( Object root, BeanInjectionInfo.Property prop, int index, RowMetaAndData data,
-      String dataName, String dataValue ) throws Exception {
+  private static int getInjectedSize( BeanInjectionInfo.Property prop, List<RowMetaAndData> data, String dataName )
+    throws KettleValueException {
+    BeanLevelInfo last = prop.path.get( prop.path.size() - 1 );
+    if ( last.dim == BeanLevelInfo.DIMENSION.NONE || last.convertEmpty ) {
+      return data.size();
+    }
+    for ( int i = data.size() - 1; i >= 0; i-- ) {
+      if ( !data.get( i ).isEmptyValue( dataName ) ) {
+        return i + 1;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Sets data from RowMetaAndData, or constant value from dataValue depends on 'data != null'. Arrays and lists in the
+   * path are extended to at least the given size.
+   */
+  private boolean setProperty( Object root, BeanInjectionInfo.Property prop, int index, int size,
+      RowMetaAndData data, String dataName, String dataValue ) throws Exception {
+    int newSize = Math.max( index + 1, size );
     Object obj = root;
     for ( int i = 1; i < prop.path.size(); i++ ) {
       BeanLevelInfo s = prop.path.get( i );
@@ -226,7 +248,7 @@ public class BeanInjector {
         switch ( s.dim ) {
           case ARRAY:
             // array
-            Object existArray = data != null ? extendArray( s, obj, index + 1 ) : checkArray( s, obj, index );
+            Object existArray = data != null ? extendArray( s, obj, newSize ) : checkArray( s, obj, index );
             if ( existArray == null ) {
               // out of array for constant
               return false;
@@ -240,7 +262,7 @@ public class BeanInjector {
             break;
           case LIST:
             // list
-            List<Object> existList = data != null ? extendList( s, obj, index + 1 ) : checkList( s, obj, index );
+            List<Object> existList = data != null ? extendList( s, obj, newSize ) : checkList( s, obj, index );
             if ( existList == null ) {
               // out of array for constant
               return false;
@@ -255,20 +277,20 @@ public class BeanInjector {
           case NONE:
             // plain field
             if ( s.field != null ) {
-              next = s.field.get( obj );
+              next = s.getValue( obj );
               if ( next == null ) {
                 next = createObject( s.leafClass, root );
-                s.field.set( obj, next );
+                s.setValue( obj, next );
               }
               obj = next;
             } else if ( s.getter != null ) {
-              next = s.getter.invoke( obj );
+              next = s.getValue( obj );
               if ( next == null ) {
                 if ( s.setter == null ) {
                   throw new KettleException( "No setter defined for " + root.getClass() );
                 }
                 next = s.leafClass.newInstance();
-                s.setter.invoke( obj, next );
+                s.setValue( obj, next );
               }
               obj = next;
             } else {
@@ -297,7 +319,7 @@ public class BeanInjector {
           } else {
             value = RowMetaAndData.getStringAsJavaType( dataValue, s.leafClass, s.converter );
           }
-          s.setter.invoke( obj, value );
+          s.setValue( obj, value );
         } else if ( s.field != null ) {
           Object value;
           if ( data != null ) {
@@ -307,7 +329,7 @@ public class BeanInjector {
           }
           switch ( s.dim ) {
             case ARRAY:
-              Object existArray = data != null ? extendArray( s, obj, index + 1 ) : checkArray( s, obj, index );
+              Object existArray = data != null ? extendArray( s, obj, newSize ) : checkArray( s, obj, index );
               if ( existArray == null ) {
                 // out of array for constant
                 return false;
@@ -315,7 +337,7 @@ public class BeanInjector {
               Array.set( existArray, index, value );
               break;
             case LIST:
-              List<Object> existList = data != null ? extendList( s, obj, index + 1 ) : checkList( s, obj, index );
+              List<Object> existList = data != null ? extendList( s, obj, newSize ) : checkList( s, obj, index );
               if ( existList == null ) {
                 // out of array for constant
                 return false;
@@ -323,7 +345,7 @@ public class BeanInjector {
               existList.set( index, value );
               break;
             case NONE:
-              s.field.set( obj, value );
+              s.setValue( obj, value );
               break;
           }
         } else {
@@ -351,24 +373,24 @@ public class BeanInjector {
   }
 
   private Object extendArray( BeanLevelInfo s, Object obj, int newSize ) throws Exception {
-    Object existArray = s.field.get( obj );
+    Object existArray = s.getValue( obj );
     if ( existArray == null ) {
       existArray = Array.newInstance( s.leafClass, newSize );
-      s.field.set( obj, existArray );
+      s.setValue( obj, existArray );
     }
     int existSize = Array.getLength( existArray );
     if ( existSize < newSize ) {
       Object newSized = Array.newInstance( s.leafClass, newSize );
       System.arraycopy( existArray, 0, newSized, 0, existSize );
       existArray = newSized;
-      s.field.set( obj, existArray );
+      s.setValue( obj, existArray );
     }
 
     return existArray;
   }
 
   private Object checkArray( BeanLevelInfo s, Object obj, int index ) throws Exception {
-    Object existArray = s.field.get( obj );
+    Object existArray = s.getValue( obj );
     if ( existArray == null ) {
       return null;
     }
@@ -378,10 +400,10 @@ public class BeanInjector {
 
   private List<Object> extendList( BeanLevelInfo s, Object obj, int newSize ) throws Exception {
     @SuppressWarnings( "unchecked" )
-    List<Object> existList = (List<Object>) s.field.get( obj );
+    List<Object> existList = (List<Object>) s.getValue( obj );
     if ( existList == null ) {
       existList = new ArrayList<>();
-      s.field.set( obj, existList );
+      s.setValue( obj, existList );
     }
     while ( existList.size() < newSize ) {
       existList.add( null );
@@ -392,7 +414,7 @@ public class BeanInjector {
 
   private List<Object> checkList( BeanLevelInfo s, Object obj, int index ) throws Exception {
     @SuppressWarnings( "unchecked" )
-    List<Object> existList = (List<Object>) s.field.get( obj );
+    List<Object> existList = (List<Object>) s.getValue( obj );
     if ( existList == null ) {
       return null;
     }
@@ -593,7 +615,8 @@ public class BeanInjector {
   }
 
   public void runPostInjectionProcessing( Object object ) {
-    Method[] methods = object.getClass().getDeclaredMethods();
+    List<Method> methods = info != null && object.getClass() == info.clazz ? info.getAfterInjectionMethods()
+      : Arrays.asList( object.getClass().getDeclaredMethods() );
     for ( Method m : methods ) {
       AfterInjection annotationAfterInjection = m.getAnnotation( AfterInjection.class );
       if ( annotationAfterInjection == null ) {
@@ -64,6 +64,10 @@ public class BeanLevelInfo {
   /** Name prefix on the path. */
   public String prefix;
 
+  /** Accessors of the field, or of the getter and setter, created on first use. */
+  private volatile BeanAccessors.Getter valueGetter;
+  private volatile BeanAccessors.Setter valueSetter;
+
   public void init( BeanInjectionInfo info ) {
     introspect( info, leafClass, new TreeMap<>() );
   }
@@ -80,6 +84,30 @@ public class BeanLevelInfo {
     return leafClass;
   }
 
+  /**
+   * Reads the value of this level from its owner, through the field or else the getter.
+   */
+  Object getValue( Object owner ) throws Exception {
+    BeanAccessors.Getter accessor = valueGetter;
+    if ( accessor == null ) {
+      accessor = field != null ? BeanAccessors.getter( field ) : BeanAccessors.getter( getter );
+      valueGetter = accessor;
+    }
+    return accessor.get( owner );
+  }
+
+  /**
+   * Writes the value of this level to its owner, through the field or else the setter.
+   */
+  void setValue( Object owner, Object value ) throws Exception {
+    BeanAccessors.Setter accessor = valueSetter;
+    if ( accessor == null ) {
+      accessor = field != null ? BeanAccessors.setter( field ) : BeanAccessors.setter( setter );
+      valueSetter = accessor;
+    }
+    accessor.set( owner, value );
+  }
+
   /**
    * Introspect class and all interfaces and ancestors recursively.
    */
@@ -96,7 +96,7 @@ public class StepMetaProps {
     propMap.stepMeta = stepMeta;
 
     // use metadata injection to extract properties
-    BeanInjectionInfo info = new BeanInjectionInfo( stepMeta.getClass() );
+    BeanInjectionInfo info = BeanInjectionInfo.getInjectionInfo( stepMeta.getClass() );
     BeanInjector injector = new BeanInjector( info );
 
     propMap.populateGroups( stepMeta, info, injector );
@@ -112,7 +112,7 @@ public class StepMetaProps {
    * an instance.
    */
   public StepMetaInterface to( StepMetaInterface stepMetaInterface ) {
-    BeanInjectionInfo info = new BeanInjectionInfo( stepMetaInterface.getClass() );
+    BeanInjectionInfo info = BeanInjectionInfo.getInjectionInfo( stepMetaInterface.getClass() );
 
     BeanInjector injector = new BeanInjector( info );
     info.getProperties().values().forEach( property -> assignValueForProp( property, stepMetaInterface, injector ) );
@@ -24,21 +24,29 @@
 package org.pentaho.di.job;
 
 import java.net.URLEncoder;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -72,6 +80,7 @@ import org.pentaho.di.core.logging.LogChannel;
 import org.pentaho.di.core.logging.LogChannelInterface;
 import org.pentaho.di.core.logging.LogLevel;
 import org.pentaho.di.core.logging.LogStatus;
+import org.pentaho.di.core.logging.LogTableWriter;
 import org.pentaho.di.core.logging.LoggingBuffer;
 import org.pentaho.di.core.logging.LoggingHierarchy;
 import org.pentaho.di.core.logging.LoggingObjectInterface;
@@ -197,6 +206,9 @@ public class Job extends Thread implements VariableSpace, NamedParams, HasLogCha
 
   private int maxJobEntriesLogged;
 
+  /** Runs the job entries that are launched in parallel, created on first use. */
+  private ExecutorService parallelEntryExecutor;
+
   private JobEntryCopy startJobEntryCopy;
   private Result startJobEntryResult;
 
@@ -407,6 +419,7 @@ public class Job extends Thread implements VariableSpace, NamedParams, HasLogCha
     } finally {
       try {
         shutdownHeartbeat( heartbeat );
+        shutdownParallelEntryExecutor();
 
         ExtensionPointHandler.callExtensionPoint( log, KettleExtensionPoint.JobFinish.id, this );
         jobMeta.disposeEmbeddedMetastoreProvider();
@@ -499,6 +512,9 @@ public class Job extends Thread implements VariableSpace, NamedParams, HasLogCha
         boolean isFirst = true;
         JobEntrySpecial jes = (JobEntrySpecial) startpoint.getEntry();
         while ( ( jes.isRepeat() || isFirst ) && !isStopped() ) {
+          if ( !isFirst ) {
+            res.dispose();
+          }
           isFirst = false;
           res = execute( 0, null, startpoint, null, BaseMessages.getString( PKG, "Job.Reason.Started" ) );
 
@@ -565,11 +581,18 @@ public class Job extends Thread implements VariableSpace, NamedParams, HasLogCha
     }
 
     JobEntrySpecial jes = (JobEntrySpecial) startpoint.getEntry();
-    Result res;
-    do {
-      res = execute( nr, result, startpoint, null, BaseMessages.getString( PKG, "Job.Reason.StartOfJobentry" ) );
-      setActive( false );
-    } while ( jes.isRepeat() && !isStopped() );
+    Result res = null;
+    try {
+      do {
+        if ( res != null ) {
+          res.dispose();
+        }
+        res = execute( nr, result, startpoint, null, BaseMessages.getString( PKG, "Job.Reason.StartOfJobentry" ) );
+        setActive( false );
+      } while ( jes.isRepeat() && !isStopped() );
+    } finally {
+      shutdownParallelEntryExecutor();
+    }
     return res;
   }
 
@@ -600,8 +623,11 @@ public class Job extends Thread implements VariableSpace, NamedParams, HasLogCha
   }
 
   /**
-   * Execute a job entry recursively and move to the next job entry automatically.<br>
-   * Uses a back-tracking algorithm.<br>
+   * Execute a job entry and move to the next job entries automatically.<br>
+   * The job entries that are still running are kept on an explicit stack rather than by recursion so that looping
+   * jobs don't grow the thread stack. When a job entry follows only one more job entry, that job entry takes its place
+   * on the stack. Job entries that are launched in parallel run on the executor of this job, see
+   * {@link #getParallelEntryExecutor()}, and are joined before their previous job entry finishes.
    *
    * @param nr
    * @param prev_result
@@ -613,34 +639,285 @@ public class Job extends Thread implements VariableSpace, NamedParams, HasLogCha
    */
   private Result execute( final int nr, Result prev_result, final JobEntryCopy jobEntryCopy, JobEntryCopy previous,
       String reason ) throws KettleException {
+    Deque<JobEntryExecution> stack = new ArrayDeque<>();
+    stack.push( new JobEntryExecution( nr, prev_result, jobEntryCopy, reason ) );
+
     Result res = null;
+    while ( true ) {
+      JobEntryExecution execution = stack.peek();
+      JobEntryExecution next;
+      try {
+        if ( res != null ) {
+          // The job entries that follow one job entry sequentially each replace the result of the one before
+          //
+          if ( execution.res != null && execution.res != res ) {
+            execution.res.dispose();
+          }
+          execution.res = res;
+          res = null;
+        }
+        next = execution.next();
+        if ( next == null ) {
+          res = execution.finish();
+        }
+      } catch ( Throwable e ) {
+        throw unwind( stack, e );
+      }
 
-    if ( isStopped() ) {
-      res = new Result( nr );
-      res.stopped = true;
-      return res;
+      if ( next != null ) {
+        if ( next.replacesPrevious ) {
+          stack.pop();
+          next.replaced = execution;
+        }
+        stack.push( next );
+      } else {
+        stack.pop();
+        execution.dispose( res );
+        execution.logFinished( res );
+        if ( stack.isEmpty() ) {
+          return res;
+        }
+      }
+    }
+  }
+
+  /**
+   * Every job entry on the stack wraps the error of the job entry it was waiting for, the way they were wrapped when
+   * job entries were executed recursively.
+   */
+  private KettleException unwind( Deque<JobEntryExecution> stack, Throwable e ) {
+    JobEntryExecution failed = stack.pop();
+    failed.dispose( null );
+    while ( !stack.isEmpty() ) {
+      log.logError( Const.getStackTracker( e ) );
+      e = new KettleException( BaseMessages.getString( PKG, "Job.Log.UnexpectedError", failed.jobEntryCopy
+          .toString() ), e );
+      failed = stack.pop();
+      failed.dispose( null );
     }
+    if ( e instanceof KettleException ) {
+      return (KettleException) e;
+    }
+    if ( e instanceof RuntimeException ) {
+      throw (RuntimeException) e;
+    }
+    if ( e instanceof Error ) {
+      throw (Error) e;
+    }
+    return new KettleException( e );
+  }
 
-    // if we didn't have a previous result, create one, otherwise, copy the content...
+  /**
+   * The execution of a single job entry: first the job entry itself, then the job entries that follow it.
+   */
+  private class JobEntryExecution {
+    private final int nr;
+    private final Result prev_result;
+    private final JobEntryCopy jobEntryCopy;
+    private final String reason;
+
+    /**
+     * True if this execution took the place of the previous job entry on the stack.
+     */
+    private boolean replacesPrevious;
+
+    /**
+     * The execution this one took the place of on the stack. Its results are released once this one copied the
+     * previous result.
+     */
+    private JobEntryExecution replaced;
+
+    /**
+     * The job entries to report as finished once this execution is done, this one last. An execution that replaces
+     * the previous one appends to the list of that execution rather than copying it. Like the job entry results, only
+     * the last KETTLE_MAX_JOB_ENTRIES_LOGGED job entries are kept so that long loops run in constant memory.
+     */
+    private Deque<JobEntryCopy> finishedEntries;
+
+    private boolean started;
+    private boolean stopped;
+    private Result prevResult;
+    private Result newResult;
+    private Result res;
+
+    private int nrNext;
+    private int nextIndex;
+
+    // Keep track of the job entries we launched in case of parallel execution...
+    // Keep track of the results of these executions too.
     //
-    final Result newResult;
-    Result prevResult = null;
-    if ( prev_result != null ) {
-      prevResult = prev_result.clone();
-    } else {
-      prevResult = new Result();
+    private final List<FutureTask<Result>> branches = new ArrayList<>();
+    private final List<JobEntryCopy> branchEntries = new ArrayList<>();
+    private final Queue<KettleException> branchExceptions = new ConcurrentLinkedQueue<>();
+
+    JobEntryExecution( int nr, Result prev_result, JobEntryCopy jobEntryCopy, String reason ) {
+      this.nr = nr;
+      this.prev_result = prev_result;
+      this.jobEntryCopy = jobEntryCopy;
+      this.reason = reason;
+    }
+
+    /**
+     * Executes the job entry the first time it's called.
+     *
+     * @return the next job entry to execute sequentially or null if there are none left.
+     */
+    JobEntryExecution next() throws KettleException {
+      if ( !started ) {
+        started = true;
+        try {
+          begin();
+        } finally {
+          if ( replaced != null ) {
+            replaced.dispose( null );
+            replaced = null;
+          }
+        }
+      }
+      if ( stopped ) {
+        return null;
+      }
+
+      // Launch only those where the hop indicates true or false
+      //
+      while ( nextIndex < nrNext && !isStopped() ) {
+        int i = nextIndex++;
+        final JobEntryCopy nextEntry = jobMeta.findNextJobEntry( jobEntryCopy, i );
+        if ( !isFollowed( nextEntry ) ) {
+          continue;
+        }
+
+        // The next comment...
+        final String nextComment;
+        if ( jobMeta.findJobHop( jobEntryCopy, nextEntry ).isUnconditional() ) {
+          nextComment = BaseMessages.getString( PKG, "Job.Comment.FollowedUnconditional" );
+        } else {
+          if ( newResult.getResult() ) {
+            nextComment = BaseMessages.getString( PKG, "Job.Comment.FollowedSuccess" );
+          } else {
+            nextComment = BaseMessages.getString( PKG, "Job.Comment.FollowedFailure" );
+          }
+        }
+
+        // Start this next step!
+        if ( log.isBasic() ) {
+          log.logBasic( BaseMessages.getString( PKG, "Job.Log.StartingEntry", nextEntry.getName() ) );
+        }
+
+        // Pass along the previous result, perhaps the next job can use it...
+        // However, set the number of errors back to 0 (if it should be reset)
+        // When an evaluation is executed the errors e.g. should not be reset.
+        if ( nextEntry.resetErrorsBeforeExecution() ) {
+          newResult.setNrErrors( 0 );
+        }
+
+        // Now execute!
+        //
+        // if (we launch in parallel, hand the execution off to the executor...
+        //
+        if ( jobEntryCopy.isLaunchingInParallel() ) {
+          final Result branchResult = newResult;
+          FutureTask<Result> branch = new FutureTask<>( new Callable<Result>() {
+            @Override public Result call() {
+              try {
+                return execute( nr + 1, branchResult, nextEntry, jobEntryCopy, nextComment );
+              } catch ( Throwable e ) {
+                log.logError( Const.getStackTracker( e ) );
+                branchExceptions.add( new KettleException( BaseMessages.getString( PKG, "Job.Log.UnexpectedError",
+                    nextEntry.toString() ), e ) );
+                Result threadResult = new Result();
+                threadResult.setResult( false );
+                threadResult.setNrErrors( 1L );
+                return threadResult;
+              }
+            }
+          } );
+          branches.add( branch );
+          branchEntries.add( nextEntry );
+          getParallelEntryExecutor().execute( branch );
+          if ( log.isBasic() ) {
+            log.logBasic( BaseMessages.getString( PKG, "Job.Log.LaunchedJobEntryInParallel", nextEntry.getName() ) );
+          }
+        } else {
+          // Same as before: this job entry is done once the next one is
+          //
+          JobEntryExecution next = new JobEntryExecution( nr + 1, newResult, nextEntry, nextComment );
+          next.replacesPrevious = !hasMoreToFollow();
+          if ( log.isBasic() ) {
+            if ( next.replacesPrevious && finishedEntries != null ) {
+              next.finishedEntries = finishedEntries;
+            } else {
+              next.finishedEntries = new ArrayDeque<>();
+            }
+            next.finishedEntries.addLast( nextEntry );
+            if ( maxJobEntriesLogged > 0 && next.finishedEntries.size() > maxJobEntriesLogged ) {
+              next.finishedEntries.removeFirst();
+            }
+          }
+          return next;
+        }
+      }
+      return null;
     }
 
-    JobExecutionExtension extension = new JobExecutionExtension( this, prevResult, jobEntryCopy, true );
-    ExtensionPointHandler.callExtensionPoint( log, KettleExtensionPoint.JobBeforeJobEntryExecution.id, extension );
+    /**
+     * If the link is unconditional, execute the next job entry (entries). If the start point was an evaluation and
+     * the link color is correct: green or red, execute the next job entry...
+     */
+    private boolean isFollowed( JobEntryCopy nextEntry ) {
+      JobHopMeta hi = jobMeta.findJobHop( jobEntryCopy, nextEntry );
+      return hi.isUnconditional() || ( jobEntryCopy.evaluates() && ( !( hi.getEvaluation() ^ newResult
+          .getResult() ) ) );
+    }
 
-    if ( extension.result != null ) {
-      prevResult = extension.result;
+    private boolean hasMoreToFollow() {
+      for ( int i = nextIndex; i < nrNext; i++ ) {
+        if ( isFollowed( jobMeta.findNextJobEntry( jobEntryCopy, i ) ) ) {
+          return true;
+        }
+      }
+      return false;
     }
 
-    if ( !extension.executeEntry ) {
-      newResult = prevResult;
-    } else {
+    private void begin() throws KettleException {
+      if ( isStopped() ) {
+        res = new Result( nr );
+        res.stopped = true;
+        stopped = true;
+        return;
+      }
+
+      // if we didn't have a previous result, create one, otherwise, copy the content...
+      //
+      if ( prev_result != null ) {
+        prevResult = prev_result.clone();
+      } else {
+        prevResult = new Result();
+      }
+
+      JobExecutionExtension extension = new JobExecutionExtension( Job.this, prevResult, jobEntryCopy, true );
+      ExtensionPointHandler.callExtensionPoint( log, KettleExtensionPoint.JobBeforeJobEntryExecution.id, extension );
+
+      if ( extension.result != null ) {
+        if ( extension.result != prevResult && extension.result.getRows() != prevResult.getRows() ) {
+          prevResult.dispose();
+        }
+        prevResult = extension.result;
+      }
+
+      if ( !extension.executeEntry ) {
+        newResult = prevResult;
+      } else {
+        newResult = executeEntry();
+      }
+
+      extension = new JobExecutionExtension( Job.this, prevResult, jobEntryCopy, extension.executeEntry );
+      ExtensionPointHandler.callExtensionPoint( log, KettleExtensionPoint.JobAfterJobEntryExecution.id, extension );
+
+      nrNext = jobMeta.findNrNextJobEntries( jobEntryCopy );
+    }
+
+    private Result executeEntry() throws KettleException {
       if ( log.isDetailed() ) {
         log.logDetailed( "exec(" + nr + ", " + ( prev_result != null ? prev_result.getNrErrors() : 0 ) + ", "
             + ( jobEntryCopy != null ? jobEntryCopy.toString() : "null" ) + ")" );
@@ -660,18 +937,18 @@ public class Job extends Thread implements VariableSpace, NamedParams, HasLogCha
       Thread.currentThread().setContextClassLoader( jobEntryInterface.getClass().getClassLoader() );
       // Execute this entry...
       JobEntryInterface cloneJei = (JobEntryInterface) jobEntryInterface.clone();
-      ( (VariableSpace) cloneJei ).copyVariablesFrom( this );
+      ( (VariableSpace) cloneJei ).copyVariablesFrom( Job.this );
       cloneJei.setRepository( rep );
       if ( rep != null ) {
         cloneJei.setMetaStore( rep.getMetaStore() );
       }
-      cloneJei.setParentJob( this );
-      cloneJei.setParentJobMeta( this.getJobMeta() );
+      cloneJei.setParentJob( Job.this );
+      cloneJei.setParentJobMeta( getJobMeta() );
       final long start = System.currentTimeMillis();
 
       cloneJei.getLogChannel().logDetailed( "Starting job entry" );
       for ( JobEntryListener jobEntryListener : jobEntryListeners ) {
-        jobEntryListener.beforeExecution( this, jobEntryCopy, cloneJei );
+        jobEntryListener.beforeExecution( Job.this, jobEntryCopy, cloneJei );
       }
       if ( interactive ) {
         if ( jobEntryCopy.isTransformation() ) {
@@ -682,7 +959,7 @@ public class Job extends Thread implements VariableSpace, NamedParams, HasLogCha
         }
       }
       log.snap( Metrics.METRIC_JOBENTRY_START, cloneJei.toString() );
-      newResult = cloneJei.execute( prevResult, nr );
+      Result newResult = cloneJei.execute( prevResult, nr );
       log.snap( Metrics.METRIC_JOBENTRY_STOP, cloneJei.toString() );
 
       final long end = System.currentTimeMillis();
@@ -702,7 +979,7 @@ public class Job extends Thread implements VariableSpace, NamedParams, HasLogCha
         }
       }
       for ( JobEntryListener jobEntryListener : jobEntryListeners ) {
-        jobEntryListener.afterExecution( this, jobEntryCopy, cloneJei, newResult );
+        jobEntryListener.afterExecution( Job.this, jobEntryCopy, cloneJei, newResult );
       }
 
       Thread.currentThread().setContextClassLoader( cl );
@@ -733,167 +1010,141 @@ public class Job extends Thread implements VariableSpace, NamedParams, HasLogCha
           }
         }
       }
+      return newResult;
     }
 
-    extension = new JobExecutionExtension( this, prevResult, jobEntryCopy, extension.executeEntry );
-    ExtensionPointHandler.callExtensionPoint( log, KettleExtensionPoint.JobAfterJobEntryExecution.id, extension );
+    /**
+     * Waits for the job entries launched in parallel and works out the result of this execution.
+     */
+    Result finish() throws KettleException {
+      if ( stopped ) {
+        return res;
+      }
 
-    // Try all next job entries.
-    //
-    // Keep track of all the threads we fired in case of parallel execution...
-    // Keep track of the results of these executions too.
-    //
-    final List<Thread> threads = new ArrayList<Thread>();
-    // next 2 lists is being modified concurrently so must be synchronized for this case.
-    final Queue<Result> threadResults = new ConcurrentLinkedQueue<Result>();
-    final Queue<KettleException> threadExceptions = new ConcurrentLinkedQueue<KettleException>();
-    final List<JobEntryCopy> threadEntries = new ArrayList<JobEntryCopy>();
+      // OK, if we run in parallel, we need to wait for all the job entries to
+      // finish... A job entry that didn't get a thread yet is executed right here.
+      //
+      List<Result> branchResults = new ArrayList<>();
+      for ( int i = 0; i < branches.size(); i++ ) {
+        FutureTask<Result> branch = branches.get( i );
+        JobEntryCopy nextEntry = branchEntries.get( i );
 
-    // Launch only those where the hop indicates true or false
-    //
-    int nrNext = jobMeta.findNrNextJobEntries( jobEntryCopy );
-    for ( int i = 0; i < nrNext && !isStopped(); i++ ) {
-      // The next entry is...
-      final JobEntryCopy nextEntry = jobMeta.findNextJobEntry( jobEntryCopy, i );
-
-      // See if we need to execute this...
-      final JobHopMeta hi = jobMeta.findJobHop( jobEntryCopy, nextEntry );
-
-      // The next comment...
-      final String nextComment;
-      if ( hi.isUnconditional() ) {
-        nextComment = BaseMessages.getString( PKG, "Job.Comment.FollowedUnconditional" );
-      } else {
-        if ( newResult.getResult() ) {
-          nextComment = BaseMessages.getString( PKG, "Job.Comment.FollowedSuccess" );
-        } else {
-          nextComment = BaseMessages.getString( PKG, "Job.Comment.FollowedFailure" );
+        branch.run();
+        try {
+          branchResults.add( branch.get() );
+        } catch ( InterruptedException | ExecutionException e ) {
+          log.logError( jobMeta.toString(), BaseMessages.getString( PKG,
+              "Job.Log.UnexpectedErrorWhileWaitingForJobEntry", nextEntry.getName() ) );
+          branchExceptions.add( new KettleException( BaseMessages.getString( PKG,
+              "Job.Log.UnexpectedErrorWhileWaitingForJobEntry", nextEntry.getName() ), e ) );
         }
       }
 
+      // Perhaps we don't have next steps??
+      // In this case, return the previous result.
+      if ( res == null ) {
+        res = prevResult;
+      }
+
+      // See if there where any errors in the parallel execution
       //
-      // If the link is unconditional, execute the next job entry (entries).
-      // If the start point was an evaluation and the link color is correct:
-      // green or red, execute the next job entry...
-      //
-      if ( hi.isUnconditional() || ( jobEntryCopy.evaluates() && ( !( hi.getEvaluation() ^ newResult
-          .getResult() ) ) ) ) {
-        // Start this next step!
-        if ( log.isBasic() ) {
-          log.logBasic( BaseMessages.getString( PKG, "Job.Log.StartingEntry", nextEntry.getName() ) );
-        }
+      if ( branchExceptions.size() > 0 ) {
+        res.setResult( false );
+        res.setNrErrors( branchExceptions.size() );
 
-        // Pass along the previous result, perhaps the next job can use it...
-        // However, set the number of errors back to 0 (if it should be reset)
-        // When an evaluation is executed the errors e.g. should not be reset.
-        if ( nextEntry.resetErrorsBeforeExecution() ) {
-          newResult.setNrErrors( 0 );
+        for ( KettleException e : branchExceptions ) {
+          log.logError( jobMeta.toString(), e.getMessage(), e );
         }
 
-        // Now execute!
-        //
-        // if (we launch in parallel, fire the execution off in a new thread...
+        // Now throw the first Exception for good measure...
         //
-        if ( jobEntryCopy.isLaunchingInParallel() ) {
-          threadEntries.add( nextEntry );
-
-          Runnable runnable = new Runnable() {
-            @Override public void run() {
-              try {
-                Result threadResult = execute( nr + 1, newResult, nextEntry, jobEntryCopy, nextComment );
-                threadResults.add( threadResult );
-              } catch ( Throwable e ) {
-                log.logError( Const.getStackTracker( e ) );
-                threadExceptions.add( new KettleException( BaseMessages.getString( PKG, "Job.Log.UnexpectedError",
-                    nextEntry.toString() ), e ) );
-                Result threadResult = new Result();
-                threadResult.setResult( false );
-                threadResult.setNrErrors( 1L );
-                threadResults.add( threadResult );
-              }
-            }
-          };
-          Thread thread = new Thread( runnable );
-          threads.add( thread );
-          thread.start();
-          if ( log.isBasic() ) {
-            log.logBasic( BaseMessages.getString( PKG, "Job.Log.LaunchedJobEntryInParallel", nextEntry.getName() ) );
-          }
-        } else {
-          try {
-            // Same as before: blocks until it's done
-            //
-            res = execute( nr + 1, newResult, nextEntry, jobEntryCopy, nextComment );
-          } catch ( Throwable e ) {
-            log.logError( Const.getStackTracker( e ) );
-            throw new KettleException( BaseMessages.getString( PKG, "Job.Log.UnexpectedError", nextEntry.toString() ),
-                e );
-          }
-          if ( log.isBasic() ) {
-            log.logBasic( BaseMessages.getString( PKG, "Job.Log.FinishedJobEntry", nextEntry.getName(), res.getResult()
-                + "" ) );
-          }
-        }
+        throw branchExceptions.poll();
       }
-    }
 
-    // OK, if we run in parallel, we need to wait for all the job entries to
-    // finish...
-    //
-    if ( jobEntryCopy.isLaunchingInParallel() ) {
-      for ( int i = 0; i < threads.size(); i++ ) {
-        Thread thread = threads.get( i );
-        JobEntryCopy nextEntry = threadEntries.get( i );
+      // In parallel execution, we aggregate all the results, simply add them to
+      // the previous result...
+      //
+      for ( Result branchResult : branchResults ) {
+        res.add( branchResult );
+        branchResult.dispose();
+      }
 
-        try {
-          thread.join();
-        } catch ( InterruptedException e ) {
-          log.logError( jobMeta.toString(), BaseMessages.getString( PKG,
-              "Job.Log.UnexpectedErrorWhileWaitingForJobEntry", nextEntry.getName() ) );
-          threadExceptions.add( new KettleException( BaseMessages.getString( PKG,
-              "Job.Log.UnexpectedErrorWhileWaitingForJobEntry", nextEntry.getName() ), e ) );
-        }
+      // If there have been errors, logically, we need to set the result to
+      // "false"...
+      //
+      if ( res.getNrErrors() > 0 ) {
+        res.setResult( false );
       }
-      // if(log.isBasic()) log.logBasic(BaseMessages.getString(PKG,
-      // "Job.Log.FinishedJobEntry",startpoint.getName(),res.getResult()+""));
-    }
 
-    // Perhaps we don't have next steps??
-    // In this case, return the previous result.
-    if ( res == null ) {
-      res = prevResult;
+      return res;
     }
 
-    // See if there where any errors in the parallel execution
-    //
-    if ( threadExceptions.size() > 0 ) {
-      res.setResult( false );
-      res.setNrErrors( threadExceptions.size() );
-
-      for ( KettleException e : threadExceptions ) {
-        log.logError( jobMeta.toString(), e.getMessage(), e );
+    /**
+     * Releases the result rows of this execution, see {@link Result#dispose()}.
+     *
+     * @param passedOn
+     *          the result passed on to the caller, its rows are kept
+     */
+    void dispose( Result passedOn ) {
+      dispose( prevResult, passedOn );
+      dispose( newResult, passedOn );
+      dispose( res, passedOn );
+      if ( replaced != null ) {
+        replaced.dispose( passedOn );
+        replaced = null;
       }
+    }
 
-      // Now throw the first Exception for good measure...
-      //
-      throw threadExceptions.poll();
+    private void dispose( Result result, Result passedOn ) {
+      if ( result != null && result != passedOn && ( passedOn == null || result.getRows() != passedOn.getRows() ) ) {
+        result.dispose();
+      }
     }
 
-    // In parallel execution, we aggregate all the results, simply add them to
-    // the previous result...
-    //
-    for ( Result threadResult : threadResults ) {
-      res.add( threadResult );
+    void logFinished( Result result ) {
+      if ( finishedEntries != null ) {
+        for ( Iterator<JobEntryCopy> entries = finishedEntries.descendingIterator(); entries.hasNext(); ) {
+          JobEntryCopy finishedEntry = entries.next();
+          log.logBasic( BaseMessages.getString( PKG, "Job.Log.FinishedJobEntry", finishedEntry.getName(), result
+              .getResult() + "" ) );
+        }
+      }
     }
+  }
 
-    // If there have been errors, logically, we need to set the result to
-    // "false"...
-    //
-    if ( res.getNrErrors() > 0 ) {
-      res.setResult( false );
+  /**
+   * The job entries launched in parallel run on a pool of threads of this job, as many as the variable
+   * KETTLE_JOB_MAX_PARALLEL_ENTRIES allows, by default one per processor.
+   *
+   * @return the executor to run the job entries launched in parallel on
+   */
+  private synchronized ExecutorService getParallelEntryExecutor() {
+    if ( parallelEntryExecutor == null ) {
+      int maxParallelEntries = Const.toInt( getVariable( Const.KETTLE_JOB_MAX_PARALLEL_ENTRIES ), 0 );
+      if ( maxParallelEntries <= 0 ) {
+        maxParallelEntries = Runtime.getRuntime().availableProcessors();
+      }
+      ThreadPoolExecutor executor = new ThreadPoolExecutor( maxParallelEntries, maxParallelEntries, 60L,
+          TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            private final AtomicInteger threadNr = new AtomicInteger( 1 );
+
+            @Override public Thread newThread( Runnable r ) {
+              Thread thread = new Thread( r, getName() + " parallel job entry " + threadNr.getAndIncrement() );
+              thread.setDaemon( true );
+              return thread;
+            }
+          } );
+      executor.allowCoreThreadTimeOut( true );
+      parallelEntryExecutor = executor;
     }
+    return parallelEntryExecutor;
+  }
 
-    return res;
+  private synchronized void shutdownParallelEntryExecutor() {
+    if ( parallelEntryExecutor != null ) {
+      parallelEntryExecutor.shutdown();
+    }
+    parallelEntryExecutor = null;
   }
 
   /**
@@ -1199,6 +1450,11 @@ public class Job extends Thread implements VariableSpace, NamedParams, HasLogCha
     }
     // end PDI-7070
 
+    if ( LogTableWriter.isAsynchronous( this ) ) {
+      LogTableWriter.getInstance().write( this, channelLogTable, getLoggingHierarchy(), null, true );
+      return;
+    }
+
     try {
       db = new Database( this, channelLogTable.getDatabaseMeta() );
       db.shareVariablesWith( this );
@@ -1234,6 +1490,10 @@ public class Job extends Thread implements VariableSpace, NamedParams, HasLogCha
   protected void writeJobEntryLogInformation() throws KettleException {
     Database db = null;
     JobEntryLogTable jobEntryLogTable = getJobMeta().getJobEntryLogTable();
+    if ( LogTableWriter.isAsynchronous( this ) ) {
+      LogTableWriter.getInstance().write( this, jobEntryLogTable, getJobMeta().getJobCopies(), this, true );
+      return;
+    }
     try {
       db = createDataBase( jobEntryLogTable.getDatabaseMeta() );
       db.shareVariablesWith( this );
@@ -1493,6 +1753,10 @@ public class Job extends Thread implements VariableSpace, NamedParams, HasLogCha
     return variables.environmentSubstitute( aString );
   }
 
+  @Override public long getVariablesChangeCount() {
+    return variables.getVariablesChangeCount();
+  }
+
   /*
    * (non-Javadoc)
    *
@@ -94,7 +94,12 @@ import org.pentaho.metastore.api.IMetaStore;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -570,6 +575,37 @@ public class JobMeta extends AbstractMeta
    * @see org.pentaho.di.core.xml.XMLInterface#getXML()
    */
   public String getXML() {
+    StringBuilder retval = new StringBuilder( 500 );
+    try {
+      appendXML( retval );
+    } catch ( IOException e ) {
+      // Not thrown by a StringBuilder
+      throw new RuntimeException( e );
+    }
+    return XMLFormatter.format( retval.toString() );
+  }
+
+  /**
+   * Writes the XML representation of this job, including the XML header, to the given stream. The result is the same
+   * as the one of {@link #getXML()} but the document isn't kept in memory as a whole. When it fails part of the
+   * document can have been written already.
+   *
+   * @param outputStream the stream to write to, it's not closed
+   * @throws KettleException if any errors occur during generation or writing of the XML
+   */
+  @Override
+  public void writeXML( OutputStream outputStream ) throws KettleException {
+    try {
+      Writer writer = new BufferedWriter( new OutputStreamWriter( outputStream, Const.XML_ENCODING ) );
+      writer.write( XMLHandler.getXMLHeader() );
+      XMLFormatter.format( this::appendXML, writer );
+      writer.flush();
+    } catch ( IOException e ) {
+      throw new KettleException( e );
+    }
+  }
+
+  private void appendXML( Appendable retval ) throws IOException {
     //Clear the embedded named clusters.  We will be repopulating from steps that used named clusters
     getNamedClusterEmbedManager().clear();
 
@@ -578,8 +614,6 @@ public class JobMeta extends AbstractMeta
       props = Props.getInstance();
     }
 
-    StringBuilder retval = new StringBuilder( 500 );
-
     retval.append( XMLHandler.openTag( XML_TAG ) ).append( Const.CR );
 
     retval.append( "  " ).append( XMLHandler.addTagValue( "name", getName() ) );
@@ -674,8 +708,6 @@ public class JobMeta extends AbstractMeta
     retval.append( AttributesUtil.getAttributesXml( attributesMap ) );
 
     retval.append( XMLHandler.closeTag( XML_TAG ) ).append( Const.CR );
-
-    return XMLFormatter.format( retval.toString() );
   }
 
   /**
@@ -1083,9 +1115,7 @@ public class JobMeta extends AbstractMeta
        * read the job entries...
        */
       Node entriesnode = XMLHandler.getSubNode( jobnode, "entries" );
-      int tr = XMLHandler.countNodes( entriesnode, "entry" );
-      for ( int i = 0; i < tr; i++ ) {
-        Node entrynode = XMLHandler.getSubNodeByNr( entriesnode, "entry", i );
+      for ( Node entrynode : XMLHandler.getNodes( entriesnode, "entry" ) ) {
         // System.out.println("Reading entry:\n"+entrynode);
 
         JobEntryCopy je = new JobEntryCopy( entrynode, databases, slaveServers, rep, metaStore );
@@ -1125,18 +1155,14 @@ public class JobMeta extends AbstractMeta
       }
 
       Node hopsnode = XMLHandler.getSubNode( jobnode, "hops" );
-      int ho = XMLHandler.countNodes( hopsnode, "hop" );
-      for ( int i = 0; i < ho; i++ ) {
-        Node hopnode = XMLHandler.getSubNodeByNr( hopsnode, "hop", i );
+      for ( Node hopnode : XMLHandler.getNodes( hopsnode, "hop" ) ) {
         JobHopMeta hi = new JobHopMeta( hopnode, this );
         jobhops.add( hi );
       }
 
       // Read the notes...
       Node notepadsnode = XMLHandler.getSubNode( jobnode, "notepads" );
-      int nrnotes = XMLHandler.countNodes( notepadsnode, "notepad" );
-      for ( int i = 0; i < nrnotes; i++ ) {
-        Node notepadnode = XMLHandler.getSubNodeByNr( notepadsnode, "notepad", i );
+      for ( Node notepadnode : XMLHandler.getNodes( notepadsnode, "notepad" ) ) {
         NotePadMeta ni = new NotePadMeta( notepadnode );
         notes.add( ni );
       }
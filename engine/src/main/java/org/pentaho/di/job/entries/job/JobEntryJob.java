@@ -23,6 +23,7 @@
 package org.pentaho.di.job.entries.job;
 
 import org.apache.commons.vfs2.FileObject;
+import org.pentaho.di.base.MetaCache;
 import org.pentaho.di.cluster.SlaveServer;
 import org.pentaho.di.core.CheckResultInterface;
 import org.pentaho.di.core.Const;
@@ -31,6 +32,7 @@ import org.pentaho.di.core.Result;
 import org.pentaho.di.core.ResultFile;
 import org.pentaho.di.core.RowMetaAndData;
 import org.pentaho.di.core.SQLStatement;
+import org.pentaho.di.core.SpillableRowList;
 import org.pentaho.di.core.database.DatabaseMeta;
 import org.pentaho.di.core.exception.KettleDatabaseException;
 import org.pentaho.di.core.exception.KettleException;
@@ -659,6 +661,7 @@ public class JobEntryJob extends JobEntryBase implements Cloneable, JobEntryInte
       jobLogLevel = logFileLevel;
     }
 
+    List<RowMetaAndData> rows = null;
     try {
       // First load the job, outside of the loop...
       if ( parentJob.getJobMeta() != null ) {
@@ -727,7 +730,7 @@ public class JobEntryJob extends JobEntryBase implements Cloneable, JobEntryInte
 
       RowMetaAndData resultRow = null;
       boolean first = true;
-      List<RowMetaAndData> rows = new ArrayList<RowMetaAndData>( result.getRows() );
+      rows = SpillableRowList.copyOf( result.getRows() );
 
       while ( ( first && !execPerRow )
         || ( execPerRow && rows != null && iteration <= rows.size() && result.getNrErrors() == 0 ) ) {
@@ -1184,8 +1187,9 @@ public class JobEntryJob extends JobEntryBase implements Cloneable, JobEntryInte
 
         // Set the result rows too, if any ...
         if ( !Utils.isEmpty( oneResult.getRows() ) ) {
-          result.setRows( new ArrayList<RowMetaAndData>( oneResult.getRows() ) );
+          result.replaceRows( SpillableRowList.copyOf( oneResult.getRows() ) );
         }
+        oneResult.dispose();
 
         // if one of them fails (in the loop), increase the number of errors
         //
@@ -1201,6 +1205,8 @@ public class JobEntryJob extends JobEntryBase implements Cloneable, JobEntryInte
 
       result.setResult( false );
       result.setNrErrors( 1L );
+    } finally {
+      SpillableRowList.release( rows );
     }
 
     if ( setLogfile ) {
@@ -1401,7 +1407,9 @@ public class JobEntryJob extends JobEntryBase implements Cloneable, JobEntryInte
     if ( repositoryDirectory == null ) {
       throw new KettleException( "Unable to find repository directory [" + Const.NVL( realDirectory, "" ) + "]" );
     }
-    JobMeta jobMeta = rep.loadJob( realJobName, repositoryDirectory, null, null ); //reads
+    MetaCache metaCache = MetaCache.getInstance();
+    JobMeta jobMeta = metaCache.isEnabled( tmpSpace ) ? metaCache.loadJobMeta( rep, realJobName, repositoryDirectory )
+      : rep.loadJob( realJobName, repositoryDirectory, null, null ); //reads
     if ( jobMeta != null ) {
       jobMeta.initializeVariablesFrom( tmpSpace );
     }
@@ -1410,6 +1418,8 @@ public class JobEntryJob extends JobEntryBase implements Cloneable, JobEntryInte
 
   public JobMeta getJobMeta( Repository rep, IMetaStore metaStore, VariableSpace space ) throws KettleException {
     JobMeta jobMeta = null;
+    MetaCache metaCache = MetaCache.getInstance();
+    boolean useCache = metaCache.isEnabled( space );
     try {
       CurrentDirectoryResolver r = new CurrentDirectoryResolver();
       VariableSpace tmpSpace = r.resolveCurrentDirectory( specificationMethod, space, rep, parentJob, getFilename() );
@@ -1419,7 +1429,8 @@ public class JobEntryJob extends JobEntryBase implements Cloneable, JobEntryInte
           String realFilename = tmpSpace.environmentSubstitute( getFilename() );
 
           try {
-            jobMeta = new JobMeta( tmpSpace, realFilename, rep, metaStore, null );
+            jobMeta = useCache ? metaCache.loadJobMeta( tmpSpace, realFilename, rep, metaStore )
+              : new JobMeta( tmpSpace, realFilename, rep, metaStore, null );
           } catch ( KettleException e ) {
             // try to load from repository, this job may have been developed locally and later uploaded to the repository
             jobMeta = getJobMetaFromRepository( rep, r, realFilename, tmpSpace );
@@ -1435,7 +1446,8 @@ public class JobEntryJob extends JobEntryBase implements Cloneable, JobEntryInte
             if ( !transPath.endsWith( RepositoryObjectType.JOB.getExtension() ) ) {
               transPath = transPath + RepositoryObjectType.JOB.getExtension();
             }
-            jobMeta = new JobMeta( tmpSpace, transPath, rep, metaStore, null );
+            jobMeta = useCache ? metaCache.loadJobMeta( tmpSpace, transPath, rep, metaStore )
+              : new JobMeta( tmpSpace, transPath, rep, metaStore, null );
           } else {
             jobMeta = getJobMetaFromRepository( rep, r, transPath, tmpSpace );
           }
@@ -1444,7 +1456,7 @@ public class JobEntryJob extends JobEntryBase implements Cloneable, JobEntryInte
           if ( rep != null ) {
             // Load the last version...
             //
-            jobMeta = rep.loadJob( jobObjectId, null );
+            jobMeta = useCache ? metaCache.loadJobMeta( rep, jobObjectId ) : rep.loadJob( jobObjectId, null );
             break;
           } else {
             throw new KettleException(
@@ -23,6 +23,7 @@
 package org.pentaho.di.job.entries.trans;
 
 import org.apache.commons.lang.StringUtils;
+import org.pentaho.di.base.MetaCache;
 import org.pentaho.di.cluster.SlaveServer;
 import org.pentaho.di.core.CheckResultInterface;
 import org.pentaho.di.core.Const;
@@ -31,6 +32,7 @@ import org.pentaho.di.core.Result;
 import org.pentaho.di.core.ResultFile;
 import org.pentaho.di.core.RowMetaAndData;
 import org.pentaho.di.core.SQLStatement;
+import org.pentaho.di.core.SpillableRowList;
 import org.pentaho.di.core.database.DatabaseMeta;
 import org.pentaho.di.core.exception.KettleDatabaseException;
 import org.pentaho.di.core.exception.KettleException;
@@ -744,7 +746,7 @@ public class JobEntryTrans extends JobEntryBase implements Cloneable, JobEntryIn
 
     RowMetaAndData resultRow = null;
     boolean first = true;
-    List<RowMetaAndData> rows = new ArrayList<RowMetaAndData>( result.getRows() );
+    List<RowMetaAndData> rows = SpillableRowList.copyOf( result.getRows() );
 
     while ( ( first && !execPerRow )
       || ( execPerRow && rows != null && iteration < rows.size() && result.getNrErrors() == 0 )
@@ -797,7 +799,7 @@ public class JobEntryTrans extends JobEntryBase implements Cloneable, JobEntryIn
         }
 
         if ( clearResultRows ) {
-          previousResult.setRows( new ArrayList<RowMetaAndData>() );
+          previousResult.replaceRows( new ArrayList<RowMetaAndData>() );
         }
 
         if ( clearResultFiles ) {
@@ -927,6 +929,7 @@ public class JobEntryTrans extends JobEntryBase implements Cloneable, JobEntryIn
             }
             if ( !executionConfiguration.isExecutingLocally() && !executionConfiguration.isExecutingRemotely() && !executionConfiguration.isExecutingClustered() ) {
               result.setResult( true );
+              SpillableRowList.release( rows );
               return result;
             }
             clustering = executionConfiguration.isExecutingClustered();
@@ -936,6 +939,7 @@ public class JobEntryTrans extends JobEntryBase implements Cloneable, JobEntryIn
             log.logError( e.getMessage(), getName() );
             result.setNrErrors( 1 );
             result.setResult( false );
+            SpillableRowList.release( rows );
             return result;
           }
         }
@@ -1230,6 +1234,7 @@ public class JobEntryTrans extends JobEntryBase implements Cloneable, JobEntryIn
       }
       iteration++;
     }
+    SpillableRowList.release( rows );
 
     if ( setLogfile ) {
       if ( logChannelFileWriter != null ) {
@@ -1266,7 +1271,7 @@ public class JobEntryTrans extends JobEntryBase implements Cloneable, JobEntryIn
     result.clear(); // clear only the numbers, NOT the files or rows.
     result.add( newResult );
     if ( !Utils.isEmpty( newResult.getRows() ) || trans.isResultRowsSet() ) {
-      result.setRows( newResult.getRows() );
+      result.replaceRows( newResult.getRows() );
     }
   }
 
@@ -1300,12 +1305,18 @@ public class JobEntryTrans extends JobEntryBase implements Cloneable, JobEntryIn
     if ( repositoryDirectory == null ) {
       throw new KettleException( "Unable to find repository directory [" + Const.NVL( realDirectory, "" ) + "]" );
     }
+    MetaCache metaCache = MetaCache.getInstance();
+    if ( metaCache.isEnabled( this ) ) {
+      return metaCache.loadTransMeta( rep, realTransName, repositoryDirectory );
+    }
     return rep.loadTransformation( realTransName, repositoryDirectory, null, true, null );
   }
 
   public TransMeta getTransMeta( Repository rep, IMetaStore metaStore, VariableSpace space ) throws KettleException {
     try {
       TransMeta transMeta = null;
+      MetaCache metaCache = MetaCache.getInstance();
+      boolean useCache = metaCache.isEnabled( space );
       CurrentDirectoryResolver r = new CurrentDirectoryResolver();
       VariableSpace tmpSpace = r.resolveCurrentDirectory(
           specificationMethod, space, rep, parentJob, getFilename() );
@@ -1314,7 +1325,8 @@ public class JobEntryTrans extends JobEntryBase implements Cloneable, JobEntryIn
           String realFilename = tmpSpace.environmentSubstitute( getFilename() );
 
           try {
-            transMeta = new TransMeta( realFilename, metaStore, null, true, null, null );
+            transMeta = useCache ? metaCache.loadTransMeta( realFilename, metaStore, null, true, null )
+              : new TransMeta( realFilename, metaStore, null, true, null, null );
           } catch ( KettleException e ) {
             // try to load from repository, this trans may have been developed locally and later uploaded to the
             // repository
@@ -1333,7 +1345,8 @@ public class JobEntryTrans extends JobEntryBase implements Cloneable, JobEntryIn
             if ( !transPath.endsWith( RepositoryObjectType.TRANSFORMATION.getExtension() ) ) {
               transPath = transPath + RepositoryObjectType.TRANSFORMATION.getExtension();
             }
-            transMeta = new TransMeta( transPath, metaStore, null, true, this, null );
+            transMeta = useCache ? metaCache.loadTransMeta( transPath, metaStore, null, true, this )
+              : new TransMeta( transPath, metaStore, null, true, this, null );
           } else {
             transMeta = rep == null ? new TransMeta( transPath, metaStore, null, true, this, null ) : getTransMetaFromRepository( rep, r, transPath );
           }
@@ -1347,7 +1360,8 @@ public class JobEntryTrans extends JobEntryBase implements Cloneable, JobEntryIn
           if ( rep != null ) {
             // Load the last revision
             //
-            transMeta = rep.loadTransformation( transObjectId, null );
+            transMeta = useCache ? metaCache.loadTransMeta( rep, transObjectId )
+              : rep.loadTransformation( transObjectId, null );
           }
           break;
         default:
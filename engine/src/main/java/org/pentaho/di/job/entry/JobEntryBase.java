@@ -697,6 +697,11 @@ public class JobEntryBase implements Cloneable, VariableSpace, CheckResultSource
     return variables.environmentSubstitute( aString );
   }
 
+  @Override
+  public long getVariablesChangeCount() {
+    return variables.getVariablesChangeCount();
+  }
+
   /**
    * Substitutes any variable values into each of the given strings, and returns an array containing the resolved
    * string(s)
@@ -23,6 +23,7 @@
 package org.pentaho.di.trans;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.pentaho.di.core.Result;
@@ -30,6 +31,8 @@ import org.pentaho.di.core.RowSet;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.logging.LogChannelInterface;
 import org.pentaho.di.trans.TransMeta.TransformationType;
+import org.pentaho.di.trans.step.BaseStep;
+import org.pentaho.di.trans.step.StepInterface;
 import org.pentaho.di.trans.step.StepMetaDataCombi;
 import org.pentaho.di.trans.step.errorhandling.StreamInterface;
 
@@ -41,7 +44,10 @@ public class SingleThreadedTransExecutor {
   private int nrDone;
   private List<List<StreamInterface>> stepInfoStreams;
   private List<List<RowSet>> stepInfoRowSets;
+  private List<List<RowSet>> stepInputRowSets;
+  private List<List<RowSet>> stepOutputRowSets;
   private LogChannelInterface log;
+  private boolean runningToCompletion;
 
   public SingleThreadedTransExecutor( final Trans trans ) {
     this.trans = trans;
@@ -75,6 +81,14 @@ public class SingleThreadedTransExecutor {
       stepInfoRowSets.add( infoRowSets );
     }
 
+    // Steps drop the row sets they are done with, remember the ones they started with for reset()
+    //
+    stepInputRowSets = new ArrayList<List<RowSet>>();
+    stepOutputRowSets = new ArrayList<List<RowSet>>();
+    for ( StepMetaDataCombi combi : steps ) {
+      stepInputRowSets.add( new ArrayList<RowSet>( combi.step.getInputRowSets() ) );
+      stepOutputRowSets.add( new ArrayList<RowSet>( combi.step.getOutputRowSets() ) );
+    }
   }
 
   /**
@@ -361,6 +375,15 @@ public class SingleThreadedTransExecutor {
               return false;
             }
           }
+
+          // When running to completion, let the step see the end of its input once the previous steps are done.
+          //
+          if ( runningToCompletion && !stepDone && isInputDone( rowSets ) ) {
+            stepDone = !combi.step.processRow( combi.meta, combi.data );
+            if ( combi.step.getErrors() > 0 ) {
+              return false;
+            }
+          }
         }
 
         // Signal the step that a batch of rows has passed for this iteration (sort rows and all)
@@ -381,6 +404,71 @@ public class SingleThreadedTransExecutor {
     return nrDone < steps.size() && !trans.isStopped();
   }
 
+  /**
+   * Prepares the initialized steps for another, independent run: the row sets and errors of the transformation are
+   * cleared, every step gets back the input and output row sets it started with and is asked to reset itself, see
+   * {@link StepInterface#resetForReuse()}.
+   *
+   * @return true if the transformation can be run again, false if one of the steps can't be reused. In that case the
+   *         transformation needs to be disposed of.
+   */
+  public boolean reset() {
+    trans.clearError();
+    for ( RowSet rowSet : trans.getRowsets() ) {
+      rowSet.clear();
+    }
+    for ( int s = 0; s < steps.size(); s++ ) {
+      StepMetaDataCombi combi = steps.get( s );
+      if ( !( combi.step instanceof BaseStep ) || !combi.step.resetForReuse() ) {
+        if ( log.isDetailed() ) {
+          log.logDetailed( "Step '" + combi.stepname + "' of type '" + combi.stepMeta.getStepID()
+            + "' can't be reset, transformation [" + trans.getName() + "] can't be reused." );
+        }
+        return false;
+      }
+      BaseStep step = (BaseStep) combi.step;
+      step.setInputRowSets( new ArrayList<RowSet>( stepInputRowSets.get( s ) ) );
+      step.setOutputRowSets( new ArrayList<RowSet>( stepOutputRowSets.get( s ) ) );
+    }
+    Arrays.fill( done, false );
+    nrDone = 0;
+    return true;
+  }
+
+  /**
+   * Runs iterations until all the steps are done. Unlike {@link #oneIteration()}, a step gets to see the end of its
+   * input as soon as all the steps before it are done, so that a complete batch of rows is processed and steps like
+   * "Copy rows to result" can hand over their rows.
+   *
+   * @return true if all the steps finished, false if the transformation was stopped or a step reported errors
+   */
+  public boolean runToCompletion() throws KettleException {
+    runningToCompletion = true;
+    try {
+      int lastNrDone = -1;
+      while ( oneIteration() ) {
+        // The steps are sorted so every iteration should finish some steps, don't spin if one never does.
+        //
+        if ( nrDone == lastNrDone ) {
+          return false;
+        }
+        lastNrDone = nrDone;
+      }
+      return nrDone == steps.size();
+    } finally {
+      runningToCompletion = false;
+    }
+  }
+
+  private boolean isInputDone( List<RowSet> rowSets ) {
+    for ( RowSet rowSet : rowSets ) {
+      if ( !rowSet.isDone() || rowSet.size() > 0 ) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   protected int getTotalRows( List<RowSet> rowSets ) {
     int total = 0;
     for ( RowSet rowSet : rowSets ) {
@@ -23,6 +23,7 @@
 package org.pentaho.di.trans;
 
 import org.apache.commons.lang.ArrayUtils;
+import org.pentaho.di.base.MetaCache;
 import org.pentaho.di.core.Const;
 import org.pentaho.di.core.ObjectLocationSpecificationMethod;
 import org.pentaho.di.core.exception.KettleException;
@@ -104,6 +105,8 @@ public abstract class StepWithMappingMeta extends BaseSerializingMeta implements
     // Note - was a synchronized static method, but as no static variables are manipulated, this is entirely unnecessary
 
     TransMeta mappingTransMeta = null;
+    MetaCache metaCache = MetaCache.getInstance();
+    boolean useCache = metaCache.isEnabled( space );
 
     CurrentDirectoryResolver r = new CurrentDirectoryResolver();
     // send restricted parentVariables with several important options
@@ -128,7 +131,8 @@ public abstract class StepWithMappingMeta extends BaseSerializingMeta implements
               String dirStr = realFilename.substring( 0, realFilename.lastIndexOf( "/" ) );
               String tmpFilename = realFilename.substring( realFilename.lastIndexOf( "/" ) + 1 );
               RepositoryDirectoryInterface dir = rep.findDirectory( dirStr );
-              mappingTransMeta = rep.loadTransformation( tmpFilename, dir, null, true, null );
+              mappingTransMeta = useCache ? metaCache.loadTransMeta( rep, tmpFilename, dir )
+                : rep.loadTransformation( tmpFilename, dir, null, true, null );
             } catch ( KettleException ke ) {
               // try without extension
               if ( realFilename.endsWith( Const.STRING_TRANS_DEFAULT_EXT ) ) {
@@ -136,7 +140,8 @@ public abstract class StepWithMappingMeta extends BaseSerializingMeta implements
                   String tmpFilename = realFilename.substring( realFilename.lastIndexOf( "/" ) + 1, realFilename.indexOf( "." + Const.STRING_TRANS_DEFAULT_EXT ) );
                   String dirStr = realFilename.substring( 0, realFilename.lastIndexOf( "/" ) );
                   RepositoryDirectoryInterface dir = rep.findDirectory( dirStr );
-                  mappingTransMeta = rep.loadTransformation( tmpFilename, dir, null, true, null );
+                  mappingTransMeta = useCache ? metaCache.loadTransMeta( rep, tmpFilename, dir )
+                    : rep.loadTransformation( tmpFilename, dir, null, true, null );
                 } catch ( KettleException ke2 ) {
                   // fall back to try loading from file system (transMeta is going to be null)
                 }
@@ -144,7 +149,8 @@ public abstract class StepWithMappingMeta extends BaseSerializingMeta implements
             }
           }
           if ( mappingTransMeta == null ) {
-            mappingTransMeta = new TransMeta( realFilename, metaStore, rep, true, tmpSpace, null );
+            mappingTransMeta = useCache ? metaCache.loadTransMeta( realFilename, metaStore, rep, true, tmpSpace )
+              : new TransMeta( realFilename, metaStore, rep, true, tmpSpace, null );
             LogChannel.GENERAL.logDetailed( "Loading transformation from repository", "Transformation was loaded from XML file [" + realFilename + "]" );
           }
         } catch ( Exception e ) {
@@ -176,7 +182,8 @@ public abstract class StepWithMappingMeta extends BaseSerializingMeta implements
             if ( repdir != null ) {
               try {
                 // reads the last revision in the repository...
-                mappingTransMeta = rep.loadTransformation( realTransname, repdir, null, true, null );
+                mappingTransMeta = useCache ? metaCache.loadTransMeta( rep, realTransname, repdir )
+                  : rep.loadTransformation( realTransname, repdir, null, true, null );
                 // TODO: FIXME: pass in metaStore to repository?
 
                 LogChannel.GENERAL.logDetailed( "Loading transformation from repository", "Executor transformation [" + realTransname + "] was loaded from the repository" );
@@ -188,12 +195,15 @@ public abstract class StepWithMappingMeta extends BaseSerializingMeta implements
         } else {
           // rep is null, let's try loading by filename
           try {
-            mappingTransMeta = new TransMeta( realDirectory + "/" + realTransname, metaStore, null, true, tmpSpace, null );
+            mappingTransMeta = useCache
+              ? metaCache.loadTransMeta( realDirectory + "/" + realTransname, metaStore, null, true, tmpSpace )
+              : new TransMeta( realDirectory + "/" + realTransname, metaStore, null, true, tmpSpace, null );
           } catch ( KettleException ke ) {
             try {
               // add .ktr extension and try again
-              mappingTransMeta =
-                new TransMeta( realDirectory + "/" + realTransname + "." + Const.STRING_TRANS_DEFAULT_EXT, metaStore, null, true, tmpSpace, null );
+              String transFilename = realDirectory + "/" + realTransname + "." + Const.STRING_TRANS_DEFAULT_EXT;
+              mappingTransMeta = useCache ? metaCache.loadTransMeta( transFilename, metaStore, null, true, tmpSpace )
+                : new TransMeta( transFilename, metaStore, null, true, tmpSpace, null );
             } catch ( KettleException ke2 ) {
               throw new KettleException( BaseMessages.getString( PKG, "StepWithMappingMeta.Exception.UnableToLoadTrans",
                 realTransname ) + realDirectory );
@@ -204,7 +214,8 @@ public abstract class StepWithMappingMeta extends BaseSerializingMeta implements
 
       case REPOSITORY_BY_REFERENCE:
         // Read the last revision by reference...
-        mappingTransMeta = rep.loadTransformation( executorMeta.getTransObjectId(), null );
+        mappingTransMeta = useCache ? metaCache.loadTransMeta( rep, executorMeta.getTransObjectId() )
+          : rep.loadTransformation( executorMeta.getTransObjectId(), null );
         break;
       default:
         break;
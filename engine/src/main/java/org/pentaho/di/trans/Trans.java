@@ -34,10 +34,13 @@ import java.util.Comparator;
 import java.util.Date;
 import java.util.Queue;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
 import java.util.concurrent.ArrayBlockingQueue;
@@ -45,6 +48,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -72,6 +76,7 @@ import org.pentaho.di.core.ResultFile;
 import org.pentaho.di.core.RowMetaAndData;
 import org.pentaho.di.core.RowSet;
 import org.pentaho.di.core.SingleRowRowSet;
+import org.pentaho.di.core.SpillableRowList;
 import org.pentaho.di.core.database.Database;
 import org.pentaho.di.core.database.DatabaseMeta;
 import org.pentaho.di.core.database.DatabaseTransactionListener;
@@ -90,6 +95,7 @@ import org.pentaho.di.core.logging.LogChannel;
 import org.pentaho.di.core.logging.LogChannelInterface;
 import org.pentaho.di.core.logging.LogLevel;
 import org.pentaho.di.core.logging.LogStatus;
+import org.pentaho.di.core.logging.LogTableWriter;
 import org.pentaho.di.core.logging.LoggingHierarchy;
 import org.pentaho.di.core.logging.LoggingMetric;
 import org.pentaho.di.core.logging.LoggingObjectInterface;
@@ -126,7 +132,9 @@ import org.pentaho.di.repository.RepositoryDirectoryInterface;
 import org.pentaho.di.resource.ResourceUtil;
 import org.pentaho.di.resource.TopLevelResource;
 import org.pentaho.di.trans.cluster.TransSplitter;
+import org.pentaho.di.trans.performance.StepPerformanceSampler;
 import org.pentaho.di.trans.performance.StepPerformanceSnapShot;
+import org.pentaho.di.trans.performance.StepPerformanceSnapShotHistory;
 import org.pentaho.di.trans.step.BaseStep;
 import org.pentaho.di.trans.step.BaseStepData.StepExecutionStatus;
 import org.pentaho.di.trans.step.RunThread;
@@ -138,6 +146,7 @@ import org.pentaho.di.trans.step.StepListener;
 import org.pentaho.di.trans.step.StepMeta;
 import org.pentaho.di.trans.step.StepMetaDataCombi;
 import org.pentaho.di.trans.step.StepPartitioningMeta;
+import org.pentaho.di.trans.steps.mapping.MappingInliner;
 import org.pentaho.di.trans.steps.mappinginput.MappingInput;
 import org.pentaho.di.trans.steps.mappingoutput.MappingOutput;
 import org.pentaho.di.www.PrepareExecutionTransServlet;
@@ -205,6 +214,12 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
    */
   protected TransMeta transMeta;
 
+  /**
+   * The transformation metadata the steps are executed with: a copy of transMeta with the mappings inlined or null if
+   * the steps run with transMeta itself.
+   */
+  private TransMeta inlinedTransMeta;
+
   /**
    * The repository we are referencing.
    */
@@ -277,6 +292,17 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
    */
   public List<RowSet> rowsets;
 
+  /**
+   * The row sets by the steps and step copies they connect, see {@link #findRowSet(String, int, String, int)}.
+   */
+  private final Map<String, RowSet> rowSetIndex = new HashMap<>();
+
+  /**
+   * The list of row sets and the number of row sets in the index.
+   */
+  private List<RowSet> indexedRowSets;
+  private int nrIndexedRowSets;
+
   /**
    * A list of all the steps.
    */
@@ -437,9 +463,9 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
   private Map<String, List<StepPerformanceSnapShot>> stepPerformanceSnapShots;
 
   /**
-   * The step performance snapshot timer.
+   * The scheduled step performance sampler.
    */
-  private Timer stepPerformanceSnapShotTimer;
+  private ScheduledFuture<?> stepPerformanceSnapShotSampler;
 
   /**
    * A list of listeners attached to the transformation.
@@ -560,6 +586,9 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
   private static final int TRANS_FINISHED_BLOCKING_QUEUE_SIZE =
     Integer.parseInt( System.getProperty( Const.KETTLE_TRANS_FINISHED_BLOCKING_QUEUE_SIZE, "200" ) );
 
+  /** The number of step performance snapshots kept per step copy when no limit is set */
+  static final int DEFAULT_STEP_PERFORMANCE_SNAPSHOT_LIMIT = 1000;
+
   /**
    * Instantiates a new transformation.
    */
@@ -582,7 +611,7 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
     activeSubtransformations = new ConcurrentHashMap<>();
     activeSubjobs = new HashMap<>();
 
-    resultRows = new ArrayList<>();
+    resultRows = new SpillableRowList();
     resultFiles = new ArrayList<>();
     counters = new Hashtable<>();
 
@@ -786,6 +815,11 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
     transMeta.activateParameters();
     ConnectionUtil.init( transMeta );
 
+    // The settings of the steps can have been changed in place since their fields were cached, by metadata injection
+    // for example, and the parameters just activated can change them as well
+    //
+    transMeta.clearCaches();
+
     if ( transMeta.getName() == null ) {
       if ( transMeta.getFilename() != null ) {
         log.logBasic( BaseMessages.getString( PKG, "Trans.Log.DispacthingStartedForFilename", transMeta
@@ -838,12 +872,27 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
       }
     }
 
+    // Optionally splice the steps of the mappings into this transformation
+    //
+    // The copy is only used to run the steps: Spoon and Carte keep showing the transformation as it was designed.
+    //
+    MappingInliner mappingInliner = null;
+    inlinedTransMeta = null;
+    if ( "Y".equalsIgnoreCase( getVariable( Const.KETTLE_INLINE_MAPPINGS, "N" ) ) ) {
+      mappingInliner = new MappingInliner( log );
+      TransMeta inlined = mappingInliner.inlineMappings( transMeta, this );
+      if ( inlined != transMeta ) {
+        inlinedTransMeta = inlined;
+      }
+    }
+    TransMeta executingTransMeta = getExecutingTransMeta();
+
     // Keep track of all the row sets and allocated steps
     //
     steps = new ArrayList<>();
     rowsets = new ArrayList<>();
 
-    List<StepMeta> hopsteps = transMeta.getTransHopSteps( false );
+    List<StepMeta> hopsteps = executingTransMeta.getTransHopSteps( false );
 
     if ( log.isDetailed() ) {
       log.logDetailed( BaseMessages.getString( PKG, "Trans.Log.FoundDefferentSteps", String.valueOf( hopsteps
@@ -864,7 +913,7 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
           thisStep.getName() ) );
       }
 
-      List<StepMeta> nextSteps = transMeta.findNextSteps( thisStep );
+      List<StepMeta> nextSteps = executingTransMeta.findNextSteps( thisStep );
       int nrTargets = nextSteps.size();
 
       for ( int n = 0; n < nrTargets; n++ ) {
@@ -1003,6 +1052,7 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
 
     // Allocate the steps & the data...
     //
+    Set<String> startedSteps = new HashSet<>();
     for ( int i = 0; i < hopsteps.size(); i++ ) {
       StepMeta stepMeta = hopsteps.get( i );
       String stepid = stepMeta.getStepID();
@@ -1022,7 +1072,7 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
       // At least run once...
       for ( int c = 0; c < nrCopies; c++ ) {
         // Make sure we haven't started it yet!
-        if ( !hasStepStarted( stepMeta.getName(), c ) ) {
+        if ( startedSteps.add( stepMeta.getName().toLowerCase( Locale.ROOT ) + "\n" + c ) ) {
           StepMetaDataCombi combi = new StepMetaDataCombi();
 
           combi.stepname = stepMeta.getName();
@@ -1037,12 +1087,14 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
           combi.data = data;
 
           // Allocate the step
-          StepInterface step = combi.meta.getStep( stepMeta, data, c, transMeta, this );
+          StepInterface step = combi.meta.getStep( stepMeta, data, c, executingTransMeta, this );
 
           // Copy the variables of the transformation to the step...
           // don't share. Each copy of the step has its own variables.
+          // The steps of an inlined mapping get the variables of the mapping.
           //
-          step.initializeVariablesFrom( this );
+          VariableSpace mappingSpace = mappingInliner == null ? null : mappingInliner.getVariableSpace( stepMeta );
+          step.initializeVariablesFrom( mappingSpace == null ? this : mappingSpace );
           step.setUsingThreadPriorityManagment( transMeta.isUsingThreadPriorityManagment() );
 
           // Pass the connected repository & metaStore to the steps runtime
@@ -1144,7 +1196,7 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
       StepPartitioningMeta nextStepPartitioningMeta = null;
       PartitionSchema nextPartitionSchema = null;
 
-      List<StepMeta> nextSteps = transMeta.findNextSteps( stepMeta );
+      List<StepMeta> nextSteps = executingTransMeta.findNextSteps( stepMeta );
       int nrNext = nextSteps.size();
       for ( int p = 0; p < nrNext; p++ ) {
         StepMeta nextStep = nextSteps.get( p );
@@ -1397,26 +1449,28 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
       stepPerformanceSnapshotSeqNr = new AtomicInteger( 0 );
       stepPerformanceSnapShots = new ConcurrentHashMap<>();
 
-      // Calculate the maximum number of snapshots to be kept in memory
+      // Calculate the maximum number of snapshots to be kept in memory per step copy
       //
       String limitString = environmentSubstitute( transMeta.getStepPerformanceCapturingSizeLimit() );
       if ( Utils.isEmpty( limitString ) ) {
         limitString = EnvUtil.getSystemProperty( Const.KETTLE_STEP_PERFORMANCE_SNAPSHOT_LIMIT );
       }
-      stepPerformanceSnapshotSizeLimit = Const.toInt( limitString, 0 );
+      stepPerformanceSnapshotSizeLimit = getStepPerformanceSnapshotLimit( limitString );
 
-      // Set a timer to collect the performance data from the running threads...
+      // Have the shared sampler collect the performance data from the running threads...
       //
-      stepPerformanceSnapShotTimer = new Timer( "stepPerformanceSnapShot Timer: " + transMeta.getName() );
-      TimerTask timerTask = new TimerTask() {
+      stepPerformanceSnapShotSampler = StepPerformanceSampler.schedule( new Runnable() {
         @Override
         public void run() {
-          if ( !isFinished() ) {
-            addStepPerformanceSnapShot();
+          try {
+            if ( !isFinished() ) {
+              addStepPerformanceSnapShot();
+            }
+          } catch ( Exception e ) {
+            log.logError( BaseMessages.getString( PKG, "Trans.Log.UnableToCaptureStepPerformance" ), e );
           }
         }
-      };
-      stepPerformanceSnapShotTimer.schedule( timerTask, 100, transMeta.getStepPerformanceCapturingDelay() );
+      }, 100, transMeta.getStepPerformanceCapturingDelay() );
     }
 
     // Now start a thread to monitor the running transformation...
@@ -1439,11 +1493,11 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
           throw new RuntimeException( "Error calling extension point at end of transformation", e );
         }
 
-        // First of all, stop the performance snapshot timer if there is is
+        // First of all, stop the performance snapshot sampler if there is is
         // one...
         //
-        if ( transMeta.isCapturingStepPerformanceSnapShots() && stepPerformanceSnapShotTimer != null ) {
-          stepPerformanceSnapShotTimer.cancel();
+        if ( transMeta.isCapturingStepPerformanceSnapShots() && stepPerformanceSnapShotSampler != null ) {
+          stepPerformanceSnapShotSampler.cancel( false );
         }
 
         transMeta.disposeEmbeddedMetastoreProvider();
@@ -1536,7 +1590,7 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
                 @Override
                 public int compare( StepMetaDataCombi c1, StepMetaDataCombi c2 ) {
 
-                  boolean c1BeforeC2 = transMeta.findPrevious( c2.stepMeta, c1.stepMeta );
+                  boolean c1BeforeC2 = getExecutingTransMeta().findPrevious( c2.stepMeta, c1.stepMeta );
                   if ( c1BeforeC2 ) {
                     return -1;
                   } else {
@@ -1644,6 +1698,22 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
   /**
    * Adds a step performance snapshot.
    */
+  /**
+   * Gets the maximum number of step performance snapshots to keep per step copy. Without a limit, or with a limit of 0,
+   * {@link #DEFAULT_STEP_PERFORMANCE_SNAPSHOT_LIMIT} snapshots are kept. Keeping all snapshots of a run takes a
+   * negative limit.
+   *
+   * @param limit the configured limit, possibly empty
+   * @return the maximum number of snapshots to keep, 0 to keep all of them
+   */
+  static int getStepPerformanceSnapshotLimit( String limit ) {
+    int snapshotLimit = Const.toInt( limit, 0 );
+    if ( snapshotLimit < 0 ) {
+      return 0;
+    }
+    return snapshotLimit == 0 ? DEFAULT_STEP_PERFORMANCE_SNAPSHOT_LIMIT : snapshotLimit;
+  }
+
   protected void addStepPerformanceSnapShot() {
 
     if ( stepPerformanceSnapShots == null ) {
@@ -1666,24 +1736,25 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
             step.getLinesRead(), step.getLinesWritten(), step.getLinesInput(), step.getLinesOutput(), step
             .getLinesUpdated(), step.getLinesRejected(), step.getErrors() );
 
-        synchronized ( stepPerformanceSnapShots ) {
-          List<StepPerformanceSnapShot> snapShotList = stepPerformanceSnapShots.get( step.toString() );
-          StepPerformanceSnapShot previous;
-          if ( snapShotList == null ) {
-            snapShotList = new ArrayList<>();
-            stepPerformanceSnapShots.put( step.toString(), snapShotList );
-            previous = null;
-          } else {
-            previous = snapShotList.get( snapShotList.size() - 1 ); // the last one...
+        List<StepPerformanceSnapShot> snapShotList = stepPerformanceSnapShots.get( step.toString() );
+        if ( snapShotList == null ) {
+          snapShotList = new StepPerformanceSnapShotHistory( stepPerformanceSnapshotSizeLimit );
+          List<StepPerformanceSnapShot> existing =
+            stepPerformanceSnapShots.putIfAbsent( step.toString(), snapShotList );
+          if ( existing != null ) {
+            snapShotList = existing;
           }
+        }
+        // The history is bounded: once full, neighbouring snapshots are merged rather than dropped
+        //
+        synchronized ( snapShotList ) {
+          StepPerformanceSnapShot previous =
+            snapShotList.isEmpty() ? null : snapShotList.get( snapShotList.size() - 1 ); // the last one...
+
           // Make the difference...
           //
           snapShot.diff( previous, step.rowsetInputSize(), step.rowsetOutputSize() );
           snapShotList.add( snapShot );
-
-          if ( stepPerformanceSnapshotSizeLimit > 0 && snapShotList.size() > stepPerformanceSnapshotSizeLimit ) {
-            snapShotList.remove( 0 );
-          }
         }
       }
 
@@ -1968,16 +2039,34 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
    * @return the row set, or null if none found
    */
   public RowSet findRowSet( String from, int fromcopy, String to, int tocopy ) {
-    // Start with the transformation.
-    for ( int i = 0; i < rowsets.size(); i++ ) {
-      RowSet rs = rowsets.get( i );
-      if ( rs.getOriginStepName().equalsIgnoreCase( from ) && rs.getDestinationStepName().equalsIgnoreCase( to ) && rs
-        .getOriginStepCopy() == fromcopy && rs.getDestinationStepCopy() == tocopy ) {
-        return rs;
+    if ( rowsets == null || from == null || to == null ) {
+      return null;
+    }
+
+    // Every step copy looks up its row sets, index them instead of scanning all of them every time.
+    // Row sets are only ever added to the list.
+    //
+    synchronized ( rowSetIndex ) {
+      if ( indexedRowSets != rowsets || nrIndexedRowSets > rowsets.size() ) {
+        rowSetIndex.clear();
+        indexedRowSets = rowsets;
+        nrIndexedRowSets = 0;
       }
+      for ( ; nrIndexedRowSets < rowsets.size(); nrIndexedRowSets++ ) {
+        RowSet rs = rowsets.get( nrIndexedRowSets );
+        String key = getRowSetKey( rs.getOriginStepName(), rs.getOriginStepCopy(), rs.getDestinationStepName(),
+          rs.getDestinationStepCopy() );
+        if ( !rowSetIndex.containsKey( key ) ) {
+          rowSetIndex.put( key, rs );
+        }
+      }
+      return rowSetIndex.get( getRowSetKey( from, fromcopy, to, tocopy ) );
     }
+  }
 
-    return null;
+  private static String getRowSetKey( String from, int fromcopy, String to, int tocopy ) {
+    return String.valueOf( from ).toLowerCase( Locale.ROOT ) + "\n" + fromcopy + "\n"
+      + String.valueOf( to ).toLowerCase( Locale.ROOT ) + "\n" + tocopy;
   }
 
   /**
@@ -2016,7 +2105,7 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
 
   private boolean isInputStep( StepMetaDataCombi combi ) {
     checkNotNull( combi );
-    return transMeta.findPreviousSteps( combi.stepMeta, true ).size() == 0;
+    return getExecutingTransMeta().findPreviousSteps( combi.stepMeta, true ).size() == 0;
   }
 
   /**
@@ -2576,6 +2665,11 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
     }
     // end PDI-7070
 
+    if ( LogTableWriter.isAsynchronous( this ) ) {
+      LogTableWriter.getInstance().write( this, channelLogTable, getLoggingHierarchy(), null, true );
+      return;
+    }
+
     try {
       db = new Database( this, channelLogTable.getDatabaseMeta() );
       db.shareVariablesWith( this );
@@ -2606,6 +2700,10 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
   protected void writeStepLogInformation() throws KettleException {
     Database db = null;
     StepLogTable stepLogTable = getTransMeta().getStepLogTable();
+    if ( LogTableWriter.isAsynchronous( this ) ) {
+      LogTableWriter.getInstance().write( this, stepLogTable, getSteps(), null, true );
+      return;
+    }
     try {
       db = createDataBase( stepLogTable.getDatabaseMeta() );
       db.shareVariablesWith( this );
@@ -2654,37 +2752,21 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
       }
     }
 
-    Database db = null;
     MetricsLogTable metricsLogTable = transMeta.getMetricsLogTable();
+    if ( LogTableWriter.isAsynchronous( this ) ) {
+      LogTableWriter.getInstance().write( this, metricsLogTable, getLoggingMetrics(), null, true );
+      return;
+    }
+
+    Database db = null;
     try {
       db = new Database( this, metricsLogTable.getDatabaseMeta() );
       db.shareVariablesWith( this );
       db.connect();
       db.setCommit( logCommitSize );
 
-      List<String> logChannelIds = LoggingRegistry.getInstance().getLogChannelChildren( getLogChannelId() );
-      for ( String logChannelId : logChannelIds ) {
-        Queue<MetricsSnapshotInterface> snapshotList =
-          MetricsRegistry.getInstance().getSnapshotLists().get( logChannelId );
-        if ( snapshotList != null ) {
-          Iterator<MetricsSnapshotInterface> iterator = snapshotList.iterator();
-          while ( iterator.hasNext() ) {
-            MetricsSnapshotInterface snapshot = iterator.next();
-            db.writeLogRecord( metricsLogTable, LogStatus.START, new LoggingMetric( batchId, snapshot ), null );
-          }
-        }
-
-        Map<String, MetricsSnapshotInterface> snapshotMap =
-          MetricsRegistry.getInstance().getSnapshotMaps().get( logChannelId );
-        if ( snapshotMap != null ) {
-          synchronized ( snapshotMap ) {
-            Iterator<MetricsSnapshotInterface> iterator = snapshotMap.values().iterator();
-            while ( iterator.hasNext() ) {
-              MetricsSnapshotInterface snapshot = iterator.next();
-              db.writeLogRecord( metricsLogTable, LogStatus.START, new LoggingMetric( batchId, snapshot ), null );
-            }
-          }
-        }
+      for ( LoggingMetric loggingMetric : getLoggingMetrics() ) {
+        db.writeLogRecord( metricsLogTable, LogStatus.START, loggingMetric, null );
       }
 
       // Also time-out the log records in here...
@@ -2698,6 +2780,38 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
     }
   }
 
+  /**
+   * @return the metrics snapshots of this transformation and its children, to write to the metrics log table
+   */
+  private List<LoggingMetric> getLoggingMetrics() {
+    List<LoggingMetric> loggingMetrics = new ArrayList<>();
+    List<String> logChannelIds = LoggingRegistry.getInstance().getLogChannelChildren( getLogChannelId() );
+    for ( String logChannelId : logChannelIds ) {
+      Queue<MetricsSnapshotInterface> snapshotList =
+        MetricsRegistry.getInstance().getSnapshotLists().get( logChannelId );
+      if ( snapshotList != null ) {
+        Iterator<MetricsSnapshotInterface> iterator = snapshotList.iterator();
+        while ( iterator.hasNext() ) {
+          MetricsSnapshotInterface snapshot = iterator.next();
+          loggingMetrics.add( new LoggingMetric( batchId, snapshot ) );
+        }
+      }
+
+      Map<String, MetricsSnapshotInterface> snapshotMap =
+        MetricsRegistry.getInstance().getSnapshotMaps().get( logChannelId );
+      if ( snapshotMap != null ) {
+        synchronized ( snapshotMap ) {
+          Iterator<MetricsSnapshotInterface> iterator = snapshotMap.values().iterator();
+          while ( iterator.hasNext() ) {
+            MetricsSnapshotInterface snapshot = iterator.next();
+            loggingMetrics.add( new LoggingMetric( batchId, snapshot ) );
+          }
+        }
+      }
+    }
+    return loggingMetrics;
+  }
+
   private void disconnectDb( Database db ) throws KettleDatabaseException {
     if ( db == null ) {
       return;
@@ -2856,7 +2970,6 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
    * @throws KettleException if any errors occur during logging
    */
   private int writeStepPerformanceLogRecords( int startSequenceNr, LogStatus status ) throws KettleException {
-    int lastSeqNr = 0;
     Database ldb = null;
     PerformanceLogTable performanceLogTable = transMeta.getPerformanceLogTable();
 
@@ -2865,6 +2978,15 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
       return 0; // nothing to do here!
     }
 
+    int lastSeqNr = lastStepPerformanceSnapshotSeqNrAdded;
+    List<StepPerformanceSnapShot> snapshotsToWrite = getUnwrittenStepPerformanceSnapShots( startSequenceNr, lastSeqNr );
+
+    if ( LogTableWriter.isAsynchronous( this ) ) {
+      LogTableWriter.getInstance().write( this, performanceLogTable, snapshotsToWrite, null,
+        status.equals( LogStatus.END ) );
+      return lastSeqNr + 1;
+    }
+
     try {
       ldb = new Database( this, performanceLogTable.getDatabaseMeta() );
       ldb.shareVariablesWith( this );
@@ -2876,26 +2998,11 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
       RowMetaInterface rowMeta = performanceLogTable.getLogRecord( LogStatus.START, null, null ).getRowMeta();
       ldb.prepareInsert( rowMeta, performanceLogTable.getActualSchemaName(), performanceLogTable.getActualTableName() );
 
-      synchronized ( stepPerformanceSnapShots ) {
-        Iterator<List<StepPerformanceSnapShot>> iterator = stepPerformanceSnapShots.values().iterator();
-        while ( iterator.hasNext() ) {
-          List<StepPerformanceSnapShot> snapshots = iterator.next();
-          synchronized ( snapshots ) {
-            Iterator<StepPerformanceSnapShot> snapshotsIterator = snapshots.iterator();
-            while ( snapshotsIterator.hasNext() ) {
-              StepPerformanceSnapShot snapshot = snapshotsIterator.next();
-              if ( snapshot.getSeqNr() >= startSequenceNr && snapshot
-                .getSeqNr() <= lastStepPerformanceSnapshotSeqNrAdded ) {
-
-                RowMetaAndData row = performanceLogTable.getLogRecord( LogStatus.START, snapshot, null );
-
-                ldb.setValuesInsert( row.getRowMeta(), row.getData() );
-                ldb.insertRow( true );
-              }
-              lastSeqNr = snapshot.getSeqNr();
-            }
-          }
-        }
+      for ( StepPerformanceSnapShot snapshot : snapshotsToWrite ) {
+        RowMetaAndData row = performanceLogTable.getLogRecord( LogStatus.START, snapshot, null );
+
+        ldb.setValuesInsert( row.getRowMeta(), row.getData() );
+        ldb.insertRow( true );
       }
 
       ldb.insertFinished( true );
@@ -2918,6 +3025,33 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
     return lastSeqNr + 1;
   }
 
+  /**
+   * Collects the step performance snapshots that were not written to the log table yet. The bounded histories hand
+   * out every snapshot once: selecting by sequence number would write snapshots again after they were merged into a
+   * later one.
+   *
+   * @param startSequenceNr the first sequence number to write from lists that are not histories
+   * @param lastSeqNr       the last sequence number to write from lists that are not histories
+   * @return the snapshots to write
+   */
+  private List<StepPerformanceSnapShot> getUnwrittenStepPerformanceSnapShots( int startSequenceNr, int lastSeqNr ) {
+    List<StepPerformanceSnapShot> snapshotsToWrite = new ArrayList<>();
+    for ( List<StepPerformanceSnapShot> snapshots : stepPerformanceSnapShots.values() ) {
+      if ( snapshots instanceof StepPerformanceSnapShotHistory ) {
+        snapshotsToWrite.addAll( ( (StepPerformanceSnapShotHistory) snapshots ).takeUnwritten() );
+      } else {
+        synchronized ( snapshots ) {
+          for ( StepPerformanceSnapShot snapshot : snapshots ) {
+            if ( snapshot.getSeqNr() >= startSequenceNr && snapshot.getSeqNr() <= lastSeqNr ) {
+              snapshotsToWrite.add( snapshot );
+            }
+          }
+        }
+      }
+    }
+    return snapshotsToWrite;
+  }
+
   /**
    * Close unique database connections. If there are errors in the Result, perform a rollback
    *
@@ -3173,6 +3307,14 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
     return transMeta;
   }
 
+  /**
+   * @return the meta-data the steps are executed with: the transformation meta-data or a copy of it in which the
+   *         mappings are inlined.
+   */
+  private TransMeta getExecutingTransMeta() {
+    return inlinedTransMeta != null ? inlinedTransMeta : transMeta;
+  }
+
   /**
    * Sets the meta-data for the transformation.
    *
@@ -4470,6 +4612,11 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
     return variables.environmentSubstitute( aString );
   }
 
+  @Override
+  public long getVariablesChangeCount() {
+    return variables.getVariablesChangeCount();
+  }
+
   /**
    * Substitutes any variable values into each of the given strings, and returns an array containing the resolved
    * string(s).
@@ -5601,7 +5748,7 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
           if ( one.stepMeta.equals( two.stepMeta ) ) {
             isBefore = one.copy > two.copy;
           } else {
-            isBefore = transMeta.findPrevious( one.stepMeta, two.stepMeta );
+            isBefore = getExecutingTransMeta().findPrevious( one.stepMeta, two.stepMeta );
           }
           if ( isBefore ) {
             // two was found to be positioned BEFORE one so we need to
@@ -5624,7 +5771,7 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
         if ( one.stepMeta.equals( two.stepMeta ) ) {
           isBefore = one.copy > two.copy;
         } else {
-          isBefore = transMeta.findPrevious( one.stepMeta, two.stepMeta );
+          isBefore = getExecutingTransMeta().findPrevious( one.stepMeta, two.stepMeta );
         }
         if ( !isBefore ) {
           // two was found NOT to be positioned BEFORE one so we need to
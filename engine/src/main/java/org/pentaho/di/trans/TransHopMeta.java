@@ -23,6 +23,7 @@
 package org.pentaho.di.trans;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 import org.pentaho.di.base.BaseHopMeta;
@@ -48,6 +49,9 @@ public class TransHopMeta extends BaseHopMeta<StepMeta> implements Comparable<Tr
   public static final String XML_FROM_TAG = "from";
   public static final String XML_TO_TAG = "to";
 
+  /** The transformation this hop was added to, told when the hop is changed in place */
+  private TransMeta parentTransMeta;
+
   public TransHopMeta( StepMeta from, StepMeta to, boolean en ) {
     this.from = from;
     this.to = to;
@@ -80,12 +84,44 @@ public class TransHopMeta extends BaseHopMeta<StepMeta> implements Comparable<Tr
     }
   }
 
+  /**
+   * Loads a hop looking up its steps in a map of the steps by name, for transformations with many steps.
+   *
+   * @param hopnode     the hop node
+   * @param stepsByName the steps by their name, ignoring case
+   */
+  public TransHopMeta( Node hopnode, Map<String, StepMeta> stepsByName ) throws KettleXMLException {
+    try {
+      this.from = searchStep( stepsByName, XMLHandler.getTagValue( hopnode, TransHopMeta.XML_FROM_TAG ) );
+      this.to = searchStep( stepsByName, XMLHandler.getTagValue( hopnode, TransHopMeta.XML_TO_TAG ) );
+      String en = XMLHandler.getTagValue( hopnode, "enabled" );
+
+      if ( en == null ) {
+        enabled = true;
+      } else {
+        enabled = en.equalsIgnoreCase( "Y" );
+      }
+    } catch ( Exception e ) {
+      throw new KettleXMLException( BaseMessages.getString( PKG, "TransHopMeta.Exception.UnableToLoadHopInfo" ), e );
+    }
+  }
+
   public void setFromStep( StepMeta from ) {
     this.from = from;
+    hopChanged();
   }
 
   public void setToStep( StepMeta to ) {
     this.to = to;
+    hopChanged();
+  }
+
+  @Override
+  public void setEnabled( boolean en ) {
+    if ( enabled != en ) {
+      super.setEnabled( en );
+      hopChanged();
+    }
   }
 
   public StepMeta getFromStep() {
@@ -106,6 +142,10 @@ public class TransHopMeta extends BaseHopMeta<StepMeta> implements Comparable<Tr
     return null;
   }
 
+  private StepMeta searchStep( Map<String, StepMeta> stepsByName, String name ) {
+    return name == null ? null : stepsByName.get( name );
+  }
+
   public boolean equals( Object obj ) {
     TransHopMeta other = (TransHopMeta) obj;
     if ( this.from == null || this.to == null ) {
@@ -129,6 +169,27 @@ public class TransHopMeta extends BaseHopMeta<StepMeta> implements Comparable<Tr
     StepMeta dummy = this.from;
     this.from = this.to;
     this.to = dummy;
+    hopChanged();
+  }
+
+  /**
+   * Sets the transformation this hop belongs to, see {@link TransMeta#addTransHop(TransHopMeta)}.
+   *
+   * @param parentTransMeta the transformation the hop was added to
+   */
+  void setParentTransMeta( TransMeta parentTransMeta ) {
+    this.parentTransMeta = parentTransMeta;
+  }
+
+  /**
+   * Hops are changed in place, without going through the transformation: let it know that the index of its hops is
+   * outdated.
+   */
+  private void hopChanged() {
+    TransMeta transMeta = parentTransMeta;
+    if ( transMeta != null ) {
+      transMeta.hopChanged();
+    }
   }
 
   public String toString() {
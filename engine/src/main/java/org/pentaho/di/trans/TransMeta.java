@@ -115,10 +115,15 @@ import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
+import java.io.BufferedWriter;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -127,6 +132,9 @@ import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 /**
@@ -292,6 +300,12 @@ public class TransMeta extends AbstractMeta
   /** The previous step cache */
   protected Map<String, List<StepMeta>> previousStepCache;
 
+  /** The index of the steps and hops, built when needed */
+  private volatile TransMetaGraph graph;
+
+  /** Counts the changes made in place to the hops of this transformation, they make the index outdated */
+  private AtomicInteger hopModificationCount = new AtomicInteger();
+
   /** The log channel interface. */
   protected LogChannelInterface log;
 
@@ -566,6 +580,13 @@ public class TransMeta extends AbstractMeta
 
     try {
       TransMeta transMeta = (TransMeta) super.clone();
+      // The clone gets caches of its own
+      //
+      transMeta.stepsFieldsCache = new ConcurrentHashMap<>();
+      transMeta.loopCache = new ConcurrentHashMap<>();
+      transMeta.previousStepCache = new ConcurrentHashMap<>();
+      transMeta.graph = null;
+      transMeta.hopModificationCount = new AtomicInteger();
       if ( doClear ) {
         transMeta.clear();
       } else {
@@ -699,9 +720,10 @@ public class TransMeta extends AbstractMeta
     stepPerformanceCapturingDelay = 1000; // every 1 seconds
     stepPerformanceCapturingSizeLimit = "100"; // maximum 100 data points
 
-    stepsFieldsCache = new HashMap<>();
-    loopCache = new HashMap<>();
-    previousStepCache = new HashMap<>();
+    stepsFieldsCache = new ConcurrentHashMap<>();
+    loopCache = new ConcurrentHashMap<>();
+    previousStepCache = new ConcurrentHashMap<>();
+    graph = null;
     transformationType = TransformationType.Normal;
 
     log = LogChannel.GENERAL;
@@ -757,6 +779,7 @@ public class TransMeta extends AbstractMeta
    */
   public void addTransHop( TransHopMeta hi ) {
     hops.add( hi );
+    hi.setParentTransMeta( this );
     changed_hops = true;
     clearCaches();
   }
@@ -806,6 +829,7 @@ public class TransMeta extends AbstractMeta
     } catch ( IndexOutOfBoundsException e ) {
       hops.add( hi );
     }
+    hi.setParentTransMeta( this );
     changed_hops = true;
     clearCaches();
   }
@@ -1018,6 +1042,7 @@ public class TransMeta extends AbstractMeta
    */
   public void setTransHop( int i, TransHopMeta hi ) {
     hops.set( i, hi );
+    hi.setParentTransMeta( this );
     clearCaches();
   }
 
@@ -1066,6 +1091,13 @@ public class TransMeta extends AbstractMeta
       return null;
     }
 
+    if ( exclude == null ) {
+      StepMeta stepMeta = getGraph().findStep( name );
+      if ( stepMeta != null && name.equalsIgnoreCase( stepMeta.getName() ) ) {
+        return stepMeta;
+      }
+    }
+
     int excl = -1;
     if ( exclude != null ) {
       excl = indexOfStep( exclude );
@@ -1385,17 +1417,16 @@ public class TransMeta extends AbstractMeta
       return new ArrayList<>();
     }
 
+    TransMetaGraph transMetaGraph = getGraph();
     String cacheKey = getStepMetaCacheKey( stepMeta, info );
     List<StepMeta> previousSteps = previousStepCache.get( cacheKey );
     if ( previousSteps == null ) {
       previousSteps = new ArrayList<>();
-      for ( TransHopMeta hi : hops ) {
-        if ( hi.getToStep() != null && hi.isEnabled() && hi.getToStep().equals( stepMeta ) ) {
-          // Check if this previous step isn't informative (StreamValueLookup)
-          // We don't want fields from this stream to show up!
-          if ( info || !isStepInformative( stepMeta, hi.getFromStep() ) ) {
-            previousSteps.add( hi.getFromStep() );
-          }
+      for ( StepMeta previousStep : transMetaGraph.getPreviousSteps( stepMeta ) ) {
+        // Check if this previous step isn't informative (StreamValueLookup)
+        // We don't want fields from this stream to show up!
+        if ( info || !isStepInformative( stepMeta, previousStep ) ) {
+          previousSteps.add( previousStep );
         }
       }
       previousStepCache.put( cacheKey, previousSteps );
@@ -1503,16 +1534,7 @@ public class TransMeta extends AbstractMeta
    */
   @Deprecated
   public int findNrNextSteps( StepMeta stepMeta ) {
-    int count = 0;
-    int i;
-    for ( i = 0; i < nrTransHops(); i++ ) { // Look at all the hops;
-
-      TransHopMeta hi = getTransHop( i );
-      if ( hi.isEnabled() && hi.getFromStep().equals( stepMeta ) ) {
-        count++;
-      }
-    }
-    return count;
+    return getGraph().getNextSteps( stepMeta ).length;
   }
 
   /**
@@ -1527,20 +1549,8 @@ public class TransMeta extends AbstractMeta
    */
   @Deprecated
   public StepMeta findNextStep( StepMeta stepMeta, int nr ) {
-    int count = 0;
-    int i;
-
-    for ( i = 0; i < nrTransHops(); i++ ) { // Look at all the hops;
-
-      TransHopMeta hi = getTransHop( i );
-      if ( hi.isEnabled() && hi.getFromStep().equals( stepMeta ) ) {
-        if ( count == nr ) {
-          return hi.getToStep();
-        }
-        count++;
-      }
-    }
-    return null;
+    StepMeta[] nextSteps = getGraph().getNextSteps( stepMeta );
+    return nr >= 0 && nr < nextSteps.length ? nextSteps[nr] : null;
   }
 
   /**
@@ -1551,15 +1561,10 @@ public class TransMeta extends AbstractMeta
    * @return An array containing the preceding steps.
    */
   public StepMeta[] getPrevSteps( StepMeta stepMeta ) {
+    TransMetaGraph transMetaGraph = getGraph();
     List<StepMeta> prevSteps = previousStepCache.get( getStepMetaCacheKey( stepMeta, true ) );
     if ( prevSteps == null ) {
-      prevSteps = new ArrayList<>();
-      for ( int i = 0; i < nrTransHops(); i++ ) { // Look at all the hops;
-        TransHopMeta hopMeta = getTransHop( i );
-        if ( hopMeta.isEnabled() && hopMeta.getToStep().equals( stepMeta ) ) {
-          prevSteps.add( hopMeta.getFromStep() );
-        }
-      }
+      return transMetaGraph.getPreviousSteps( stepMeta );
     }
 
     return prevSteps.toArray( new StepMeta[prevSteps.size()] );
@@ -1603,16 +1608,7 @@ public class TransMeta extends AbstractMeta
    */
   @Deprecated
   public StepMeta[] getNextSteps( StepMeta stepMeta ) {
-    List<StepMeta> nextSteps = new ArrayList<>();
-    for ( int i = 0; i < nrTransHops(); i++ ) { // Look at all the hops;
-
-      TransHopMeta hi = getTransHop( i );
-      if ( hi.isEnabled() && hi.getFromStep().equals( stepMeta ) ) {
-        nextSteps.add( hi.getToStep() );
-      }
-    }
-
-    return nextSteps.toArray( new StepMeta[nextSteps.size()] );
+    return getGraph().getNextSteps( stepMeta );
   }
 
   /**
@@ -1623,16 +1619,7 @@ public class TransMeta extends AbstractMeta
    * @return an array of succeeding steps.
    */
   public List<StepMeta> findNextSteps( StepMeta stepMeta ) {
-    List<StepMeta> nextSteps = new ArrayList<>();
-    for ( int i = 0; i < nrTransHops(); i++ ) { // Look at all the hops;
-
-      TransHopMeta hi = getTransHop( i );
-      if ( hi.isEnabled() && hi.getFromStep().equals( stepMeta ) ) {
-        nextSteps.add( hi.getToStep() );
-      }
-    }
-
-    return nextSteps;
+    return new ArrayList<>( Arrays.asList( getGraph().getNextSteps( stepMeta ) ) );
   }
 
   /**
@@ -1789,10 +1776,12 @@ public class TransMeta extends AbstractMeta
       return row;
     }
 
+    // The cached fields are shared: hand out copies so that callers can't change them
+    //
     String fromToCacheEntry = stepMeta.getName() + ( targetStep != null ? ( "-" + targetStep.getName() ) : "" );
     RowMetaInterface rowMeta = stepsFieldsCache.get( fromToCacheEntry );
     if ( rowMeta != null ) {
-      return rowMeta;
+      return rowMeta.clone();
     }
 
     // See if the step is sending ERROR rows to the specified target step.
@@ -1801,7 +1790,7 @@ public class TransMeta extends AbstractMeta
       // The error rows are the same as the input rows for
       // the step but with the selected error fields added
       //
-      row = getPrevStepFields( stepMeta );
+      row = getPrevStepFields( stepMeta, null, null );
 
       // Add to this the error fields...
       StepErrorMeta stepErrorMeta = stepMeta.getStepErrorMeta();
@@ -1811,7 +1800,7 @@ public class TransMeta extends AbstractMeta
       //
       stepsFieldsCache.put( fromToCacheEntry, row );
 
-      return row;
+      return row.clone();
     }
 
     // Resume the regular program...
@@ -1875,7 +1864,7 @@ public class TransMeta extends AbstractMeta
     //
     stepsFieldsCache.put( fromToCacheEntry, rowMeta );
 
-    return rowMeta;
+    return rowMeta.clone();
   }
 
   /**
@@ -1921,10 +1910,23 @@ public class TransMeta extends AbstractMeta
     return getPrevStepFields( stepMeta, null, monitor );
   }
 
+  /**
+   * Find the fields that are entering a certain step. The fields of the steps are cached, call {@link #clearCaches()}
+   * after changing the settings of a step.
+   *
+   * @param stepMeta
+   *          The step queried
+   * @param stepName
+   *          The name of the previous step to take the fields from, null for all the previous steps
+   * @param monitor
+   *          The progress monitor for progress dialog. (null if not used!)
+   * @return A row containing the fields (w/ origin) entering the step
+   * @throws KettleStepException
+   *           the kettle step exception
+   */
   public RowMetaInterface getPrevStepFields(
     StepMeta stepMeta, final String stepName, ProgressMonitorListener  monitor )
     throws KettleStepException {
-    clearStepFieldsCachce();
     RowMetaInterface row = new RowMeta();
 
     if ( stepMeta == null ) {
@@ -2407,6 +2409,44 @@ public class TransMeta extends AbstractMeta
   public String getXML( boolean includeSteps, boolean includeDatabase, boolean includeSlaves, boolean includeClusters,
     boolean includePartitions, boolean includeNamedParameters, boolean includeLog, boolean includeDependencies,
     boolean includeNotePads, boolean includeAttributeGroups ) throws KettleException {
+    StringBuilder retval = new StringBuilder( 800 );
+    try {
+      appendXML( retval, includeSteps, includeDatabase, includeSlaves, includeClusters, includePartitions,
+        includeNamedParameters, includeLog, includeDependencies, includeNotePads, includeAttributeGroups );
+    } catch ( IOException e ) {
+      // Not thrown by a StringBuilder
+      throw new KettleException( e );
+    }
+    return XMLFormatter.format( retval.toString() );
+  }
+
+  /**
+   * Writes the XML representation of this transformation, including the XML header, to the given stream. The result
+   * is the same as the one of {@link #getXML()} but the document isn't kept in memory as a whole. When it fails part of
+   * the document can have been written already.
+   *
+   * @param outputStream
+   *          the stream to write to, it's not closed
+   * @throws KettleException
+   *           if any errors occur during generation or writing of the XML
+   */
+  @Override
+  public void writeXML( OutputStream outputStream ) throws KettleException {
+    try {
+      Writer writer = new BufferedWriter( new OutputStreamWriter( outputStream, Const.XML_ENCODING ) );
+      writer.write( XMLHandler.getXMLHeader() );
+      XMLFormatter.format(
+        xml -> appendXML( xml, true, true, true, true, true, true, true, true, true, true ), writer );
+      writer.flush();
+    } catch ( IOException e ) {
+      throw new KettleException( e );
+    }
+  }
+
+  private void appendXML( Appendable retval, boolean includeSteps, boolean includeDatabase, boolean includeSlaves,
+    boolean includeClusters, boolean includePartitions, boolean includeNamedParameters, boolean includeLog,
+    boolean includeDependencies, boolean includeNotePads, boolean includeAttributeGroups )
+    throws KettleException, IOException {
 
     //Clear the embedded named clusters.  We will be repopulating from steps that used named clusters
     getNamedClusterEmbedManager().clear();
@@ -2416,8 +2456,6 @@ public class TransMeta extends AbstractMeta
       props = Props.getInstance();
     }
 
-    StringBuilder retval = new StringBuilder( 800 );
-
     retval.append( XMLHandler.openTag( XML_TAG ) ).append( Const.CR );
 
     retval.append( "  " ).append( XMLHandler.openTag( XML_TAG_INFO ) ).append( Const.CR );
@@ -2615,8 +2653,6 @@ public class TransMeta extends AbstractMeta
       retval.append( AttributesUtil.getAttributesXml( attributesMap ) );
     }
     retval.append( XMLHandler.closeTag( XML_TAG ) ).append( Const.CR );
-
-    return XMLFormatter.format( retval.toString() );
   }
 
   /**
@@ -3052,21 +3088,25 @@ public class TransMeta extends AbstractMeta
 
         // Read the notes...
         Node notepadsnode = XMLHandler.getSubNode( transnode, XML_TAG_NOTEPADS );
-        int nrnotes = XMLHandler.countNodes( notepadsnode, NotePadMeta.XML_TAG );
-        for ( int i = 0; i < nrnotes; i++ ) {
-          Node notepadnode = XMLHandler.getSubNodeByNr( notepadsnode, NotePadMeta.XML_TAG, i );
+        for ( Node notepadnode : XMLHandler.getNodes( notepadsnode, NotePadMeta.XML_TAG ) ) {
           NotePadMeta ni = new NotePadMeta( notepadnode );
           notes.add( ni );
         }
 
         // Handle Steps
-        int s = XMLHandler.countNodes( transnode, StepMeta.XML_TAG );
+        // The nodes are fetched in one go and the steps are looked up by name, for transformations with many steps.
+        //
+        List<Node> stepnodes = XMLHandler.getNodes( transnode, StepMeta.XML_TAG );
+        Map<String, StepMeta> stepsByName = new TreeMap<>( String.CASE_INSENSITIVE_ORDER );
+        for ( StepMeta stepMeta : steps ) {
+          stepsByName.putIfAbsent( stepMeta.getName(), stepMeta );
+        }
 
         if ( log.isDebug() ) {
-          log.logDebug( BaseMessages.getString( PKG, "TransMeta.Log.ReadingSteps" ) + s + " steps..." );
+          log.logDebug( BaseMessages.getString( PKG, "TransMeta.Log.ReadingSteps" ) + stepnodes.size() + " steps..." );
         }
-        for ( int i = 0; i < s; i++ ) {
-          Node stepnode = XMLHandler.getSubNodeByNr( transnode, StepMeta.XML_TAG, i );
+        for ( int i = 0; i < stepnodes.size(); i++ ) {
+          Node stepnode = stepnodes.get( i );
 
           if ( log.isDebug() ) {
             log.logDebug( BaseMessages.getString( PKG, "TransMeta.Log.LookingAtStep" ) + i );
@@ -3082,7 +3122,7 @@ public class TransMeta extends AbstractMeta
           // If so, then we will keep the shared version, not this one.
           // The stored XML is only for backup purposes.
           //
-          StepMeta check = findStep( stepMeta.getName() );
+          StepMeta check = stepMeta.getName() == null ? null : stepsByName.get( stepMeta.getName() );
           if ( check != null ) {
             if ( !check.isShared() ) {
               // Don't overwrite shared objects
@@ -3094,15 +3134,16 @@ public class TransMeta extends AbstractMeta
             }
           } else {
             addStep( stepMeta ); // simply add it.
+            if ( stepMeta.getName() != null ) {
+              stepsByName.put( stepMeta.getName(), stepMeta );
+            }
           }
         }
 
         // Read the error handling code of the steps...
         //
         Node errorHandlingNode = XMLHandler.getSubNode( transnode, XML_TAG_STEP_ERROR_HANDLING );
-        int nrErrorHandlers = XMLHandler.countNodes( errorHandlingNode, StepErrorMeta.XML_ERROR_TAG );
-        for ( int i = 0; i < nrErrorHandlers; i++ ) {
-          Node stepErrorMetaNode = XMLHandler.getSubNodeByNr( errorHandlingNode, StepErrorMeta.XML_ERROR_TAG, i );
+        for ( Node stepErrorMetaNode : XMLHandler.getNodes( errorHandlingNode, StepErrorMeta.XML_ERROR_TAG ) ) {
           StepErrorMeta stepErrorMeta = new StepErrorMeta( this, stepErrorMetaNode, steps );
           if ( stepErrorMeta.getSourceStep() != null ) {
             stepErrorMeta.getSourceStep().setStepErrorMeta( stepErrorMeta ); // a bit of a trick, I know.
@@ -3122,19 +3163,20 @@ public class TransMeta extends AbstractMeta
         // Handle Hops
         //
         Node ordernode = XMLHandler.getSubNode( transnode, XML_TAG_ORDER );
-        n = XMLHandler.countNodes( ordernode, TransHopMeta.XML_HOP_TAG );
+        List<Node> hopnodes = XMLHandler.getNodes( ordernode, TransHopMeta.XML_HOP_TAG );
+        Set<List<String>> errorHops = getErrorHops( errorHandlingNode );
 
         if ( log.isDebug() ) {
-          log.logDebug( BaseMessages.getString( PKG, "TransMeta.Log.WeHaveHops" ) + n + " hops..." );
+          log.logDebug( BaseMessages.getString( PKG, "TransMeta.Log.WeHaveHops" ) + hopnodes.size() + " hops..." );
         }
-        for ( int i = 0; i < n; i++ ) {
+        for ( int i = 0; i < hopnodes.size(); i++ ) {
           if ( log.isDebug() ) {
             log.logDebug( BaseMessages.getString( PKG, "TransMeta.Log.LookingAtHop" ) + i );
           }
-          Node hopnode = XMLHandler.getSubNodeByNr( ordernode, TransHopMeta.XML_HOP_TAG, i );
+          Node hopnode = hopnodes.get( i );
 
-          TransHopMeta hopinf = new TransHopMeta( hopnode, steps );
-          hopinf.setErrorHop( isErrorNode( errorHandlingNode, hopnode ) );
+          TransHopMeta hopinf = new TransHopMeta( hopnode, stepsByName );
+          hopinf.setErrorHop( isErrorNode( errorHops, hopnode ) );
           addTransHop( hopinf );
         }
 
@@ -3514,32 +3556,19 @@ public class TransMeta extends AbstractMeta
    * @return A List of steps
    */
   public List<StepMeta> getTransHopSteps( boolean all ) {
-    List<StepMeta> st = new ArrayList<>();
-    int idx;
-
-    for ( int x = 0; x < nrTransHops(); x++ ) {
-      TransHopMeta hi = getTransHop( x );
-      if ( hi.isEnabled() || all ) {
-        idx = st.indexOf( hi.getFromStep() ); // FROM
-        if ( idx < 0 ) {
-          st.add( hi.getFromStep() );
-        }
-
-        idx = st.indexOf( hi.getToStep() ); // TO
-        if ( idx < 0 ) {
-          st.add( hi.getToStep() );
-        }
-      }
-    }
+    TransMetaGraph transMetaGraph = getGraph();
+    List<StepMeta> st = transMetaGraph.getHopSteps( all );
+    Set<StepMeta> added = new HashSet<>( st );
 
     // Also, add the steps that need to be painted, but are not part of a hop
     for ( int x = 0; x < nrSteps(); x++ ) {
       StepMeta stepMeta = getStep( x );
-      if ( stepMeta.isDrawn() && !isStepUsedInTransHops( stepMeta ) ) {
+      if ( stepMeta.isDrawn() && !transMetaGraph.isUsedInHops( stepMeta ) ) {
         st.add( stepMeta );
+        added.add( stepMeta );
       }
       if ( !stepMeta.getRemoteInputSteps().isEmpty() || !stepMeta.getRemoteOutputSteps().isEmpty() ) {
-        if ( !st.contains( stepMeta ) ) {
+        if ( added.add( stepMeta ) ) {
           st.add( stepMeta );
         }
       }
@@ -3556,9 +3585,7 @@ public class TransMeta extends AbstractMeta
    * @return true if a step is used in a hop (active or not), false otherwise
    */
   public boolean isStepUsedInTransHops( StepMeta stepMeta ) {
-    TransHopMeta fr = findTransHopFrom( stepMeta );
-    TransHopMeta to = findTransHopTo( stepMeta );
-    return fr != null || to != null;
+    return getGraph().isUsedInHops( stepMeta );
   }
 
   /**
@@ -3703,20 +3730,18 @@ public class TransMeta extends AbstractMeta
 
   }
 
-  private boolean isErrorNode( Node errorHandingNode, Node checkNode ) {
+  /**
+   * @return the source and target step names of the error handling hops
+   */
+  private Set<List<String>> getErrorHops( Node errorHandingNode ) {
+    Set<List<String>> errorHops = new HashSet<>();
     if ( errorHandingNode != null ) {
       NodeList errors = errorHandingNode.getChildNodes();
 
-      Node nodeHopFrom = XMLHandler.getSubNode( checkNode, TransHopMeta.XML_FROM_TAG );
-      Node nodeHopTo = XMLHandler.getSubNode( checkNode, TransHopMeta.XML_TO_TAG );
-
-      int i = 0;
-      while ( i < errors.getLength() ) {
-
+      for ( int i = 0; i < errors.getLength(); i++ ) {
         Node errorNode = errors.item( i );
 
         if ( !StepErrorMeta.XML_ERROR_TAG.equals( errorNode.getNodeName() ) ) {
-          i++;
           continue;
         }
 
@@ -3725,15 +3750,21 @@ public class TransMeta extends AbstractMeta
 
         String sourceContent = errorSourceNode.getTextContent().trim();
         String tagetContent = errorTagetNode.getTextContent().trim();
-
-        if ( sourceContent.equals( nodeHopFrom.getTextContent().trim() )
-            && tagetContent.equals( nodeHopTo.getTextContent().trim() ) ) {
-          return true;
-        }
-        i++;
+        errorHops.add( Arrays.asList( sourceContent, tagetContent ) );
       }
     }
-    return false;
+    return errorHops;
+  }
+
+  private boolean isErrorNode( Set<List<String>> errorHops, Node checkNode ) {
+    if ( errorHops.isEmpty() ) {
+      return false;
+    }
+    Node nodeHopFrom = XMLHandler.getSubNode( checkNode, TransHopMeta.XML_FROM_TAG );
+    Node nodeHopTo = XMLHandler.getSubNode( checkNode, TransHopMeta.XML_TO_TAG );
+
+    return errorHops.contains(
+      Arrays.asList( nodeHopFrom.getTextContent().trim(), nodeHopTo.getTextContent().trim() ) );
   }
 
   /**
@@ -3768,6 +3799,7 @@ public class TransMeta extends AbstractMeta
    */
 
   public boolean hasLoop( StepMeta stepMeta, StepMeta lookup ) {
+    getGraph();
     return hasLoop( stepMeta, lookup, new HashSet<StepMeta>() );
   }
 
@@ -4041,6 +4073,7 @@ public class TransMeta extends AbstractMeta
    * @return true if we can find the step in an earlier location in the transformation.
    */
   public boolean findPrevious( StepMeta startStep, StepMeta stepToFind ) {
+    getGraph();
     String key = startStep.getName() + " - " + stepToFind.getName();
     Boolean result = loopCache.get( key );
     if ( result != null ) {
@@ -4512,6 +4545,10 @@ public class TransMeta extends AbstractMeta
             steps.length + 2 );
       }
 
+      // Checking the steps doesn't change them: the step fields are derived once for all of them
+      //
+      clearStepFieldsCachce();
+
       for ( int i = 0; i < steps.length && !stop_checking; i++ ) {
         if ( monitor != null ) {
           monitor.subTask( BaseMessages.getString( PKG, "TransMeta.Monitor.VerifyingStepTask.Title", stepnames[i] ) );
@@ -4543,7 +4580,7 @@ public class TransMeta extends AbstractMeta
         // The previous fields from non-informative steps:
         RowMetaInterface prev = null;
         try {
-          prev = getPrevStepFields( stepMeta );
+          prev = getPrevStepFields( stepMeta, null, null );
         } catch ( KettleStepException kse ) {
           CheckResult
               cr =
@@ -6046,6 +6083,7 @@ public class TransMeta extends AbstractMeta
     clearStepFieldsCachce();
     clearLoopCache();
     clearPreviousStepCache();
+    graph = null;
   }
 
   /**
@@ -6067,6 +6105,33 @@ public class TransMeta extends AbstractMeta
     previousStepCache.clear();
   }
 
+  /**
+   * Called by the hops of this transformation when they are changed in place: the index of the steps and hops is
+   * rebuilt the next time it is used.
+   */
+  void hopChanged() {
+    hopModificationCount.incrementAndGet();
+  }
+
+  /**
+   * Gets the index of the steps and hops, building it if the steps or hops changed since it was built. The loop and
+   * previous step caches are cleared along with it, they are derived from the hops as well. Call this before using
+   * them.
+   *
+   * @return the index of the steps and hops
+   */
+  private TransMetaGraph getGraph() {
+    TransMetaGraph transMetaGraph = graph;
+    int modificationCount = hopModificationCount.get();
+    if ( transMetaGraph == null || !transMetaGraph.isBuiltFrom( steps, hops, modificationCount ) ) {
+      clearLoopCache();
+      clearPreviousStepCache();
+      transMetaGraph = new TransMetaGraph( steps, hops, modificationCount );
+      graph = transMetaGraph;
+    }
+    return transMetaGraph;
+  }
+
   /**
    * Gets the repository element type.
    *
@@ -0,0 +1,186 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2021 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.pentaho.di.trans.step.StepMeta;
+
+/**
+ * An index of the steps and hops of a transformation: the steps by name and, for every step, the steps before and after
+ * it over the enabled hops. Without it every lookup scans all the steps or hops, which makes preparing or editing a
+ * transformation with thousands of steps quadratic.
+ * <p>
+ * Steps are matched on their name, ignoring case, like {@link StepMeta#equals(Object)} does. The index describes the
+ * steps and hops at the time it was built, {@link TransMeta} builds a new one after {@link TransMeta#clearCaches()},
+ * when steps or hops were added or removed or when one of its hops was changed in place. Steps renamed since are still
+ * found under the name they had.
+ */
+final class TransMetaGraph {
+  private static final StepMeta[] NO_STEPS = new StepMeta[0];
+
+  private final List<StepMeta> steps;
+  private final int nrSteps;
+  private final List<TransHopMeta> hops;
+  private final int nrHops;
+  private final int hopModificationCount;
+
+  private final Map<StepMeta, String> keys = new IdentityHashMap<>();
+  private final Map<String, StepMeta> stepsByName = new HashMap<>();
+  private final Map<String, StepMeta[]> nextSteps = new HashMap<>();
+  private final Map<String, StepMeta[]> previousSteps = new HashMap<>();
+  private final Set<String> hopStepNames = new HashSet<>();
+  private final List<StepMeta> enabledHopSteps = new ArrayList<>();
+  private final List<StepMeta> allHopSteps = new ArrayList<>();
+
+  /**
+   * @param hopModificationCount the number of in place hop changes of the transformation, read before the hops: a hop
+   *                             changed while building makes the index outdated right away
+   */
+  TransMetaGraph( List<StepMeta> steps, List<TransHopMeta> hops, int hopModificationCount ) {
+    this.hopModificationCount = hopModificationCount;
+    this.steps = steps;
+    this.nrSteps = steps.size();
+    this.hops = hops;
+    this.nrHops = hops.size();
+
+    for ( StepMeta stepMeta : steps ) {
+      String key = getKey( stepMeta );
+      if ( key != null ) {
+        keys.put( stepMeta, key );
+        if ( !stepsByName.containsKey( key ) ) {
+          stepsByName.put( key, stepMeta );
+        }
+      }
+    }
+
+    Map<String, List<StepMeta>> next = new HashMap<>();
+    Map<String, List<StepMeta>> previous = new HashMap<>();
+    Set<String> enabledNames = new HashSet<>();
+    Set<String> allNames = new HashSet<>();
+    for ( TransHopMeta hop : hops ) {
+      StepMeta from = hop.getFromStep();
+      StepMeta to = hop.getToStep();
+      String fromKey = getKey( from );
+      String toKey = getKey( to );
+      if ( fromKey == null || toKey == null ) {
+        continue;
+      }
+      keys.put( from, fromKey );
+      keys.put( to, toKey );
+      hopStepNames.add( fromKey );
+      hopStepNames.add( toKey );
+      addHopStep( allHopSteps, allNames, from, fromKey );
+      addHopStep( allHopSteps, allNames, to, toKey );
+      if ( hop.isEnabled() ) {
+        addHopStep( enabledHopSteps, enabledNames, from, fromKey );
+        addHopStep( enabledHopSteps, enabledNames, to, toKey );
+        next.computeIfAbsent( fromKey, key -> new ArrayList<>() ).add( to );
+        previous.computeIfAbsent( toKey, key -> new ArrayList<>() ).add( from );
+      }
+    }
+    for ( Map.Entry<String, List<StepMeta>> entry : next.entrySet() ) {
+      nextSteps.put( entry.getKey(), entry.getValue().toArray( NO_STEPS ) );
+    }
+    for ( Map.Entry<String, List<StepMeta>> entry : previous.entrySet() ) {
+      previousSteps.put( entry.getKey(), entry.getValue().toArray( NO_STEPS ) );
+    }
+  }
+
+  /**
+   * @return true if this index was built from the given lists of steps and hops and no steps or hops were added,
+   *         removed or changed since
+   */
+  boolean isBuiltFrom( List<StepMeta> steps, List<TransHopMeta> hops, int hopModificationCount ) {
+    return this.steps == steps && this.hops == hops && nrSteps == steps.size() && nrHops == hops.size()
+      && this.hopModificationCount == hopModificationCount;
+  }
+
+  /**
+   * @return the first step with the given name, null if there is none. The caller verifies the name, a step can be
+   *         renamed after the index was built.
+   */
+  StepMeta findStep( String name ) {
+    return stepsByName.get( name.toLowerCase( Locale.ROOT ) );
+  }
+
+  /**
+   * @return the steps the enabled hops from the given step lead to, in the order of the hops
+   */
+  StepMeta[] getNextSteps( StepMeta stepMeta ) {
+    StepMeta[] result = nextSteps.get( lookupKey( stepMeta ) );
+    return result == null ? NO_STEPS : result.clone();
+  }
+
+  /**
+   * @return the steps with an enabled hop to the given step, in the order of the hops
+   */
+  StepMeta[] getPreviousSteps( StepMeta stepMeta ) {
+    StepMeta[] result = previousSteps.get( lookupKey( stepMeta ) );
+    return result == null ? NO_STEPS : result.clone();
+  }
+
+  /**
+   * @return the steps used in the hops, or in the enabled hops only, in the order they are first used
+   */
+  List<StepMeta> getHopSteps( boolean all ) {
+    return new ArrayList<>( all ? allHopSteps : enabledHopSteps );
+  }
+
+  /**
+   * @return true if the given step is used in a hop, enabled or not
+   */
+  boolean isUsedInHops( StepMeta stepMeta ) {
+    String key = lookupKey( stepMeta );
+    return key != null && hopStepNames.contains( key );
+  }
+
+  private static void addHopStep( List<StepMeta> hopSteps, Set<String> names, StepMeta stepMeta, String key ) {
+    if ( names.add( key ) ) {
+      hopSteps.add( stepMeta );
+    }
+  }
+
+  /**
+   * @return the name the step had when the index was built, or its current name for a step the index doesn't know
+   */
+  private String lookupKey( StepMeta stepMeta ) {
+    String key = stepMeta == null ? null : keys.get( stepMeta );
+    return key != null ? key : getKey( stepMeta );
+  }
+
+  private static String getKey( StepMeta stepMeta ) {
+    if ( stepMeta == null || stepMeta.getName() == null ) {
+      return null;
+    }
+    return stepMeta.getName().toLowerCase( Locale.ROOT );
+  }
+}
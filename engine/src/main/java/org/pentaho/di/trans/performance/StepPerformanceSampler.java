@@ -0,0 +1,71 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2021 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.performance;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schedules the step performance sampling of all running transformations on a single shared daemon thread, rather
+ * than starting a timer thread for every transformation. Taking a sample only reads a few counters of every step so
+ * one thread is plenty.
+ */
+public class StepPerformanceSampler {
+  public static final String SIMPLE_NAME = StepPerformanceSampler.class.getSimpleName();
+  private static final ScheduledThreadPoolExecutor executor = init();
+
+  private static ScheduledThreadPoolExecutor init() {
+    ScheduledThreadPoolExecutor executorService = new ScheduledThreadPoolExecutor( 1, new ThreadFactory() {
+      @Override public Thread newThread( Runnable r ) {
+        Thread thread = Executors.defaultThreadFactory().newThread( r );
+        thread.setDaemon( true );
+        thread.setName( SIMPLE_NAME + " thread" );
+        return thread;
+      }
+    } );
+    // Don't keep the samplers of finished transformations in the queue
+    //
+    executorService.setRemoveOnCancelPolicy( true );
+    return executorService;
+  }
+
+  /**
+   * Runs the sampler periodically until the returned future is cancelled. The sampler should not throw exceptions as
+   * that would stop any further sampling.
+   *
+   * @param sampler
+   *          the task taking the snapshots
+   * @param initialDelay
+   *          the delay in ms before the first sample is taken
+   * @param period
+   *          the delay in ms between the end of a sample and the start of the next one
+   * @return the future to cancel once the transformation is finished
+   */
+  public static ScheduledFuture<?> schedule( Runnable sampler, long initialDelay, long period ) {
+    return executor.scheduleWithFixedDelay( sampler, initialDelay, period, TimeUnit.MILLISECONDS );
+  }
+}
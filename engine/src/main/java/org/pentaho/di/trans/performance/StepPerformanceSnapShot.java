@@ -24,7 +24,10 @@ package org.pentaho.di.trans.performance;
 
 import java.util.Date;
 
-public class StepPerformanceSnapShot {
+import org.pentaho.di.core.xml.XMLHandler;
+
+public class StepPerformanceSnapShot implements Cloneable {
+  public static final String XML_TAG = "step_performance_snapshot";
 
   private long batchId;
   private int seqNr;
@@ -52,6 +55,14 @@ public class StepPerformanceSnapShot {
   private long inputBufferSize;
   private long outputBufferSize;
 
+  private int sampleCount = 1;
+  private double minRowsPerSecond;
+  private double maxRowsPerSecond;
+  private long minInputBufferSize;
+  private long maxInputBufferSize;
+  private long minOutputBufferSize;
+  private long maxOutputBufferSize;
+
   /**
    * @param date
    * @param stepName
@@ -105,6 +116,117 @@ public class StepPerformanceSnapShot {
       linesRejected = totalLinesRejected - previous.totalLinesRejected;
       errors = totalErrors - previous.totalErrors;
     }
+
+    sampleCount = 1;
+    minRowsPerSecond = maxRowsPerSecond = getRowsPerSecond();
+    minInputBufferSize = maxInputBufferSize = inputBufferSize;
+    minOutputBufferSize = maxOutputBufferSize = outputBufferSize;
+  }
+
+  @Override
+  public StepPerformanceSnapShot clone() {
+    try {
+      return (StepPerformanceSnapShot) super.clone();
+    } catch ( CloneNotSupportedException e ) {
+      return null;
+    }
+  }
+
+  /**
+   * Folds a later snapshot of the same step copy into this one. The result covers both intervals: it takes the totals,
+   * date and sequence number of the later snapshot, adds up the interval counters, averages the buffer sizes and keeps
+   * track of the minimum and maximum speed and buffer sizes of the samples that were merged.
+   *
+   * @param next
+   *          the snapshot that directly follows this one
+   */
+  public void merge( StepPerformanceSnapShot next ) {
+    if ( timeDifference <= 0 ) {
+      // The very first snapshot of a step doesn't have a speed yet
+      //
+      minRowsPerSecond = next.minRowsPerSecond;
+      maxRowsPerSecond = next.maxRowsPerSecond;
+    } else if ( next.timeDifference > 0 ) {
+      minRowsPerSecond = Math.min( minRowsPerSecond, next.minRowsPerSecond );
+      maxRowsPerSecond = Math.max( maxRowsPerSecond, next.maxRowsPerSecond );
+    }
+
+    int count = sampleCount + next.sampleCount;
+    inputBufferSize = ( inputBufferSize * sampleCount + next.inputBufferSize * next.sampleCount ) / count;
+    outputBufferSize = ( outputBufferSize * sampleCount + next.outputBufferSize * next.sampleCount ) / count;
+    minInputBufferSize = Math.min( minInputBufferSize, next.minInputBufferSize );
+    maxInputBufferSize = Math.max( maxInputBufferSize, next.maxInputBufferSize );
+    minOutputBufferSize = Math.min( minOutputBufferSize, next.minOutputBufferSize );
+    maxOutputBufferSize = Math.max( maxOutputBufferSize, next.maxOutputBufferSize );
+    sampleCount = count;
+
+    seqNr = next.seqNr;
+    date = next.date;
+    totalLinesRead = next.totalLinesRead;
+    totalLinesWritten = next.totalLinesWritten;
+    totalLinesInput = next.totalLinesInput;
+    totalLinesOutput = next.totalLinesOutput;
+    totalLinesUpdated = next.totalLinesUpdated;
+    totalLinesRejected = next.totalLinesRejected;
+    totalErrors = next.totalErrors;
+
+    timeDifference += next.timeDifference;
+    linesRead += next.linesRead;
+    linesWritten += next.linesWritten;
+    linesInput += next.linesInput;
+    linesOutput += next.linesOutput;
+    linesUpdated += next.linesUpdated;
+    linesRejected += next.linesRejected;
+    errors += next.errors;
+  }
+
+  public String getXML() {
+    StringBuilder xml = new StringBuilder();
+    xml.append( "    " ).append( XMLHandler.openTag( XML_TAG ) );
+    xml.append( XMLHandler.addTagValue( "seq_nr", seqNr, false ) );
+    xml.append( XMLHandler.addTagValue( "date", date, false ) );
+    xml.append( XMLHandler.addTagValue( "step_name", stepName, false ) );
+    xml.append( XMLHandler.addTagValue( "step_copy", stepCopy, false ) );
+    xml.append( XMLHandler.addTagValue( "sample_count", sampleCount, false ) );
+    xml.append( XMLHandler.addTagValue( "time_difference", timeDifference, false ) );
+    xml.append( XMLHandler.addTagValue( "lines_read", linesRead, false ) );
+    xml.append( XMLHandler.addTagValue( "lines_written", linesWritten, false ) );
+    xml.append( XMLHandler.addTagValue( "lines_input", linesInput, false ) );
+    xml.append( XMLHandler.addTagValue( "lines_output", linesOutput, false ) );
+    xml.append( XMLHandler.addTagValue( "lines_updated", linesUpdated, false ) );
+    xml.append( XMLHandler.addTagValue( "lines_rejected", linesRejected, false ) );
+    xml.append( XMLHandler.addTagValue( "errors", errors, false ) );
+    xml.append( XMLHandler.addTagValue( "rows_per_second", getRowsPerSecond(), false ) );
+    xml.append( XMLHandler.addTagValue( "min_rows_per_second", minRowsPerSecond, false ) );
+    xml.append( XMLHandler.addTagValue( "max_rows_per_second", maxRowsPerSecond, false ) );
+    xml.append( XMLHandler.addTagValue( "input_buffer_size", inputBufferSize, false ) );
+    xml.append( XMLHandler.addTagValue( "min_input_buffer_size", minInputBufferSize, false ) );
+    xml.append( XMLHandler.addTagValue( "max_input_buffer_size", maxInputBufferSize, false ) );
+    xml.append( XMLHandler.addTagValue( "output_buffer_size", outputBufferSize, false ) );
+    xml.append( XMLHandler.addTagValue( "min_output_buffer_size", minOutputBufferSize, false ) );
+    xml.append( XMLHandler.addTagValue( "max_output_buffer_size", maxOutputBufferSize, false ) );
+    xml.append( XMLHandler.closeTag( XML_TAG ) );
+    return xml.toString();
+  }
+
+  /**
+   * @return the number of rows handled in this interval: the largest of the rows going in and the rows going out, the
+   *         same way the step status calculates its speed.
+   */
+  public long getRowsProcessed() {
+    long in = Math.max( linesInput, linesRead );
+    long out = Math.max( linesOutput + linesUpdated, linesWritten + linesRejected );
+    return Math.max( in, out );
+  }
+
+  /**
+   * @return the average number of rows per second over this interval or 0 if the interval has no length
+   */
+  public double getRowsPerSecond() {
+    if ( timeDifference <= 0 ) {
+      return 0.0;
+    }
+    return getRowsProcessed() * 1000.0 / timeDifference;
   }
 
   /**
@@ -452,4 +574,53 @@ public class StepPerformanceSnapShot {
     this.transName = transName;
   }
 
+  /**
+   * @return the number of samples that were merged into this snapshot
+   */
+  public int getSampleCount() {
+    return sampleCount;
+  }
+
+  /**
+   * @return the lowest speed in rows per second of the samples merged into this snapshot
+   */
+  public double getMinRowsPerSecond() {
+    return minRowsPerSecond;
+  }
+
+  /**
+   * @return the highest speed in rows per second of the samples merged into this snapshot
+   */
+  public double getMaxRowsPerSecond() {
+    return maxRowsPerSecond;
+  }
+
+  /**
+   * @return the smallest input buffer size of the samples merged into this snapshot
+   */
+  public long getMinInputBufferSize() {
+    return minInputBufferSize;
+  }
+
+  /**
+   * @return the largest input buffer size of the samples merged into this snapshot
+   */
+  public long getMaxInputBufferSize() {
+    return maxInputBufferSize;
+  }
+
+  /**
+   * @return the smallest output buffer size of the samples merged into this snapshot
+   */
+  public long getMinOutputBufferSize() {
+    return minOutputBufferSize;
+  }
+
+  /**
+   * @return the largest output buffer size of the samples merged into this snapshot
+   */
+  public long getMaxOutputBufferSize() {
+    return maxOutputBufferSize;
+  }
+
 }
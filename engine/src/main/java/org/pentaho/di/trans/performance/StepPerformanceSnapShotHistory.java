@@ -0,0 +1,206 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2021 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.performance;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The performance snapshots of a single step copy, optionally bounded. Instead of dropping the oldest snapshots once
+ * the capacity is reached, pairs of neighbouring snapshots are merged so that the list keeps covering the complete
+ * run of the step at a coarser resolution. From then on every entry represents about twice as many samples.<br>
+ * <br>
+ * Snapshots that were handed out by {@link #takeUnwritten()} are only merged with each other, never with snapshots
+ * that were not handed out yet, so every sample is written to the performance log table exactly once. Merging creates
+ * a new snapshot, the ones handed out are not changed afterwards.<br>
+ * <br>
+ * The last entry of the list is the most recent (possibly partially filled) interval. All methods synchronize on the
+ * list itself, so iterating over it should be done while holding that lock.
+ */
+public class StepPerformanceSnapShotHistory extends AbstractList<StepPerformanceSnapShot> {
+
+  private static final int UNLIMITED_INITIAL_CAPACITY = 64;
+
+  private final boolean unlimited;
+  private StepPerformanceSnapShot[] snapShots;
+  private int count;
+
+  /** The number of snapshots at the start of the list that were handed out by takeUnwritten() */
+  private int written;
+
+  /** The snapshot the next samples are merged into until it covers <code>stride</code> samples */
+  private StepPerformanceSnapShot pending;
+
+  /** The number of samples each stored snapshot represents */
+  private int stride;
+
+  /**
+   * @param capacity
+   *          the maximum number of snapshots to keep (at least 3), 0 or less to keep all snapshots
+   */
+  public StepPerformanceSnapShotHistory( int capacity ) {
+    unlimited = capacity <= 0;
+    snapShots = new StepPerformanceSnapShot[ unlimited ? UNLIMITED_INITIAL_CAPACITY : Math.max( capacity, 3 ) ];
+    count = 0;
+    stride = 1;
+  }
+
+  /**
+   * Adds a new sample. The snapshot should already contain the difference with the last element of this list.
+   */
+  @Override
+  public synchronized boolean add( StepPerformanceSnapShot snapShot ) {
+    if ( pending == null ) {
+      pending = snapShot;
+    } else {
+      pending.merge( snapShot );
+    }
+    if ( pending.getSampleCount() >= stride ) {
+      storePending();
+    }
+    modCount++;
+    return true;
+  }
+
+  private void storePending() {
+    snapShots[ count++ ] = pending;
+    pending = null;
+
+    // Always leave room for the pending snapshot
+    //
+    if ( count == snapShots.length ) {
+      if ( unlimited ) {
+        snapShots = Arrays.copyOf( snapShots, count * 2 );
+      } else {
+        compact();
+      }
+    }
+  }
+
+  /**
+   * Halves the resolution: merges every pair of neighbouring snapshots and doubles the stride. The snapshots that were
+   * written and the ones that were not are merged separately.
+   */
+  private void compact() {
+    int newWritten = mergePairs( 0, written, 0 );
+    int newCount = mergePairs( written, count, newWritten );
+    for ( int i = newCount; i < count; i++ ) {
+      snapShots[ i ] = null;
+    }
+    written = newWritten;
+    count = newCount;
+    stride *= 2;
+  }
+
+  /**
+   * Merges the pairs of snapshots between from and to, storing the results from position dest on.
+   *
+   * @return the position after the last stored result
+   */
+  private int mergePairs( int from, int to, int dest ) {
+    for ( int i = from; i < to; i += 2 ) {
+      StepPerformanceSnapShot snapShot = snapShots[ i ];
+      if ( i + 1 < to ) {
+        snapShot = snapShot.clone();
+        snapShot.merge( snapShots[ i + 1 ] );
+      }
+      snapShots[ dest++ ] = snapShot;
+    }
+    return dest;
+  }
+
+  /**
+   * Hands out the snapshots that were added since the last call, including the interval that is still being filled,
+   * so that they can be written to the performance log table.
+   *
+   * @return the snapshots that were not handed out before, oldest first
+   */
+  public synchronized List<StepPerformanceSnapShot> takeUnwritten() {
+    if ( pending != null ) {
+      // The interval ends here, later samples go into a new one
+      //
+      storePending();
+    }
+    List<StepPerformanceSnapShot> unwritten = new ArrayList<>( count - written );
+    for ( int i = written; i < count; i++ ) {
+      unwritten.add( snapShots[ i ] );
+    }
+    written = count;
+    return unwritten;
+  }
+
+  @Override
+  public synchronized StepPerformanceSnapShot get( int index ) {
+    if ( index == count && pending != null ) {
+      return pending;
+    }
+    if ( index < 0 || index >= count ) {
+      throw new IndexOutOfBoundsException( "Index: " + index + ", Size: " + size() );
+    }
+    return snapShots[ index ];
+  }
+
+  /**
+   * @return the most recent snapshot or null if the list is empty
+   */
+  public synchronized StepPerformanceSnapShot getLast() {
+    if ( pending != null ) {
+      return pending;
+    }
+    return count == 0 ? null : snapShots[ count - 1 ];
+  }
+
+  @Override
+  public synchronized int size() {
+    return pending == null ? count : count + 1;
+  }
+
+  @Override
+  public synchronized void clear() {
+    for ( int i = 0; i < count; i++ ) {
+      snapShots[ i ] = null;
+    }
+    count = 0;
+    written = 0;
+    pending = null;
+    stride = 1;
+    modCount++;
+  }
+
+  /**
+   * @return the maximum number of snapshots kept, 0 if all snapshots are kept
+   */
+  public synchronized int getCapacity() {
+    return unlimited ? 0 : snapShots.length;
+  }
+
+  /**
+   * @return the number of samples each snapshot currently represents
+   */
+  public synchronized int getStride() {
+    return stride;
+  }
+}
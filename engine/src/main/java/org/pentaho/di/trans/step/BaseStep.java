@@ -62,6 +62,7 @@ import org.pentaho.di.core.logging.LogChannelInterface;
 import org.pentaho.di.core.logging.LogLevel;
 import org.pentaho.di.core.logging.LoggingObjectInterface;
 import org.pentaho.di.core.logging.LoggingObjectType;
+import org.pentaho.di.core.metrics.LatencyHistogram;
 import org.pentaho.di.core.row.RowDataUtil;
 import org.pentaho.di.core.row.RowMeta;
 import org.pentaho.di.core.row.RowMetaInterface;
@@ -231,6 +232,15 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
 
   private long errors;
 
+  /** The time spent per call to processRow(), recorded by the thread running the step */
+  private final LatencyHistogram processRowLatency = new LatencyHistogram();
+
+  /** The time spent blocked on empty input row sets */
+  private final LatencyHistogram inputWaitLatency = new LatencyHistogram();
+
+  /** The time spent blocked on full output row sets */
+  private final LatencyHistogram outputWaitLatency = new LatencyHistogram();
+
   private StepMeta[] nextSteps;
 
   private StepMeta[] prevSteps;
@@ -897,6 +907,21 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
     return errors;
   }
 
+  @Override
+  public LatencyHistogram getProcessRowLatency() {
+    return processRowLatency;
+  }
+
+  @Override
+  public LatencyHistogram getInputWaitLatency() {
+    return inputWaitLatency;
+  }
+
+  @Override
+  public LatencyHistogram getOutputWaitLatency() {
+    return outputWaitLatency;
+  }
+
   /*
    * (non-Javadoc)
    *
@@ -1597,10 +1622,20 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
       toBeSent = metaFromRs;
     }
 
-    while ( !rs.putRow( toBeSent, row ) ) {
-      if ( isStopped() && !safeStopped.get() ) {
-        return;
+    // Only start the clock on output waits when there is no room right away.
+    //
+    if ( rs.putRowWait( toBeSent, row, 0, TimeUnit.NANOSECONDS ) ) {
+      return;
+    }
+    long start = System.nanoTime();
+    try {
+      while ( !rs.putRow( toBeSent, row ) ) {
+        if ( isStopped() && !safeStopped.get() ) {
+          return;
+        }
       }
+    } finally {
+      outputWaitLatency.record( System.nanoTime() - start );
     }
   }
 
@@ -1652,11 +1687,16 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
     }
 
     // Don't distribute or anything, only go to this rowset!
+    // Only start the clock on output waits when there is no room right away.
     //
-    while ( !rowSet.putRow( rowMeta, row ) ) {
-      if ( isStopped() ) {
-        break;
+    if ( !rowSet.putRowWait( rowMeta, row, 0, TimeUnit.NANOSECONDS ) ) {
+      long start = System.nanoTime();
+      while ( !rowSet.putRow( rowMeta, row ) ) {
+        if ( isStopped() ) {
+          break;
+        }
       }
+      outputWaitLatency.record( System.nanoTime() - start );
     }
     incrementLinesWritten();
   }
@@ -1856,6 +1896,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
 
     RowSet inputRowSet = null;
     Object[] row = null;
+    long inputWaitStart = 0L;
 
     inputRowSetsLock.readLock().lock();
     try {
@@ -1911,6 +1952,17 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
       // rowset, then switch to another etc.
       // We can use timeouts to switch from one to another...
       //
+      if ( row == null && !isStopped() ) {
+        // Only start the clock on input waits when there is nothing to be had right away
+        //
+        row = inputRowSet.getRowImmediate();
+        if ( row != null ) {
+          incrementLinesRead();
+          blockPointer++;
+        } else {
+          inputWaitStart = System.nanoTime();
+        }
+      }
       while ( row == null && !isStopped() ) {
         // Get a row from the input in row set ...
         // Timeout immediately if nothing is there to read.
@@ -1956,6 +2008,10 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
           inputRowSet = currentInputStream();
         }
       }
+      if ( inputWaitStart != 0L ) {
+        inputWaitLatency.record( System.nanoTime() - inputWaitStart );
+        inputWaitStart = 0L;
+      }
 
       // This rowSet is perhaps no longer giving back rows?
       //
@@ -1974,6 +2030,9 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
         row = getRowFrom( inputRowSet );
       }
     } finally {
+      if ( inputWaitStart != 0L ) {
+        inputWaitLatency.record( System.nanoTime() - inputWaitStart );
+      }
       inputRowSetsLock.readLock().unlock();
     }
 
@@ -2253,17 +2312,23 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
     }
 
     // Grab a row... If nothing received after a timeout, try again.
+    // Only start the clock on input waits when there is nothing to be had right away.
     //
-    rowData = rowSet.getRow();
-    while ( rowData == null && !rowSet.isDone() && !stopped.get() ) {
+    rowData = rowSet.getRowImmediate();
+    if ( rowData == null ) {
+      long start = System.nanoTime();
       rowData = rowSet.getRow();
+      while ( rowData == null && !rowSet.isDone() && !stopped.get() ) {
+        rowData = rowSet.getRow();
 
-      // Verify deadlocks!
-      //
-      /*
-       * if (rowData==null) { if (getInputRowSets().size()>1 && getLinesRead()==deadLockCounter) {
-       * verifyInputDeadLock(); } deadLockCounter=getLinesRead(); }
-       */
+        // Verify deadlocks!
+        //
+        /*
+         * if (rowData==null) { if (getInputRowSets().size()>1 && getLinesRead()==deadLockCounter) {
+         * verifyInputDeadLock(); } deadLockCounter=getLinesRead(); }
+         */
+      }
+      inputWaitLatency.record( System.nanoTime() - start );
     }
 
     // Still nothing: no more rows to be had?
@@ -3796,6 +3861,11 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
     return variables.environmentSubstitute( aString );
   }
 
+  @Override
+  public long getVariablesChangeCount() {
+    return variables.getVariablesChangeCount();
+  }
+
   /*
    * (non-Javadoc)
    *
@@ -4291,6 +4361,37 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
   public void batchComplete() throws KettleException {
   }
 
+  /**
+   * Clears the state every step keeps between rows: the row counters, the errors, the stopped flags, the result files
+   * and the first row flag. Steps that support {@link StepInterface#resetForReuse()} call this before clearing the
+   * batch state kept in their step data.
+   */
+  protected void resetStepState() {
+    synchronized ( statusCountersLock ) {
+      linesRead = 0L;
+      linesWritten = 0L;
+      linesInput = 0L;
+      linesOutput = 0L;
+      linesUpdated = 0L;
+      linesSkipped = 0L;
+      linesRejected = 0L;
+    }
+    errors = 0L;
+    stopped.set( false );
+    safeStopped.set( false );
+    currentInputRowSetNr = 0;
+    currentOutputRowSetNr = 0;
+    first = true;
+
+    ReentrantReadWriteLock.WriteLock lock = resultFilesLock.writeLock();
+    lock.lock();
+    try {
+      resultFiles.clear();
+    } finally {
+      lock.unlock();
+    }
+  }
+
   /**
    * Gets the remote input steps.
    *
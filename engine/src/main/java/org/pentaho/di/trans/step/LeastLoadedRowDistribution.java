@@ -0,0 +1,109 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2021 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.pentaho.di.trans.step;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.pentaho.di.core.RowSet;
+import org.pentaho.di.core.exception.KettleStepException;
+import org.pentaho.di.core.gui.PrimitiveGCInterface;
+import org.pentaho.di.core.row.RowMetaInterface;
+
+/**
+ * Distributes the rows over the target row sets by always handing a row to the row set with the fewest rows waiting
+ * in it. When the copies of the next step spend a different amount of time on each row, the copies that keep up get
+ * more rows and a slow copy no longer holds back the others, as it does with round robin distribution.<br>
+ * <br>
+ * Ordering: the rows sent to a single row set keep the order in which this step produced them, just like with round
+ * robin. Which copy receives a row depends on how fast the copies are working at that moment though, so unlike round
+ * robin the distribution is not the same from one run to the next.<br>
+ * <br>
+ * A single instance is shared by all the copies of a step so this class keeps no state.
+ */
+@RowDistributionPlugin( code = LeastLoadedRowDistribution.CODE, name = "Least loaded",
+  description = "Send each row to the copy with the fewest rows waiting" )
+public class LeastLoadedRowDistribution implements RowDistributionInterface {
+  public static final String CODE = "LeastLoaded";
+
+  /** How long to wait for room in a full row set before looking for the least loaded one again. */
+  private static final long WAIT_MILLIS = 5;
+
+  @Override
+  public String getCode() {
+    return CODE;
+  }
+
+  @Override
+  public String getDescription() {
+    return "Least loaded";
+  }
+
+  @Override
+  public void distributeRow( RowMetaInterface rowMeta, Object[] row, StepInterface stepInterface )
+    throws KettleStepException {
+    List<RowSet> rowSets = stepInterface.getOutputRowSets();
+    int nrRowSets = rowSets.size();
+    if ( nrRowSets == 0 ) {
+      return;
+    }
+
+    // Start looking at another row set for every row so that copies which are equally busy take turns
+    //
+    int start = (int) ( stepInterface.getLinesWritten() % nrRowSets );
+    while ( true ) {
+      RowSet rowSet = findLeastLoaded( rowSets, start );
+      RowMetaInterface metaFromRowSet = rowSet.getRowMeta();
+      RowMetaInterface toBeSent = metaFromRowSet == null ? rowMeta.clone() : metaFromRowSet;
+      if ( rowSet.putRowWait( toBeSent, row, WAIT_MILLIS, TimeUnit.MILLISECONDS ) ) {
+        return;
+      }
+      if ( stepInterface.isStopped() && !stepInterface.isSafeStopped() ) {
+        return;
+      }
+    }
+  }
+
+  static RowSet findLeastLoaded( List<RowSet> rowSets, int start ) {
+    int nrRowSets = rowSets.size();
+    RowSet best = null;
+    int bestSize = Integer.MAX_VALUE;
+    for ( int i = 0; i < nrRowSets; i++ ) {
+      RowSet rowSet = rowSets.get( ( start + i ) % nrRowSets );
+      int size = rowSet.size();
+      if ( size < bestSize ) {
+        best = rowSet;
+        bestSize = size;
+        if ( size == 0 ) {
+          break;
+        }
+      }
+    }
+    return best;
+  }
+
+  @Override
+  public PrimitiveGCInterface.EImage getDistributionImage() {
+    return PrimitiveGCInterface.EImage.LOAD_BALANCE;
+  }
+}
@@ -30,6 +30,7 @@ import org.pentaho.di.core.logging.LogChannelInterface;
 import org.pentaho.di.core.logging.LoggingObjectInterface;
 import org.pentaho.di.core.logging.LoggingRegistry;
 import org.pentaho.di.core.logging.Metrics;
+import org.pentaho.di.core.metrics.LatencyHistogram;
 import org.pentaho.di.i18n.BaseMessages;
 
 public class RunThread implements Runnable {
@@ -58,11 +59,25 @@ public class RunThread implements Runnable {
         log.logDetailed( BaseMessages.getString( "System.Log.StartingToRun" ) );
       }
 
-      // Wait
-      while ( step.processRow( meta, data ) ) {
-        if ( step.isStopped() ) {
-          break;
+      LatencyHistogram latency = step.getProcessRowLatency();
+      if ( latency == null ) {
+        // Wait
+        while ( step.processRow( meta, data ) ) {
+          if ( step.isStopped() ) {
+            break;
+          }
         }
+      } else {
+        // Keep track of the time per row, one clock reading per call is enough
+        //
+        long start = System.nanoTime();
+        boolean more;
+        do {
+          more = step.processRow( meta, data );
+          long end = System.nanoTime();
+          latency.record( end - start );
+          start = end;
+        } while ( more && !step.isStopped() );
       }
     } catch ( Throwable t ) {
       try {
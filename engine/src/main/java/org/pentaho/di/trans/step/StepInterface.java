@@ -33,6 +33,7 @@ import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.exception.KettleStepException;
 import org.pentaho.di.core.logging.HasLogChannelInterface;
 import org.pentaho.di.core.logging.LogChannelInterface;
+import org.pentaho.di.core.metrics.LatencyHistogram;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.core.variables.VariableSpace;
 import org.pentaho.di.repository.Repository;
@@ -477,4 +478,41 @@ public interface StepInterface extends VariableSpace, HasLogChannelInterface {
     getOutputRowSets().add( rowSet );
   }
 
+  /**
+   * Puts the step back in the state it was in right after init() so that the same, initialized instance can process
+   * another independent batch of rows in a single threaded transformation. This is called between batches, when the
+   * row sets of the transformation are empty, and it must clear everything the previous batch left behind: row
+   * counters, errors, result files and any rows or totals kept in the step data.<br>
+   * Steps that can't guarantee this, for example because they resolve variables or open resources that depend on the
+   * batch in init(), keep the default and return false. The transformation is then never reused.
+   *
+   * @return true if the step was reset and can process another batch, false if it doesn't support being reused
+   */
+  default boolean resetForReuse() {
+    return false;
+  }
+
+  /**
+   * @return the histogram of the time spent per call to processRow() or null if the step doesn't keep track of it
+   */
+  default LatencyHistogram getProcessRowLatency() {
+    return null;
+  }
+
+  /**
+   * @return the histogram of the time spent waiting for rows to arrive on the input row sets or null if the step
+   * doesn't keep track of it
+   */
+  default LatencyHistogram getInputWaitLatency() {
+    return null;
+  }
+
+  /**
+   * @return the histogram of the time spent waiting for room on the output row sets or null if the step doesn't keep
+   * track of it
+   */
+  default LatencyHistogram getOutputWaitLatency() {
+    return null;
+  }
+
 }
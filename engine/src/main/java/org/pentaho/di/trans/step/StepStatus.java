@@ -34,6 +34,7 @@ import javax.xml.bind.annotation.XmlRootElement;
 import org.owasp.encoder.Encode;
 import org.pentaho.di.core.Const;
 import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.metrics.LatencyHistogram;
 import org.pentaho.di.core.row.RowMeta;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.core.xml.XMLHandler;
@@ -61,6 +62,9 @@ public class StepStatus {
   private boolean stopped;
   private boolean paused;
   private long accumlatedRuntime;
+  private boolean waitTimeTracked;
+  private long inputWaitTime;
+  private long outputWaitTime;
 
   private RowMetaInterface sampleRowMeta;
   private List<Object[]> sampleRows;
@@ -109,6 +113,57 @@ public class StepStatus {
       baseStep.isRunning() ? "   " + baseStep.rowsetInputSize() + "/" + baseStep.rowsetOutputSize() : "-";
     this.stopped = baseStep.isStopped();
     this.paused = baseStep.isPaused();
+
+    LatencyHistogram inputWait = baseStep.getInputWaitLatency();
+    LatencyHistogram outputWait = baseStep.getOutputWaitLatency();
+    if ( inputWait != null && outputWait != null ) {
+      this.waitTimeTracked = true;
+      this.inputWaitTime = inputWaitTime + inputWait.getSumNanos() / 1000000;
+      this.outputWaitTime = outputWaitTime + outputWait.getSumNanos() / 1000000;
+    }
+  }
+
+  /**
+   * @return the busy, input wait and output wait percentages of the step runtime, formatted as "busy% / in% / out%"
+   * or "-" if the step doesn't keep track of its wait times
+   */
+  public String getUtilization() {
+    if ( !waitTimeTracked || accumlatedRuntime <= 0 ) {
+      return "-";
+    }
+    return Math.round( getBusyPercentage() ) + "% / " + Math.round( getInputWaitPercentage() ) + "% / "
+      + Math.round( getOutputWaitPercentage() ) + "%";
+  }
+
+  /**
+   * @return the percentage of the step runtime not spent waiting on the input or output row sets, -1 if unknown
+   */
+  public double getBusyPercentage() {
+    if ( !waitTimeTracked || accumlatedRuntime <= 0 ) {
+      return -1;
+    }
+    return Math.max( 0, 100.0 - getInputWaitPercentage() - getOutputWaitPercentage() );
+  }
+
+  /**
+   * @return the percentage of the step runtime spent waiting for rows to arrive, -1 if unknown
+   */
+  public double getInputWaitPercentage() {
+    return getPercentageOfRuntime( inputWaitTime );
+  }
+
+  /**
+   * @return the percentage of the step runtime spent waiting for room in the output row sets, -1 if unknown
+   */
+  public double getOutputWaitPercentage() {
+    return getPercentageOfRuntime( outputWaitTime );
+  }
+
+  private double getPercentageOfRuntime( long time ) {
+    if ( !waitTimeTracked || accumlatedRuntime <= 0 ) {
+      return -1;
+    }
+    return Math.min( 100.0, 100.0 * time / accumlatedRuntime );
   }
 
   public String getHTMLTableRow( boolean urlInStepname ) {
@@ -118,7 +173,7 @@ public class StepStatus {
       + "<th>" + linesOutput + "</th> " + "<th>" + linesUpdated + "</th> " + "<th>" + linesRejected + "</th> "
       + "<th>" + errors + "</th> " + "<th>" + Encode.forHtml( statusDescription ) + "</th> " + "<th>"
       + seconds + "</th> " + "<th>" + Encode.forHtml( speed ) + "</th> " + "<th>"
-      + Encode.forHtml( priority ) + "</th> " + "</tr>";
+      + Encode.forHtml( priority ) + "</th> " + "<th>" + getUtilization() + "</th> " + "</tr>";
   }
 
   public String getXML() throws KettleException {
@@ -141,6 +196,11 @@ public class StepStatus {
       xml.append( XMLHandler.addTagValue( "priority", priority, false ) );
       xml.append( XMLHandler.addTagValue( "stopped", stopped, false ) );
       xml.append( XMLHandler.addTagValue( "paused", paused, false ) );
+      if ( waitTimeTracked ) {
+        xml.append( XMLHandler.addTagValue( "runtime", accumlatedRuntime, false ) );
+        xml.append( XMLHandler.addTagValue( "inputWaitTime", inputWaitTime, false ) );
+        xml.append( XMLHandler.addTagValue( "outputWaitTime", outputWaitTime, false ) );
+      }
 
       if ( sampleRowMeta != null ) {
         xml.append( XMLHandler.openTag( "samples" ) );
@@ -182,6 +242,14 @@ public class StepStatus {
     priority = XMLHandler.getTagValue( node, "priority" );
     stopped = "Y".equalsIgnoreCase( XMLHandler.getTagValue( node, "stopped" ) );
     paused = "Y".equalsIgnoreCase( XMLHandler.getTagValue( node, "paused" ) );
+    // Older servers don't report the wait times
+    String runtime = XMLHandler.getTagValue( node, "runtime" );
+    if ( runtime != null ) {
+      waitTimeTracked = true;
+      accumlatedRuntime = Long.parseLong( runtime );
+      inputWaitTime = Const.toLong( XMLHandler.getTagValue( node, "inputWaitTime" ), 0L );
+      outputWaitTime = Const.toLong( XMLHandler.getTagValue( node, "outputWaitTime" ), 0L );
+    }
 
     Node samplesNode = XMLHandler.getSubNode( node, "samples" );
     if ( samplesNode != null ) {
@@ -214,7 +282,7 @@ public class StepStatus {
         stepname, Integer.toString( copy ), Long.toString( linesRead ), Long.toString( linesWritten ),
         Long.toString( linesInput ), Long.toString( linesOutput ), Long.toString( linesUpdated ),
         Long.toString( linesRejected ), Long.toString( errors ), overrideDescription, convertSeconds( seconds ),
-        speed, priority, };
+        speed, priority, getUtilization(), };
 
     return fields;
   }
@@ -247,10 +315,14 @@ public class StepStatus {
 
   public String[] getSpoonSlaveLogFields() {
     String[] fields = getTransLogFields();
-    String[] retval = new String[fields.length - 1];
-    for ( int i = 0; i < retval.length; i++ ) {
+    // The slave server tree shows the Carte object id and the log date before the utilization column
+    String[] retval = new String[fields.length + 1];
+    for ( int i = 0; i < fields.length - 2; i++ ) {
       retval[i] = fields[i + 1];
     }
+    retval[fields.length - 2] = "";
+    retval[fields.length - 1] = "";
+    retval[fields.length] = fields[fields.length - 1];
     return retval;
   }
 
@@ -492,6 +564,38 @@ public class StepStatus {
     this.paused = paused;
   }
 
+  /**
+   * @return the time in ms the step spent waiting for rows to arrive
+   */
+  public long getInputWaitTime() {
+    return inputWaitTime;
+  }
+
+  /**
+   * @param inputWaitTime
+   *          the time in ms the step spent waiting for rows to arrive
+   */
+  public void setInputWaitTime( long inputWaitTime ) {
+    this.inputWaitTime = inputWaitTime;
+    this.waitTimeTracked = true;
+  }
+
+  /**
+   * @return the time in ms the step spent waiting for room in the output row sets
+   */
+  public long getOutputWaitTime() {
+    return outputWaitTime;
+  }
+
+  /**
+   * @param outputWaitTime
+   *          the time in ms the step spent waiting for room in the output row sets
+   */
+  public void setOutputWaitTime( long outputWaitTime ) {
+    this.outputWaitTime = outputWaitTime;
+    this.waitTimeTracked = true;
+  }
+
   public RowMetaInterface getSampleRowMeta() {
     return sampleRowMeta;
   }
@@ -0,0 +1,190 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2021 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.pentaho.di.trans.steps;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.util.ExecutorUtil;
+
+/**
+ * Executes the groups of rows of the "Transformation Executor" and "Job Executor" steps in the background, at most a
+ * given number at the same time. Finished groups are handed back to the step thread, either in the order in which
+ * they were submitted or in the order in which they finished, so that the step itself writes all the output rows.
+ *
+ * @param <T> a group of rows together with everything needed to execute it and to pass on its results
+ */
+public class ParallelGroupExecutor<T> {
+
+  @FunctionalInterface
+  public interface GroupHandler<T> {
+    void handle( T group ) throws KettleException;
+  }
+
+  private final int parallelism;
+  private final boolean ordered;
+  private final GroupHandler<T> execution;
+  private final GroupHandler<T> collector;
+
+  private final Deque<GroupTask> pending;
+  private final BlockingQueue<GroupTask> finished;
+  private final Set<T> activeGroups;
+
+  /**
+   * @param parallelism the maximum number of groups that are executed at the same time
+   * @param ordered true to collect the groups in the order in which they were submitted
+   * @param execution executes a group, called in the background
+   * @param collector passes on the results of an executed group, called on the thread submitting the groups
+   */
+  public ParallelGroupExecutor( int parallelism, boolean ordered, GroupHandler<T> execution,
+                                GroupHandler<T> collector ) {
+    this.parallelism = Math.max( 1, parallelism );
+    this.ordered = ordered;
+    this.execution = execution;
+    this.collector = collector;
+    this.pending = new ArrayDeque<>();
+    this.finished = new LinkedBlockingQueue<>();
+    this.activeGroups = ConcurrentHashMap.newKeySet();
+  }
+
+  /**
+   * Starts the execution of a group. When the maximum number of groups is being executed, this waits until one of them
+   * is finished and collects it first. Groups that finished in the meantime are collected as well.
+   */
+  public void submit( T group ) throws KettleException {
+    while ( pending.size() >= parallelism ) {
+      collectNext();
+    }
+    GroupTask task = new GroupTask( group );
+    activeGroups.add( group );
+    pending.add( task );
+    ExecutorUtil.getExecutor().execute( task );
+
+    collectFinished();
+  }
+
+  /**
+   * Collects the groups that are finished without waiting for the others.
+   */
+  public void collectFinished() throws KettleException {
+    if ( ordered ) {
+      while ( !pending.isEmpty() && pending.peekFirst().isDone() ) {
+        collect( pending.pollFirst() );
+      }
+    } else {
+      GroupTask task;
+      while ( ( task = finished.poll() ) != null ) {
+        pending.remove( task );
+        collect( task );
+      }
+    }
+  }
+
+  /**
+   * Waits for all the submitted groups to finish and collects them.
+   */
+  public void finish() throws KettleException {
+    while ( !pending.isEmpty() ) {
+      collectNext();
+    }
+  }
+
+  /**
+   * @return the groups that were submitted but not collected yet, they might still be executing
+   */
+  public List<T> getActiveGroups() {
+    return new ArrayList<>( activeGroups );
+  }
+
+  /**
+   * @return the number of groups that were submitted but not collected yet
+   */
+  public int getNrPendingGroups() {
+    return pending.size();
+  }
+
+  private void collectNext() throws KettleException {
+    GroupTask task;
+    if ( ordered ) {
+      task = pending.pollFirst();
+    } else {
+      try {
+        task = finished.take();
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+        throw new KettleException( e );
+      }
+      pending.remove( task );
+    }
+    collect( task );
+  }
+
+  private void collect( GroupTask task ) throws KettleException {
+    try {
+      task.get();
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      throw new KettleException( e );
+    } catch ( ExecutionException e ) {
+      activeGroups.remove( task.group );
+      if ( e.getCause() instanceof KettleException ) {
+        throw (KettleException) e.getCause();
+      }
+      throw new KettleException( e.getCause() );
+    }
+    activeGroups.remove( task.group );
+    collector.handle( task.group );
+  }
+
+  private class GroupTask extends FutureTask<T> {
+    private final T group;
+
+    GroupTask( final T group ) {
+      super( new Callable<T>() {
+        @Override
+        public T call() throws Exception {
+          execution.handle( group );
+          return group;
+        }
+      } );
+      this.group = group;
+    }
+
+    @Override
+    protected void done() {
+      if ( !ordered ) {
+        finished.add( this );
+      }
+    }
+  }
+}
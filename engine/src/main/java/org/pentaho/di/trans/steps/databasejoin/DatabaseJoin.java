@@ -23,10 +23,13 @@
 package org.pentaho.di.trans.steps.databasejoin;
 
 import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.pentaho.di.core.database.Database;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.exception.KettleStepException;
+import org.pentaho.di.core.logging.Metrics;
 import org.pentaho.di.core.row.RowDataUtil;
 import org.pentaho.di.core.row.RowMeta;
 import org.pentaho.di.core.row.RowMetaInterface;
@@ -90,6 +93,11 @@ public class DatabaseJoin extends BaseStep implements StepInterface {
       lookupRowData[i] = rowData[data.keynrs[i]];
     }
 
+    if ( data.cache != null ) {
+      lookupCachedValues( rowMeta, rowData, lookupRowData );
+      return;
+    }
+
     // Set the values on the prepared statement (for faster exec.)
     ResultSet rs = data.db.openQuery( data.pstmt, data.lookupRowMeta, lookupRowData );
 
@@ -126,20 +134,72 @@ public class DatabaseJoin extends BaseStep implements StepInterface {
 
     // Nothing found? Perhaps we have to put something out after all?
     if ( counter == 0 && meta.isOuterJoin() ) {
-      if ( data.notfound == null ) {
-        // Just return null values for all values...
-        //
-        data.notfound = new Object[data.db.getReturnRowMeta().size()];
+      putNotFoundRow( rowMeta, rowData );
+    }
+
+    data.db.closeQuery( rs );
+  }
+
+  /**
+   * Joins the input row with the rows the query returned earlier for the same parameters. Only when the parameters are
+   * not in the cache the query is executed, its result is remembered for the next rows.
+   */
+  private void lookupCachedValues( RowMetaInterface rowMeta, Object[] rowData, Object[] lookupRowData )
+    throws KettleException {
+    List<Object[]> rows = data.cache.getRows( data.lookupRowMeta, lookupRowData );
+    if ( rows == null ) {
+      rows = new ArrayList<Object[]>();
+
+      ResultSet rs = data.db.openQuery( data.pstmt, data.lookupRowMeta, lookupRowData );
+      Object[] add = data.db.getRow( rs );
+      incrementLinesInput();
+      while ( add != null && ( meta.getRowLimit() == 0 || rows.size() < meta.getRowLimit() ) ) {
+        rows.add( add );
+        if ( meta.getRowLimit() == 0 || rows.size() < meta.getRowLimit() ) {
+          add = data.db.getRow( rs );
+          incrementLinesInput();
+        }
       }
+      data.db.closeQuery( rs );
+
+      data.cache.putRows( data.lookupRowMeta, lookupRowData, rows );
+      log.snap( Metrics.METRIC_STEP_CACHE_MISS_COUNT, getStepname() );
+    } else {
+      log.snap( Metrics.METRIC_STEP_CACHE_HIT_COUNT, getStepname() );
+    }
+
+    RowMetaInterface addMeta = data.db.getReturnRowMeta();
+    for ( Object[] add : rows ) {
       Object[] newRow = RowDataUtil.resizeArray( rowData, data.outputRowMeta.size() );
       int newIndex = rowMeta.size();
-      for ( int i = 0; i < data.notfound.length; i++ ) {
-        newRow[newIndex++] = data.notfound[i];
+      for ( int i = 0; i < addMeta.size(); i++ ) {
+        newRow[newIndex++] = add[i];
+      }
+      putRow( data.outputRowMeta, data.outputRowMeta.cloneRow( newRow ) );
+
+      if ( log.isRowLevel() ) {
+        logRowlevel( BaseMessages.getString( PKG, "DatabaseJoin.Log.PutoutRow" )
+          + data.outputRowMeta.getString( newRow ) );
       }
-      putRow( data.outputRowMeta, newRow );
     }
 
-    data.db.closeQuery( rs );
+    if ( rows.isEmpty() && meta.isOuterJoin() ) {
+      putNotFoundRow( rowMeta, rowData );
+    }
+  }
+
+  private void putNotFoundRow( RowMetaInterface rowMeta, Object[] rowData ) throws KettleStepException {
+    if ( data.notfound == null ) {
+      // Just return null values for all values...
+      //
+      data.notfound = new Object[data.db.getReturnRowMeta().size()];
+    }
+    Object[] newRow = RowDataUtil.resizeArray( rowData, data.outputRowMeta.size() );
+    int newIndex = rowMeta.size();
+    for ( int i = 0; i < data.notfound.length; i++ ) {
+      newRow[newIndex++] = data.notfound[i];
+    }
+    putRow( data.outputRowMeta, newRow );
   }
 
   public boolean processRow( StepMetaInterface smi, StepDataInterface sdi ) throws KettleException {
@@ -243,6 +303,10 @@ public class DatabaseJoin extends BaseStep implements StepInterface {
         }
         data.db.setQueryLimit( meta.getRowLimit() );
 
+        if ( meta.isCached() ) {
+          data.cache = new DatabaseJoinCache( meta.getCacheSize(), meta.getCacheTimeToLive() * 1000L );
+        }
+
         return true;
       } catch ( KettleException e ) {
         logError( BaseMessages.getString( PKG, "DatabaseJoin.Log.DatabaseError" ) + e.getMessage(), e );
@@ -259,6 +323,11 @@ public class DatabaseJoin extends BaseStep implements StepInterface {
     meta = (DatabaseJoinMeta) smi;
     data = (DatabaseJoinData) sdi;
 
+    if ( data.cache != null && log.isDetailed() ) {
+      logDetailed( BaseMessages.getString( PKG, "DatabaseJoin.Log.CacheStatistics", data.cache.getHits(),
+        data.cache.getMisses(), String.format( "%.1f", data.cache.getHitRatio() ) ) );
+    }
+
     if ( data.db != null ) {
       data.db.disconnect();
     }
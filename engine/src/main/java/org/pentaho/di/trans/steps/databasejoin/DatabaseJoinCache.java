@@ -0,0 +1,130 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2021 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.databasejoin;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.pentaho.di.core.RowMetaAndData;
+import org.pentaho.di.core.row.RowMetaInterface;
+
+/**
+ * Remembers the rows returned by the query of a Database Join step per combination of parameter values. The least
+ * recently used combination is evicted when the cache is full, entries older than the time to live are queried again.
+ */
+public class DatabaseJoinCache {
+
+  private final int maxSize;
+  private final long timeToLive;
+  private final LinkedHashMap<RowMetaAndData, Entry> map;
+
+  private long hits;
+  private long misses;
+
+  /**
+   * @param maxSize
+   *          the maximum number of parameter combinations to remember, 0 or less for no limit
+   * @param timeToLive
+   *          the number of milliseconds a result stays valid, 0 or less to keep it until it is evicted
+   */
+  public DatabaseJoinCache( final int maxSize, long timeToLive ) {
+    this.maxSize = maxSize;
+    this.timeToLive = timeToLive;
+    this.map = new LinkedHashMap<RowMetaAndData, Entry>( 16, 0.75f, true ) {
+      @Override
+      protected boolean removeEldestEntry( Map.Entry<RowMetaAndData, Entry> eldest ) {
+        return maxSize > 0 && size() > maxSize;
+      }
+    };
+  }
+
+  /**
+   * Looks up the rows the query returned earlier for the given parameters.
+   *
+   * @param parameterMeta
+   *          the description of the parameters
+   * @param parameters
+   *          the parameter values
+   * @return the rows or null if the parameters are not in the cache (anymore)
+   */
+  public List<Object[]> getRows( RowMetaInterface parameterMeta, Object[] parameters ) {
+    RowMetaAndData key = new RowMetaAndData( parameterMeta, parameters );
+    Entry entry = map.get( key );
+    if ( entry != null && timeToLive > 0 && System.currentTimeMillis() - entry.created > timeToLive ) {
+      map.remove( key );
+      entry = null;
+    }
+    if ( entry == null ) {
+      misses++;
+      return null;
+    }
+    hits++;
+    return entry.rows;
+  }
+
+  /**
+   * Remembers the rows the query returned for the given parameters.
+   *
+   * @param parameterMeta
+   *          the description of the parameters
+   * @param parameters
+   *          the parameter values
+   * @param rows
+   *          the rows returned by the query, possibly none
+   */
+  public void putRows( RowMetaInterface parameterMeta, Object[] parameters, List<Object[]> rows ) {
+    map.put( new RowMetaAndData( parameterMeta, parameters ), new Entry( rows, System.currentTimeMillis() ) );
+  }
+
+  public int size() {
+    return map.size();
+  }
+
+  public long getHits() {
+    return hits;
+  }
+
+  public long getMisses() {
+    return misses;
+  }
+
+  /**
+   * @return the percentage of lookups that were served from the cache
+   */
+  public double getHitRatio() {
+    long lookups = hits + misses;
+    return lookups == 0 ? 0.0 : 100.0 * hits / lookups;
+  }
+
+  private static class Entry {
+    private final List<Object[]> rows;
+    private final long created;
+
+    Entry( List<Object[]> rows, long created ) {
+      this.rows = rows;
+      this.created = created;
+    }
+  }
+}
@@ -43,12 +43,14 @@ public class DatabaseJoinData extends BaseStepData implements StepDataInterface
   public int[] keynrs; // parameter value index in an input row...
   public Object[] notfound; // Values in case nothing is found...
   public boolean isCanceled;
+  public DatabaseJoinCache cache; // Query results per parameter combination, null if not caching...
 
   public DatabaseJoinData() {
     super();
 
     db = null;
     notfound = null;
+    cache = null;
   }
 
 }
@@ -83,6 +83,15 @@ public class DatabaseJoinMeta extends BaseStepMeta implements StepMetaInterface
    */
   private boolean replacevars;
 
+  /** Remember the rows returned for a combination of parameter values */
+  private boolean cached;
+
+  /** Maximum number of parameter combinations to remember (0=ALL) */
+  private int cacheSize;
+
+  /** Number of seconds the rows of a parameter combination are remembered (0=until evicted) */
+  private int cacheTimeToLive;
+
   public DatabaseJoinMeta() {
     super(); // allocate BaseStepMeta
   }
@@ -192,12 +201,60 @@ public class DatabaseJoinMeta extends BaseStepMeta implements StepMetaInterface
     this.sql = sql;
   }
 
+  /**
+   * @return true if the rows returned for a combination of parameter values are remembered
+   */
+  public boolean isCached() {
+    return cached;
+  }
+
+  /**
+   * @param cached
+   *          true to remember the rows returned for a combination of parameter values
+   */
+  public void setCached( boolean cached ) {
+    this.cached = cached;
+  }
+
+  /**
+   * @return the maximum number of parameter combinations to remember, 0 for all
+   */
+  public int getCacheSize() {
+    return cacheSize;
+  }
+
+  /**
+   * @param cacheSize
+   *          the maximum number of parameter combinations to remember, 0 for all
+   */
+  public void setCacheSize( int cacheSize ) {
+    this.cacheSize = cacheSize;
+  }
+
+  /**
+   * @return the number of seconds the rows of a parameter combination are remembered, 0 until they are evicted
+   */
+  public int getCacheTimeToLive() {
+    return cacheTimeToLive;
+  }
+
+  /**
+   * @param cacheTimeToLive
+   *          the number of seconds the rows of a parameter combination are remembered, 0 until they are evicted
+   */
+  public void setCacheTimeToLive( int cacheTimeToLive ) {
+    this.cacheTimeToLive = cacheTimeToLive;
+  }
+
   @Override
   public void loadXML( Node stepnode, List<DatabaseMeta> databases, IMetaStore metaStore ) throws KettleXMLException {
     parameterField = null;
     parameterType = null;
     outerJoin = false;
     replacevars = false;
+    cached = false;
+    cacheSize = 0;
+    cacheTimeToLive = 0;
     readData( stepnode, databases );
   }
 
@@ -228,6 +285,9 @@ public class DatabaseJoinMeta extends BaseStepMeta implements StepMetaInterface
       outerJoin = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "outer_join" ) );
       replacevars = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "replace_vars" ) );
       rowLimit = Const.toInt( XMLHandler.getTagValue( stepnode, "rowlimit" ), 0 );
+      cached = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "cache" ) );
+      cacheSize = Const.toInt( XMLHandler.getTagValue( stepnode, "cache_size" ), 0 );
+      cacheTimeToLive = Const.toInt( XMLHandler.getTagValue( stepnode, "cache_ttl" ), 0 );
 
       Node param = XMLHandler.getSubNode( stepnode, "parameter" );
       int nrparam = XMLHandler.countNodes( param, "field" );
@@ -256,6 +316,9 @@ public class DatabaseJoinMeta extends BaseStepMeta implements StepMetaInterface
     parameterType = null;
     outerJoin = false;
     replacevars = false;
+    cached = false;
+    cacheSize = 0;
+    cacheTimeToLive = 0;
 
     int nrparam = 0;
 
@@ -345,6 +408,9 @@ public class DatabaseJoinMeta extends BaseStepMeta implements StepMetaInterface
     retval.append( "    " ).append( XMLHandler.addTagValue( "sql", sql ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "outer_join", outerJoin ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "replace_vars", replacevars ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "cache", cached ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "cache_size", cacheSize ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "cache_ttl", cacheTimeToLive ) );
     retval.append( "    <parameter>" ).append( Const.CR );
     for ( int i = 0; i < parameterField.length; i++ ) {
       retval.append( "      <field>" ).append( Const.CR );
@@ -366,6 +432,9 @@ public class DatabaseJoinMeta extends BaseStepMeta implements StepMetaInterface
       sql = rep.getStepAttributeString( id_step, "sql" );
       outerJoin = rep.getStepAttributeBoolean( id_step, "outer_join" );
       replacevars = rep.getStepAttributeBoolean( id_step, "replace_vars" );
+      cached = rep.getStepAttributeBoolean( id_step, "cache" );
+      cacheSize = (int) rep.getStepAttributeInteger( id_step, "cache_size" );
+      cacheTimeToLive = (int) rep.getStepAttributeInteger( id_step, "cache_ttl" );
 
       int nrparam = rep.countNrStepAttributes( id_step, "parameter_field" );
 
@@ -390,6 +459,9 @@ public class DatabaseJoinMeta extends BaseStepMeta implements StepMetaInterface
       rep.saveStepAttribute( id_transformation, id_step, "sql", sql );
       rep.saveStepAttribute( id_transformation, id_step, "outer_join", outerJoin );
       rep.saveStepAttribute( id_transformation, id_step, "replace_vars", replacevars );
+      rep.saveStepAttribute( id_transformation, id_step, "cache", cached );
+      rep.saveStepAttribute( id_transformation, id_step, "cache_size", cacheSize );
+      rep.saveStepAttribute( id_transformation, id_step, "cache_ttl", cacheTimeToLive );
 
       for ( int i = 0; i < parameterField.length; i++ ) {
         rep.saveStepAttribute( id_transformation, id_step, i, "parameter_field", parameterField[i] );
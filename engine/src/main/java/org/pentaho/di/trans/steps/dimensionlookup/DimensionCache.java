@@ -22,6 +22,7 @@
 
 package org.pentaho.di.trans.steps.dimensionlookup;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
@@ -110,9 +111,16 @@ public class DimensionCache implements Comparator<Object[]> {
    */
   public int lookupRow( Object[] lookupRowData ) throws KettleException {
     try {
+      // Only the natural keys and the date range are compared: off-heap rows don't need to be read back for that.
+      //
+      List<Object[]> searchRows = rowCache;
+      if ( rowCache instanceof OffHeapRowList ) {
+        searchRows = ( (OffHeapRowList) rowCache ).getSearchRows();
+      }
+
       // First perform the lookup!
       //
-      int index = Collections.binarySearch( rowCache, lookupRowData, this );
+      int index = Collections.binarySearch( searchRows, lookupRowData, this );
       if ( index < 0 ) {
         // What we have now is the insertion point.
         // Since we only compare on the start of the date range (see also: below in Compare.compare())
@@ -123,10 +131,10 @@ public class DimensionCache implements Comparator<Object[]> {
         // This row at the insertion point where the natural keys match and the start
         //
         int insertionPoint = -( index + 1 );
-        if ( insertionPoint < rowCache.size() - 1 ) {
+        if ( insertionPoint < searchRows.size() - 1 ) {
           // Get the row in question
           //
-          Object[] row = rowCache.get( insertionPoint );
+          Object[] row = searchRows.get( insertionPoint );
 
           // See if the natural key matches...
           //
@@ -188,6 +196,25 @@ public class DimensionCache implements Comparator<Object[]> {
     Collections.sort( rowCache, this );
   }
 
+  /**
+   * Moves the (sorted) rows of the cache to direct memory, releasing the rows on the heap as they are copied. Rows can
+   * only be looked up afterwards, not inserted.
+   *
+   * @return the off-heap list that now holds the rows
+   */
+  public OffHeapRowList moveOffHeap() {
+    int[] searchIndexes = Arrays.copyOf( keyIndexes, keyIndexes.length + 2 );
+    searchIndexes[ keyIndexes.length ] = fromDateIndex;
+    searchIndexes[ keyIndexes.length + 1 ] = toDateIndex;
+    OffHeapRowList offHeapRows = new OffHeapRowList( rowMeta, rowCache.size(), searchIndexes );
+    for ( int i = 0; i < rowCache.size(); i++ ) {
+      offHeapRows.add( rowCache.get( i ) );
+      rowCache.set( i, null );
+    }
+    rowCache = offHeapRows;
+    return offHeapRows;
+  }
+
   /**
    * Compare 2 rows of data using the natural keys and indexes specified.
    *
@@ -313,6 +313,16 @@ public class DimensionLookup extends BaseStep implements StepInterface {
       data.preloadCache.sortRows();
       logDetailed( "Sorting of cached rows finished." );
 
+      if ( meta.isPreloadingCacheOffHeap() ) {
+        OffHeapRowList offHeapRows = data.preloadCache.moveOffHeap();
+        if ( log.isDetailed() ) {
+          long bytesPerRow = offHeapRows.isEmpty() ? 0L : offHeapRows.getDataSize() / offHeapRows.size();
+          logDetailed( BaseMessages.getString( PKG, "DimensionLookup.Log.CacheMovedOffHeap",
+            String.valueOf( offHeapRows.size() ), String.valueOf( offHeapRows.getDataSize() ),
+            String.valueOf( offHeapRows.getIndexSize() ), String.valueOf( bytesPerRow ) ) );
+        }
+      }
+
       // Also see what indexes to take to populate the lookup row...
       // We only ever compare indexes and the lookup date in the cache, the rest is not needed...
       //
@@ -334,6 +344,48 @@ public class DimensionLookup extends BaseStep implements StepInterface {
     }
   }
 
+  /**
+   * Gets the next technical key from the sequence. With a sequence block size larger than 1, the sequence is expected
+   * to increment by the block size: a single round trip to the database then hands out a whole block of keys. The
+   * increment is verified in the data dictionary where the database supports it, and a block that overlaps with the
+   * previous one is refused.
+   *
+   * @return the next technical key or null if the sequence didn't return a value
+   * @throws KettleDatabaseException in case the sequence couldn't be read
+   */
+  protected Long getNextSequenceValue() throws KettleDatabaseException {
+    int blockSize = meta.getSequenceBlockSize();
+    if ( blockSize <= 1 ) {
+      return data.db.getNextSequenceValue( data.realSchemaName, meta.getSequenceName(), meta.getKeyField() );
+    }
+    if ( data.sequenceBlockRemaining <= 0 ) {
+      Long blockStart =
+        data.db.getNextSequenceValue( data.realSchemaName, meta.getSequenceName(), meta.getKeyField() );
+      if ( blockStart == null ) {
+        return null;
+      }
+      if ( data.sequenceBlockChecked ) {
+        if ( blockStart < data.sequenceBlockNext ) {
+          throw new KettleDatabaseException( BaseMessages.getString( PKG,
+            "DimensionLookup.Exception.SequenceBlocksOverlap", meta.getSequenceName(), String.valueOf( blockStart ),
+            String.valueOf( blockSize ) ) );
+        }
+      } else {
+        Long increment = data.db.getSequenceIncrement( data.realSchemaName, meta.getSequenceName() );
+        if ( increment != null && increment < blockSize ) {
+          throw new KettleDatabaseException( BaseMessages.getString( PKG,
+            "DimensionLookup.Exception.SequenceIncrementTooSmall", meta.getSequenceName(), String.valueOf( increment ),
+            String.valueOf( blockSize ) ) );
+        }
+        data.sequenceBlockChecked = true;
+      }
+      data.sequenceBlockNext = blockStart;
+      data.sequenceBlockRemaining = blockSize;
+    }
+    data.sequenceBlockRemaining--;
+    return data.sequenceBlockNext++;
+  }
+
   private synchronized Object[] lookupValues( RowMetaInterface rowMeta, Object[] row ) throws KettleException {
     Object[] outputRow = new Object[ data.outputRowMeta.size() ];
 
@@ -522,8 +574,7 @@ public class DimensionLookup extends BaseStep implements StepInterface {
             technicalKey = null; // Set to null to flag auto-increment usage
             break;
           case CREATION_METHOD_SEQUENCE:
-            technicalKey =
-              data.db.getNextSequenceValue( data.realSchemaName, meta.getSequenceName(), meta.getKeyField() );
+            technicalKey = getNextSequenceValue();
             if ( technicalKey != null && isRowLevel() ) {
               logRowlevel( BaseMessages.getString( PKG, "DimensionLookup.Log.FoundNextSequence" )
                 + technicalKey.toString() );
@@ -728,8 +779,7 @@ public class DimensionLookup extends BaseStep implements StepInterface {
           } else if ( meta.getDatabaseMeta().supportsSequences()
             // Try to get the value by looking at a SEQUENCE (oracle mostly)
             && meta.getSequenceName() != null && meta.getSequenceName().length() > 0 ) {
-            technicalKey =
-              data.db.getNextSequenceValue( data.realSchemaName, meta.getSequenceName(), meta.getKeyField() );
+            technicalKey = getNextSequenceValue();
             if ( technicalKey != null && isRowLevel() ) {
               logRowlevel( BaseMessages.getString( PKG, "DimensionLookup.Log.FoundNextSequence2" )
                 + technicalKey.toString() );
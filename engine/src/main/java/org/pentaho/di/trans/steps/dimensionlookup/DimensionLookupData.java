@@ -89,6 +89,15 @@ public class DimensionLookupData extends BaseStepData implements StepDataInterfa
 
   public DimensionCache preloadCache;
 
+  /** The next technical key of the block obtained from the sequence */
+  public long sequenceBlockNext;
+
+  /** The number of technical keys left in the block obtained from the sequence */
+  public int sequenceBlockRemaining;
+
+  /** Set once the first block was obtained from the sequence and its increment was verified */
+  public boolean sequenceBlockChecked;
+
   public List<Integer> preloadIndexes;
 
   public List<Integer> lazyList;
@@ -197,6 +197,13 @@ public class DimensionLookupMeta extends BaseStepMeta implements StepMetaInterfa
   @Injection( name = "TECHNICAL_KEY_SEQUENCE" )
   private String sequenceName;
 
+  /**
+   * The number of technical keys handed out per sequence value: the sequence needs to increment by this number. 1
+   * means: one round trip to the database per key
+   */
+  @Injection( name = "TECHNICAL_KEY_SEQUENCE_BLOCK_SIZE" )
+  private int sequenceBlockSize;
+
   /** The number of rows between commits */
   @Injection( name = "COMMIT_SIZE" )
   private int commitSize;
@@ -239,6 +246,10 @@ public class DimensionLookupMeta extends BaseStepMeta implements StepMetaInterfa
   @Injection( name = "PRELOAD_CACHE" )
   private boolean preloadingCache;
 
+  /** Flag to indicate that the pre-loaded cache is stored in direct memory, outside of the Java heap */
+  @Injection( name = "PRELOAD_CACHE_OFF_HEAP" )
+  private boolean preloadingCacheOffHeap;
+
   public DimensionLookupMeta() {
     super(); // allocate BaseStepMeta
   }
@@ -743,6 +754,8 @@ public class DimensionLookupMeta extends BaseStepMeta implements StepMetaInterfa
 
     cacheSize = 5000;
     preloadingCache = false;
+    preloadingCacheOffHeap = false;
+    sequenceBlockSize = 1;
   }
 
   @Override
@@ -877,11 +890,13 @@ public class DimensionLookupMeta extends BaseStepMeta implements StepMetaInterfa
 
     // If sequence is empty: use auto-increment field!
     retval.append( "      " ).append( XMLHandler.addTagValue( "sequence", sequenceName ) );
+    retval.append( "      " ).append( XMLHandler.addTagValue( "sequence_block_size", sequenceBlockSize ) );
     retval.append( "      " ).append( XMLHandler.addTagValue( "min_year", minYear ) );
     retval.append( "      " ).append( XMLHandler.addTagValue( "max_year", maxYear ) );
 
     retval.append( "      " ).append( XMLHandler.addTagValue( "cache_size", cacheSize ) );
     retval.append( "      " ).append( XMLHandler.addTagValue( "preload_cache", preloadingCache ) );
+    retval.append( "      " ).append( XMLHandler.addTagValue( "preload_cache_off_heap", preloadingCacheOffHeap ) );
 
     retval.append( "      " ).append( XMLHandler.addTagValue( "use_start_date_alternative",
         usingStartDateAlternative ) );
@@ -949,6 +964,7 @@ public class DimensionLookupMeta extends BaseStepMeta implements StepMetaInterfa
         sequenceName = XMLHandler.getTagValue( stepnode, "sequence" );
       }
 
+      sequenceBlockSize = Const.toInt( XMLHandler.getTagValue( stepnode, "sequence_block_size" ), 1 );
       maxYear = Const.toInt( XMLHandler.getTagValue( stepnode, "max_year" ), Const.MAX_YEAR );
       minYear = Const.toInt( XMLHandler.getTagValue( stepnode, "min_year" ), Const.MIN_YEAR );
 
@@ -961,6 +977,7 @@ public class DimensionLookupMeta extends BaseStepMeta implements StepMetaInterfa
 
       cacheSize = Const.toInt( XMLHandler.getTagValue( stepnode, "cache_size" ), -1 );
       preloadingCache = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "preload_cache" ) );
+      preloadingCacheOffHeap = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "preload_cache_off_heap" ) );
       useBatchUpdate = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "useBatch" ) );
 
       usingStartDateAlternative =
@@ -1016,11 +1033,13 @@ public class DimensionLookupMeta extends BaseStepMeta implements StepMetaInterfa
       if ( update ) { // symmetry with readData above ...
         sequenceName = rep.getStepAttributeString( id_step, "sequence" );
       }
+      sequenceBlockSize = (int) rep.getStepAttributeInteger( id_step, "sequence_block_size" );
       minYear = (int) rep.getStepAttributeInteger( id_step, "min_year" );
       maxYear = (int) rep.getStepAttributeInteger( id_step, "max_year" );
 
       cacheSize = (int) rep.getStepAttributeInteger( id_step, "cache_size" );
       preloadingCache = rep.getStepAttributeBoolean( id_step, "preload_cache" );
+      preloadingCacheOffHeap = rep.getStepAttributeBoolean( id_step, "preload_cache_off_heap" );
       useBatchUpdate = rep.getStepAttributeBoolean( id_step, "useBatch" );
 
       usingStartDateAlternative = rep.getStepAttributeBoolean( id_step, "use_start_date_alternative" );
@@ -1071,11 +1090,13 @@ public class DimensionLookupMeta extends BaseStepMeta implements StepMetaInterfa
       rep.saveStepAttribute( id_transformation, id_step, "version_field", versionField );
 
       rep.saveStepAttribute( id_transformation, id_step, "sequence", sequenceName );
+      rep.saveStepAttribute( id_transformation, id_step, "sequence_block_size", sequenceBlockSize );
       rep.saveStepAttribute( id_transformation, id_step, "min_year", minYear );
       rep.saveStepAttribute( id_transformation, id_step, "max_year", maxYear );
 
       rep.saveStepAttribute( id_transformation, id_step, "cache_size", cacheSize );
       rep.saveStepAttribute( id_transformation, id_step, "preload_cache", preloadingCache );
+      rep.saveStepAttribute( id_transformation, id_step, "preload_cache_off_heap", preloadingCacheOffHeap );
       rep.saveStepAttribute( id_transformation, id_step, "useBatch", useBatchUpdate );
 
       rep.saveStepAttribute( id_transformation, id_step, "use_start_date_alternative", usingStartDateAlternative );
@@ -1696,7 +1717,8 @@ public class DimensionLookupMeta extends BaseStepMeta implements StepMetaInterfa
               // The optional Oracle sequence
               if ( CREATION_METHOD_SEQUENCE.equals( getTechKeyCreation() ) && !Utils.isEmpty( sequenceName ) ) {
                 if ( !db.checkSequenceExists( schemaName, sequenceName ) ) {
-                  sql += db.getCreateSequenceStatement( schemaName, sequenceName, 1L, 1L, -1L, true );
+                  sql += db.getCreateSequenceStatement( schemaName, sequenceName, 1L, Math.max( sequenceBlockSize, 1 ),
+                    -1L, true );
                 }
               }
 
@@ -1895,6 +1917,37 @@ public class DimensionLookupMeta extends BaseStepMeta implements StepMetaInterfa
     this.preloadingCache = preloadingCache;
   }
 
+  /**
+   * @return true if the pre-loaded cache is stored in direct memory, outside of the Java heap
+   */
+  public boolean isPreloadingCacheOffHeap() {
+    return preloadingCacheOffHeap;
+  }
+
+  /**
+   * @param preloadingCacheOffHeap
+   *          true to store the pre-loaded cache in direct memory, outside of the Java heap
+   */
+  public void setPreloadingCacheOffHeap( boolean preloadingCacheOffHeap ) {
+    this.preloadingCacheOffHeap = preloadingCacheOffHeap;
+  }
+
+  /**
+   * @return the number of technical keys handed out per sequence value
+   */
+  public int getSequenceBlockSize() {
+    return sequenceBlockSize;
+  }
+
+  /**
+   * @param sequenceBlockSize
+   *          the number of technical keys handed out per sequence value. The sequence needs to increment by this
+   *          number.
+   */
+  public void setSequenceBlockSize( int sequenceBlockSize ) {
+    this.sequenceBlockSize = sequenceBlockSize;
+  }
+
   /**
    * @return the useBatchUpdate
    */
@@ -0,0 +1,175 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2021 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.dimensionlookup;
+
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+
+/**
+ * A random access list of rows that are kept serialized in direct memory, outside of the garbage collected heap. The
+ * heap only holds one offset per row and the values of the search fields, the rows themselves are de-serialized again
+ * when they are read. A binary search over {@link #getSearchRows()} so never de-serializes a row.
+ *
+ * Rows can only be appended: this is used to store the sorted rows of a pre-loaded dimension cache.
+ */
+public class OffHeapRowList extends AbstractList<Object[]> implements RandomAccess {
+
+  /** The size of the direct memory blocks the rows are written to */
+  static final int BLOCK_SIZE = 64 * 1024 * 1024;
+
+  private final RowMetaInterface rowMeta;
+  private final int[] searchIndexes;
+  private final List<ByteBuffer> blocks;
+  private final int blockSize;
+  private long[] offsets;
+  private Object[][] searchValues;
+  private int size;
+  private long dataSize;
+
+  /**
+   * @param rowMeta
+   *          the description of the rows to store
+   * @param capacity
+   *          the expected number of rows
+   * @param searchIndexes
+   *          the indexes of the fields that are compared when searching the rows, they are kept on the heap
+   */
+  public OffHeapRowList( RowMetaInterface rowMeta, int capacity, int[] searchIndexes ) {
+    this( rowMeta, capacity, searchIndexes, BLOCK_SIZE );
+  }
+
+  OffHeapRowList( RowMetaInterface rowMeta, int capacity, int[] searchIndexes, int blockSize ) {
+    this.rowMeta = rowMeta;
+    this.searchIndexes = searchIndexes;
+    this.blockSize = blockSize;
+    this.blocks = new ArrayList<ByteBuffer>();
+    this.offsets = new long[ Math.max( capacity, 16 ) ];
+    this.searchValues = new Object[ offsets.length ][];
+  }
+
+  /**
+   * Serializes the row to the end of the list.
+   *
+   * @param row
+   *          the row to add
+   * @return true
+   */
+  @Override
+  public boolean add( Object[] row ) {
+    byte[] data = RowMeta.extractData( rowMeta, row );
+    int length = data.length + 4;
+
+    ByteBuffer block = blocks.isEmpty() ? null : blocks.get( blocks.size() - 1 );
+    if ( block == null || block.remaining() < length ) {
+      block = ByteBuffer.allocateDirect( Math.max( blockSize, length ) );
+      blocks.add( block );
+    }
+    if ( size == offsets.length ) {
+      offsets = Arrays.copyOf( offsets, size + ( size >> 1 ) );
+      searchValues = Arrays.copyOf( searchValues, offsets.length );
+    }
+    Object[] values = new Object[ searchIndexes.length ];
+    for ( int i = 0; i < searchIndexes.length; i++ ) {
+      values[ i ] = row[ searchIndexes[ i ] ];
+    }
+    searchValues[ size ] = values;
+    offsets[ size++ ] = ( (long) ( blocks.size() - 1 ) << 32 ) | block.position();
+    block.putInt( data.length );
+    block.put( data );
+    dataSize += length;
+    modCount++;
+    return true;
+  }
+
+  /**
+   * De-serializes the row on the given index.
+   */
+  @Override
+  public Object[] get( int index ) {
+    if ( index < 0 || index >= size ) {
+      throw new IndexOutOfBoundsException( "Index: " + index + ", Size: " + size );
+    }
+    long offset = offsets[ index ];
+    ByteBuffer block = blocks.get( (int) ( offset >>> 32 ) ).duplicate();
+    block.position( (int) offset );
+    byte[] data = new byte[ block.getInt() ];
+    block.get( data );
+    return RowMeta.getRow( rowMeta, data );
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return a view of the rows in which only the search fields are filled in, the other fields are null. Reading it
+   *         doesn't de-serialize anything.
+   */
+  public List<Object[]> getSearchRows() {
+    return new SearchRowList();
+  }
+
+  /**
+   * @return the number of bytes used in direct memory by the serialized rows
+   */
+  public long getDataSize() {
+    return dataSize;
+  }
+
+  /**
+   * @return the number of bytes used on the heap by the row offsets and the references to the search values, not
+   *         counting the values themselves
+   */
+  public long getIndexSize() {
+    return 8L * offsets.length + 8L * ( searchValues.length + (long) size * searchIndexes.length );
+  }
+
+  private class SearchRowList extends AbstractList<Object[]> implements RandomAccess {
+    @Override
+    public Object[] get( int index ) {
+      if ( index < 0 || index >= size ) {
+        throw new IndexOutOfBoundsException( "Index: " + index + ", Size: " + size );
+      }
+      Object[] values = searchValues[ index ];
+      Object[] row = new Object[ rowMeta.size() ];
+      for ( int i = 0; i < searchIndexes.length; i++ ) {
+        row[ searchIndexes[ i ] ] = values[ i ];
+      }
+      return row;
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+  }
+}
@@ -64,4 +64,10 @@ public class DummyTrans extends BaseStep implements StepInterface {
 
     return true;
   }
+
+  @Override
+  public boolean resetForReuse() {
+    resetStepState();
+    return true;
+  }
 }
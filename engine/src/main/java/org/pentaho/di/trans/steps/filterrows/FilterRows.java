@@ -188,4 +188,10 @@ public class FilterRows extends BaseStep implements StepInterface {
       throw new KettleException( errorMsg );
     }
   }
+
+  @Override
+  public boolean resetForReuse() {
+    resetStepState();
+    return true;
+  }
 }
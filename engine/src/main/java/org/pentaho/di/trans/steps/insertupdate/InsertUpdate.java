@@ -23,8 +23,14 @@
 package org.pentaho.di.trans.steps.insertupdate;
 
 import java.sql.SQLException;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
+import java.util.TimeZone;
+import java.util.UUID;
 
 import org.apache.commons.lang.ArrayUtils;
 import org.pentaho.di.core.Const;
@@ -55,6 +61,20 @@ import org.pentaho.di.trans.step.StepMetaInterface;
 public class InsertUpdate extends BaseStep implements StepInterface {
   private static Class<?> PKG = InsertUpdateMeta.class; // for i18n purposes, needed by Translator2!!
 
+  /** The number of rows staged before a merge when no commit size is set */
+  private static final int DEFAULT_MERGE_BATCH_SIZE = 1000;
+
+  /**
+   * Staging tables are named after the time they were created, in UTC, so that tables left behind by a process that
+   * was killed before it could drop its table can be recognized: KSTG_yyMMddHHmm_ followed by 10 random characters.
+   */
+  private static final String STAGING_TABLE_PREFIX = "KSTG_";
+  private static final String STAGING_TABLE_TIME_FORMAT = "yyMMddHHmm";
+  private static final int STAGING_TABLE_NAME_LENGTH = 26;
+
+  /** Staging tables older than this were left behind, no run keeps its staging table for that long */
+  private static final long STALE_STAGING_TABLE_MILLIS = 24 * 60 * 60 * 1000L;
+
   private InsertUpdateMeta meta;
   private InsertUpdateData data;
 
@@ -185,6 +205,15 @@ public class InsertUpdate extends BaseStep implements StepInterface {
     if ( r == null ) {
       // no more input to be expected...
 
+      if ( data.mergeMode ) {
+        try {
+          mergeStagedRows();
+        } catch ( KettleException e ) {
+          logError( BaseMessages.getString( PKG, "InsertUpdate.Log.ErrorInStep" ), e );
+          setErrors( 1 );
+          stopAll();
+        }
+      }
       setOutputDone();
       return false;
     }
@@ -261,8 +290,6 @@ public class InsertUpdate extends BaseStep implements StepInterface {
         }
       }
 
-      setLookup( getInputRowMeta() );
-
       data.insertRowMeta = new RowMeta();
 
       // Insert the update fields: just names. Type doesn't matter!
@@ -280,23 +307,30 @@ public class InsertUpdate extends BaseStep implements StepInterface {
             + insValue.getName() ); // TODO i18n
         }
       }
-      data.db.prepareInsert(
-        data.insertRowMeta, environmentSubstitute( meta.getSchemaName() ), environmentSubstitute( meta
-          .getTableName() ) );
 
-      if ( !meta.isUpdateBypassed() ) {
-        List<String> updateColumns = new ArrayList<String>();
-        for ( int i = 0; i < meta.getUpdate().length; i++ ) {
-          if ( meta.getUpdate()[i].booleanValue() ) {
-            updateColumns.add( meta.getUpdateLookup()[i] );
-          }
+      if ( meta.isMergeMode() ) {
+        data.mergeMode = prepareMerge( getInputRowMeta() );
+      }
+
+      if ( !data.mergeMode ) {
+        setLookup( getInputRowMeta() );
+
+        data.db.prepareInsert(
+          data.insertRowMeta, environmentSubstitute( meta.getSchemaName() ), environmentSubstitute( meta
+            .getTableName() ) );
+
+        if ( !meta.isUpdateBypassed() ) {
+          prepareUpdate( getInputRowMeta() );
         }
-        prepareUpdate( getInputRowMeta() );
       }
     }
 
     try {
-      lookupValues( getInputRowMeta(), r ); // add new values to the row in rowset[0].
+      if ( data.mergeMode ) {
+        stageRow( getInputRowMeta(), r );
+      } else {
+        lookupValues( getInputRowMeta(), r ); // add new values to the row in rowset[0].
+      }
       putRow( data.outputRowMeta, r ); // Nothing changed to the input, return the same row, pass a "cloned" metadata
                                        // row.
 
@@ -464,6 +498,258 @@ public class InsertUpdate extends BaseStep implements StepInterface {
     }
   }
 
+  /**
+   * Creates the staging table and the set-based statements used in merge mode. The merge mode requires equality
+   * conditions on all keys and a database that can generate a merge statement, otherwise the rows are looked up one by
+   * one.
+   *
+   * @param rowMeta
+   *          the input row metadata
+   * @return true if the merge mode can be used.
+   * @throws KettleDatabaseException
+   *           in case the staging table can't be created.
+   */
+  protected boolean prepareMerge( RowMetaInterface rowMeta ) throws KettleDatabaseException {
+    DatabaseMeta databaseMeta = meta.getDatabaseMeta();
+
+    if ( getStepMeta().isDoingErrorHandling() ) {
+      logBasic( BaseMessages.getString( PKG, "InsertUpdate.Log.MergeModeErrorHandling" ) );
+      return false;
+    }
+    if ( meta.getUpdateLookup().length == 0 ) {
+      return false;
+    }
+
+    // The key columns come first in the staging table, they are matched on equality
+    //
+    data.stagingRowMeta = new RowMeta();
+    List<Integer> stagingValuenrs = new ArrayList<Integer>();
+    String[] keyColumns = new String[meta.getKeyLookup().length];
+    for ( int i = 0; i < meta.getKeyLookup().length; i++ ) {
+      if ( !"=".equals( meta.getKeyCondition()[i] )
+        || data.stagingRowMeta.indexOfValue( meta.getKeyLookup()[i] ) >= 0 ) {
+        logBasic( BaseMessages.getString( PKG, "InsertUpdate.Log.MergeModeKeyCondition", meta.getKeyLookup()[i],
+          meta.getKeyCondition()[i] ) );
+        return false;
+      }
+      int keynr = rowMeta.indexOfValue( meta.getKeyStream()[i] );
+      ValueMetaInterface keyValue = rowMeta.getValueMeta( keynr ).clone();
+      keyValue.setName( meta.getKeyLookup()[i] );
+      data.stagingRowMeta.addValueMeta( keyValue );
+      stagingValuenrs.add( keynr );
+      keyColumns[i] = databaseMeta.quoteField( meta.getKeyLookup()[i] );
+    }
+    data.stagingKeyCount = keyColumns.length;
+
+    String[] insertColumns = new String[meta.getUpdateLookup().length];
+    List<String> updateColumns = new ArrayList<String>();
+    for ( int i = 0; i < meta.getUpdateLookup().length; i++ ) {
+      insertColumns[i] = databaseMeta.quoteField( meta.getUpdateLookup()[i] );
+
+      int stagingIndex = data.stagingRowMeta.indexOfValue( meta.getUpdateLookup()[i] );
+      if ( stagingIndex < 0 ) {
+        ValueMetaInterface insertValue = rowMeta.getValueMeta( data.valuenrs[i] ).clone();
+        insertValue.setName( meta.getUpdateLookup()[i] );
+        data.stagingRowMeta.addValueMeta( insertValue );
+        stagingValuenrs.add( data.valuenrs[i] );
+        if ( !meta.isUpdateBypassed() && meta.getUpdate()[i].booleanValue() ) {
+          updateColumns.add( insertColumns[i] );
+        }
+      } else if ( stagingValuenrs.get( stagingIndex ).intValue() != data.valuenrs[i] ) {
+        // A key column that gets inserted from another field than the one it's looked up with
+        logBasic( BaseMessages.getString( PKG, "InsertUpdate.Log.MergeModeKeyField", meta.getUpdateLookup()[i] ) );
+        return false;
+      }
+    }
+    data.stagingValuenrs = ArrayUtils.toPrimitive( stagingValuenrs.toArray( new Integer[0] ) );
+
+    // A table that only exists for this connection is dropped by the database even when the step can't do it, other
+    // databases get a regular table and the tables left behind by earlier runs are dropped
+    //
+    String stagingSchemaName = environmentSubstitute( meta.getSchemaName() );
+    String stagingTable = getStagingTableName( new Date() );
+    if ( databaseMeta.supportsSessionTables() ) {
+      stagingSchemaName = null;
+      stagingTable = databaseMeta.getSessionTableName( stagingTable );
+    }
+    String stagingSchemaTable = databaseMeta.getQuotedSchemaTableCombination( stagingSchemaName, stagingTable );
+
+    data.mergeSql =
+      databaseMeta.getSQLMergeFromTable( data.schemaTable, stagingSchemaTable, keyColumns, insertColumns,
+        updateColumns.toArray( new String[updateColumns.size()] ) );
+    if ( data.mergeSql == null ) {
+      logBasic( BaseMessages.getString( PKG, "InsertUpdate.Log.MergeModeNotSupported", databaseMeta
+        .getPluginId() ) );
+      return false;
+    }
+
+    String ddl;
+    if ( databaseMeta.supportsSessionTables() ) {
+      ddl = data.db.getCreateSessionTableStatement( stagingSchemaTable, data.stagingRowMeta );
+    } else {
+      dropStaleStagingTables( stagingSchemaName );
+      ddl = data.db.getCreateTableStatement( stagingSchemaTable, data.stagingRowMeta, null, false, null, false );
+    }
+    if ( log.isDetailed() ) {
+      logDetailed( "Creating staging table with [" + ddl + "]" );
+    }
+    data.db.execStatement( ddl );
+    if ( !data.db.isAutoCommit() ) {
+      data.db.commit();
+    }
+    data.stagingSchemaTable = stagingSchemaTable;
+    data.prepStatementStaging =
+      data.db.prepareSQL( data.db.getInsertStatement( stagingSchemaName, stagingTable, data.stagingRowMeta ) );
+    data.prepStatementMerge = data.db.prepareSQL( data.mergeSql );
+
+    int commitSize = meta.getCommitSize( this );
+    data.mergeBatchSize = commitSize > 0 ? commitSize : DEFAULT_MERGE_BATCH_SIZE;
+
+    if ( log.isDetailed() ) {
+      logDetailed( "Merge statement is [" + data.mergeSql + "]" );
+    }
+    return true;
+  }
+
+  /**
+   * Adds a row to the batch of the staging table, merging the batch when it's full.
+   */
+  protected void stageRow( RowMetaInterface rowMeta, Object[] row ) throws KettleException {
+    Object[] stagingRow = new Object[data.stagingValuenrs.length];
+    for ( int i = 0; i < data.stagingValuenrs.length; i++ ) {
+      stagingRow[i] = row[data.stagingValuenrs[i]];
+    }
+
+    // A merge statement can't touch the same target row twice: a key that's already staged starts a new batch.
+    //
+    Object[] key = new Object[data.stagingKeyCount];
+    for ( int i = 0; i < key.length; i++ ) {
+      key[i] = data.stagingRowMeta.getValueMeta( i ).convertToNormalStorageType( stagingRow[i] );
+    }
+    List<Object> stagedKey = Arrays.asList( key );
+    if ( data.stagedKeys.contains( stagedKey ) ) {
+      mergeStagedRows();
+    }
+    data.stagedKeys.add( stagedKey );
+
+    if ( log.isRowLevel() ) {
+      logRowlevel( BaseMessages.getString( PKG, "InsertUpdate.Log.StageRow" ) + rowMeta.getString( row ) );
+    }
+    data.db.setValues( data.stagingRowMeta, stagingRow, data.prepStatementStaging );
+    try {
+      data.prepStatementStaging.addBatch();
+    } catch ( SQLException ex ) {
+      throw new KettleDatabaseException( "Unable to add a row to the batch for staging table ["
+        + data.stagingSchemaTable + "]", ex );
+    }
+    data.stagedRows++;
+
+    if ( data.stagedRows >= data.mergeBatchSize ) {
+      mergeStagedRows();
+    }
+  }
+
+  /**
+   * Writes the staged batch, merges it into the target table and empties the staging table again.
+   */
+  protected void mergeStagedRows() throws KettleException {
+    if ( data.stagedRows == 0 ) {
+      return;
+    }
+    try {
+      data.prepStatementStaging.executeBatch();
+      data.prepStatementStaging.clearBatch();
+    } catch ( SQLException ex ) {
+      throw Database.createKettleDatabaseBatchException( "Error writing batch to staging table ["
+        + data.stagingSchemaTable + "]", ex );
+    }
+
+    long merged;
+    try {
+      merged = data.prepStatementMerge.executeUpdate();
+    } catch ( SQLException ex ) {
+      throw new KettleDatabaseException( "Error merging staging table [" + data.stagingSchemaTable + "] into ["
+        + data.schemaTable + "]", ex );
+    }
+    data.db.execStatement( "DELETE FROM " + data.stagingSchemaTable );
+    if ( !data.db.isAutoCommit() ) {
+      data.db.commit();
+    }
+
+    // The database reports the inserted and updated rows together, some count an updated row twice. The staged rows
+    // the merge left untouched are skipped.
+    //
+    long written = Math.min( Math.max( merged, 0L ), data.stagedRows );
+    setLinesInput( getLinesInput() + data.stagedRows );
+    setLinesOutput( getLinesOutput() + written );
+    setLinesSkipped( getLinesSkipped() + data.stagedRows - written );
+    if ( log.isDetailed() ) {
+      logDetailed( BaseMessages.getString( PKG, "InsertUpdate.Log.MergedRows", String.valueOf( data.stagedRows ),
+        String.valueOf( written ) ) );
+    }
+
+    data.stagedRows = 0;
+    data.stagedKeys.clear();
+  }
+
+  /**
+   * @param created
+   *          the time the staging table is created
+   * @return a new staging table name, see {@link #getStagingTableCreation(String)}
+   */
+  static String getStagingTableName( Date created ) {
+    SimpleDateFormat format = new SimpleDateFormat( STAGING_TABLE_TIME_FORMAT );
+    format.setTimeZone( TimeZone.getTimeZone( "UTC" ) );
+    return STAGING_TABLE_PREFIX + format.format( created ) + "_"
+      + UUID.randomUUID().toString().replace( "-", "" ).substring( 0, 10 ).toUpperCase();
+  }
+
+  /**
+   * @param tableName
+   *          a table name
+   * @return the time the staging table was created or null if the table isn't a staging table
+   */
+  static Date getStagingTableCreation( String tableName ) {
+    if ( tableName == null || tableName.length() != STAGING_TABLE_NAME_LENGTH
+      || !tableName.toUpperCase().startsWith( STAGING_TABLE_PREFIX )
+      || tableName.charAt( STAGING_TABLE_PREFIX.length() + STAGING_TABLE_TIME_FORMAT.length() ) != '_' ) {
+      return null;
+    }
+    SimpleDateFormat format = new SimpleDateFormat( STAGING_TABLE_TIME_FORMAT );
+    format.setTimeZone( TimeZone.getTimeZone( "UTC" ) );
+    format.setLenient( false );
+    try {
+      return format.parse( tableName.substring( STAGING_TABLE_PREFIX.length(),
+        STAGING_TABLE_PREFIX.length() + STAGING_TABLE_TIME_FORMAT.length() ) );
+    } catch ( ParseException e ) {
+      return null;
+    }
+  }
+
+  /**
+   * Drops the staging tables in the schema that are older than a day: a run that's killed before it's disposed leaves
+   * its staging table behind. Failing to do so doesn't stop the step.
+   */
+  private void dropStaleStagingTables( String schemaName ) {
+    DatabaseMeta databaseMeta = meta.getDatabaseMeta();
+    long staleBefore = System.currentTimeMillis() - STALE_STAGING_TABLE_MILLIS;
+    try {
+      for ( String table : data.db.getTablenames( schemaName, false ) ) {
+        Date created = getStagingTableCreation( table );
+        if ( created != null && created.getTime() < staleBefore ) {
+          String staleSchemaTable = databaseMeta.getQuotedSchemaTableCombination( schemaName, table );
+          data.db.execStatement( "DROP TABLE " + staleSchemaTable );
+          logBasic( BaseMessages.getString( PKG, "InsertUpdate.Log.DroppedStaleStagingTable", staleSchemaTable ) );
+        }
+      }
+      if ( !data.db.isAutoCommit() ) {
+        data.db.commit();
+      }
+    } catch ( KettleDatabaseException e ) {
+      logBasic( BaseMessages.getString( PKG, "InsertUpdate.Log.UnableToDropStaleStagingTables" ) + e.toString() );
+    }
+  }
+
   public boolean init( StepMetaInterface smi, StepDataInterface sdi ) {
     meta = (InsertUpdateMeta) smi;
     data = (InsertUpdateData) sdi;
@@ -512,6 +798,20 @@ public class InsertUpdate extends BaseStep implements StepInterface {
       } catch ( KettleDatabaseException e ) {
         logError( BaseMessages.getString( PKG, "InsertUpdate.Log.UnableToCommitConnection" ) + e.toString() );
         setErrors( 1 );
+      }
+      try {
+        if ( data.stagingSchemaTable != null ) {
+          data.db.closePreparedStatement( data.prepStatementStaging );
+          data.db.closePreparedStatement( data.prepStatementMerge );
+          data.db.execStatement( "DROP TABLE " + data.stagingSchemaTable );
+          if ( !data.db.isAutoCommit() ) {
+            data.db.commit();
+          }
+        }
+      } catch ( KettleDatabaseException e ) {
+        logError( BaseMessages.getString( PKG, "InsertUpdate.Log.UnableToDropStagingTable", data.stagingSchemaTable )
+          + e.toString() );
+        setErrors( 1 );
       } finally {
         data.db.disconnect();
       }
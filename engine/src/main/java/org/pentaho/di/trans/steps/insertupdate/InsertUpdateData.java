@@ -23,6 +23,9 @@
 package org.pentaho.di.trans.steps.insertupdate;
 
 import java.sql.PreparedStatement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import org.pentaho.di.core.database.Database;
 import org.pentaho.di.core.row.RowMetaInterface;
@@ -54,6 +57,19 @@ public class InsertUpdateData extends BaseStepData implements StepDataInterface
   public RowMetaInterface lookupReturnRowMeta;
   public RowMetaInterface insertRowMeta;
 
+  // Merge mode: rows are staged in a work table and applied in batches with a single merge statement
+  public boolean mergeMode;
+  public int mergeBatchSize;
+  public String stagingSchemaTable;
+  public RowMetaInterface stagingRowMeta; // the key columns come first, followed by the other insert columns
+  public int[] stagingValuenrs; // Stream valuename nrs of the staging columns
+  public int stagingKeyCount;
+  public PreparedStatement prepStatementStaging;
+  public String mergeSql;
+  public PreparedStatement prepStatementMerge;
+  public Set<List<Object>> stagedKeys;
+  public int stagedRows;
+
   /**
    * Default constructor.
    */
@@ -61,5 +77,6 @@ public class InsertUpdateData extends BaseStepData implements StepDataInterface
     super();
 
     db = null;
+    stagedKeys = new HashSet<List<Object>>();
   }
 }
@@ -117,6 +117,10 @@ public class InsertUpdateMeta extends BaseStepMeta implements StepMetaInterface,
   @Injection( name = "DO_NOT" )
   private boolean updateBypassed;
 
+  /** Stage the rows in batches and apply them with a set-based merge statement where the database supports it */
+  @Injection( name = "MERGE_MODE" )
+  private boolean mergeMode;
+
   @Injection( name = "CONNECTIONNAME" )
   public void setConnection( String connectionName ) {
     databaseMeta = DatabaseMeta.findDatabase( databases, connectionName );
@@ -342,6 +346,7 @@ public class InsertUpdateMeta extends BaseStepMeta implements StepMetaInterface,
       schemaName = XMLHandler.getTagValue( stepnode, "lookup", "schema" );
       tableName = XMLHandler.getTagValue( stepnode, "lookup", "table" );
       updateBypassed = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "update_bypassed" ) );
+      mergeMode = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "merge_mode" ) );
 
       Node lookup = XMLHandler.getSubNode( stepnode, "lookup" );
       nrkeys = XMLHandler.countNodes( lookup, "key" );
@@ -422,6 +427,7 @@ public class InsertUpdateMeta extends BaseStepMeta implements StepMetaInterface,
         XMLHandler.addTagValue( "connection", databaseMeta == null ? "" : databaseMeta.getName() ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "commit", commitSize ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "update_bypassed", updateBypassed ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "merge_mode", mergeMode ) );
     retval.append( "    <lookup>" ).append( Const.CR );
     retval.append( "      " ).append( XMLHandler.addTagValue( "schema", schemaName ) );
     retval.append( "      " ).append( XMLHandler.addTagValue( "table", tableName ) );
@@ -468,6 +474,7 @@ public class InsertUpdateMeta extends BaseStepMeta implements StepMetaInterface,
       schemaName = rep.getStepAttributeString( id_step, "schema" );
       tableName = rep.getStepAttributeString( id_step, "table" );
       updateBypassed = rep.getStepAttributeBoolean( id_step, "update_bypassed" );
+      mergeMode = rep.getStepAttributeBoolean( id_step, "merge_mode" );
 
       int nrkeys = rep.countNrStepAttributes( id_step, "key_field" );
       int nrvalues = rep.countNrStepAttributes( id_step, "value_name" );
@@ -499,6 +506,7 @@ public class InsertUpdateMeta extends BaseStepMeta implements StepMetaInterface,
       rep.saveStepAttribute( id_transformation, id_step, "schema", schemaName );
       rep.saveStepAttribute( id_transformation, id_step, "table", tableName );
       rep.saveStepAttribute( id_transformation, id_step, "update_bypassed", updateBypassed );
+      rep.saveStepAttribute( id_transformation, id_step, "merge_mode", mergeMode );
 
       for ( int i = 0; i < keyStream.length; i++ ) {
         rep.saveStepAttribute( id_transformation, id_step, i, "key_name", keyStream[i] );
@@ -854,6 +862,22 @@ public class InsertUpdateMeta extends BaseStepMeta implements StepMetaInterface,
     this.updateBypassed = updateBypassed;
   }
 
+  /**
+   * @return true if the rows are staged in batches and applied with a set-based merge statement.
+   */
+  public boolean isMergeMode() {
+    return mergeMode;
+  }
+
+  /**
+   * @param mergeMode
+   *          true to stage the rows in batches and apply them with a set-based merge statement. Databases without
+   *          merge support fall back to the row by row lookup.
+   */
+  public void setMergeMode( boolean mergeMode ) {
+    this.mergeMode = mergeMode;
+  }
+
   public RowMetaInterface getRequiredFields( VariableSpace space ) throws KettleException {
     String realSchemaName = space.environmentSubstitute( schemaName );
     String realTableName = space.environmentSubstitute( tableName );
@@ -22,7 +22,7 @@
 
 package org.pentaho.di.trans.steps.jobexecutor;
 
-import java.util.ArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
 
 import com.google.common.annotations.VisibleForTesting;
 
@@ -31,6 +31,7 @@ import org.pentaho.di.core.util.Utils;
 import org.pentaho.di.core.Result;
 import org.pentaho.di.core.ResultFile;
 import org.pentaho.di.core.RowMetaAndData;
+import org.pentaho.di.core.SpillableRowList;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.extension.ExtensionPointHandler;
 import org.pentaho.di.core.extension.KettleExtensionPoint;
@@ -39,6 +40,7 @@ import org.pentaho.di.core.logging.LoggingObjectInterface;
 import org.pentaho.di.core.row.RowDataUtil;
 import org.pentaho.di.core.row.ValueMetaInterface;
 import org.pentaho.di.core.row.value.ValueMetaFactory;
+import org.pentaho.di.core.variables.Variables;
 import org.pentaho.di.i18n.BaseMessages;
 import org.pentaho.di.job.DelegationListener;
 import org.pentaho.di.job.Job;
@@ -53,6 +55,7 @@ import org.pentaho.di.trans.step.StepDataInterface;
 import org.pentaho.di.trans.step.StepInterface;
 import org.pentaho.di.trans.step.StepMeta;
 import org.pentaho.di.trans.step.StepMetaInterface;
+import org.pentaho.di.trans.steps.ParallelGroupExecutor;
 
 /**
  * Execute a job for every input row.
@@ -72,6 +75,11 @@ public class JobExecutor extends BaseStep implements StepInterface {
   private JobExecutorMeta meta;
   private JobExecutorData data;
 
+  /**
+   * Executes several groups at the same time, null if the groups are executed one after the other.
+   */
+  private ParallelGroupExecutor<ExecutorGroup> parallelGroupExecutor;
+
   public JobExecutor( StepMeta stepMeta, StepDataInterface stepDataInterface, int copyNr, TransMeta transMeta,
     Trans trans ) {
     super( stepMeta, stepDataInterface, copyNr, transMeta, trans );
@@ -95,6 +103,9 @@ public class JobExecutor extends BaseStep implements StepInterface {
         if ( !data.groupBuffer.isEmpty() ) {
           executeJob();
         }
+        if ( parallelGroupExecutor != null ) {
+          parallelGroupExecutor.finish();
+        }
         setOutputDone();
         return false;
       }
@@ -191,13 +202,24 @@ public class JobExecutor extends BaseStep implements StepInterface {
       discardLogLines( data );
     }
 
-    data.executorJob = createJob( meta.getRepository(), data.executorJobMeta, this );
+    JobMeta executorJobMeta = data.executorJobMeta;
+    if ( parallelGroupExecutor != null ) {
+      executorJobMeta = data.idleExecutorJobMetas.poll();
+      if ( executorJobMeta == null ) {
+        // Every group executing at the same time needs its own copy, including the variables.
+        executorJobMeta = (JobMeta) data.executorJobMeta.clone();
+        executorJobMeta.shareVariablesWith( new Variables() );
+        executorJobMeta.copyVariablesFrom( data.executorJobMeta );
+      }
+    }
 
-    data.executorJob.shareVariablesWith( data.executorJobMeta );
+    data.executorJob = createJob( meta.getRepository(), executorJobMeta, this );
+
+    data.executorJob.shareVariablesWith( executorJobMeta );
     data.executorJob.setParentTrans( getTrans() );
     data.executorJob.setLogLevel( getLogLevel() );
     data.executorJob.setInternalKettleVariables( this );
-    data.executorJob.copyParametersFrom( data.executorJobMeta );
+    data.executorJob.copyParametersFrom( executorJobMeta );
     data.executorJob.setArguments( getTrans().getArguments() );
 
     // data.executorJob.setInteractive(); TODO: pass interactivity through the transformation too for drill-down.
@@ -220,9 +242,28 @@ public class JobExecutor extends BaseStep implements StepInterface {
     //
     getTrans().getActiveSubjobs().put( getStepname(), data.executorJob );
 
-    ExtensionPointHandler.callExtensionPoint( log, KettleExtensionPoint.JobStart.id, data.executorJob );
+    // Leave the execution to the parallel group executor, the group takes the rows along
+    //
+    if ( parallelGroupExecutor != null ) {
+      ExecutorGroup group = new ExecutorGroup();
+      group.executorJobMeta = executorJobMeta;
+      group.executorJob = data.executorJob;
+      data.groupBuffer = new SpillableRowList();
+      parallelGroupExecutor.submit( group );
+      return;
+    }
 
-    data.executorJob.beginProcessing();
+    Result result = runJob( data.executorJob );
+    collectJobResults( result, data.executorJob, System.currentTimeMillis() - data.groupTimeStart );
+
+    result.dispose();
+    data.groupBuffer.clear();
+  }
+
+  private Result runJob( Job executorJob ) throws KettleException {
+    ExtensionPointHandler.callExtensionPoint( log, KettleExtensionPoint.JobStart.id, executorJob );
+
+    executorJob.beginProcessing();
 
     Result result = new Result();
 
@@ -232,30 +273,56 @@ public class JobExecutor extends BaseStep implements StepInterface {
       // TODO: copy some settings in the job execution configuration, not strictly needed
       // but the execution configuration information is useful in case of a job re-start on Carte
       //
-      delegationListener.jobDelegationStarted( data.executorJob, new JobExecutionConfiguration() );
+      delegationListener.jobDelegationStarted( executorJob, new JobExecutionConfiguration() );
     }
 
     // Now go execute this job
     //
     try {
-      result = data.executorJob.execute( 0, result );
+      result = executorJob.execute( 0, result );
     } catch ( KettleException e ) {
       log.logError( "An error occurred executing the job: ", e );
       result.setResult( false );
       result.setNrErrors( 1 );
     } finally {
       try {
-        ExtensionPointHandler.callExtensionPoint( log, KettleExtensionPoint.JobFinish.id, data.executorJob );
-        getExecutorJob().getJobMeta().disposeEmbeddedMetastoreProvider();
+        ExtensionPointHandler.callExtensionPoint( log, KettleExtensionPoint.JobFinish.id, executorJob );
+        executorJob.getJobMeta().disposeEmbeddedMetastoreProvider();
         log.logDebug( BaseMessages.getString( PKG, "JobExecutor.Log.DisposeEmbeddedMetastore" ) );
-        data.executorJob.fireJobFinishListeners();
+        executorJob.fireJobFinishListeners();
       } catch ( KettleException e ) {
         result.setNrErrors( 1 );
         result.setResult( false );
         log.logError( BaseMessages.getString( PKG, "JobExecutor.Log.ErrorExecJob", e.getMessage() ), e );
       }
     }
+    return result;
+  }
 
+  /**
+   * Executes the job of a group, called by the parallel group executor in the background.
+   */
+  private void executeGroup( ExecutorGroup group ) throws KettleException {
+    long startTime = System.currentTimeMillis();
+    try {
+      group.result = runJob( group.executorJob );
+    } finally {
+      group.executionTime = System.currentTimeMillis() - startTime;
+      data.idleExecutorJobMetas.add( group.executorJobMeta );
+    }
+  }
+
+  /**
+   * Passes on the results of an executed group, called by the parallel group executor on the step thread.
+   */
+  private void collectGroup( ExecutorGroup group ) throws KettleException {
+    collectJobResults( group.result, group.executorJob, group.executionTime );
+
+    group.result.dispose();
+    SpillableRowList.release( group.executorJob.getSourceRows() );
+  }
+
+  private void collectJobResults( Result result, Job executorJob, long executionTime ) throws KettleException {
     // First the natural output...
     //
     if ( meta.getExecutionResultTargetStepMeta() != null ) {
@@ -263,7 +330,7 @@ public class JobExecutor extends BaseStep implements StepInterface {
       int idx = 0;
 
       if ( !Utils.isEmpty( meta.getExecutionTimeField() ) ) {
-        outputRow[idx++] = Long.valueOf( System.currentTimeMillis() - data.groupTimeStart );
+        outputRow[idx++] = Long.valueOf( executionTime );
       }
       if ( !Utils.isEmpty( meta.getExecutionResultField() ) ) {
         outputRow[idx++] = Boolean.valueOf( result.getResult() );
@@ -299,12 +366,12 @@ public class JobExecutor extends BaseStep implements StepInterface {
         outputRow[idx++] = Long.valueOf( result.getExitStatus() );
       }
       if ( !Utils.isEmpty( meta.getExecutionLogTextField() ) ) {
-        String channelId = data.executorJob.getLogChannelId();
+        String channelId = executorJob.getLogChannelId();
         String logText = KettleLogStore.getAppender().getBuffer( channelId, false ).toString();
         outputRow[idx++] = logText;
       }
       if ( !Utils.isEmpty( meta.getExecutionLogChannelIdField() ) ) {
-        outputRow[idx++] = data.executorJob.getLogChannelId();
+        outputRow[idx++] = executorJob.getLogChannelId();
       }
 
       putRowTo( data.executionResultsOutputRowMeta, outputRow, data.executionResultRowSet );
@@ -342,8 +409,6 @@ public class JobExecutor extends BaseStep implements StepInterface {
         putRowTo( data.resultFilesOutputRowMeta, targetRow, data.resultFilesRowSet );
       }
     }
-
-    data.groupBuffer.clear();
   }
 
   @VisibleForTesting
@@ -400,7 +465,7 @@ public class JobExecutor extends BaseStep implements StepInterface {
         // Do we have a job at all?
         //
         if ( data.executorJobMeta != null ) {
-          data.groupBuffer = new ArrayList<RowMetaAndData>();
+          data.groupBuffer = new SpillableRowList();
 
           // How many rows do we group together for the job?
           //
@@ -424,6 +489,16 @@ public class JobExecutor extends BaseStep implements StepInterface {
             data.groupField = environmentSubstitute( meta.getGroupField() );
           }
 
+          // How many groups do we execute at the same time?
+          //
+          int parallelism = Const.toInt( environmentSubstitute( meta.getParallelism() ), 1 );
+          if ( parallelism > 1 ) {
+            data.idleExecutorJobMetas = new LinkedBlockingQueue<JobMeta>();
+            data.idleExecutorJobMetas.add( data.executorJobMeta );
+            parallelGroupExecutor =
+              new ParallelGroupExecutor<>( parallelism, meta.isOrderedResults(), this::executeGroup, this::collectGroup );
+          }
+
           // That's all for now...
           return true;
         } else {
@@ -439,6 +514,7 @@ public class JobExecutor extends BaseStep implements StepInterface {
   }
 
   public void dispose( StepMetaInterface smi, StepDataInterface sdi ) {
+    SpillableRowList.release( data.groupBuffer );
     data.groupBuffer = null;
 
     super.dispose( smi, sdi );
@@ -448,6 +524,7 @@ public class JobExecutor extends BaseStep implements StepInterface {
     if ( data.executorJob != null ) {
       data.executorJob.stopAll();
     }
+    stopParallelGroups();
   }
 
   public void stopAll() {
@@ -455,6 +532,7 @@ public class JobExecutor extends BaseStep implements StepInterface {
     if ( data.executorJob != null ) {
       data.executorJob.stopAll();
     }
+    stopParallelGroups();
 
     // Also stop this step
     super.stopAll();
@@ -481,7 +559,25 @@ public class JobExecutor extends BaseStep implements StepInterface {
    * data.executorJob.getResult()!=null) return data.executorJob.getResult().getNrLinesWritten(); else return 0; }
    */
 
+  private void stopParallelGroups() {
+    if ( parallelGroupExecutor != null ) {
+      for ( ExecutorGroup group : parallelGroupExecutor.getActiveGroups() ) {
+        group.executorJob.stopAll();
+      }
+    }
+  }
+
   public Job getExecutorJob() {
     return data.executorJob;
   }
+
+  /**
+   * A group of rows executed in parallel with other groups, by its own job.
+   */
+  private static class ExecutorGroup {
+    private JobMeta executorJobMeta;
+    private Job executorJob;
+    private long executionTime;
+    private Result result;
+  }
 }
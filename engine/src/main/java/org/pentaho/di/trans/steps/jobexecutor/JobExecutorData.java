@@ -23,6 +23,7 @@
 package org.pentaho.di.trans.steps.jobexecutor;
 
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
 
 import org.pentaho.di.core.RowMetaAndData;
 import org.pentaho.di.core.RowSet;
@@ -58,6 +59,11 @@ public class JobExecutorData extends BaseStepData implements StepDataInterface {
   public RowSet resultFilesRowSet;
   public RowSet executionResultRowSet;
 
+  /**
+   * The copies of the executor job metadata that aren't used by a group executing in parallel.
+   */
+  public BlockingQueue<JobMeta> idleExecutorJobMetas;
+
   public JobExecutorData() {
     super();
   }
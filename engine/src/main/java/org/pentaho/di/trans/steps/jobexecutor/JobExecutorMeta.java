@@ -22,6 +22,7 @@
 
 package org.pentaho.di.trans.steps.jobexecutor;
 
+import org.pentaho.di.base.MetaCache;
 import org.pentaho.di.core.CheckResult;
 import org.pentaho.di.core.CheckResultInterface;
 import org.pentaho.di.core.Const;
@@ -112,6 +113,16 @@ public class JobExecutorMeta extends BaseStepMeta implements StepMetaInterface,
    */
   private String groupTime;
 
+  /**
+   * The number of groups of rows that are executed at the same time, each by its own job (empty default, "1")
+   */
+  private String parallelism;
+
+  /**
+   * True if the output of the groups executed at the same time is passed on in the order of the groups (default).
+   */
+  private boolean orderedResults;
+
   private JobExecutorParameters parameters;
 
   private String executionResultTargetStep;
@@ -225,6 +236,8 @@ public class JobExecutorMeta extends BaseStepMeta implements StepMetaInterface,
     retval.append( "    " ).append( XMLHandler.addTagValue( "group_size", groupSize ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "group_field", groupField ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "group_time", groupTime ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "parallelism", parallelism ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "ordered_results", orderedResults ) );
 
     // Add the mapping parameters too
     //
@@ -297,6 +310,8 @@ public class JobExecutorMeta extends BaseStepMeta implements StepMetaInterface,
       groupSize = XMLHandler.getTagValue( stepnode, "group_size" );
       groupField = XMLHandler.getTagValue( stepnode, "group_field" );
       groupTime = XMLHandler.getTagValue( stepnode, "group_time" );
+      parallelism = XMLHandler.getTagValue( stepnode, "parallelism" );
+      orderedResults = !"N".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "ordered_results" ) );
 
       // Load the mapping parameters too..
       //
@@ -360,6 +375,8 @@ public class JobExecutorMeta extends BaseStepMeta implements StepMetaInterface,
     groupSize = rep.getStepAttributeString( id_step, "group_size" );
     groupField = rep.getStepAttributeString( id_step, "group_field" );
     groupTime = rep.getStepAttributeString( id_step, "group_time" );
+    parallelism = rep.getStepAttributeString( id_step, "parallelism" );
+    orderedResults = rep.getStepAttributeBoolean( id_step, 0, "ordered_results", true );
 
     parameters = new JobExecutorParameters( rep, id_step );
 
@@ -411,6 +428,8 @@ public class JobExecutorMeta extends BaseStepMeta implements StepMetaInterface,
     rep.saveStepAttribute( id_transformation, id_step, "group_size", groupSize );
     rep.saveStepAttribute( id_transformation, id_step, "group_field", groupField );
     rep.saveStepAttribute( id_transformation, id_step, "group_time", groupTime );
+    rep.saveStepAttribute( id_transformation, id_step, "parallelism", parallelism );
+    rep.saveStepAttribute( id_transformation, id_step, "ordered_results", orderedResults );
 
     // save the mapping parameters too
     //
@@ -472,6 +491,8 @@ public class JobExecutorMeta extends BaseStepMeta implements StepMetaInterface,
     groupSize = "1";
     groupField = "";
     groupTime = "";
+    parallelism = "";
+    orderedResults = true;
 
     executionTimeField = "ExecutionTime";
     executionResultField = "ExecutionResult";
@@ -609,6 +630,8 @@ public class JobExecutorMeta extends BaseStepMeta implements StepMetaInterface,
   public static final synchronized JobMeta loadJobMeta( JobExecutorMeta executorMeta, Repository rep,
     IMetaStore metaStore, VariableSpace space ) throws KettleException {
     JobMeta mappingJobMeta = null;
+    MetaCache metaCache = MetaCache.getInstance();
+    boolean useCache = metaCache.isEnabled( space );
 
     CurrentDirectoryResolver r = new CurrentDirectoryResolver();
     VariableSpace tmpSpace = r.resolveCurrentDirectory( executorMeta.getSpecificationMethod(),
@@ -629,7 +652,8 @@ public class JobExecutorMeta extends BaseStepMeta implements StepMetaInterface,
               String dirStr = realFilename.substring( 0, realFilename.lastIndexOf( "/" ) );
               String tmpFilename = realFilename.substring( realFilename.lastIndexOf( "/" ) + 1 );
               RepositoryDirectoryInterface dir = rep.findDirectory( dirStr );
-              mappingJobMeta = rep.loadJob( tmpFilename, dir, null, null );
+              mappingJobMeta = useCache ? metaCache.loadJobMeta( rep, tmpFilename, dir )
+                : rep.loadJob( tmpFilename, dir, null, null );
             } catch ( KettleException ke ) {
               // try without extension
               if ( realFilename.endsWith( Const.STRING_JOB_DEFAULT_EXT ) ) {
@@ -638,7 +662,8 @@ public class JobExecutorMeta extends BaseStepMeta implements StepMetaInterface,
                       realFilename.indexOf( "." + Const.STRING_JOB_DEFAULT_EXT ) );
                   String dirStr = realFilename.substring( 0, realFilename.lastIndexOf( "/" ) );
                   RepositoryDirectoryInterface dir = rep.findDirectory( dirStr );
-                  mappingJobMeta = rep.loadJob( tmpFilename, dir, null, null );
+                  mappingJobMeta = useCache ? metaCache.loadJobMeta( rep, tmpFilename, dir )
+                    : rep.loadJob( tmpFilename, dir, null, null );
                 } catch ( KettleException ke2 ) {
                   // fall back to try loading from file system (mappingJobMeta is going to be null)
                 }
@@ -646,7 +671,8 @@ public class JobExecutorMeta extends BaseStepMeta implements StepMetaInterface,
             }
           }
           if ( mappingJobMeta == null ) {
-            mappingJobMeta = new JobMeta( null, realFilename, rep, metaStore, null );
+            mappingJobMeta = useCache ? metaCache.loadJobMeta( null, realFilename, rep, metaStore )
+              : new JobMeta( null, realFilename, rep, metaStore, null );
             LogChannel.GENERAL.logDetailed( "Loading job from repository", "Job was loaded from XML file ["
               + realFilename + "]" );
           }
@@ -667,7 +693,8 @@ public class JobExecutorMeta extends BaseStepMeta implements StepMetaInterface,
               try {
                 // reads the last revision in the repository...
                 //
-                mappingJobMeta = rep.loadJob( realJobname, repdir, null, null ); // TODO: FIXME: should we also pass an
+                mappingJobMeta = useCache ? metaCache.loadJobMeta( rep, realJobname, repdir )
+                  : rep.loadJob( realJobname, repdir, null, null ); // TODO: FIXME: should we also pass an
                                                                                  // external MetaStore into the
                                                                                  // repository?
                 LogChannel.GENERAL.logDetailed( "Loading job from repository", "Executor job ["
@@ -680,12 +707,14 @@ public class JobExecutorMeta extends BaseStepMeta implements StepMetaInterface,
         } else {
           // rep is null, let's try loading by filename
           try {
-            mappingJobMeta = new JobMeta( null, realDirectory + "/" + realJobname, rep, metaStore, null );
+            mappingJobMeta = useCache ? metaCache.loadJobMeta( null, realDirectory + "/" + realJobname, rep, metaStore )
+              : new JobMeta( null, realDirectory + "/" + realJobname, rep, metaStore, null );
           } catch ( KettleException ke ) {
             try {
               // add .kjb extension and try again
-              mappingJobMeta = new JobMeta( null,
-                  realDirectory + "/" + realJobname + "." + Const.STRING_JOB_DEFAULT_EXT, rep, metaStore, null );
+              String jobFilename = realDirectory + "/" + realJobname + "." + Const.STRING_JOB_DEFAULT_EXT;
+              mappingJobMeta = useCache ? metaCache.loadJobMeta( null, jobFilename, rep, metaStore )
+                : new JobMeta( null, jobFilename, rep, metaStore, null );
             } catch ( KettleException ke2 ) {
               throw new KettleException( BaseMessages.getString(
                   PKG, "JobExecutorMeta.Exception.UnableToLoadJob", realJobname )
@@ -697,7 +726,8 @@ public class JobExecutorMeta extends BaseStepMeta implements StepMetaInterface,
 
       case REPOSITORY_BY_REFERENCE:
         // Read the last revision by reference...
-        mappingJobMeta = rep.loadJob( executorMeta.getJobObjectId(), null );
+        mappingJobMeta = useCache ? metaCache.loadJobMeta( rep, executorMeta.getJobObjectId() )
+          : rep.loadJob( executorMeta.getJobObjectId(), null );
         break;
       default:
         break;
@@ -1443,6 +1473,36 @@ public class JobExecutorMeta extends BaseStepMeta implements StepMetaInterface,
     this.groupTime = groupTime;
   }
 
+  /**
+   * @return the number of groups executed at the same time
+   */
+  public String getParallelism() {
+    return parallelism;
+  }
+
+  /**
+   * @param parallelism
+   *          the number of groups executed at the same time
+   */
+  public void setParallelism( String parallelism ) {
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * @return true if the output of the groups is passed on in the order of the groups
+   */
+  public boolean isOrderedResults() {
+    return orderedResults;
+  }
+
+  /**
+   * @param orderedResults
+   *          true to pass on the output of the groups in the order of the groups
+   */
+  public void setOrderedResults( boolean orderedResults ) {
+    this.orderedResults = orderedResults;
+  }
+
   @Override
   public boolean excludeFromCopyDistributeVerification() {
     return true;
@@ -0,0 +1,363 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2021 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.pentaho.di.trans.steps.mapping;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.exception.KettleStepException;
+import org.pentaho.di.core.logging.LogChannelInterface;
+import org.pentaho.di.core.util.Utils;
+import org.pentaho.di.core.variables.VariableSpace;
+import org.pentaho.di.i18n.BaseMessages;
+import org.pentaho.di.trans.TransHopMeta;
+import org.pentaho.di.trans.TransMeta;
+import org.pentaho.di.trans.TransMeta.TransformationType;
+import org.pentaho.di.trans.step.StepIOMetaInterface;
+import org.pentaho.di.trans.step.StepMeta;
+import org.pentaho.di.trans.step.errorhandling.StreamInterface;
+import org.pentaho.di.trans.steps.mappinginput.MappingInputMeta;
+import org.pentaho.di.trans.steps.mappingoutput.MappingOutputMeta;
+
+/**
+ * Splices the steps of mappings into the transformation that uses them. Instead of running a sub-transformation
+ * behind a Mapping step, the steps of the mapping become steps of the parent transformation, named after the mapping
+ * step. The Mapping Input and Mapping Output steps stay in place to rename the fields, but they are connected over
+ * regular hops to the steps the Mapping step would have connected them to.<br>
+ * <br>
+ * A mapping that can't be inlined, because it uses parameters or because other steps refer to the mapping step by
+ * name for example, is simply left alone and executed as a sub-transformation.
+ */
+public class MappingInliner {
+  private static Class<?> PKG = MappingMeta.class; // for i18n purposes, needed by Translator2!!
+
+  /**
+   * Separates the name of the mapping step from the name of the inlined step.
+   */
+  public static final String STEPNAME_SEPARATOR = "/";
+
+  /**
+   * Mappings that are nested deeper than this are executed as a sub-transformation.
+   */
+  private static final int MAX_NESTING_LEVEL = 10;
+
+  private final LogChannelInterface log;
+
+  /**
+   * The mapping each inlined step comes from: its steps use the variables of the mapping.
+   */
+  private final Map<StepMeta, VariableSpace> variableSpaces = new IdentityHashMap<>();
+
+  public MappingInliner( LogChannelInterface log ) {
+    this.log = log;
+  }
+
+  /**
+   * Inlines the mappings of a transformation.
+   *
+   * @param transMeta the transformation to inline the mappings of, it is not modified
+   * @param space the variables to load the mappings with
+   * @return a copy of the transformation with the mappings inlined or the transformation itself if there was nothing
+   *         to inline.
+   */
+  public TransMeta inlineMappings( TransMeta transMeta, VariableSpace space ) {
+    if ( findMappingSteps( transMeta ).isEmpty() ) {
+      return transMeta;
+    }
+
+    TransMeta inlinedTransMeta = (TransMeta) transMeta.clone();
+
+    // The hops of a copy still point to the steps of the original.
+    //
+    for ( int i = 0; i < inlinedTransMeta.nrTransHops(); i++ ) {
+      TransHopMeta hop = inlinedTransMeta.getTransHop( i );
+      hop.setFromStep( inlinedTransMeta.findStep( hop.getFromStep().getName() ) );
+      hop.setToStep( inlinedTransMeta.findStep( hop.getToStep().getName() ) );
+    }
+    inlinedTransMeta.clearCaches();
+
+    if ( inlineMappings( inlinedTransMeta, space, 0 ) == 0 ) {
+      return transMeta;
+    }
+    return inlinedTransMeta;
+  }
+
+  /**
+   * @param stepMeta a step of the transformation returned by {@link #inlineMappings(TransMeta, VariableSpace)}
+   * @return the variables of the mapping the step comes from or null if it's not an inlined step.
+   */
+  public VariableSpace getVariableSpace( StepMeta stepMeta ) {
+    return variableSpaces.get( stepMeta );
+  }
+
+  private int inlineMappings( TransMeta transMeta, VariableSpace space, int level ) {
+    int nrInlined = 0;
+    for ( StepMeta mappingStep : findMappingSteps( transMeta ) ) {
+      MappingMeta mappingMeta = (MappingMeta) mappingStep.getStepMetaInterface();
+
+      String reason;
+      if ( level >= MAX_NESTING_LEVEL ) {
+        reason = BaseMessages.getString( PKG, "MappingInliner.Reason.Nesting" );
+      } else {
+        reason = checkMappingStep( transMeta, mappingStep, mappingMeta );
+      }
+
+      if ( reason == null ) {
+        try {
+          TransMeta mappingTransMeta = loadMappingMeta( transMeta, mappingMeta, space );
+          reason = checkMapping( mappingTransMeta );
+          if ( reason == null ) {
+            Splice splice = new Splice( transMeta, mappingStep, mappingMeta, mappingTransMeta );
+
+            // Mappings in the mapping go first, while their steps still live next to the mapping input and output
+            //
+            inlineMappings( mappingTransMeta, mappingTransMeta, level + 1 );
+
+            reason = splice.apply();
+          }
+        } catch ( KettleException e ) {
+          reason = e.getSuperMessage();
+        }
+      }
+
+      if ( reason == null ) {
+        nrInlined++;
+        if ( log.isDetailed() ) {
+          log.logDetailed( BaseMessages.getString( PKG, "MappingInliner.Log.MappingInlined", mappingStep.getName() ) );
+        }
+      } else {
+        if ( log.isDetailed() ) {
+          log.logDetailed( BaseMessages.getString( PKG, "MappingInliner.Log.UnableToInline", mappingStep.getName(),
+            reason ) );
+        }
+      }
+    }
+    return nrInlined;
+  }
+
+  protected TransMeta loadMappingMeta( TransMeta transMeta, MappingMeta mappingMeta, VariableSpace space )
+    throws KettleException {
+    mappingMeta.setRepository( transMeta.getRepository() );
+    return MappingMeta.loadMappingMeta( mappingMeta, transMeta.getRepository(), transMeta.getMetaStore(), space,
+      true );
+  }
+
+  private static List<StepMeta> findMappingSteps( TransMeta transMeta ) {
+    List<StepMeta> mappingSteps = new ArrayList<>();
+    for ( StepMeta stepMeta : transMeta.getSteps() ) {
+      if ( stepMeta.isMapping() ) {
+        mappingSteps.add( stepMeta );
+      }
+    }
+    return mappingSteps;
+  }
+
+  /**
+   * @return the reason why the mapping step can't be inlined or null if it can be.
+   */
+  private static String checkMappingStep( TransMeta transMeta, StepMeta mappingStep, MappingMeta mappingMeta ) {
+    // The steps of an inlined mapping share the variables of the parent transformation
+    //
+    MappingParameters mappingParameters = mappingMeta.getMappingParameters();
+    if ( mappingParameters != null && ( !mappingParameters.isInheritingAllVariables()
+      || mappingParameters.getVariable().length > 0 ) ) {
+      return BaseMessages.getString( PKG, "MappingInliner.Reason.Parameters" );
+    }
+
+    if ( transMeta.getTransformationType() != TransformationType.Normal ) {
+      return BaseMessages.getString( PKG, "MappingInliner.Reason.TransformationType" );
+    }
+
+    if ( mappingStep.getCopies() != 1 || mappingStep.isPartitioned() || mappingStep.isClustered()
+      || mappingStep.isDoingErrorHandling() || !mappingStep.getRemoteInputSteps().isEmpty()
+      || !mappingStep.getRemoteOutputSteps().isEmpty() ) {
+      return BaseMessages.getString( PKG, "MappingInliner.Reason.StepOptions" );
+    }
+
+    // Steps that refer to the mapping step by name would lose track of it
+    //
+    for ( StepMeta stepMeta : transMeta.getSteps() ) {
+      if ( stepMeta.equals( mappingStep ) ) {
+        continue;
+      }
+      if ( stepMeta.getStepErrorMeta() != null && mappingStep.equals( stepMeta.getStepErrorMeta().getTargetStep() ) ) {
+        return BaseMessages.getString( PKG, "MappingInliner.Reason.Referenced", stepMeta.getName() );
+      }
+      StepIOMetaInterface stepIOMeta = stepMeta.getStepMetaInterface().getStepIOMeta();
+      if ( stepIOMeta != null ) {
+        List<StreamInterface> streams = new ArrayList<>( stepIOMeta.getInfoStreams() );
+        streams.addAll( stepIOMeta.getTargetStreams() );
+        for ( StreamInterface stream : streams ) {
+          if ( mappingStep.getName().equals( stream.getStepname() ) ) {
+            return BaseMessages.getString( PKG, "MappingInliner.Reason.Referenced", stepMeta.getName() );
+          }
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @return the reason why the mapping can't be inlined or null if it can be.
+   */
+  private static String checkMapping( TransMeta mappingTransMeta ) {
+    if ( mappingTransMeta == null ) {
+      return BaseMessages.getString( PKG, "MappingInliner.Reason.NoMapping" );
+    }
+    if ( mappingTransMeta.listParameters().length > 0 ) {
+      return BaseMessages.getString( PKG, "MappingInliner.Reason.Parameters" );
+    }
+    if ( mappingTransMeta.getTransformationType() != TransformationType.Normal ) {
+      return BaseMessages.getString( PKG, "MappingInliner.Reason.TransformationType" );
+    }
+    return null;
+  }
+
+  /**
+   * Replaces a mapping step by the steps of its mapping. The hops to the mapping input and from the mapping output
+   * steps are worked out the same way {@link Mapping} connects these steps to the steps of the parent transformation.
+   */
+  private class Splice {
+    private final TransMeta transMeta;
+    private final StepMeta mappingStep;
+    private final TransMeta mappingTransMeta;
+    private final List<TransHopMeta> hops = new ArrayList<>();
+
+    Splice( TransMeta transMeta, StepMeta mappingStep, MappingMeta mappingMeta, TransMeta mappingTransMeta )
+      throws KettleException {
+      this.transMeta = transMeta;
+      this.mappingStep = mappingStep;
+      this.mappingTransMeta = mappingTransMeta;
+
+      // The fields renamed on the way in can be renamed back by all the mapping output steps
+      //
+      List<MappingValueRename> inputRenameList = new ArrayList<>();
+
+      for ( MappingIODefinition inputDefinition : mappingMeta.getInputMappings() ) {
+        List<StepMeta> sourceSteps;
+        if ( !Utils.isEmpty( inputDefinition.getInputStepname() ) ) {
+          sourceSteps = Collections.singletonList( findStep( transMeta, inputDefinition.getInputStepname() ) );
+        } else {
+          sourceSteps = transMeta.findPreviousSteps( mappingStep );
+        }
+
+        StepMeta mappingInputStep = mappingTransMeta.findMappingInputStep( inputDefinition.getOutputStepname() );
+        if ( !( mappingInputStep.getStepMetaInterface() instanceof MappingInputMeta ) ) {
+          throw new KettleStepException( BaseMessages.getString( PKG,
+            "MappingDialog.Exception.OneMappingInputStepRequired" ) );
+        }
+        MappingInputMeta mappingInputMeta = (MappingInputMeta) mappingInputStep.getStepMetaInterface();
+        mappingInputMeta.setInlined( true );
+        mappingInputMeta.setValueRenames( inputDefinition.getValueRenames() );
+
+        if ( inputDefinition.isRenamingOnOutput() ) {
+          Mapping.addInputRenames( inputRenameList, inputDefinition.getValueRenames() );
+        }
+
+        for ( StepMeta sourceStep : sourceSteps ) {
+          hops.add( new TransHopMeta( sourceStep, mappingInputStep ) );
+        }
+      }
+
+      for ( MappingIODefinition outputDefinition : mappingMeta.getOutputMappings() ) {
+        StepMeta mappingOutputStep = mappingTransMeta.findMappingOutputStep( outputDefinition.getInputStepname() );
+        if ( !( mappingOutputStep.getStepMetaInterface() instanceof MappingOutputMeta ) ) {
+          throw new KettleStepException( BaseMessages.getString( PKG,
+            "MappingDialog.Exception.OneMappingOutputStepRequired" ) );
+        }
+        MappingOutputMeta mappingOutputMeta = (MappingOutputMeta) mappingOutputStep.getStepMetaInterface();
+        mappingOutputMeta.setInlined( true );
+        mappingOutputMeta.setInputValueRenames( inputRenameList );
+        mappingOutputMeta.setOutputValueRenames( outputDefinition.getValueRenames() );
+
+        // The mapping output step copies or distributes its rows the way the mapping step does
+        //
+        mappingOutputStep.setDistributes( mappingStep.isDistributes() );
+
+        List<StepMeta> targetSteps;
+        if ( !Utils.isEmpty( outputDefinition.getOutputStepname() ) ) {
+          targetSteps = Collections.singletonList( findStep( transMeta, outputDefinition.getOutputStepname() ) );
+        } else {
+          targetSteps = transMeta.findNextSteps( mappingStep );
+        }
+        for ( StepMeta targetStep : targetSteps ) {
+          hops.add( new TransHopMeta( mappingOutputStep, targetStep ) );
+        }
+      }
+    }
+
+    /**
+     * @return the reason why the mapping can't be inlined after all or null if it was inlined.
+     */
+    String apply() {
+      String prefix = mappingStep.getName() + STEPNAME_SEPARATOR;
+      for ( StepMeta stepMeta : mappingTransMeta.getSteps() ) {
+        if ( transMeta.findStep( prefix + stepMeta.getName() ) != null ) {
+          return BaseMessages.getString( PKG, "MappingInliner.Reason.NameClash", prefix + stepMeta.getName() );
+        }
+      }
+
+      // Take out the mapping step and its hops...
+      //
+      for ( int i = transMeta.nrTransHops() - 1; i >= 0; i-- ) {
+        TransHopMeta hop = transMeta.getTransHop( i );
+        if ( mappingStep.equals( hop.getFromStep() ) || mappingStep.equals( hop.getToStep() ) ) {
+          transMeta.removeTransHop( i );
+        }
+      }
+      transMeta.removeStep( transMeta.indexOfStep( mappingStep ) );
+
+      // ... and put in the steps and hops of the mapping.
+      //
+      for ( StepMeta stepMeta : mappingTransMeta.getSteps() ) {
+        stepMeta.setName( prefix + stepMeta.getName() );
+        transMeta.addStep( stepMeta );
+        if ( !variableSpaces.containsKey( stepMeta ) ) {
+          variableSpaces.put( stepMeta, mappingTransMeta );
+        }
+      }
+      for ( int i = 0; i < mappingTransMeta.nrTransHops(); i++ ) {
+        transMeta.addTransHop( mappingTransMeta.getTransHop( i ) );
+      }
+      for ( TransHopMeta hop : hops ) {
+        if ( transMeta.findTransHop( hop.getFromStep(), hop.getToStep(), true ) == null ) {
+          transMeta.addTransHop( hop );
+        }
+      }
+      return null;
+    }
+
+    private StepMeta findStep( TransMeta transMeta, String stepname ) throws KettleStepException {
+      StepMeta stepMeta = transMeta.findStep( stepname );
+      if ( stepMeta == null ) {
+        throw new KettleStepException( BaseMessages.getString( PKG, "MappingDialog.Exception.StepNameNotFound",
+          stepname ) );
+      }
+      return stepMeta;
+    }
+  }
+}
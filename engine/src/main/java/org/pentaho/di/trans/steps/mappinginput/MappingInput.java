@@ -22,6 +22,7 @@
 
 package org.pentaho.di.trans.steps.mappinginput;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.pentaho.di.core.BlockingRowSet;
@@ -178,7 +179,18 @@ public class MappingInput extends BaseStep implements StepInterface {
     meta = (MappingInputMeta) smi;
     data = (MappingInputData) sdi;
 
-    return super.init( smi, sdi );
+    if ( !super.init( smi, sdi ) ) {
+      return false;
+    }
+
+    if ( meta.isInlined() ) {
+      // The mapping was spliced into the parent transformation: the rows of the source steps arrive over regular
+      // hops so there is no mapping step to connect us.
+      //
+      data.valueRenames = meta.getValueRenames() == null ? new ArrayList<MappingValueRename>() : meta.getValueRenames();
+      data.sourceSteps = new StepInterface[0];
+    }
+    return true;
   }
 
   public void setConnectorSteps( StepInterface[] sourceSteps, List<MappingValueRename> valueRenames,
@@ -80,6 +80,11 @@ public class MappingInputMeta extends BaseStepMeta implements StepMetaInterface
 
   private volatile List<MappingValueRename> valueRenames;
 
+  /**
+   * Set when the mapping was spliced into the parent transformation: the fields then arrive over regular hops.
+   */
+  private volatile boolean inlined;
+
   public MappingInputMeta() {
     super(); // allocate BaseStepMeta
   }
@@ -241,6 +246,14 @@ public class MappingInputMeta extends BaseStepMeta implements StepMetaInterface
     // exit points.
     // For that reason we need to re-order etc, based on the input specification...
     //
+    RowMetaInterface inputRowMeta = this.inputRowMeta;
+    if ( inputRowMeta == null && inlined ) {
+      // An inlined mapping input step does have previous steps: they make up the input of the mapping
+      //
+      inputRowMeta = row.clone();
+      row.clear();
+    }
+
     if ( inputRowMeta != null && !inputRowMeta.isEmpty() ) {
       // this gets set only in the parent transformation...
       // It includes all the renames that needed to be done
@@ -460,4 +473,18 @@ public class MappingInputMeta extends BaseStepMeta implements StepMetaInterface
     this.selectingAndSortingUnspecifiedFields = selectingAndSortingUnspecifiedFields;
   }
 
+  /**
+   * @return true if the mapping of this step was spliced into the parent transformation
+   */
+  public boolean isInlined() {
+    return inlined;
+  }
+
+  /**
+   * @param inlined true if the mapping of this step was spliced into the parent transformation
+   */
+  public void setInlined( boolean inlined ) {
+    this.inlined = inlined;
+  }
+
 }
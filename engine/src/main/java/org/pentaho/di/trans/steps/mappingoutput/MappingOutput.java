@@ -95,7 +95,7 @@ public class MappingOutput extends BaseStep implements StepInterface {
       // Now see if there is a target step to send data to.
       // If not, simply eat the data...
       //
-      if ( data.targetSteps == null ) {
+      if ( data.targetSteps == null && !meta.isInlined() ) {
         logDetailed( BaseMessages.getString( PKG, "MappingOutput.NoTargetStepSpecified", getStepname() ) );
       }
     }
@@ -117,7 +117,12 @@ public class MappingOutput extends BaseStep implements StepInterface {
     data = (MappingOutputData) sdi;
 
     if ( super.init( smi, sdi ) ) {
-      // Add init code here.
+      if ( meta.isInlined() ) {
+        // The mapping was spliced into the parent transformation: the target steps are connected over regular hops.
+        //
+        data.inputValueRenames = meta.getInputValueRenames();
+        data.outputValueRenames = meta.getOutputValueRenames();
+      }
       return true;
     }
     return false;
@@ -54,6 +54,11 @@ public class MappingOutputMeta extends BaseStepMeta implements StepMetaInterface
   private volatile List<MappingValueRename> inputValueRenames;
   private volatile List<MappingValueRename> outputValueRenames;
 
+  /**
+   * Set when the mapping was spliced into the parent transformation: the rows then leave over regular hops.
+   */
+  private volatile boolean inlined;
+
   public MappingOutputMeta() {
     super(); // allocate BaseStepMeta
     inputValueRenames = new ArrayList<MappingValueRename>();
@@ -174,4 +179,19 @@ public class MappingOutputMeta extends BaseStepMeta implements StepMetaInterface
   public void setOutputValueRenames( List<MappingValueRename> outputValueRenames ) {
     this.outputValueRenames = outputValueRenames;
   }
+
+  /**
+   * @return true if the mapping of this step was spliced into the parent transformation
+   */
+  public boolean isInlined() {
+    return inlined;
+  }
+
+  /**
+   * @param inlined
+   *          true if the mapping of this step was spliced into the parent transformation
+   */
+  public void setInlined( boolean inlined ) {
+    this.inlined = inlined;
+  }
 }
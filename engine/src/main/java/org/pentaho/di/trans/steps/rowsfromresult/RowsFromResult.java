@@ -22,6 +22,8 @@
 
 package org.pentaho.di.trans.steps.rowsfromresult;
 
+import java.util.Collections;
+
 import org.pentaho.di.core.Result;
 import org.pentaho.di.core.RowMetaAndData;
 import org.pentaho.di.core.exception.KettleException;
@@ -53,16 +55,22 @@ public class RowsFromResult extends BaseStep implements StepInterface {
   }
 
   public boolean processRow( StepMetaInterface smi, StepDataInterface sdi ) throws KettleException {
-    Result previousResult = getTrans().getPreviousResult();
-    if ( previousResult == null || getLinesRead() >= previousResult.getRows().size() ) {
+    data = (RowsFromResultData) sdi;
+
+    if ( data.rows == null ) {
+      // Stream the rows, they may have been written to disk
+      //
+      Result previousResult = getTrans().getPreviousResult();
+      data.rows = previousResult == null
+        ? Collections.<RowMetaAndData>emptyIterator() : previousResult.getRows().iterator();
+    }
+    if ( !data.rows.hasNext() ) {
       setOutputDone();
       return false;
     }
-    RowMetaAndData row = previousResult.getRows().get( (int) getLinesRead() );
+    RowMetaAndData row = data.rows.next();
     incrementLinesRead();
 
-    data = (RowsFromResultData) sdi;
-
     // We don't get the meta-data from the previous steps (there aren't any) but from the previous transformation or job
     //
     data.outputRowMeta = row.getRowMeta();
@@ -79,4 +87,11 @@ public class RowsFromResult extends BaseStep implements StepInterface {
 
     return true;
   }
+
+  @Override
+  public boolean resetForReuse() {
+    resetStepState();
+    data.rows = null;
+    return true;
+  }
 }
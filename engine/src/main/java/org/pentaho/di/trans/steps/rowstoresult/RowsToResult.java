@@ -58,6 +58,7 @@ public class RowsToResult extends BaseStep implements StepInterface {
     Object[] r = getRow(); // get row, set busy!
     if ( r == null ) { // no more input to be expected...
       getTrans().getResultRows().addAll( data.rows );
+      data.rows.clear();
       getTrans().setResultRowSet( true );
       setOutputDone();
       return false;
@@ -88,4 +89,18 @@ public class RowsToResult extends BaseStep implements StepInterface {
     return false;
   }
 
+  @Override
+  public void dispose( StepMetaInterface smi, StepDataInterface sdi ) {
+    data = (RowsToResultData) sdi;
+    // A stopped transformation leaves the buffered rows behind
+    data.rows.clear();
+    super.dispose( smi, sdi );
+  }
+
+  @Override
+  public boolean resetForReuse() {
+    resetStepState();
+    data.rows.clear();
+    return true;
+  }
 }
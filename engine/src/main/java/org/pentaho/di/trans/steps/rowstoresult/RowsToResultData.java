@@ -22,10 +22,10 @@
 
 package org.pentaho.di.trans.steps.rowstoresult;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import org.pentaho.di.core.RowMetaAndData;
+import org.pentaho.di.core.SpillableRowList;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.trans.step.BaseStepData;
 import org.pentaho.di.trans.step.StepDataInterface;
@@ -41,7 +41,7 @@ public class RowsToResultData extends BaseStepData implements StepDataInterface
   public RowsToResultData() {
     super();
 
-    rows = new ArrayList<RowMetaAndData>();
+    rows = new SpillableRowList();
   }
 
 }
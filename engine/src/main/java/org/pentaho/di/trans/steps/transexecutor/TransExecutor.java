@@ -28,6 +28,7 @@ import java.util.List;
 import java.util.ArrayList;
 import java.util.Map;
 import java.util.Arrays;
+import java.util.concurrent.LinkedBlockingQueue;
 
 import com.google.common.annotations.VisibleForTesting;
 import org.pentaho.di.core.Const;
@@ -36,21 +37,27 @@ import org.pentaho.di.core.Result;
 import org.pentaho.di.core.ResultFile;
 import org.pentaho.di.core.RowMetaAndData;
 import org.pentaho.di.core.RowSet;
+import org.pentaho.di.core.SpillableRowList;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.logging.KettleLogStore;
 import org.pentaho.di.core.row.RowDataUtil;
 import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.variables.Variables;
 import org.pentaho.di.i18n.BaseMessages;
 import org.pentaho.di.job.DelegationListener;
+import org.pentaho.di.trans.SingleThreadedTransExecutor;
 import org.pentaho.di.trans.StepWithMappingMeta;
 import org.pentaho.di.trans.Trans;
 import org.pentaho.di.trans.TransExecutionConfiguration;
 import org.pentaho.di.trans.TransMeta;
+import org.pentaho.di.trans.TransMeta.TransformationType;
 import org.pentaho.di.trans.step.BaseStep;
 import org.pentaho.di.trans.step.StepDataInterface;
 import org.pentaho.di.trans.step.StepInterface;
 import org.pentaho.di.trans.step.StepMeta;
+import org.pentaho.di.trans.step.StepMetaDataCombi;
 import org.pentaho.di.trans.step.StepMetaInterface;
+import org.pentaho.di.trans.steps.ParallelGroupExecutor;
 import org.pentaho.di.trans.steps.TransStepUtil;
 
 /**
@@ -71,6 +78,11 @@ public class TransExecutor extends BaseStep implements StepInterface {
   private TransExecutorMeta meta;
   private TransExecutorData data;
 
+  /**
+   * Executes several groups at the same time, null if the groups are executed one after the other.
+   */
+  private ParallelGroupExecutor<ExecutorGroup> parallelGroupExecutor;
+
   public TransExecutor( StepMeta stepMeta, StepDataInterface stepDataInterface, int copyNr, TransMeta transMeta,
                         Trans trans ) {
     super( stepMeta, stepDataInterface, copyNr, transMeta, trans );
@@ -91,6 +103,9 @@ public class TransExecutor extends BaseStep implements StepInterface {
 
       if ( row == null ) {
         executeTransformation( null );
+        if ( parallelGroupExecutor != null ) {
+          parallelGroupExecutor.finish();
+        }
         setOutputDone();
         return false;
       }
@@ -206,18 +221,36 @@ public class TransExecutor extends BaseStep implements StepInterface {
       discardLogLines( transExecutorData );
     }
 
-    Trans executorTrans = createInternalTrans();
-    transExecutorData.setExecutorTrans( executorTrans );
-    if ( incomingFieldValues != null ) {
-      // Pass parameter values
-      passParametersToTrans( incomingFieldValues );
-    } else {
-      List<String> lastIncomingFieldValues = getLastIncomingFieldValues();
-      // incomingFieldValues == null-  There are no more rows - Last Case - pass previous values if exists
-      // If not still pass the null parameter values
-      passParametersToTrans( lastIncomingFieldValues != null && !lastIncomingFieldValues.isEmpty() ? lastIncomingFieldValues : incomingFieldValues );
+    if ( parallelGroupExecutor != null ) {
+      submitGroup( incomingFieldValues );
+      return;
     }
 
+    Result result = null;
+    if ( transExecutorData.reuseExecutorTrans ) {
+      result = executeReusedTransformation( incomingFieldValues );
+    }
+    if ( result == null ) {
+      result = executeNewTransformation( incomingFieldValues );
+    }
+
+    if ( result.isSafeStop() ) {
+      getTrans().safeStop();
+    }
+
+    collectTransResults( result );
+    collectExecutionResults( result );
+    collectExecutionResultFiles( result );
+
+    result.dispose();
+    transExecutorData.groupBuffer.clear();
+  }
+
+  private Result executeNewTransformation( List<String> incomingFieldValues ) throws KettleException {
+    TransExecutorData transExecutorData = getData();
+    Trans executorTrans = createInternalTrans();
+    transExecutorData.setExecutorTrans( executorTrans );
+    passGroupParametersToTrans( incomingFieldValues );
 
     // keep track for drill down in Spoon...
     getTrans().addActiveSubTransformation( getStepname(), executorTrans );
@@ -248,16 +281,198 @@ public class TransExecutor extends BaseStep implements StepInterface {
       result.setResult( false );
       result.setNrErrors( 1 );
     }
+    return result;
+  }
 
-    if ( result.isSafeStop() ) {
+  /**
+   * Runs the group through the executor transformation that is kept for all groups, preparing it first if needed.
+   *
+   * @return the result of the group or null if the executor transformation can't be reused
+   */
+  private Result executeReusedTransformation( List<String> incomingFieldValues ) throws KettleException {
+    TransExecutorData transExecutorData = getData();
+    SingleThreadedTransExecutor transExecutor = transExecutorData.reusedTransExecutor;
+    if ( transExecutor == null ) {
+      transExecutor = prepareReusedTransformation();
+      if ( transExecutor == null ) {
+        transExecutorData.reuseExecutorTrans = false;
+        return null;
+      }
+      transExecutorData.reusedTransExecutor = transExecutor;
+    } else {
+      // Don't let the log of the previous groups pile up, they would end up in the log text field as well
+      //
+      KettleLogStore.discardLines( transExecutor.getTrans().getLogChannelId(), false );
+    }
+
+    Trans executorTrans = transExecutor.getTrans();
+    passGroupParametersToTrans( incomingFieldValues );
+    for ( StepMetaDataCombi combi : executorTrans.getSteps() ) {
+      combi.step.copyVariablesFrom( executorTrans );
+    }
+
+    Result result = new Result();
+    result.setRows( transExecutorData.groupBuffer );
+    executorTrans.setPreviousResult( result );
+    executorTrans.setResultRows( new SpillableRowList() );
+
+    try {
+      if ( !transExecutor.runToCompletion() ) {
+        throw new KettleException( BaseMessages.getString( PKG, "TransExecutor.Exception.GroupNotCompleted" ) );
+      }
+      result = executorTrans.getResult();
+    } catch ( KettleException e ) {
+      log.logError( "An error occurred executing the transformation: ", e );
+      result.setResult( false );
+      result.setNrErrors( 1 );
+    }
+
+    // A group that failed or stopped leaves the steps in an unknown state, start from scratch for the next one.
+    //
+    if ( result.getNrErrors() > 0 || executorTrans.isStopped() || !transExecutor.reset() ) {
+      disposeReusedTransformation();
+    }
+    return result;
+  }
+
+  /**
+   * Prepares the executor transformation to run in a single thread and checks that all its steps can be reset.
+   *
+   * @return the executor running the transformation or null if the transformation can't be reused
+   */
+  private SingleThreadedTransExecutor prepareReusedTransformation() throws KettleException {
+    // Run a copy: the executor transformation meta-data keeps its type for when it can't be reused
+    //
+    TransMeta executorTransMeta = (TransMeta) getData().getExecutorTransMeta().clone();
+    executorTransMeta.setTransformationType( TransformationType.SingleThreaded );
+
+    Trans executorTrans = createInternalTrans( executorTransMeta );
+    getData().setExecutorTrans( executorTrans );
+    executorTrans.prepareExecution( getTrans().getArguments() );
+    executorTrans.startThreads();
+
+    SingleThreadedTransExecutor transExecutor = new SingleThreadedTransExecutor( executorTrans );
+    boolean reusable;
+    try {
+      reusable = transExecutor.init() && transExecutor.reset();
+    } catch ( KettleException e ) {
+      // One of the steps doesn't run single threaded
+      //
+      if ( log.isDetailed() ) {
+        logDetailed( e.getMessage() );
+      }
+      reusable = false;
+    }
+    if ( !reusable ) {
+      transExecutor.dispose();
+      logBasic( BaseMessages.getString( PKG, "TransExecutor.Log.UnableToReuseTransformation" ) );
+      return null;
+    }
+
+    // keep track for drill down in Spoon...
+    getTrans().addActiveSubTransformation( getStepname(), executorTrans );
+    for ( DelegationListener delegationListener : getTrans().getDelegationListeners() ) {
+      delegationListener.transformationDelegationStarted( executorTrans, new TransExecutionConfiguration() );
+    }
+    return transExecutor;
+  }
+
+  private void disposeReusedTransformation() {
+    TransExecutorData transExecutorData = getData();
+    if ( transExecutorData.reusedTransExecutor != null ) {
+      try {
+        transExecutorData.reusedTransExecutor.dispose();
+      } catch ( KettleException e ) {
+        log.logError( "Error disposing of the executor transformation: ", e );
+      }
+      transExecutorData.reusedTransExecutor = null;
+    }
+  }
+
+  /**
+   * Prepares a transformation for the current group on the step thread and leaves its execution to the parallel
+   * group executor. The group buffer is handed over to the group.
+   */
+  private void submitGroup( List<String> incomingFieldValues ) throws KettleException {
+    TransExecutorData transExecutorData = getData();
+    TransMeta executorTransMeta = transExecutorData.idleExecutorTransMetas.poll();
+    if ( executorTransMeta == null ) {
+      // Every group executing at the same time needs its own copy, including the variables.
+      executorTransMeta = (TransMeta) transExecutorData.getExecutorTransMeta().clone();
+      executorTransMeta.shareVariablesWith( new Variables() );
+      executorTransMeta.copyVariablesFrom( transExecutorData.getExecutorTransMeta() );
+    }
+
+    ExecutorGroup group = new ExecutorGroup();
+    group.executorTransMeta = executorTransMeta;
+    group.executorTrans = createInternalTrans( executorTransMeta );
+    transExecutorData.setExecutorTrans( group.executorTrans );
+    passGroupParametersToTrans( incomingFieldValues );
+
+    Result previousResult = new Result();
+    previousResult.setRows( transExecutorData.groupBuffer );
+    group.executorTrans.setPreviousResult( previousResult );
+    transExecutorData.groupBuffer = new SpillableRowList();
+
+    // keep track for drill down in Spoon...
+    getTrans().addActiveSubTransformation( getStepname(), group.executorTrans );
+
+    parallelGroupExecutor.submit( group );
+  }
+
+  /**
+   * Executes the transformation of a group, called by the parallel group executor in the background.
+   */
+  private void executeGroup( ExecutorGroup group ) {
+    Trans executorTrans = group.executorTrans;
+    long startTime = System.currentTimeMillis();
+    try {
+      executorTrans.prepareExecution( getTrans().getArguments() );
+      executorTrans.startThreads();
+
+      for ( DelegationListener delegationListener : getTrans().getDelegationListeners() ) {
+        delegationListener.transformationDelegationStarted( executorTrans, new TransExecutionConfiguration() );
+      }
+
+      executorTrans.waitUntilFinished();
+      group.result = executorTrans.getResult();
+    } catch ( KettleException e ) {
+      log.logError( "An error occurred executing the transformation: ", e );
+      group.result = new Result();
+      group.result.setResult( false );
+      group.result.setNrErrors( 1 );
+    } finally {
+      group.executionTime = System.currentTimeMillis() - startTime;
+      getData().idleExecutorTransMetas.add( group.executorTransMeta );
+    }
+  }
+
+  /**
+   * Passes on the results of an executed group, called by the parallel group executor on the step thread.
+   */
+  private void collectGroup( ExecutorGroup group ) throws KettleException {
+    if ( group.result.isSafeStop() ) {
       getTrans().safeStop();
     }
 
-    collectTransResults( result );
-    collectExecutionResults( result );
-    collectExecutionResultFiles( result );
+    collectTransResults( group.result );
+    collectExecutionResults( group.result, group.executorTrans, group.executionTime );
+    collectExecutionResultFiles( group.result );
 
-    transExecutorData.groupBuffer.clear();
+    group.result.dispose();
+    group.executorTrans.getPreviousResult().dispose();
+  }
+
+  private void passGroupParametersToTrans( List<String> incomingFieldValues ) throws KettleException {
+    if ( incomingFieldValues != null ) {
+      // Pass parameter values
+      passParametersToTrans( incomingFieldValues );
+    } else {
+      List<String> lastIncomingFieldValues = getLastIncomingFieldValues();
+      // incomingFieldValues == null-  There are no more rows - Last Case - pass previous values if exists
+      // If not still pass the null parameter values
+      passParametersToTrans( lastIncomingFieldValues != null && !lastIncomingFieldValues.isEmpty() ? lastIncomingFieldValues : incomingFieldValues );
+    }
   }
 
   @VisibleForTesting
@@ -272,7 +487,11 @@ public class TransExecutor extends BaseStep implements StepInterface {
 
   @VisibleForTesting
   Trans createInternalTrans() throws KettleException {
-    Trans executorTrans = new Trans( getData().getExecutorTransMeta(), this );
+    return createInternalTrans( getData().getExecutorTransMeta() );
+  }
+
+  private Trans createInternalTrans( TransMeta executorTransMeta ) throws KettleException {
+    Trans executorTrans = new Trans( executorTransMeta, this );
 
     executorTrans.setParentTrans( getTrans() );
     executorTrans.setRepository( getTrans().getRepository() );
@@ -386,13 +605,19 @@ public class TransExecutor extends BaseStep implements StepInterface {
 
   @VisibleForTesting
   void collectExecutionResults( Result result ) throws KettleException {
+    collectExecutionResults( result, getData().getExecutorTrans(),
+      System.currentTimeMillis() - getData().groupTimeStart );
+  }
+
+  private void collectExecutionResults( Result result, Trans executorTrans, long executionTime )
+    throws KettleException {
     RowSet executionResultsRowSet = getData().getExecutionResultRowSet();
     if ( meta.getExecutionResultTargetStepMeta() != null && executionResultsRowSet != null ) {
       Object[] outputRow = RowDataUtil.allocateRowData( getData().getExecutionResultsOutputRowMeta().size() );
       int idx = 0;
 
       if ( !Utils.isEmpty( meta.getExecutionTimeField() ) ) {
-        outputRow[ idx++ ] = Long.valueOf( System.currentTimeMillis() - getData().groupTimeStart );
+        outputRow[ idx++ ] = Long.valueOf( executionTime );
       }
       if ( !Utils.isEmpty( meta.getExecutionResultField() ) ) {
         outputRow[ idx++ ] = Boolean.valueOf( result.getResult() );
@@ -428,12 +653,12 @@ public class TransExecutor extends BaseStep implements StepInterface {
         outputRow[ idx++ ] = Long.valueOf( result.getExitStatus() );
       }
       if ( !Utils.isEmpty( meta.getExecutionLogTextField() ) ) {
-        String channelId = getData().getExecutorTrans().getLogChannelId();
+        String channelId = executorTrans.getLogChannelId();
         String logText = KettleLogStore.getAppender().getBuffer( channelId, false ).toString();
         outputRow[ idx++ ] = logText;
       }
       if ( !Utils.isEmpty( meta.getExecutionLogChannelIdField() ) ) {
-        outputRow[ idx++ ] = getData().getExecutorTrans().getLogChannelId();
+        outputRow[ idx++ ] = executorTrans.getLogChannelId();
       }
 
       putRowTo( getData().getExecutionResultsOutputRowMeta(), outputRow, executionResultsRowSet );
@@ -471,7 +696,7 @@ public class TransExecutor extends BaseStep implements StepInterface {
 
         // Do we have a transformation at all?
         if ( transExecutorData.getExecutorTransMeta() != null ) {
-          transExecutorData.groupBuffer = new ArrayList<RowMetaAndData>();
+          transExecutorData.groupBuffer = new SpillableRowList();
 
           // How many rows do we group together for the transformation?
           if ( !Utils.isEmpty( meta.getGroupSize() ) ) {
@@ -491,6 +716,17 @@ public class TransExecutor extends BaseStep implements StepInterface {
           if ( !Utils.isEmpty( meta.getGroupField() ) ) {
             transExecutorData.groupField = environmentSubstitute( meta.getGroupField() );
           }
+          // How many groups do we execute at the same time?
+          int parallelism = Const.toInt( environmentSubstitute( meta.getParallelism() ), 1 );
+          if ( parallelism > 1 ) {
+            transExecutorData.idleExecutorTransMetas = new LinkedBlockingQueue<TransMeta>();
+            transExecutorData.idleExecutorTransMetas.add( transExecutorData.getExecutorTransMeta() );
+            parallelGroupExecutor =
+              new ParallelGroupExecutor<>( parallelism, meta.isOrderedResults(), this::executeGroup, this::collectGroup );
+          }
+          // Do we prepare the transformation once and reuse it for every group?
+          transExecutorData.reuseExecutorTrans = parallelism <= 1
+            && "Y".equalsIgnoreCase( getVariable( Const.KETTLE_TRANS_EXECUTOR_REUSE_TRANS, "N" ) );
           // That's all for now...
           return true;
         } else {
@@ -512,7 +748,9 @@ public class TransExecutor extends BaseStep implements StepInterface {
 
   public void dispose( StepMetaInterface smi, StepDataInterface sdi ) {
     TransExecutorData transExecutorData = getData();
+    SpillableRowList.release( transExecutorData.groupBuffer );
     transExecutorData.groupBuffer = null;
+    disposeReusedTransformation();
     super.dispose( smi, sdi );
   }
 
@@ -521,6 +759,7 @@ public class TransExecutor extends BaseStep implements StepInterface {
     if ( getData().getExecutorTrans() != null ) {
       getData().getExecutorTrans().stopAll();
     }
+    stopParallelGroups();
   }
 
   public void stopAll() {
@@ -528,11 +767,20 @@ public class TransExecutor extends BaseStep implements StepInterface {
     if ( getData().getExecutorTrans() != null ) {
       getData().getExecutorTrans().stopAll();
     }
+    stopParallelGroups();
 
     // Also stop this step
     super.stopAll();
   }
 
+  private void stopParallelGroups() {
+    if ( parallelGroupExecutor != null ) {
+      for ( ExecutorGroup group : parallelGroupExecutor.getActiveGroups() ) {
+        group.executorTrans.stopAll();
+      }
+    }
+  }
+
   public Trans getExecutorTrans() {
     return getData().getExecutorTrans();
   }
@@ -569,5 +817,15 @@ public class TransExecutor extends BaseStep implements StepInterface {
     }
   }
 
+  /**
+   * A group of rows executed in parallel with other groups, by its own transformation.
+   */
+  private static class ExecutorGroup {
+    private TransMeta executorTransMeta;
+    private Trans executorTrans;
+    private long executionTime;
+    private Result result;
+  }
+
 
 }
@@ -23,11 +23,13 @@
 package org.pentaho.di.trans.steps.transexecutor;
 
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
 
 import org.pentaho.di.core.RowMetaAndData;
 import org.pentaho.di.core.RowSet;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.trans.SingleThreadedTransExecutor;
 import org.pentaho.di.trans.Trans;
 import org.pentaho.di.trans.TransMeta;
 import org.pentaho.di.trans.step.BaseStepData;
@@ -59,6 +61,21 @@ public class TransExecutorData extends BaseStepData implements StepDataInterface
 
   public Object prevGroupFieldData;
 
+  /**
+   * True as long as the executor transformation is prepared once and reused for every group of rows.
+   */
+  public boolean reuseExecutorTrans;
+
+  /**
+   * Runs the reused executor transformation, null if it wasn't prepared yet.
+   */
+  public SingleThreadedTransExecutor reusedTransExecutor;
+
+  /**
+   * The copies of the executor transformation metadata that aren't used by a group executing in parallel.
+   */
+  public BlockingQueue<TransMeta> idleExecutorTransMetas;
+
   private RowSet executorStepOutputRowSet;
   private RowSet resultRowsRowSet;
   private RowSet resultFilesRowSet;
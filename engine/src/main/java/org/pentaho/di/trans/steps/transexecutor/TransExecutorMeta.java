@@ -101,6 +101,16 @@ public class TransExecutorMeta extends StepWithMappingMeta implements StepMetaIn
    */
   private String groupTime;
 
+  /**
+   * The number of groups of rows that are executed at the same time, each by its own transformation (empty default, "1")
+   */
+  private String parallelism;
+
+  /**
+   * True if the output of the groups executed at the same time is passed on in the order of the groups (default).
+   */
+  private boolean orderedResults;
+
   private TransExecutorParameters parameters;
 
   private String executionResultTargetStep;
@@ -270,6 +280,8 @@ public class TransExecutorMeta extends StepWithMappingMeta implements StepMetaIn
     retval.append( "    " ).append( XMLHandler.addTagValue( "group_size", groupSize ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "group_field", groupField ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "group_time", groupTime ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "parallelism", parallelism ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "ordered_results", orderedResults ) );
 
     // Add the mapping parameters too
     //
@@ -338,6 +350,8 @@ public class TransExecutorMeta extends StepWithMappingMeta implements StepMetaIn
       groupSize = XMLHandler.getTagValue( stepnode, "group_size" );
       groupField = XMLHandler.getTagValue( stepnode, "group_field" );
       groupTime = XMLHandler.getTagValue( stepnode, "group_time" );
+      parallelism = XMLHandler.getTagValue( stepnode, "parallelism" );
+      orderedResults = !"N".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "ordered_results" ) );
 
       // Load the mapping parameters too..
       //
@@ -399,6 +413,8 @@ public class TransExecutorMeta extends StepWithMappingMeta implements StepMetaIn
     groupSize = rep.getStepAttributeString( id_step, "group_size" );
     groupField = rep.getStepAttributeString( id_step, "group_field" );
     groupTime = rep.getStepAttributeString( id_step, "group_time" );
+    parallelism = rep.getStepAttributeString( id_step, "parallelism" );
+    orderedResults = rep.getStepAttributeBoolean( id_step, 0, "ordered_results", true );
 
     parameters = new TransExecutorParameters( rep, id_step );
 
@@ -448,6 +464,8 @@ public class TransExecutorMeta extends StepWithMappingMeta implements StepMetaIn
     rep.saveStepAttribute( id_transformation, id_step, "group_size", groupSize );
     rep.saveStepAttribute( id_transformation, id_step, "group_field", groupField );
     rep.saveStepAttribute( id_transformation, id_step, "group_time", groupTime );
+    rep.saveStepAttribute( id_transformation, id_step, "parallelism", parallelism );
+    rep.saveStepAttribute( id_transformation, id_step, "ordered_results", orderedResults );
 
     // save the mapping parameters too
     //
@@ -500,6 +518,8 @@ public class TransExecutorMeta extends StepWithMappingMeta implements StepMetaIn
     groupSize = "1";
     groupField = "";
     groupTime = "";
+    parallelism = "";
+    orderedResults = true;
 
     executionTimeField = "ExecutionTime";
     executionResultField = "ExecutionResult";
@@ -1024,6 +1044,34 @@ public class TransExecutorMeta extends StepWithMappingMeta implements StepMetaIn
     this.groupTime = groupTime;
   }
 
+  /**
+   * @return the number of groups executed at the same time
+   */
+  public String getParallelism() {
+    return parallelism;
+  }
+
+  /**
+   * @param parallelism the number of groups executed at the same time
+   */
+  public void setParallelism( String parallelism ) {
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * @return true if the output of the groups is passed on in the order of the groups
+   */
+  public boolean isOrderedResults() {
+    return orderedResults;
+  }
+
+  /**
+   * @param orderedResults true to pass on the output of the groups in the order of the groups
+   */
+  public void setOrderedResults( boolean orderedResults ) {
+    this.orderedResults = orderedResults;
+  }
+
   @Override
   public boolean excludeFromCopyDistributeVerification() {
     return true;
@@ -0,0 +1,155 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2021 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.pentaho.di.www;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.pentaho.di.core.metrics.LatencyHistogram;
+import org.pentaho.di.core.metrics.MetricFamily;
+import org.pentaho.di.core.metrics.MetricsCollectorInterface;
+import org.pentaho.di.job.Job;
+import org.pentaho.di.trans.Trans;
+import org.pentaho.di.trans.step.StepInterface;
+import org.pentaho.di.trans.step.StepMetaDataCombi;
+
+/**
+ * Collects the metrics of the transformations and jobs of a Carte server: the number of transformations and jobs per
+ * status and, per step copy, the row counters, the number of rows waiting in the row sets and the time spent in
+ * processRow(). The step counters are read the same way as for the status pages, the step threads are never blocked.
+ */
+public class CarteMetricsCollector implements MetricsCollectorInterface {
+
+  private final TransformationMap transformationMap;
+  private final JobMap jobMap;
+
+  public CarteMetricsCollector( TransformationMap transformationMap, JobMap jobMap ) {
+    this.transformationMap = transformationMap;
+    this.jobMap = jobMap;
+  }
+
+  @Override
+  public void collect( List<MetricFamily> families ) {
+    MetricFamily linesRead = new MetricFamily( "kettle_step_lines_read_total",
+      "Rows read from previous steps.", MetricFamily.Type.COUNTER );
+    MetricFamily linesWritten = new MetricFamily( "kettle_step_lines_written_total",
+      "Rows written to next steps.", MetricFamily.Type.COUNTER );
+    MetricFamily linesInput = new MetricFamily( "kettle_step_lines_input_total",
+      "Rows read from a file, database, etc.", MetricFamily.Type.COUNTER );
+    MetricFamily linesOutput = new MetricFamily( "kettle_step_lines_output_total",
+      "Rows written to a file, database, etc.", MetricFamily.Type.COUNTER );
+    MetricFamily linesUpdated = new MetricFamily( "kettle_step_lines_updated_total",
+      "Rows updated in a file, database, etc.", MetricFamily.Type.COUNTER );
+    MetricFamily linesRejected = new MetricFamily( "kettle_step_lines_rejected_total",
+      "Rows rejected to an error handling step.", MetricFamily.Type.COUNTER );
+    MetricFamily errors = new MetricFamily( "kettle_step_errors_total",
+      "Errors of a step.", MetricFamily.Type.COUNTER );
+    MetricFamily inputBuffer = new MetricFamily( "kettle_step_input_buffer_rows",
+      "Rows waiting in the input row sets of a step.", MetricFamily.Type.GAUGE );
+    MetricFamily outputBuffer = new MetricFamily( "kettle_step_output_buffer_rows",
+      "Rows waiting in the output row sets of a step.", MetricFamily.Type.GAUGE );
+    MetricFamily processRow = new MetricFamily( "kettle_step_process_row_seconds",
+      "Time spent per call to processRow(), including waiting for input rows and room in the output row sets.",
+      MetricFamily.Type.HISTOGRAM );
+    MetricFamily inputWait = new MetricFamily( "kettle_step_input_wait_seconds",
+      "Time spent blocked waiting for rows to arrive on the input row sets.", MetricFamily.Type.HISTOGRAM );
+    MetricFamily outputWait = new MetricFamily( "kettle_step_output_wait_seconds",
+      "Time spent blocked waiting for room in the output row sets.", MetricFamily.Type.HISTOGRAM );
+
+    Map<String, Integer> transStatus = new LinkedHashMap<>();
+    for ( CarteObjectEntry entry : transformationMap.getTransformationObjects() ) {
+      Trans trans = transformationMap.getTransformation( entry );
+      if ( trans == null ) {
+        continue;
+      }
+      transStatus.merge( trans.getStatus(), 1, Integer::sum );
+
+      List<StepMetaDataCombi> steps = trans.getSteps();
+      if ( steps == null ) {
+        continue;
+      }
+      for ( StepMetaDataCombi combi : steps ) {
+        StepInterface step = combi.step;
+        String[] labels = {
+          "trans", entry.getName(), "id", entry.getId(), "step", combi.stepname, "copy",
+          Integer.toString( combi.copy ), };
+        linesRead.addSample( step.getLinesRead(), labels );
+        linesWritten.addSample( step.getLinesWritten(), labels );
+        linesInput.addSample( step.getLinesInput(), labels );
+        linesOutput.addSample( step.getLinesOutput(), labels );
+        linesUpdated.addSample( step.getLinesUpdated(), labels );
+        linesRejected.addSample( step.getLinesRejected(), labels );
+        errors.addSample( step.getErrors(), labels );
+        inputBuffer.addSample( step.rowsetInputSize(), labels );
+        outputBuffer.addSample( step.rowsetOutputSize(), labels );
+        LatencyHistogram latency = step.getProcessRowLatency();
+        if ( latency != null ) {
+          processRow.addHistogram( latency, labels );
+        }
+        LatencyHistogram inputLatency = step.getInputWaitLatency();
+        if ( inputLatency != null ) {
+          inputWait.addHistogram( inputLatency, labels );
+        }
+        LatencyHistogram outputLatency = step.getOutputWaitLatency();
+        if ( outputLatency != null ) {
+          outputWait.addHistogram( outputLatency, labels );
+        }
+      }
+    }
+
+    MetricFamily transformations = new MetricFamily( "kettle_transformations",
+      "Transformations on this server per status.", MetricFamily.Type.GAUGE );
+    for ( Map.Entry<String, Integer> status : transStatus.entrySet() ) {
+      transformations.addSample( status.getValue(), "status", status.getKey() );
+    }
+
+    Map<String, Integer> jobStatus = new LinkedHashMap<>();
+    for ( CarteObjectEntry entry : jobMap.getJobObjects() ) {
+      Job job = jobMap.getJob( entry );
+      if ( job != null ) {
+        jobStatus.merge( job.getStatus(), 1, Integer::sum );
+      }
+    }
+    MetricFamily jobs = new MetricFamily( "kettle_jobs", "Jobs on this server per status.", MetricFamily.Type.GAUGE );
+    for ( Map.Entry<String, Integer> status : jobStatus.entrySet() ) {
+      jobs.addSample( status.getValue(), "status", status.getKey() );
+    }
+
+    families.add( transformations );
+    families.add( jobs );
+    families.add( linesRead );
+    families.add( linesWritten );
+    families.add( linesInput );
+    families.add( linesOutput );
+    families.add( linesUpdated );
+    families.add( linesRejected );
+    families.add( errors );
+    families.add( inputBuffer );
+    families.add( outputBuffer );
+    families.add( processRow );
+    families.add( inputWait );
+    families.add( outputWait );
+  }
+}
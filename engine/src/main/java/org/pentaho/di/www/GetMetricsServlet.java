@@ -0,0 +1,125 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2021 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.pentaho.di.www;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.pentaho.di.core.metrics.MetricsExport;
+import org.pentaho.di.core.metrics.PrometheusTextFormat;
+import org.pentaho.di.i18n.BaseMessages;
+
+public class GetMetricsServlet extends BaseHttpServlet implements CartePluginInterface {
+
+  private static final long serialVersionUID = -1460421378391436521L;
+
+  private static Class<?> PKG = GetMetricsServlet.class; // for i18n purposes, needed by Translator2!!
+
+  public static final String CONTEXT_PATH = "/kettle/metrics";
+
+  public GetMetricsServlet() {
+  }
+
+  /**
+<div id="mindtouch">
+    <h1>/kettle/metrics</h1>
+    <a name="GET"></a>
+    <h2>GET</h2>
+    <p>Returns the runtime metrics of this Carte server in the Prometheus text format: the row counters, row set
+  sizes and processRow() timings of every step of the transformations on the server, the number of transformations
+  and jobs per status, database connection pool usage and JVM memory, thread and garbage collection statistics.</p>
+
+    <p><b>Example Request:</b><br />
+    <pre function="syntax.xml">
+    GET /kettle/metrics
+    </pre>
+
+    </p>
+
+  <h3>Response Body</h3>
+
+  <table class="pentaho-table">
+    <tbody>
+      <tr>
+        <td align="right">media types:</td>
+        <td>text/plain</td>
+      </tr>
+    </tbody>
+  </table>
+  <p>The metrics in the Prometheus text exposition format, version 0.0.4.</p>
+
+    <h3>Status Codes</h3>
+    <table class="pentaho-table">
+  <tbody>
+    <tr>
+      <th>code</th>
+      <th>description</th>
+    </tr>
+    <tr>
+      <td>200</td>
+      <td>Request was processed.</td>
+    </tr>
+    <tr>
+      <td>500</td>
+      <td>Internal server error occurs during request processing.</td>
+    </tr>
+  </tbody>
+</table>
+</div>
+  */
+  public void doGet( HttpServletRequest request, HttpServletResponse response ) throws ServletException,
+    IOException {
+    if ( isJettyMode() && !request.getContextPath().startsWith( CONTEXT_PATH ) ) {
+      return;
+    }
+
+    if ( log.isDebug() ) {
+      logDebug( BaseMessages.getString( PKG, "GetMetricsServlet.Log.MetricsRequested" ) );
+    }
+
+    response.setStatus( HttpServletResponse.SC_OK );
+    response.setContentType( PrometheusTextFormat.CONTENT_TYPE );
+
+    PrintWriter out = response.getWriter();
+    PrometheusTextFormat.write( out, MetricsExport.getInstance().collect() );
+    out.flush();
+  }
+
+  public String toString() {
+    return "Metrics Handler";
+  }
+
+  public String getService() {
+    return CONTEXT_PATH + " (" + toString() + ")";
+  }
+
+  public String getContextPath() {
+    return CONTEXT_PATH;
+  }
+
+}
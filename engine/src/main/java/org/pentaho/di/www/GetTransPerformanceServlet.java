@@ -0,0 +1,232 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2021 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.pentaho.di.www;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.util.Utils;
+import org.pentaho.di.core.xml.XMLHandler;
+import org.pentaho.di.i18n.BaseMessages;
+import org.pentaho.di.trans.Trans;
+import org.pentaho.di.trans.performance.StepPerformanceSnapShot;
+
+public class GetTransPerformanceServlet extends BaseHttpServlet implements CartePluginInterface {
+
+  private static final long serialVersionUID = 4087436735738165367L;
+
+  private static Class<?> PKG = GetTransPerformanceServlet.class; // for i18n purposes, needed by Translator2!!
+
+  public static final String CONTEXT_PATH = "/kettle/transPerformance";
+
+  public static final String XML_TAG = "trans_performance";
+
+  public GetTransPerformanceServlet() {
+  }
+
+  public GetTransPerformanceServlet( TransformationMap transformationMap ) {
+    super( transformationMap );
+  }
+
+  /**
+<div id="mindtouch">
+    <h1>/kettle/transPerformance</h1>
+    <a name="GET"></a>
+    <h2>GET</h2>
+    <p>Retrieves the step performance snapshots of the specified transformation currently present on Carte server.
+  Snapshots are only available if step performance monitoring is enabled for the transformation. Every snapshot
+  covers one or more samples and contains the average, minimum and maximum speed and buffer sizes.</p>
+
+    <p><b>Example Request:</b><br />
+    <pre function="syntax.xml">
+    GET /kettle/transPerformance?name=dummy-trans&step=Dummy
+    </pre>
+
+    </p>
+    <h3>Parameters</h3>
+    <table class="pentaho-table">
+    <tbody>
+    <tr>
+      <th>name</th>
+      <th>description</th>
+      <th>type</th>
+    </tr>
+    <tr>
+    <td>name</td>
+    <td>Name of the transformation to get the performance snapshots for.</td>
+    <td>query</td>
+    </tr>
+    <tr>
+    <td>id</td>
+    <td>Carte id of the transformation.</td>
+    <td>query, optional</td>
+    </tr>
+    <tr>
+    <td>step</td>
+    <td>Only return the snapshots of the step with this name.</td>
+    <td>query, optional</td>
+    </tr>
+    </tbody>
+    </table>
+
+  <h3>Response Body</h3>
+
+  <table class="pentaho-table">
+    <tbody>
+      <tr>
+        <td align="right">element:</td>
+        <td>(custom)</td>
+      </tr>
+      <tr>
+        <td align="right">media types:</td>
+        <td>text/xml</td>
+      </tr>
+    </tbody>
+  </table>
+  <p>An XML document with the snapshots of every step copy or a WebResult error if the transformation can't be
+  found.</p>
+
+    <h3>Status Codes</h3>
+    <table class="pentaho-table">
+  <tbody>
+    <tr>
+      <th>code</th>
+      <th>description</th>
+    </tr>
+    <tr>
+      <td>200</td>
+      <td>Request was processed.</td>
+    </tr>
+    <tr>
+      <td>500</td>
+      <td>Internal server error occurs during request processing.</td>
+    </tr>
+  </tbody>
+</table>
+</div>
+  */
+  public void doGet( HttpServletRequest request, HttpServletResponse response ) throws ServletException,
+    IOException {
+    if ( isJettyMode() && !request.getContextPath().startsWith( CONTEXT_PATH ) ) {
+      return;
+    }
+
+    if ( log.isDebug() ) {
+      logDebug( BaseMessages.getString( PKG, "GetTransPerformanceServlet.Log.TransPerformanceRequested" ) );
+    }
+
+    String transName = request.getParameter( "name" );
+    String id = request.getParameter( "id" );
+    String stepName = request.getParameter( "step" );
+
+    // ID is optional...
+    //
+    Trans trans;
+    CarteObjectEntry entry;
+    if ( Utils.isEmpty( id ) ) {
+      // get the first transformation that matches...
+      //
+      entry = getTransformationMap().getFirstCarteObjectEntry( transName );
+      if ( entry == null ) {
+        trans = null;
+      } else {
+        id = entry.getId();
+        trans = getTransformationMap().getTransformation( entry );
+      }
+    } else {
+      // Take the ID into account!
+      //
+      entry = new CarteObjectEntry( transName, id );
+      trans = getTransformationMap().getTransformation( entry );
+    }
+
+    response.setStatus( HttpServletResponse.SC_OK );
+    response.setCharacterEncoding( "UTF-8" );
+    response.setContentType( "text/xml" );
+
+    PrintWriter out = response.getWriter();
+    out.print( XMLHandler.getXMLHeader( Const.XML_ENCODING ) );
+
+    if ( trans == null ) {
+      out.println( new WebResult( WebResult.STRING_ERROR, BaseMessages.getString(
+        PKG, "GetTransPerformanceServlet.Log.CoundNotFindSpecTrans", transName ) ).getXML() );
+      return;
+    }
+
+    out.println( XMLHandler.openTag( XML_TAG ) );
+    out.println( "  " + XMLHandler.addTagValue( "trans_name", transName, false ) );
+    out.println( "  " + XMLHandler.addTagValue( "id", id, false ) );
+    out.println( "  " + XMLHandler.openTag( "snapshots" ) );
+    for ( String snapShotXml : getSnapShotsXML( trans, stepName ) ) {
+      out.println( snapShotXml );
+    }
+    out.println( "  " + XMLHandler.closeTag( "snapshots" ) );
+    out.println( XMLHandler.closeTag( XML_TAG ) );
+  }
+
+  /**
+   * Renders the snapshots while holding the lock of their list: the sampler keeps merging samples into the last
+   * snapshot of a list.
+   */
+  private List<String> getSnapShotsXML( Trans trans, String stepName ) {
+    List<String> result = new ArrayList<>();
+    Map<String, List<StepPerformanceSnapShot>> snapShotsMap = trans.getStepPerformanceSnapShots();
+    if ( snapShotsMap == null ) {
+      return result;
+    }
+    for ( List<StepPerformanceSnapShot> snapShots : snapShotsMap.values() ) {
+      // The sampler keeps adding to the lists while we read
+      //
+      synchronized ( snapShots ) {
+        for ( StepPerformanceSnapShot snapShot : snapShots ) {
+          if ( Utils.isEmpty( stepName ) || stepName.equals( snapShot.getStepName() ) ) {
+            result.add( snapShot.getXML() );
+          }
+        }
+      }
+    }
+    return result;
+  }
+
+  public String toString() {
+    return "Trans Performance Handler";
+  }
+
+  public String getService() {
+    return CONTEXT_PATH + " (" + toString() + ")";
+  }
+
+  public String getContextPath() {
+    return CONTEXT_PATH;
+  }
+
+}
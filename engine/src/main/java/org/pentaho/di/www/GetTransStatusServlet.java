@@ -413,7 +413,8 @@ public class GetTransStatusServlet extends BaseHttpServlet implements CartePlugi
               + BaseMessages.getString( PKG, "TransStatusServlet.Active" ) + "</th> <th class=\"cellTableHeader\">"
               + BaseMessages.getString( PKG, "TransStatusServlet.Time" ) + "</th> <th class=\"cellTableHeader\">"
               + BaseMessages.getString( PKG, "TransStatusServlet.Speed" ) + "</th> <th class=\"cellTableHeader\">"
-              + BaseMessages.getString( PKG, "TransStatusServlet.prinout" ) + "</th> </tr>" );
+              + BaseMessages.getString( PKG, "TransStatusServlet.prinout" ) + "</th> <th class=\"cellTableHeader\">"
+              + BaseMessages.getString( PKG, "TransStatusServlet.BusyInOut" ) + "</th> </tr>" );
 
           boolean evenRow = true;
           for ( int i = 0; i < trans.nrSteps(); i++ ) {
@@ -448,7 +449,8 @@ public class GetTransStatusServlet extends BaseHttpServlet implements CartePlugi
                   + "<td class=\"cellTableCell " + cellClass + "\">" + stepStatus.getStatusDescription() + "</td>"
                   + "<td class=\"cellTableCell " + cellClass + "\">" + stepStatus.getSeconds() + "</td>"
                   + "<td class=\"cellTableCell " + cellClass + "\">" + stepStatus.getSpeed() + "</td>"
-                  + "<td class=\"cellTableCell cellTableLastColumn " + cellClass + "\">" + stepStatus.getPriority() + "</td></tr>";
+                  + "<td class=\"cellTableCell " + cellClass + "\">" + stepStatus.getPriority() + "</td>"
+                  + "<td class=\"cellTableCell cellTableLastColumn " + cellClass + "\">" + stepStatus.getUtilization() + "</td></tr>";
               evenRow = !evenRow;
               out.print( htmlString );
             }
@@ -0,0 +1,391 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2021 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.pentaho.di.www;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.logging.KettleLogStore;
+import org.pentaho.di.core.util.Utils;
+import org.pentaho.di.i18n.BaseMessages;
+import org.pentaho.di.trans.Trans;
+import org.pentaho.di.trans.step.StepStatus;
+
+public class GetTransStatusUpdatesServlet extends BaseHttpServlet implements CartePluginInterface {
+
+  private static final long serialVersionUID = -2376135245981873469L;
+
+  private static Class<?> PKG = GetTransStatusUpdatesServlet.class; // for i18n purposes, needed by Translator2!!
+
+  public static final String CONTEXT_PATH = "/kettle/transStatusUpdates";
+
+  public static final String EVENT_STREAM_CONTENT_TYPE = "text/event-stream";
+
+  /** The default and minimum time between two checks for changes when streaming */
+  public static final int DEFAULT_INTERVAL = 1000;
+  public static final int MINIMUM_INTERVAL = 100;
+
+  /** The time after which an empty comment is sent when nothing changed, to keep proxies from closing the stream */
+  public static final long KEEP_ALIVE_INTERVAL = 15000L;
+
+  private TransStatusTracker tracker = TransStatusTracker.getInstance();
+
+  public GetTransStatusUpdatesServlet() {
+  }
+
+  public GetTransStatusUpdatesServlet( TransformationMap transformationMap ) {
+    super( transformationMap );
+  }
+
+  /**
+<div id="mindtouch">
+    <h1>/kettle/transStatusUpdates</h1>
+    <a name="GET"></a>
+    <h2>GET</h2>
+    <p>Retrieves what changed in the status of the transformations on the Carte server since the previous request.
+  Unlike <code>/kettle/transStatus</code> only the transformations and steps that changed are returned, together
+  with the new log lines, as a JSON document. Pass the <code>since</code> and <code>from</code> values of the response
+  to the next request to get the next changes. With <code>stream=Y</code> the changes are pushed as server-sent
+  events over a single connection until the client disconnects, which is the cheapest way to follow many
+  transformations at once.</p>
+
+    <p><b>Example Request:</b><br />
+    <pre function="syntax.xml">
+    GET /kettle/transStatusUpdates?name=dummy-trans&since=42&from=1250
+    </pre>
+
+    </p>
+    <h3>Parameters</h3>
+    <table class="pentaho-table">
+    <tbody>
+    <tr>
+      <th>name</th>
+      <th>description</th>
+      <th>type</th>
+    </tr>
+    <tr>
+    <td>name</td>
+    <td>Only report on the transformation with this name. All transformations are reported on otherwise.</td>
+    <td>query, optional</td>
+    </tr>
+    <tr>
+    <td>id</td>
+    <td>Carte id of the transformation.</td>
+    <td>query, optional</td>
+    </tr>
+    <tr>
+    <td>since</td>
+    <td>The <code>since</code> cursor of the previous response. The complete status is returned when omitted.</td>
+    <td>integer, optional</td>
+    </tr>
+    <tr>
+    <td>from</td>
+    <td>The <code>from</code> log line number of the previous response. The complete log is returned when
+    omitted.</td>
+    <td>integer, optional</td>
+    </tr>
+    <tr>
+    <td>log</td>
+    <td>Set to <code>N</code> to leave out the log lines.</td>
+    <td>boolean, optional</td>
+    </tr>
+    <tr>
+    <td>stream</td>
+    <td>Set to <code>Y</code> to keep the connection open and receive the changes as server-sent events. The
+    <code>Last-Event-ID</code> header is honored when reconnecting.</td>
+    <td>boolean, optional</td>
+    </tr>
+    <tr>
+    <td>interval</td>
+    <td>The time in milliseconds between two checks for changes when streaming, 1000 by default.</td>
+    <td>integer, optional</td>
+    </tr>
+    </tbody>
+    </table>
+
+  <h3>Response Body</h3>
+
+  <table class="pentaho-table">
+    <tbody>
+      <tr>
+        <td align="right">element:</td>
+        <td>(custom)</td>
+      </tr>
+      <tr>
+        <td align="right">media types:</td>
+        <td>application/json, text/event-stream</td>
+      </tr>
+    </tbody>
+  </table>
+    <p><b>Example Response:</b></p>
+    <pre function="syntax.xml">
+    {"since":57,"from":1262,"transformations":[{"name":"dummy-trans","id":"c56961b2-c848-49b8-abde-76c8015e29b0",
+    "status_desc":"Running","paused":false,"errors":0,"log":"...","steps":[{"stepname":"Dummy","copy":0,
+    "linesRead":10000,"linesWritten":10000,"linesInput":0,"linesOutput":0,"linesUpdated":0,"linesRejected":0,
+    "errors":0,"statusDescription":"Running","seconds":1.2,"speed":" 8,333","priority":"   0/12","stopped":false,
+    "paused":false,"utilization":"55% / 45% / 0%"}]}]}
+    </pre>
+
+    <h3>Status Codes</h3>
+    <table class="pentaho-table">
+  <tbody>
+    <tr>
+      <th>code</th>
+      <th>description</th>
+    </tr>
+    <tr>
+      <td>200</td>
+      <td>Request was processed.</td>
+    </tr>
+    <tr>
+      <td>404</td>
+      <td>The requested transformation can't be found.</td>
+    </tr>
+    <tr>
+      <td>500</td>
+      <td>Internal server error occurs during request processing.</td>
+    </tr>
+  </tbody>
+</table>
+</div>
+  */
+  public void doGet( HttpServletRequest request, HttpServletResponse response ) throws ServletException,
+    IOException {
+    if ( isJettyMode() && !request.getContextPath().startsWith( CONTEXT_PATH ) ) {
+      return;
+    }
+
+    if ( log.isDebug() ) {
+      logDebug( BaseMessages.getString( PKG, "GetTransStatusUpdatesServlet.Log.StatusUpdatesRequested" ) );
+    }
+
+    String transName = request.getParameter( "name" );
+    String id = request.getParameter( "id" );
+    long since = Const.toLong( request.getParameter( "since" ), 0L );
+    int from = Const.toInt( request.getParameter( "from" ), 0 );
+    boolean includeLog = !"N".equalsIgnoreCase( request.getParameter( "log" ) );
+    boolean stream = "Y".equalsIgnoreCase( request.getParameter( "stream" ) );
+    int interval = Math.max( MINIMUM_INTERVAL, Const.toInt( request.getParameter( "interval" ), DEFAULT_INTERVAL ) );
+
+    // A reconnecting event source tells us where it left off
+    //
+    String lastEventId = request.getHeader( "Last-Event-ID" );
+    if ( stream && !Utils.isEmpty( lastEventId ) ) {
+      String[] cursor = lastEventId.split( "/" );
+      since = Const.toLong( cursor[0], since );
+      if ( cursor.length > 1 ) {
+        from = Const.toInt( cursor[1], from );
+      }
+    }
+
+    if ( !Utils.isEmpty( transName ) && getEntries( transName, id ).isEmpty() ) {
+      response.sendError( HttpServletResponse.SC_NOT_FOUND, BaseMessages.getString(
+        PKG, "GetTransStatusUpdatesServlet.Log.CoundNotFindSpecTrans", transName ) );
+      return;
+    }
+
+    response.setStatus( HttpServletResponse.SC_OK );
+    response.setCharacterEncoding( "UTF-8" );
+
+    if ( !stream ) {
+      response.setContentType( "application/json" );
+      PrintWriter out = response.getWriter();
+      out.print( getUpdates( transName, id, since, from, includeLog ).toJSONString() );
+      out.flush();
+      return;
+    }
+
+    response.setContentType( EVENT_STREAM_CONTENT_TYPE );
+    response.setHeader( "Cache-Control", "no-cache" );
+    PrintWriter out = response.getWriter();
+    long lastWrite = 0L;
+    while ( !out.checkError() ) {
+      JSONObject updates = getUpdates( transName, id, since, from, includeLog );
+      since = (Long) updates.get( "since" );
+      from = (Integer) updates.get( "from" );
+      long now = System.currentTimeMillis();
+      if ( !( (JSONArray) updates.get( "transformations" ) ).isEmpty() ) {
+        out.print( "id: " + since + "/" + from + "\n" );
+        out.print( "data: " + updates.toJSONString() + "\n\n" );
+        out.flush();
+        lastWrite = now;
+      } else if ( now - lastWrite >= KEEP_ALIVE_INTERVAL ) {
+        out.print( ":\n\n" );
+        out.flush();
+        lastWrite = now;
+      }
+
+      // Following a single transformation ends when it does
+      //
+      if ( !Utils.isEmpty( transName ) && isFinished( transName, id ) ) {
+        break;
+      }
+      try {
+        Thread.sleep( interval );
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+  }
+
+  @SuppressWarnings( "unchecked" )
+  JSONObject getUpdates( String transName, String id, long since, int from, boolean includeLog ) {
+    // Read the last line number first: lines logged while we collect will be in the next update
+    //
+    int lastLineNr = KettleLogStore.getLastBufferLineNr();
+
+    Map<Trans, CarteObjectEntry> entries = new IdentityHashMap<>();
+    for ( CarteObjectEntry entry : getEntries( transName, id ) ) {
+      Trans trans = getTransformationMap().getTransformation( entry );
+      if ( trans != null ) {
+        entries.put( trans, entry );
+      }
+    }
+
+    List<TransStatusTracker.TransChanges> changes = new ArrayList<>();
+    long cursor = tracker.getChanges( new ArrayList<>( entries.keySet() ), since, changes );
+
+    JSONArray transformations = new JSONArray();
+    Map<Trans, JSONObject> changed = new IdentityHashMap<>();
+    for ( TransStatusTracker.TransChanges transChanges : changes ) {
+      JSONObject json = getJSON( entries.get( transChanges.getTrans() ), transChanges );
+      changed.put( transChanges.getTrans(), json );
+      transformations.add( json );
+    }
+
+    // Transformations that only logged something since the previous update
+    //
+    if ( includeLog && lastLineNr > from ) {
+      for ( Map.Entry<Trans, CarteObjectEntry> entry : entries.entrySet() ) {
+        String logText = getLogText( entry.getKey(), from, lastLineNr );
+        if ( Utils.isEmpty( logText ) ) {
+          continue;
+        }
+        JSONObject json = changed.get( entry.getKey() );
+        if ( json == null ) {
+          json = new JSONObject();
+          json.put( "name", entry.getValue().getName() );
+          json.put( "id", entry.getValue().getId() );
+          transformations.add( json );
+        }
+        json.put( "log", logText );
+      }
+    }
+
+    JSONObject updates = new JSONObject();
+    updates.put( "since", cursor );
+    updates.put( "from", Math.max( from, lastLineNr ) );
+    updates.put( "transformations", transformations );
+    return updates;
+  }
+
+  @SuppressWarnings( "unchecked" )
+  private JSONObject getJSON( CarteObjectEntry entry, TransStatusTracker.TransChanges transChanges ) {
+    Trans trans = transChanges.getTrans();
+    JSONObject json = new JSONObject();
+    json.put( "name", entry.getName() );
+    json.put( "id", entry.getId() );
+    if ( transChanges.isStatusChanged() ) {
+      json.put( "status_desc", trans.getStatus() );
+      json.put( "paused", trans.isPaused() );
+      json.put( "errors", trans.getErrors() );
+    }
+    JSONArray steps = new JSONArray();
+    for ( StepStatus stepStatus : transChanges.getSteps() ) {
+      JSONObject step = new JSONObject();
+      step.put( "stepname", stepStatus.getStepname() );
+      step.put( "copy", stepStatus.getCopy() );
+      step.put( "linesRead", stepStatus.getLinesRead() );
+      step.put( "linesWritten", stepStatus.getLinesWritten() );
+      step.put( "linesInput", stepStatus.getLinesInput() );
+      step.put( "linesOutput", stepStatus.getLinesOutput() );
+      step.put( "linesUpdated", stepStatus.getLinesUpdated() );
+      step.put( "linesRejected", stepStatus.getLinesRejected() );
+      step.put( "errors", stepStatus.getErrors() );
+      step.put( "statusDescription", stepStatus.getStatusDescription() );
+      step.put( "seconds", stepStatus.getSeconds() );
+      step.put( "speed", stepStatus.getSpeed() );
+      step.put( "priority", stepStatus.getPriority() );
+      step.put( "stopped", stepStatus.isStopped() );
+      step.put( "paused", stepStatus.isPaused() );
+      step.put( "utilization", stepStatus.getUtilization() );
+      steps.add( step );
+    }
+    json.put( "steps", steps );
+    return json;
+  }
+
+  private List<CarteObjectEntry> getEntries( String transName, String id ) {
+    List<CarteObjectEntry> entries = new ArrayList<>();
+    for ( CarteObjectEntry entry : getTransformationMap().getTransformationObjects() ) {
+      if ( ( Utils.isEmpty( transName ) || transName.equals( entry.getName() ) )
+        && ( Utils.isEmpty( id ) || id.equals( entry.getId() ) ) ) {
+        entries.add( entry );
+      }
+    }
+    return entries;
+  }
+
+  private boolean isFinished( String transName, String id ) {
+    for ( CarteObjectEntry entry : getEntries( transName, id ) ) {
+      Trans trans = getTransformationMap().getTransformation( entry );
+      if ( trans != null && !trans.isFinishedOrStopped() ) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private String getLogText( Trans trans, int startLineNr, int lastLineNr ) {
+    if ( trans.getLogChannel() == null ) {
+      return null;
+    }
+    return KettleLogStore.getAppender().getBuffer(
+      trans.getLogChannel().getLogChannelId(), false, startLineNr, lastLineNr ).toString();
+  }
+
+  public String toString() {
+    return "Trans Status Updates Handler";
+  }
+
+  public String getService() {
+    return CONTEXT_PATH + " (" + toString() + ")";
+  }
+
+  public String getContextPath() {
+    return CONTEXT_PATH;
+  }
+
+}
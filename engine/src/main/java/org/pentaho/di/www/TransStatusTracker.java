@@ -0,0 +1,161 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2021 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.pentaho.di.www;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.pentaho.di.trans.Trans;
+import org.pentaho.di.trans.step.BaseStepData.StepExecutionStatus;
+import org.pentaho.di.trans.step.StepInterface;
+import org.pentaho.di.trans.step.StepStatus;
+
+/**
+ * Keeps track of what changed in the status of the transformations on this server. Every change gets a version
+ * number from a single server wide counter so that a client can ask for everything that changed since the last
+ * cursor it got back instead of fetching the complete status of every transformation over and over again.
+ * <p>
+ * The run time and speed of a running step change all the time, they only count as a change together with the row
+ * counters, the status or the buffer sizes of the step.
+ */
+public class TransStatusTracker {
+
+  private static final TransStatusTracker instance = new TransStatusTracker();
+
+  private static final String TRANS_KEY = "";
+
+  private final Map<Trans, Map<String, Tracked>> trackedMap = new WeakHashMap<>();
+
+  private long version;
+
+  public static TransStatusTracker getInstance() {
+    return instance;
+  }
+
+  TransStatusTracker() {
+  }
+
+  /**
+   * Looks at the current status of the given transformations and adds the ones that changed after the given cursor to
+   * the changes list.
+   *
+   * @param transformations the transformations to look at
+   * @param since           the cursor returned by the previous call, 0 to get the complete status
+   * @param changes         the list to add the changed transformations to
+   * @return the cursor to pass in the next time
+   */
+  public synchronized long getChanges( List<Trans> transformations, long since, List<TransChanges> changes ) {
+    for ( Trans trans : transformations ) {
+      Map<String, Tracked> tracked = trackedMap.computeIfAbsent( trans, t -> new HashMap<>() );
+
+      boolean statusChanged = track( tracked, TRANS_KEY, getFingerprint( trans ) ) > since;
+      List<StepStatus> steps = new ArrayList<>();
+      for ( int i = 0; i < trans.nrSteps(); i++ ) {
+        StepInterface step = trans.getRunThread( i );
+        if ( step.isRunning() || step.getStatus() != StepExecutionStatus.STATUS_EMPTY ) {
+          StepStatus stepStatus = new StepStatus( step );
+          String key = step.getStepname() + "." + step.getCopy();
+          if ( track( tracked, key, getFingerprint( stepStatus ) ) > since ) {
+            steps.add( stepStatus );
+          }
+        }
+      }
+      if ( statusChanged || !steps.isEmpty() ) {
+        changes.add( new TransChanges( trans, statusChanged, steps ) );
+      }
+    }
+    return version;
+  }
+
+  /**
+   * @return the version of the last change seen
+   */
+  public synchronized long getVersion() {
+    return version;
+  }
+
+  private long track( Map<String, Tracked> tracked, String key, String fingerprint ) {
+    Tracked item = tracked.get( key );
+    if ( item == null ) {
+      item = new Tracked();
+      tracked.put( key, item );
+    }
+    if ( !fingerprint.equals( item.fingerprint ) ) {
+      item.fingerprint = fingerprint;
+      item.version = ++version;
+    }
+    return item.version;
+  }
+
+  private static String getFingerprint( Trans trans ) {
+    return trans.getStatus() + "|" + trans.isPaused() + "|" + trans.getErrors();
+  }
+
+  private static String getFingerprint( StepStatus stepStatus ) {
+    return stepStatus.getStatusDescription() + "|" + stepStatus.getLinesRead() + "|" + stepStatus.getLinesWritten()
+      + "|" + stepStatus.getLinesInput() + "|" + stepStatus.getLinesOutput() + "|" + stepStatus.getLinesUpdated()
+      + "|" + stepStatus.getLinesRejected() + "|" + stepStatus.getErrors() + "|" + stepStatus.getPriority()
+      + "|" + stepStatus.isStopped() + "|" + stepStatus.isPaused();
+  }
+
+  private static class Tracked {
+    private String fingerprint;
+    private long version;
+  }
+
+  /**
+   * The changes of a single transformation.
+   */
+  public static class TransChanges {
+    private final Trans trans;
+    private final boolean statusChanged;
+    private final List<StepStatus> steps;
+
+    public TransChanges( Trans trans, boolean statusChanged, List<StepStatus> steps ) {
+      this.trans = trans;
+      this.statusChanged = statusChanged;
+      this.steps = steps;
+    }
+
+    public Trans getTrans() {
+      return trans;
+    }
+
+    /**
+     * @return true if the status, the paused flag or the number of errors of the transformation changed
+     */
+    public boolean isStatusChanged() {
+      return statusChanged;
+    }
+
+    /**
+     * @return the status of the steps that changed
+     */
+    public List<StepStatus> getSteps() {
+      return steps;
+    }
+  }
+}
@@ -55,6 +55,7 @@ import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.extension.ExtensionPointHandler;
 import org.pentaho.di.core.extension.KettleExtensionPoint;
 import org.pentaho.di.core.logging.LogChannelInterface;
+import org.pentaho.di.core.metrics.MetricsExport;
 import org.pentaho.di.core.plugins.CartePluginType;
 import org.pentaho.di.core.plugins.PluginInterface;
 import org.pentaho.di.core.plugins.PluginRegistry;
@@ -92,6 +93,8 @@ public class WebServer {
 
   private Timer slaveMonitoringTimer;
 
+  private CarteMetricsCollector metricsCollector;
+
   private String passwordFile;
   private WebServerShutdownHook webServerShutdownHook;
   private IWebServerShutdownHandler webServerShutdownHandler = new DefaultWebServerShutdownHandler();
@@ -282,6 +285,11 @@ public class WebServer {
     // Start execution
     createListeners();
 
+    // Publish the metrics of the transformations and jobs on this server
+    //
+    metricsCollector = new CarteMetricsCollector( transformationMap, jobMap );
+    MetricsExport.getInstance().addCollector( metricsCollector );
+
     server.start();
   }
 
@@ -323,6 +331,11 @@ public class WebServer {
         //
         socketRepository.closeAll();
 
+        if ( metricsCollector != null ) {
+          MetricsExport.getInstance().removeCollector( metricsCollector );
+          metricsCollector = null;
+        }
+
         // Stop the server...
         //
         server.stop();
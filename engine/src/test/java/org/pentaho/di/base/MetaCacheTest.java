@@ -0,0 +1,165 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2021 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.pentaho.di.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.pentaho.di.core.KettleEnvironment;
+import org.pentaho.di.core.database.DatabaseMeta;
+import org.pentaho.di.core.plugins.PluginRegistry;
+import org.pentaho.di.core.plugins.StepPluginType;
+import org.pentaho.di.core.variables.Variables;
+import org.pentaho.di.junit.rules.RestorePDIEngineEnvironment;
+import org.pentaho.di.trans.TransHopMeta;
+import org.pentaho.di.trans.TransMeta;
+import org.pentaho.di.trans.step.StepMeta;
+import org.pentaho.di.trans.steps.dummytrans.DummyTransMeta;
+import org.pentaho.di.trans.steps.tableinput.TableInputMeta;
+
+public class MetaCacheTest {
+  @ClassRule public static RestorePDIEngineEnvironment env = new RestorePDIEngineEnvironment();
+
+  private File file;
+
+  @BeforeClass
+  public static void initKettle() throws Exception {
+    KettleEnvironment.init();
+  }
+
+  @After
+  public void tearDown() {
+    MetaCache.getInstance().clear();
+    if ( file != null ) {
+      file.delete();
+    }
+  }
+
+  @Test
+  public void testLoadReturnsIndependentCopies() throws Exception {
+    file = writeTransformation( "first" );
+    MetaCache metaCache = MetaCache.getInstance();
+
+    TransMeta first = metaCache.loadTransMeta( file.getAbsolutePath(), null, null, true, null );
+    TransMeta second = metaCache.loadTransMeta( file.getAbsolutePath(), null, null, true, null );
+
+    assertNotSame( first, second );
+    assertEquals( "first", second.getName() );
+    assertEquals( 2, second.nrSteps() );
+    assertNotSame( first.findStep( "source" ), second.findStep( "source" ) );
+    TransHopMeta hop = second.getTransHop( 0 );
+    assertSame( second.findStep( "source" ), hop.getFromStep() );
+    assertSame( second.findStep( "target" ), hop.getToStep() );
+    assertNotNull( second.getVariable( "Internal.Entry.Current.Directory" ) );
+    assertFalse( second.hasChanged() );
+
+    first.setVariable( "VAR", "first" );
+    assertEquals( null, second.getVariable( "VAR" ) );
+  }
+
+  @Test
+  public void testCopiesResolveTheirOwnConnectionVariables() throws Exception {
+    file = File.createTempFile( "MetaCacheTest", ".ktr" );
+    file.deleteOnExit();
+    TransMeta transMeta = new TransMeta();
+    transMeta.setName( "database" );
+    DatabaseMeta databaseMeta = new DatabaseMeta( "db", "MYSQL", "Native", "${DB_HOST}", "test", "3306", "user", "" );
+    transMeta.addDatabase( databaseMeta );
+    TableInputMeta tableInputMeta = new TableInputMeta();
+    tableInputMeta.setDefault();
+    tableInputMeta.setDatabaseMeta( databaseMeta );
+    String stepId = PluginRegistry.getInstance().getPluginId( StepPluginType.class, tableInputMeta );
+    transMeta.addStep( new StepMeta( stepId, "input", tableInputMeta ) );
+    Files.write( file.toPath(), transMeta.getXML().getBytes( StandardCharsets.UTF_8 ) );
+
+    Variables firstSpace = new Variables();
+    firstSpace.setVariable( "DB_HOST", "first-host" );
+    Variables secondSpace = new Variables();
+    secondSpace.setVariable( "DB_HOST", "second-host" );
+    MetaCache metaCache = MetaCache.getInstance();
+    TransMeta first = metaCache.loadTransMeta( file.getAbsolutePath(), null, null, true, firstSpace );
+    TransMeta second = metaCache.loadTransMeta( file.getAbsolutePath(), null, null, true, secondSpace );
+
+    DatabaseMeta firstDatabase =
+      ( (TableInputMeta) first.findStep( "input" ).getStepMetaInterface() ).getDatabaseMeta();
+    DatabaseMeta secondDatabase =
+      ( (TableInputMeta) second.findStep( "input" ).getStepMetaInterface() ).getDatabaseMeta();
+    assertSame( first.findDatabase( "db" ), firstDatabase );
+    assertSame( second.findDatabase( "db" ), secondDatabase );
+    assertEquals( "first-host", firstDatabase.environmentSubstitute( firstDatabase.getHostname() ) );
+    assertEquals( "second-host", secondDatabase.environmentSubstitute( secondDatabase.getHostname() ) );
+  }
+
+  @Test
+  public void testChangedFileIsReloaded() throws Exception {
+    file = writeTransformation( "first" );
+    MetaCache metaCache = MetaCache.getInstance();
+    assertEquals( "first", metaCache.loadTransMeta( file.getAbsolutePath(), null, null, true, null ).getName() );
+
+    long lastModified = file.lastModified();
+    writeTransformation( file, "second" );
+    assertTrue( file.setLastModified( lastModified + 10000L ) );
+
+    assertEquals( "second", metaCache.loadTransMeta( file.getAbsolutePath(), null, null, true, null ).getName() );
+  }
+
+  @Test
+  public void testIsEnabled() {
+    Variables space = new Variables();
+    assertFalse( MetaCache.getInstance().isEnabled( space ) );
+    space.setVariable( "KETTLE_USE_META_CACHE", "Y" );
+    assertTrue( MetaCache.getInstance().isEnabled( space ) );
+  }
+
+  private static File writeTransformation( String name ) throws Exception {
+    File file = File.createTempFile( "MetaCacheTest", ".ktr" );
+    file.deleteOnExit();
+    writeTransformation( file, name );
+    return file;
+  }
+
+  private static void writeTransformation( File file, String name ) throws Exception {
+    TransMeta transMeta = new TransMeta();
+    transMeta.setName( name );
+    String stepId = PluginRegistry.getInstance().getPluginId( StepPluginType.class, new DummyTransMeta() );
+    StepMeta source = new StepMeta( stepId, "source", new DummyTransMeta() );
+    StepMeta target = new StepMeta( stepId, "target", new DummyTransMeta() );
+    transMeta.addStep( source );
+    transMeta.addStep( target );
+    transMeta.addTransHop( new TransHopMeta( source, target ) );
+    Files.write( file.toPath(), transMeta.getXML().getBytes( StandardCharsets.UTF_8 ) );
+  }
+}
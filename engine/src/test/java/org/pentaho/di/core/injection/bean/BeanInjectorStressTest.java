@@ -0,0 +1,117 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2021 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.pentaho.di.core.injection.bean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.pentaho.di.core.KettleEnvironment;
+import org.pentaho.di.core.RowMetaAndData;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaString;
+import org.pentaho.di.junit.rules.RestorePDIEngineEnvironment;
+import org.pentaho.di.trans.steps.selectvalues.SelectValuesMeta;
+import org.pentaho.di.trans.steps.textfileoutput.TextFileField;
+import org.pentaho.di.trans.steps.textfileoutput.TextFileOutputMeta;
+
+public class BeanInjectorStressTest {
+  @ClassRule public static RestorePDIEngineEnvironment env = new RestorePDIEngineEnvironment();
+
+  private static final int FIELDS = 10000;
+
+  @BeforeClass
+  public static void initKettle() throws Exception {
+    KettleEnvironment.init();
+  }
+
+  /**
+   * The arrays of injected groups used to be copied for every row, and every value was set through reflection.
+   */
+  @Test( timeout = 60000 )
+  public void testInjectLargeGroupIntoSelectValues() throws Exception {
+    SelectValuesMeta meta = new SelectValuesMeta();
+    BeanInjector injector = new BeanInjector( BeanInjectionInfo.getInjectionInfo( SelectValuesMeta.class ) );
+    List<RowMetaAndData> rows = createRows();
+
+    injector.setProperty( meta, "FIELD_NAME", rows, "name" );
+    injector.setProperty( meta, "FIELD_RENAME", rows, "rename" );
+    injector.setProperty( meta, "FIELD_LENGTH", rows, "length" );
+    injector.setProperty( meta, "REMOVE_NAME", rows, "rename" );
+
+    assertEquals( FIELDS, meta.getSelectFields().length );
+    for ( int i = 0; i < FIELDS; i++ ) {
+      assertEquals( "field" + i, meta.getSelectFields()[i].getName() );
+      assertEquals( i, meta.getSelectFields()[i].getLength() );
+    }
+    assertEquals( "renamed0", meta.getSelectFields()[0].getRename() );
+    assertNull( meta.getSelectFields()[1].getRename() );
+    // The empty values at the end don't extend the array of values
+    assertEquals( FIELDS - 1, meta.getDeleteName().length );
+    assertEquals( "renamed" + ( FIELDS - 2 ), meta.getDeleteName()[FIELDS - 2] );
+    assertNull( meta.getDeleteName()[FIELDS - 3] );
+  }
+
+  @Test( timeout = 60000 )
+  public void testInjectLargeGroupIntoTextFileOutput() throws Exception {
+    TextFileOutputMeta meta = new TextFileOutputMeta();
+    BeanInjector injector = new BeanInjector( BeanInjectionInfo.getInjectionInfo( TextFileOutputMeta.class ) );
+    List<RowMetaAndData> rows = createRows();
+
+    injector.setProperty( meta, "OUTPUT_FIELDNAME", rows, "name" );
+    injector.setProperty( meta, "OUTPUT_TYPE", rows, "type" );
+    injector.setProperty( meta, "OUTPUT_LENGTH", rows, "length" );
+
+    assertEquals( FIELDS, meta.getOutputFields().length );
+    for ( int i = 0; i < FIELDS; i++ ) {
+      TextFileField field = meta.getOutputFields()[i];
+      assertEquals( "field" + i, field.getName() );
+      assertEquals( ValueMetaInterface.TYPE_INTEGER, field.getType() );
+      assertEquals( i, field.getLength() );
+    }
+  }
+
+  /**
+   * @return a row per field, the odd rows without rename
+   */
+  private static List<RowMetaAndData> createRows() {
+    RowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaString( "name" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "rename" ) );
+    rowMeta.addValueMeta( new ValueMetaInteger( "length" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "type" ) );
+    List<RowMetaAndData> rows = new ArrayList<>( FIELDS );
+    for ( int i = 0; i < FIELDS; i++ ) {
+      String rename = i % 2 == 0 ? "renamed" + i : null;
+      rows.add( new RowMetaAndData( rowMeta, "field" + i, rename, (long) i, "Integer" ) );
+    }
+    return rows;
+  }
+}
@@ -24,6 +24,9 @@ package org.pentaho.di.core.injection.bean;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.pentaho.di.core.injection.AfterInjection;
+import org.pentaho.di.core.injection.Injection;
+import org.pentaho.di.core.injection.InjectionSupported;
 import org.pentaho.di.core.injection.MetaBeanLevel1;
 import org.pentaho.di.core.injection.MetaBeanLevel2;
 import org.pentaho.di.core.logging.KettleLogStore;
@@ -31,6 +34,7 @@ import org.pentaho.di.core.logging.KettleLogStore;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertFalse;
 import static org.mockito.Mockito.doThrow;
@@ -385,4 +389,36 @@ public class BeanInjectorTest {
     assertEquals(-1, bi.getCollectionSize( property, mbl1.getSub() ) );
   }
 
-}
\ No newline at end of file
+  @Test
+  public void getInjectionInfo_CollectedOnce() {
+    BeanInjectionInfo bii = BeanInjectionInfo.getInjectionInfo( MetaBeanLevel1.class );
+
+    assertSame( bii, BeanInjectionInfo.getInjectionInfo( MetaBeanLevel1.class ) );
+    assertEquals( new BeanInjectionInfo( MetaBeanLevel1.class ).getProperties().keySet(),
+      bii.getProperties().keySet() );
+  }
+
+  @Test
+  public void runPostInjectionProcessing() {
+    AfterInjectionMeta meta = new AfterInjectionMeta();
+
+    BeanInjectionInfo bii = BeanInjectionInfo.getInjectionInfo( AfterInjectionMeta.class );
+    new BeanInjector( bii ).runPostInjectionProcessing( meta );
+    new BeanInjector( null ).runPostInjectionProcessing( meta );
+
+    assertEquals( 2, meta.postInjections );
+  }
+
+  @InjectionSupported( localizationPrefix = "AfterInjectionMeta.Injection." )
+  public static class AfterInjectionMeta {
+    @Injection( name = "NAME" )
+    public String name;
+
+    int postInjections;
+
+    @AfterInjection
+    public void afterInjection() {
+      postInjections++;
+    }
+  }
+}
@@ -0,0 +1,125 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2021 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.logging;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.pentaho.di.core.KettleEnvironment;
+import org.pentaho.di.core.RowMetaAndData;
+import org.pentaho.di.core.database.DatabaseMeta;
+import org.pentaho.di.core.database.H2DatabaseMeta;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.value.ValueMetaString;
+import org.pentaho.di.core.variables.Variables;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class LogTableWriterTest {
+
+  private static final String URL = "jdbc:h2:mem:LOG_TABLE_WRITER;DB_CLOSE_DELAY=-1";
+
+  private LogTableCoreInterface logTable;
+  private Variables variables;
+
+  @BeforeClass
+  public static void beforeClass() throws Exception {
+    KettleEnvironment.init( false );
+    try ( Connection connection = DriverManager.getConnection( URL ) ) {
+      connection.createStatement().execute( "CREATE TABLE LOG_TEST (SUBJECT VARCHAR(20))" );
+    }
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    DatabaseMeta databaseMeta = new DatabaseMeta();
+    databaseMeta.setDatabaseInterface( new H2DatabaseMeta() );
+    databaseMeta.setName( "log" );
+    databaseMeta.setDBName( "mem:LOG_TABLE_WRITER" );
+
+    RowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaString( "SUBJECT" ) );
+
+    logTable = mock( LogTableCoreInterface.class );
+    when( logTable.getDatabaseMeta() ).thenReturn( databaseMeta );
+    when( logTable.getActualTableName() ).thenReturn( "LOG_TEST" );
+    when( logTable.getLogRecord( any( LogStatus.class ), any(), any() ) ).thenAnswer(
+      invocation -> new RowMetaAndData( rowMeta, invocation.getArguments()[1] ) );
+
+    variables = new Variables();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    try ( Connection connection = DriverManager.getConnection( URL ) ) {
+      connection.createStatement().execute( "DELETE FROM LOG_TEST" );
+    }
+  }
+
+  @Test
+  public void testRecordsAreWrittenOnFlush() throws Exception {
+    LogTableWriter writer = new LogTableWriter( 50 );
+    try {
+      writer.write( variables, logTable, Arrays.asList( "one", "two" ), null, false );
+      writer.write( variables, logTable, Collections.singletonList( "three" ), null, false );
+      writer.flush();
+
+      assertEquals( 3, countRecords() );
+    } finally {
+      writer.shutdown();
+    }
+  }
+
+  @Test
+  public void testRecordsAreWrittenAtShutdown() throws Exception {
+    LogTableWriter writer = new LogTableWriter( 60000 );
+    writer.write( variables, logTable, Arrays.asList( "one", "two" ), null, false );
+    writer.shutdown();
+    assertEquals( 2, countRecords() );
+
+    // After shutdown the records are written right away
+    writer.write( variables, logTable, Collections.singletonList( "three" ), null, false );
+    assertEquals( 3, countRecords() );
+  }
+
+  private int countRecords() throws Exception {
+    try ( Connection connection = DriverManager.getConnection( URL ) ) {
+      Statement statement = connection.createStatement();
+      ResultSet resultSet = statement.executeQuery( "SELECT COUNT(*) FROM LOG_TEST" );
+      resultSet.next();
+      return resultSet.getInt( 1 );
+    }
+  }
+}
@@ -0,0 +1,233 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2021 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.pentaho.di.job;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.KettleEnvironment;
+import org.pentaho.di.core.Result;
+import org.pentaho.di.core.logging.LogLevel;
+import org.pentaho.di.job.entries.special.JobEntrySpecial;
+import org.pentaho.di.job.entry.JobEntryBase;
+import org.pentaho.di.job.entry.JobEntryCopy;
+import org.pentaho.di.job.entry.JobEntryInterface;
+import org.pentaho.di.junit.rules.RestorePDIEngineEnvironment;
+
+public class JobEntryExecutionTest {
+  @ClassRule public static RestorePDIEngineEnvironment env = new RestorePDIEngineEnvironment();
+
+  private static final int BRANCHES = 40;
+
+  @BeforeClass
+  public static void initKettle() throws Exception {
+    KettleEnvironment.init();
+  }
+
+  /**
+   * Every iteration of a loop executes the job entry at the same depth of the thread stack.
+   */
+  @Test( timeout = 30000 )
+  public void testLoopRunsAtConstantStackDepth() throws Exception {
+    Counter counter = new Counter();
+    JobMeta jobMeta = new JobMeta();
+    JobEntryCopy start = addStart( jobMeta );
+    JobEntryCopy loop = addEntry( jobMeta, new CountingJobEntry( "loop", counter, 200, true, 0L ) );
+    JobEntryCopy again = addEntry( jobMeta, new CountingJobEntry( "again", new Counter(), Integer.MAX_VALUE, false,
+      0L ) );
+    jobMeta.addJobHop( new JobHopMeta( start, loop ) );
+    jobMeta.addJobHop( new JobHopMeta( loop, again ) );
+    JobHopMeta back = new JobHopMeta( again, loop );
+    back.setUnconditional();
+    jobMeta.addJobHop( back );
+
+    Result result = createJob( jobMeta ).execute( 0, new Result() );
+
+    assertEquals( 200, counter.executions.get() );
+    assertEquals( counter.minStackDepth.get(), counter.maxStackDepth.get() );
+    assertFalse( result.getResult() );
+    assertEquals( 0, result.getNrErrors() );
+  }
+
+  @Test( timeout = 30000 )
+  public void testParallelEntriesRunOnBoundedExecutor() throws Exception {
+    Counter counter = new Counter();
+    Job job = createJob( createFanOut( counter ) );
+    job.setVariable( Const.KETTLE_JOB_MAX_PARALLEL_ENTRIES, "4" );
+    Result result = job.execute( 0, new Result() );
+
+    assertEquals( BRANCHES, counter.executions.get() );
+    assertTrue( result.getResult() );
+    // The pool threads plus the thread waiting for the branches, which runs the ones not yet started
+    //
+    assertTrue( counter.maxRunning.get() <= 4 + 1 );
+  }
+
+  @Test( timeout = 30000 )
+  public void testParallelEntriesRunOnOneThreadPerProcessorByDefault() throws Exception {
+    Counter counter = new Counter();
+    Result result = createJob( createFanOut( counter ) ).execute( 0, new Result() );
+
+    assertEquals( BRANCHES, counter.executions.get() );
+    assertTrue( result.getResult() );
+    assertTrue( counter.maxRunning.get() <= Runtime.getRuntime().availableProcessors() + 1 );
+  }
+
+  /**
+   * Branches that launch branches of their own wait on the same bounded executor and must not deadlock it.
+   */
+  @Test( timeout = 30000 )
+  public void testNestedFanOutDoesNotDeadlock() throws Exception {
+    Counter counter = new Counter();
+    JobMeta jobMeta = new JobMeta();
+    JobEntryCopy start = addStart( jobMeta );
+    JobEntryCopy fan = addEntry( jobMeta, new CountingJobEntry( "fan", new Counter(), Integer.MAX_VALUE, false, 0L ) );
+    fan.setLaunchingInParallel( true );
+    jobMeta.addJobHop( new JobHopMeta( start, fan ) );
+    for ( int i = 0; i < 5; i++ ) {
+      JobEntryCopy branch = addEntry( jobMeta, new CountingJobEntry( "branch " + i, new Counter(), Integer.MAX_VALUE,
+        false, 0L ) );
+      branch.setLaunchingInParallel( true );
+      JobHopMeta hop = new JobHopMeta( fan, branch );
+      hop.setUnconditional();
+      jobMeta.addJobHop( hop );
+      for ( int j = 0; j < 5; j++ ) {
+        JobEntryCopy leaf = addEntry( jobMeta, new CountingJobEntry( "leaf " + i + "." + j, counter, Integer.MAX_VALUE,
+          false, 5L ) );
+        JobHopMeta leafHop = new JobHopMeta( branch, leaf );
+        leafHop.setUnconditional();
+        jobMeta.addJobHop( leafHop );
+      }
+    }
+
+    Job job = createJob( jobMeta );
+    job.setVariable( Const.KETTLE_JOB_MAX_PARALLEL_ENTRIES, "2" );
+    Result result = job.execute( 0, new Result() );
+
+    assertEquals( 25, counter.executions.get() );
+    assertTrue( result.getResult() );
+  }
+
+  /**
+   * @return a job entry launching {@link #BRANCHES} job entries in parallel that take a few milliseconds each
+   */
+  private static JobMeta createFanOut( Counter counter ) {
+    JobMeta jobMeta = new JobMeta();
+    JobEntryCopy start = addStart( jobMeta );
+    JobEntryCopy fan = addEntry( jobMeta, new CountingJobEntry( "fan", new Counter(), Integer.MAX_VALUE, false, 0L ) );
+    fan.setLaunchingInParallel( true );
+    jobMeta.addJobHop( new JobHopMeta( start, fan ) );
+    for ( int i = 0; i < BRANCHES; i++ ) {
+      JobEntryCopy branch =
+        addEntry( jobMeta, new CountingJobEntry( "branch " + i, counter, Integer.MAX_VALUE, false, 5L ) );
+      JobHopMeta hop = new JobHopMeta( fan, branch );
+      hop.setUnconditional();
+      jobMeta.addJobHop( hop );
+    }
+    return jobMeta;
+  }
+
+  private static Job createJob( JobMeta jobMeta ) {
+    Job job = new Job( null, jobMeta );
+    // Basic is the default level and the one that keeps track of the finished job entries
+    //
+    job.setLogLevel( LogLevel.BASIC );
+    return job;
+  }
+
+  private static JobEntryCopy addStart( JobMeta jobMeta ) {
+    return addEntry( jobMeta, new JobEntrySpecial( JobMeta.STRING_SPECIAL_START, true, false ) );
+  }
+
+  private static JobEntryCopy addEntry( JobMeta jobMeta, JobEntryInterface entry ) {
+    JobEntryCopy copy = new JobEntryCopy( entry );
+    jobMeta.addJobEntry( copy );
+    return copy;
+  }
+
+  private static class Counter {
+    private final AtomicInteger executions = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+    private final AtomicInteger minStackDepth = new AtomicInteger( Integer.MAX_VALUE );
+    private final AtomicInteger maxStackDepth = new AtomicInteger();
+  }
+
+  /**
+   * Counts its executions in a counter shared by all its clones, succeeds as long as the count stays below the limit.
+   */
+  public static class CountingJobEntry extends JobEntryBase implements Cloneable, JobEntryInterface {
+    private final Counter counter;
+    private final int limit;
+    private final boolean evaluating;
+    private final long sleepMillis;
+
+    public CountingJobEntry( String name, Counter counter, int limit, boolean evaluating, long sleepMillis ) {
+      super( name, "" );
+      this.counter = counter;
+      this.limit = limit;
+      this.evaluating = evaluating;
+      this.sleepMillis = sleepMillis;
+    }
+
+    @Override
+    public Result execute( Result previousResult, int nr ) {
+      int running = counter.running.incrementAndGet();
+      counter.maxRunning.accumulateAndGet( running, Math::max );
+      int stackDepth = Thread.currentThread().getStackTrace().length;
+      counter.minStackDepth.accumulateAndGet( stackDepth, Math::min );
+      counter.maxStackDepth.accumulateAndGet( stackDepth, Math::max );
+      try {
+        if ( sleepMillis > 0 ) {
+          Thread.sleep( sleepMillis );
+        }
+        previousResult.setResult( counter.executions.incrementAndGet() < limit );
+        return previousResult;
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+        previousResult.setNrErrors( 1 );
+        return previousResult;
+      } finally {
+        counter.running.decrementAndGet();
+      }
+    }
+
+    @Override
+    public boolean evaluates() {
+      return evaluating;
+    }
+
+    @Override
+    public boolean isUnconditional() {
+      return !evaluating;
+    }
+  }
+}
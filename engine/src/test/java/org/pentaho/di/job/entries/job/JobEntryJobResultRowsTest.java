@@ -0,0 +1,159 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2021 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.pentaho.di.job.entries.job;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.KettleEnvironment;
+import org.pentaho.di.core.ObjectLocationSpecificationMethod;
+import org.pentaho.di.core.Result;
+import org.pentaho.di.core.plugins.JobEntryPluginType;
+import org.pentaho.di.core.plugins.PluginRegistry;
+import org.pentaho.di.core.plugins.StepPluginType;
+import org.pentaho.di.job.Job;
+import org.pentaho.di.job.JobHopMeta;
+import org.pentaho.di.job.JobMeta;
+import org.pentaho.di.job.entries.special.JobEntrySpecial;
+import org.pentaho.di.job.entries.trans.JobEntryTrans;
+import org.pentaho.di.job.entry.JobEntryCopy;
+import org.pentaho.di.job.entry.JobEntryInterface;
+import org.pentaho.di.junit.rules.RestorePDIEngineEnvironment;
+import org.pentaho.di.trans.TransHopMeta;
+import org.pentaho.di.trans.TransMeta;
+import org.pentaho.di.trans.step.StepMeta;
+import org.pentaho.di.trans.step.StepMetaInterface;
+import org.pentaho.di.trans.steps.rowgenerator.RowGeneratorMeta;
+import org.pentaho.di.trans.steps.rowstoresult.RowsToResultMeta;
+
+public class JobEntryJobResultRowsTest {
+  @ClassRule public static RestorePDIEngineEnvironment env = new RestorePDIEngineEnvironment();
+
+  private static final int ROWS = 100;
+
+  private File transFile;
+  private File jobFile;
+
+  @BeforeClass
+  public static void initKettle() throws Exception {
+    KettleEnvironment.init();
+  }
+
+  @After
+  public void tearDown() {
+    System.clearProperty( Const.KETTLE_RESULT_ROWS_MAX_IN_MEMORY );
+    if ( transFile != null ) {
+      transFile.delete();
+    }
+    if ( jobFile != null ) {
+      jobFile.delete();
+    }
+  }
+
+  /**
+   * Only the rows of the result returned by the job stay on disk, the copies made by the job entries on the way are
+   * released.
+   */
+  @Test
+  public void testSpilledRowsOfNestedJobAreDeletedWithTheResult() throws Exception {
+    System.setProperty( Const.KETTLE_RESULT_ROWS_MAX_IN_MEMORY, "10" );
+    int spillFiles = countSpillFiles();
+    transFile = writeFile( ".ktr", createTransMeta().getXML() );
+    JobEntryTrans jobEntryTrans = new JobEntryTrans( "trans" );
+    jobEntryTrans.setSpecificationMethod( ObjectLocationSpecificationMethod.FILENAME );
+    jobEntryTrans.setFileName( transFile.getAbsolutePath() );
+    jobFile = writeFile( ".kjb", createJobMeta( jobEntryTrans ).getXML() );
+    JobEntryJob jobEntryJob = new JobEntryJob( "job" );
+    jobEntryJob.setSpecificationMethod( ObjectLocationSpecificationMethod.FILENAME );
+    jobEntryJob.setFileName( jobFile.getAbsolutePath() );
+
+    Result result = new Job( null, createJobMeta( jobEntryJob ) ).execute( 0, new Result() );
+
+    assertTrue( result.getResult() );
+    assertEquals( ROWS, result.getRows().size() );
+    assertEquals( spillFiles + 1, countSpillFiles() );
+    result.dispose();
+    assertEquals( spillFiles, countSpillFiles() );
+  }
+
+  private static TransMeta createTransMeta() {
+    RowGeneratorMeta rowGeneratorMeta = new RowGeneratorMeta();
+    rowGeneratorMeta.setDefault();
+    rowGeneratorMeta.allocate( 1 );
+    rowGeneratorMeta.setFieldName( new String[] { "nr" } );
+    rowGeneratorMeta.setFieldType( new String[] { "Integer" } );
+    rowGeneratorMeta.setValue( new String[] { "1" } );
+    rowGeneratorMeta.setRowLimit( String.valueOf( ROWS ) );
+
+    TransMeta transMeta = new TransMeta();
+    StepMeta generator = addStep( transMeta, "generate", rowGeneratorMeta );
+    StepMeta toResult = addStep( transMeta, "to result", new RowsToResultMeta() );
+    transMeta.addTransHop( new TransHopMeta( generator, toResult ) );
+    return transMeta;
+  }
+
+  private static StepMeta addStep( TransMeta transMeta, String name, StepMetaInterface stepMetaInterface ) {
+    String stepId = PluginRegistry.getInstance().getPluginId( StepPluginType.class, stepMetaInterface );
+    StepMeta stepMeta = new StepMeta( stepId, name, stepMetaInterface );
+    transMeta.addStep( stepMeta );
+    return stepMeta;
+  }
+
+  private static JobMeta createJobMeta( JobEntryInterface jobEntry ) {
+    JobMeta jobMeta = new JobMeta();
+    JobEntryCopy start = addEntry( jobMeta, new JobEntrySpecial( JobMeta.STRING_SPECIAL_START, true, false ) );
+    JobEntryCopy entry = addEntry( jobMeta, jobEntry );
+    jobMeta.addJobHop( new JobHopMeta( start, entry ) );
+    return jobMeta;
+  }
+
+  private static JobEntryCopy addEntry( JobMeta jobMeta, JobEntryInterface jobEntry ) {
+    jobEntry.setPluginId( PluginRegistry.getInstance().getPluginId( JobEntryPluginType.class, jobEntry ) );
+    JobEntryCopy copy = new JobEntryCopy( jobEntry );
+    jobMeta.addJobEntry( copy );
+    return copy;
+  }
+
+  private static File writeFile( String suffix, String xml ) throws Exception {
+    File file = File.createTempFile( "JobEntryJobResultRowsTest", suffix );
+    file.deleteOnExit();
+    Files.write( file.toPath(), xml.getBytes( StandardCharsets.UTF_8 ) );
+    return file;
+  }
+
+  private static int countSpillFiles() {
+    File[] files = new File( System.getProperty( "java.io.tmpdir" ) ).listFiles(
+      ( dir, name ) -> name.startsWith( "result_rows_" ) );
+    return files == null ? 0 : files.length;
+  }
+}
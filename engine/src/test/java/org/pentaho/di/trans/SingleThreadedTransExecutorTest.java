@@ -0,0 +1,130 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2021 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.pentaho.di.trans;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.pentaho.di.core.KettleEnvironment;
+import org.pentaho.di.core.Result;
+import org.pentaho.di.core.RowMetaAndData;
+import org.pentaho.di.core.plugins.PluginRegistry;
+import org.pentaho.di.core.plugins.StepPluginType;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaString;
+import org.pentaho.di.junit.rules.RestorePDIEngineEnvironment;
+import org.pentaho.di.trans.TransMeta.TransformationType;
+import org.pentaho.di.trans.step.StepMeta;
+import org.pentaho.di.trans.step.StepMetaInterface;
+import org.pentaho.di.trans.steps.dummytrans.DummyTransMeta;
+import org.pentaho.di.trans.steps.rowsfromresult.RowsFromResultMeta;
+import org.pentaho.di.trans.steps.rowstoresult.RowsToResultMeta;
+import org.pentaho.di.trans.steps.sort.SortRowsMeta;
+
+public class SingleThreadedTransExecutorTest {
+  @ClassRule public static RestorePDIEngineEnvironment env = new RestorePDIEngineEnvironment();
+
+  @BeforeClass
+  public static void initKettle() throws Exception {
+    KettleEnvironment.init();
+  }
+
+  @Test
+  public void testRunToCompletionAfterReset() throws Exception {
+    Trans trans = prepareTrans( new DummyTransMeta() );
+    SingleThreadedTransExecutor executor = new SingleThreadedTransExecutor( trans );
+    assertTrue( executor.init() );
+    assertTrue( executor.reset() );
+
+    assertEquals( 2, runBatch( executor, "a", "b" ).size() );
+
+    assertTrue( executor.reset() );
+    List<RowMetaAndData> rows = runBatch( executor, "c" );
+    assertEquals( 1, rows.size() );
+    assertEquals( "c", rows.get( 0 ).getString( 0, null ) );
+    assertEquals( 1, trans.getStepInterface( "from", 0 ).getLinesWritten() );
+
+    executor.dispose();
+  }
+
+  @Test
+  public void testResetFailsForStepsThatCantBeReused() throws Exception {
+    SortRowsMeta sortRowsMeta = new SortRowsMeta();
+    sortRowsMeta.setDefault();
+    sortRowsMeta.allocate( 0 );
+    Trans trans = prepareTrans( sortRowsMeta );
+    SingleThreadedTransExecutor executor = new SingleThreadedTransExecutor( trans );
+    assertTrue( executor.init() );
+    assertFalse( executor.reset() );
+
+    executor.dispose();
+  }
+
+  private static List<RowMetaAndData> runBatch( SingleThreadedTransExecutor executor, String... values )
+    throws Exception {
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaString( "value" ) );
+    List<RowMetaAndData> rows = new ArrayList<>();
+    for ( String value : values ) {
+      rows.add( new RowMetaAndData( rowMeta, value ) );
+    }
+    Result previousResult = new Result();
+    previousResult.setRows( rows );
+
+    Trans trans = executor.getTrans();
+    trans.setPreviousResult( previousResult );
+    trans.setResultRows( new ArrayList<RowMetaAndData>() );
+    assertTrue( executor.runToCompletion() );
+    return trans.getResult().getRows();
+  }
+
+  private static Trans prepareTrans( StepMetaInterface middleMeta ) throws Exception {
+    PluginRegistry registry = PluginRegistry.getInstance();
+    TransMeta transMeta = new TransMeta();
+    transMeta.setTransformationType( TransformationType.SingleThreaded );
+
+    StepMetaInterface fromMeta = new RowsFromResultMeta();
+    StepMeta from = new StepMeta( registry.getPluginId( StepPluginType.class, fromMeta ), "from", fromMeta );
+    StepMeta middle = new StepMeta( registry.getPluginId( StepPluginType.class, middleMeta ), "middle", middleMeta );
+    StepMetaInterface toMeta = new RowsToResultMeta();
+    StepMeta to = new StepMeta( registry.getPluginId( StepPluginType.class, toMeta ), "to", toMeta );
+    transMeta.addStep( from );
+    transMeta.addStep( middle );
+    transMeta.addStep( to );
+    transMeta.addTransHop( new TransHopMeta( from, middle ) );
+    transMeta.addTransHop( new TransHopMeta( middle, to ) );
+
+    Trans trans = new Trans( transMeta );
+    trans.prepareExecution( null );
+    trans.startThreads();
+    return trans;
+  }
+}
@@ -46,11 +46,13 @@ import org.pentaho.di.core.row.value.ValueMetaFactory;
 import org.pentaho.di.core.row.value.ValueMetaString;
 import org.pentaho.di.core.variables.VariableSpace;
 import org.pentaho.di.core.variables.Variables;
+import org.pentaho.di.core.xml.XMLHandler;
 import org.pentaho.di.metastore.DatabaseMetaStoreUtil;
 import org.pentaho.di.repository.ObjectRevision;
 import org.pentaho.di.repository.Repository;
 import org.pentaho.di.repository.RepositoryDirectory;
 import org.pentaho.di.repository.RepositoryDirectoryInterface;
+import org.pentaho.di.trans.step.StepErrorMeta;
 import org.pentaho.di.trans.step.StepIOMeta;
 import org.pentaho.di.trans.step.StepMeta;
 import org.pentaho.di.trans.step.StepMetaChangeListenerInterface;
@@ -68,6 +70,8 @@ import org.powermock.modules.junit4.PowerMockRunner;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
@@ -658,6 +662,7 @@ public class TransMetaTest {
       ValueMetaFactory.getValueMetaName( ValueMetaInterface.TYPE_INTEGER ),
       ValueMetaFactory.getValueMetaName( ValueMetaInterface.TYPE_STRING ),
     } );
+    transMeta.clearCaches();
 
     allRows = transMeta.getPrevStepFields( textFileOutputStep, null, null );
     assertNotNull( allRows );
@@ -779,6 +784,34 @@ public class TransMetaTest {
     assertThat( result, equalTo( new ArrayList<>() ) );
   }
 
+  @Test
+  public void hopsChangedInPlaceAreFollowed() {
+    TransMeta transMeta = new TransMeta( new Variables() );
+    StepMeta one = new StepMeta( "one", new DummyTransMeta() );
+    StepMeta two = new StepMeta( "two", new DummyTransMeta() );
+    StepMeta three = new StepMeta( "three", new DummyTransMeta() );
+    transMeta.addStep( one );
+    transMeta.addStep( two );
+    transMeta.addStep( three );
+    TransHopMeta hop = new TransHopMeta( one, two );
+    transMeta.addTransHop( hop );
+    assertEquals( singletonList( two ), transMeta.findNextSteps( one ) );
+    assertFalse( transMeta.isStepUsedInTransHops( three ) );
+
+    hop.flip();
+    assertEquals( emptyList(), transMeta.findNextSteps( one ) );
+    assertEquals( singletonList( one ), transMeta.findNextSteps( two ) );
+
+    hop.setToStep( three );
+    assertEquals( singletonList( three ), transMeta.findNextSteps( two ) );
+    assertFalse( transMeta.isStepUsedInTransHops( one ) );
+    assertTrue( transMeta.isStepUsedInTransHops( three ) );
+
+    hop.setEnabled( false );
+    assertEquals( emptyList(), transMeta.findNextSteps( two ) );
+    assertEquals( 0, transMeta.findPreviousSteps( three ).size() );
+  }
+
   private void wireUpTestTransMeta( TransMeta transMeta, StepMeta toBeAppended1, StepMeta toBeAppended2,
                                     StepMeta append, StepMeta after ) {
     transMeta.addStep( append );
@@ -865,4 +898,38 @@ public class TransMetaTest {
 
     assertEquals( "Original value defined at run execution", transMetaTest.getVariable( Const.INTERNAL_VARIABLE_ENTRY_CURRENT_DIRECTORY ) );
   }
+
+  @Test
+  public void testWriteXMLRoundTrip() throws Exception {
+    TransMeta transMeta = new TransMeta();
+    transMeta.setName( "roundTrip" );
+    StepMeta previous = null;
+    for ( int i = 0; i < 50; i++ ) {
+      StepMeta stepMeta = new StepMeta( "Dummy", "step " + i, new DummyTransMeta() );
+      transMeta.addStep( stepMeta );
+      if ( previous != null ) {
+        transMeta.addTransHop( new TransHopMeta( previous, stepMeta ) );
+      }
+      previous = stepMeta;
+    }
+    StepMeta errorTarget = new StepMeta( "Dummy", "errors", new DummyTransMeta() );
+    transMeta.addStep( errorTarget );
+    StepErrorMeta stepErrorMeta = new StepErrorMeta( transMeta, transMeta.getStep( 10 ), errorTarget );
+    stepErrorMeta.setEnabled( true );
+    transMeta.getStep( 10 ).setStepErrorMeta( stepErrorMeta );
+    transMeta.addTransHop( new TransHopMeta( transMeta.getStep( 10 ), errorTarget ) );
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    transMeta.writeXML( out );
+    String xml = out.toString( Const.XML_ENCODING );
+    assertEquals( XMLHandler.getXMLHeader() + transMeta.getXML(), xml );
+
+    TransMeta loaded =
+      new TransMeta( new ByteArrayInputStream( out.toByteArray() ), null, false, new Variables(), null );
+    assertEquals( transMeta.nrSteps(), loaded.nrSteps() );
+    assertEquals( transMeta.nrTransHops(), loaded.nrTransHops() );
+    assertSame( loaded.findStep( "step 3" ), loaded.getTransHop( 3 ).getFromStep() );
+    assertTrue( loaded.findTransHop( loaded.findStep( "step 10" ), loaded.findStep( "errors" ) ).isErrorHop() );
+    assertFalse( loaded.findTransHop( loaded.findStep( "step 9" ), loaded.findStep( "step 10" ) ).isErrorHop() );
+  }
 }
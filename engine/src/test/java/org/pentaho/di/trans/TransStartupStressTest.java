@@ -0,0 +1,137 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2021 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.pentaho.di.trans;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.pentaho.di.core.KettleEnvironment;
+import org.pentaho.di.core.plugins.PluginRegistry;
+import org.pentaho.di.core.plugins.StepPluginType;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaFactory;
+import org.pentaho.di.junit.rules.RestorePDIEngineEnvironment;
+import org.pentaho.di.trans.step.StepMeta;
+import org.pentaho.di.trans.step.StepMetaInterface;
+import org.pentaho.di.trans.steps.datagrid.DataGridMeta;
+import org.pentaho.di.trans.steps.dummytrans.DummyTransMeta;
+
+public class TransStartupStressTest {
+  @ClassRule public static RestorePDIEngineEnvironment env = new RestorePDIEngineEnvironment();
+
+  private static final int CHAIN_LENGTH = 1500;
+  private static final int FAN_OUT = 500;
+  private static final int LOOKUPS = 1000;
+
+  @BeforeClass
+  public static void initKettle() throws Exception {
+    KettleEnvironment.init();
+  }
+
+  /**
+   * Preparing a transformation used to scan all the steps, hops and row sets for every step and hop.
+   */
+  @Test( timeout = 120000 )
+  public void testPrepareLargeTransformation() throws Exception {
+    DataGridMeta dataGridMeta = createDataGrid( "id" );
+    List<StepMeta> fanOut = new ArrayList<>();
+    TransMeta transMeta = createTransMeta( dataGridMeta, fanOut );
+
+    Trans trans = new Trans( transMeta );
+    trans.prepareExecution( null );
+
+    assertEquals( 1 + CHAIN_LENGTH + FAN_OUT, trans.nrSteps() );
+    assertEquals( CHAIN_LENGTH + FAN_OUT, trans.rowsets.size() );
+    String last = "chain " + ( CHAIN_LENGTH - 1 );
+    for ( StepMeta stepMeta : fanOut ) {
+      RowSet rowSet = trans.findRowSet( last, 0, stepMeta.getName(), 0 );
+      assertNotNull( rowSet );
+      assertEquals( stepMeta.getName(), rowSet.getDestinationStepName() );
+    }
+    assertSame( trans.findRowSet( "grid", 0, "chain 0", 0 ), trans.findRowSet( "GRID", 0, "Chain 0", 0 ) );
+  }
+
+  /**
+   * Deriving the fields of a step at the end of a long chain used to scan all the hops for every step of the chain.
+   */
+  @Test( timeout = 120000 )
+  public void testRepeatedFieldLookupsOnLongChain() throws Exception {
+    DataGridMeta dataGridMeta = createDataGrid( "id" );
+    List<StepMeta> fanOut = new ArrayList<>();
+    TransMeta transMeta = createTransMeta( dataGridMeta, fanOut );
+
+    for ( int i = 0; i < LOOKUPS; i++ ) {
+      RowMetaInterface fields = transMeta.getPrevStepFields( fanOut.get( i % FAN_OUT ) );
+      assertEquals( 1, fields.size() );
+      assertEquals( "id", fields.getValueMeta( 0 ).getName() );
+      // Changing the returned fields doesn't change the ones remembered
+      fields.getValueMeta( 0 ).setName( "changed" );
+    }
+
+    // A change to the metadata is picked up, even without flagging it or clearing the caches
+    dataGridMeta.setFieldName( new String[] { "key" } );
+    RowMetaInterface fields = transMeta.getPrevStepFields( fanOut.get( 0 ) );
+    assertEquals( "key", fields.getValueMeta( 0 ).getName() );
+  }
+
+  private static TransMeta createTransMeta( DataGridMeta dataGridMeta, List<StepMeta> fanOut ) {
+    TransMeta transMeta = new TransMeta();
+    StepMeta previous = addStep( transMeta, "grid", dataGridMeta );
+    for ( int i = 0; i < CHAIN_LENGTH; i++ ) {
+      StepMeta stepMeta = addStep( transMeta, "chain " + i, new DummyTransMeta() );
+      transMeta.addTransHop( new TransHopMeta( previous, stepMeta ) );
+      previous = stepMeta;
+    }
+    for ( int i = 0; i < FAN_OUT; i++ ) {
+      StepMeta stepMeta = addStep( transMeta, "target " + i, new DummyTransMeta() );
+      transMeta.addTransHop( new TransHopMeta( previous, stepMeta ) );
+      fanOut.add( stepMeta );
+    }
+    return transMeta;
+  }
+
+  private static DataGridMeta createDataGrid( String fieldName ) {
+    DataGridMeta dataGridMeta = new DataGridMeta();
+    dataGridMeta.allocate( 1 );
+    dataGridMeta.setFieldName( new String[] { fieldName } );
+    dataGridMeta.setFieldType( new String[] { ValueMetaFactory.getValueMetaName( ValueMetaInterface.TYPE_INTEGER ) } );
+    dataGridMeta.setDataLines( Collections.singletonList( Collections.singletonList( "1" ) ) );
+    return dataGridMeta;
+  }
+
+  private static StepMeta addStep( TransMeta transMeta, String name, StepMetaInterface meta ) {
+    String stepId = PluginRegistry.getInstance().getPluginId( StepPluginType.class, meta );
+    StepMeta stepMeta = new StepMeta( stepId, name, meta );
+    transMeta.addStep( stepMeta );
+    return stepMeta;
+  }
+}
@@ -1145,4 +1145,13 @@ public class TransTest {
     trans.callAfterLog();
     verify( parent, times( 1 ) ).callAfterLog();
   }
+
+  @Test
+  public void testStepPerformanceSnapshotLimitIsFiniteUnlessAllAreRequested() {
+    assertEquals( Trans.DEFAULT_STEP_PERFORMANCE_SNAPSHOT_LIMIT, Trans.getStepPerformanceSnapshotLimit( null ) );
+    assertEquals( Trans.DEFAULT_STEP_PERFORMANCE_SNAPSHOT_LIMIT, Trans.getStepPerformanceSnapshotLimit( "" ) );
+    assertEquals( Trans.DEFAULT_STEP_PERFORMANCE_SNAPSHOT_LIMIT, Trans.getStepPerformanceSnapshotLimit( "0" ) );
+    assertEquals( 100, Trans.getStepPerformanceSnapshotLimit( "100" ) );
+    assertEquals( 0, Trans.getStepPerformanceSnapshotLimit( "-1" ) );
+  }
 }
@@ -0,0 +1,184 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2021 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.performance;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class StepPerformanceSnapShotHistoryTest {
+
+  private static final long INTERVAL = 1000L;
+
+  /**
+   * Adds a sample the way the transformation does: a step that reads <code>rowsPerInterval</code> rows in every
+   * interval.
+   */
+  private StepPerformanceSnapShot addSample( StepPerformanceSnapShotHistory history, int seqNr,
+                                             long rowsPerInterval, long inputBufferSize ) {
+    StepPerformanceSnapShot previous = history.getLast();
+    long totalLinesRead = previous == null ? rowsPerInterval : previous.getTotalLinesRead() + rowsPerInterval;
+    StepPerformanceSnapShot snapShot =
+      new StepPerformanceSnapShot( seqNr, 1L, new Date( seqNr * INTERVAL ), "trans", "step", 0, totalLinesRead, 0L,
+        0L, 0L, 0L, 0L, 0L );
+    snapShot.diff( previous, inputBufferSize, 0L );
+    history.add( snapShot );
+    return snapShot;
+  }
+
+  @Test
+  public void testKeepsEverySampleUntilFull() {
+    StepPerformanceSnapShotHistory history = new StepPerformanceSnapShotHistory( 4 );
+    assertNull( history.getLast() );
+    for ( int i = 1; i <= 3; i++ ) {
+      addSample( history, i, 10L, i );
+    }
+    assertEquals( 3, history.size() );
+    assertEquals( 1, history.getStride() );
+    for ( int i = 0; i < 3; i++ ) {
+      assertEquals( i + 1, history.get( i ).getSeqNr() );
+      assertEquals( 1, history.get( i ).getSampleCount() );
+    }
+    assertEquals( 10.0, history.get( 1 ).getRowsPerSecond(), 0.0 );
+  }
+
+  @Test
+  public void testDownsamplesWhenFull() {
+    StepPerformanceSnapShotHistory history = new StepPerformanceSnapShotHistory( 4 );
+    long[] speeds = { 10L, 10L, 20L, 40L, 10L };
+    for ( int i = 0; i < speeds.length; i++ ) {
+      addSample( history, i + 1, speeds[ i ], i + 1 );
+    }
+    // The first 4 samples were merged into 2, the fifth is kept on its own while waiting for its pair
+    //
+    assertEquals( 3, history.size() );
+    assertEquals( 2, history.getStride() );
+
+    StepPerformanceSnapShot second = history.get( 1 );
+    assertEquals( 2, second.getSampleCount() );
+    assertEquals( 4, second.getSeqNr() );
+    assertEquals( 2 * INTERVAL, second.getTimeDifference() );
+    assertEquals( 60L, second.getLinesRead() );
+    assertEquals( 30.0, second.getRowsPerSecond(), 0.0 );
+    assertEquals( 20.0, second.getMinRowsPerSecond(), 0.0 );
+    assertEquals( 40.0, second.getMaxRowsPerSecond(), 0.0 );
+    assertEquals( 3L, second.getInputBufferSize() );
+    assertEquals( 3L, second.getMinInputBufferSize() );
+    assertEquals( 4L, second.getMaxInputBufferSize() );
+
+    StepPerformanceSnapShot last = history.get( 2 );
+    assertSame( last, history.getLast() );
+    assertEquals( 1, last.getSampleCount() );
+    assertEquals( 90L, last.getTotalLinesRead() );
+
+    // The sixth sample completes the pending interval
+    //
+    addSample( history, 6, 30L, 6 );
+    assertEquals( 3, history.size() );
+    assertEquals( 2, history.get( 2 ).getSampleCount() );
+    assertEquals( 10.0, history.get( 2 ).getMinRowsPerSecond(), 0.0 );
+    assertEquals( 30.0, history.get( 2 ).getMaxRowsPerSecond(), 0.0 );
+    assertEquals( 120L, history.get( 2 ).getTotalLinesRead() );
+  }
+
+  @Test
+  public void testStaysBounded() {
+    StepPerformanceSnapShotHistory history = new StepPerformanceSnapShotHistory( 10 );
+    long total = 0;
+    for ( int i = 1; i <= 10000; i++ ) {
+      addSample( history, i, 5L, 0L );
+      total += 5L;
+      assertEquals( true, history.size() <= 10 );
+    }
+    long linesRead = 0;
+    int samples = 0;
+    for ( StepPerformanceSnapShot snapShot : history ) {
+      linesRead += snapShot.getLinesRead();
+      samples += snapShot.getSampleCount();
+    }
+    // Nothing is lost, the whole run is still covered
+    //
+    assertEquals( total, linesRead );
+    assertEquals( 10000, samples );
+    assertEquals( 10000, history.getLast().getSeqNr() );
+  }
+
+  @Test
+  public void testCapacity() {
+    assertEquals( 3, new StepPerformanceSnapShotHistory( 1 ).getCapacity() );
+
+    // 0 keeps all the snapshots
+    //
+    StepPerformanceSnapShotHistory history = new StepPerformanceSnapShotHistory( 0 );
+    assertEquals( 0, history.getCapacity() );
+    for ( int i = 1; i <= 1000; i++ ) {
+      addSample( history, i, 5L, 0L );
+    }
+    assertEquals( 1000, history.size() );
+    assertEquals( 1, history.getStride() );
+  }
+
+  @Test
+  public void testWrittenSnapShotsAreNotWrittenAgain() {
+    StepPerformanceSnapShotHistory history = new StepPerformanceSnapShotHistory( 4 );
+    long written = 0;
+    int writtenSamples = 0;
+    Set<StepPerformanceSnapShot> handedOut = Collections.newSetFromMap( new IdentityHashMap<>() );
+    Map<StepPerformanceSnapShot, Long> linesReadWhenHandedOut = new IdentityHashMap<>();
+    for ( int i = 1; i <= 1000; i++ ) {
+      addSample( history, i, 5L, 0L );
+      if ( i % 7 == 0 ) {
+        for ( StepPerformanceSnapShot snapShot : history.takeUnwritten() ) {
+          assertTrue( handedOut.add( snapShot ) );
+          linesReadWhenHandedOut.put( snapShot, snapShot.getLinesRead() );
+          written += snapShot.getLinesRead();
+          writtenSamples += snapShot.getSampleCount();
+        }
+      }
+      assertTrue( history.size() <= 4 );
+    }
+    for ( StepPerformanceSnapShot snapShot : history.takeUnwritten() ) {
+      written += snapShot.getLinesRead();
+      writtenSamples += snapShot.getSampleCount();
+    }
+    assertTrue( history.takeUnwritten().isEmpty() );
+
+    // Every sample is written exactly once and the snapshots handed out are left alone
+    //
+    assertEquals( 5000L, written );
+    assertEquals( 1000, writtenSamples );
+    for ( Map.Entry<StepPerformanceSnapShot, Long> entry : linesReadWhenHandedOut.entrySet() ) {
+      assertEquals( entry.getValue().longValue(), entry.getKey().getLinesRead() );
+    }
+  }
+}
@@ -263,6 +263,35 @@ public class BaseStepTest {
     }
   }
 
+  @Test
+  public void outputWaitIsOnlyTimedWhenTheRowSetIsFull() throws Exception {
+    final RowSet rowSet = new BlockingRowSet( 1 );
+    BaseStep baseStep =
+      new BaseStep( mockHelper.stepMeta, mockHelper.stepDataInterface, 0, mockHelper.transMeta, mockHelper.trans );
+    baseStep.setStopped( false );
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "integer" ) );
+
+    baseStep.putRowTo( rowMeta, new Object[] { 1L }, rowSet );
+    assertEquals( 0, baseStep.getOutputWaitLatency().getCount() );
+
+    Thread consumer = new Thread( new Runnable() {
+      @Override public void run() {
+        try {
+          Thread.sleep( 50 );
+        } catch ( InterruptedException e ) {
+          // Ignore
+        }
+        rowSet.getRow();
+      }
+    } );
+    consumer.start();
+    baseStep.putRowTo( rowMeta, new Object[] { 2L }, rowSet );
+    consumer.join();
+    assertEquals( 1, baseStep.getOutputWaitLatency().getCount() );
+    assertEquals( 2, baseStep.getLinesWritten() );
+  }
+
   @Test
   public void outputRowMetasAreNotSharedAmongSeveralStreams() throws Exception {
     RowSet rs1 = new SingleRowRowSet();
@@ -0,0 +1,178 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2021 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.pentaho.di.trans.step;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.pentaho.di.core.BlockingRowSet;
+import org.pentaho.di.core.KettleEnvironment;
+import org.pentaho.di.core.RowSet;
+import org.pentaho.di.core.plugins.PluginRegistry;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.junit.rules.RestorePDIEngineEnvironment;
+
+public class LeastLoadedRowDistributionTest {
+  @ClassRule public static RestorePDIEngineEnvironment env = new RestorePDIEngineEnvironment();
+
+  private static final RowMetaInterface ROW_META = new RowMeta();
+
+  @BeforeClass
+  public static void initKettle() throws Exception {
+    KettleEnvironment.init();
+    ROW_META.addValueMeta( new ValueMetaInteger( "id" ) );
+  }
+
+  @Test
+  public void testIsRegistered() throws Exception {
+    RowDistributionInterface distribution = PluginRegistry.getInstance().loadClass( RowDistributionPluginType.class,
+      LeastLoadedRowDistribution.CODE, RowDistributionInterface.class );
+    assertNotNull( distribution );
+    assertEquals( LeastLoadedRowDistribution.CODE, distribution.getCode() );
+  }
+
+  @Test
+  public void testRowGoesToLeastLoadedRowSet() throws Exception {
+    List<RowSet> rowSets = createRowSets( 3, 10 );
+    putRows( rowSets.get( 0 ), 2 );
+    putRows( rowSets.get( 2 ), 1 );
+    StepInterface step = createStep( rowSets, new AtomicLong() );
+
+    new LeastLoadedRowDistribution().distributeRow( ROW_META, new Object[] { 1L }, step );
+
+    assertEquals( 2, rowSets.get( 0 ).size() );
+    assertEquals( 1, rowSets.get( 1 ).size() );
+    assertEquals( 1, rowSets.get( 2 ).size() );
+  }
+
+  @Test
+  public void testEquallyLoadedRowSetsTakeTurns() {
+    List<RowSet> rowSets = createRowSets( 3, 10 );
+
+    assertSame( rowSets.get( 0 ), LeastLoadedRowDistribution.findLeastLoaded( rowSets, 0 ) );
+    assertSame( rowSets.get( 1 ), LeastLoadedRowDistribution.findLeastLoaded( rowSets, 1 ) );
+    assertSame( rowSets.get( 2 ), LeastLoadedRowDistribution.findLeastLoaded( rowSets, 2 ) );
+  }
+
+  /**
+   * One of four copies takes a millisecond for every row while the others are instant. With round robin distribution
+   * the slow copy gets a quarter of the rows and the whole step waits for it, here the other copies take over its
+   * share.
+   */
+  @Test( timeout = 60000 )
+  public void testSlowCopyGetsFewerRows() throws Exception {
+    final int nrRows = 2000;
+    final List<RowSet> rowSets = createRowSets( 4, 100 );
+    final List<List<Long>> received = new ArrayList<>();
+    List<Thread> consumers = new ArrayList<>();
+    for ( int i = 0; i < rowSets.size(); i++ ) {
+      final RowSet rowSet = rowSets.get( i );
+      final List<Long> ids = new ArrayList<>();
+      final boolean slow = i == 0;
+      received.add( ids );
+      Thread consumer = new Thread( () -> {
+        try {
+          while ( true ) {
+            boolean done = rowSet.isDone();
+            Object[] row = rowSet.getRowWait( 10, TimeUnit.MILLISECONDS );
+            if ( row == null ) {
+              if ( done ) {
+                return;
+              }
+              continue;
+            }
+            if ( slow ) {
+              Thread.sleep( 1 );
+            }
+            ids.add( (Long) row[0] );
+          }
+        } catch ( InterruptedException e ) {
+          Thread.currentThread().interrupt();
+        }
+      } );
+      consumer.start();
+      consumers.add( consumer );
+    }
+
+    AtomicLong linesWritten = new AtomicLong();
+    StepInterface step = createStep( rowSets, linesWritten );
+    LeastLoadedRowDistribution distribution = new LeastLoadedRowDistribution();
+    for ( long id = 0; id < nrRows; id++ ) {
+      distribution.distributeRow( ROW_META, new Object[] { id }, step );
+      linesWritten.incrementAndGet();
+    }
+    for ( RowSet rowSet : rowSets ) {
+      rowSet.setDone();
+    }
+    for ( Thread consumer : consumers ) {
+      consumer.join();
+    }
+
+    int total = 0;
+    for ( List<Long> ids : received ) {
+      total += ids.size();
+      // The rows of every copy arrive in the order they were produced
+      for ( int i = 1; i < ids.size(); i++ ) {
+        assertTrue( ids.get( i - 1 ) < ids.get( i ) );
+      }
+    }
+    assertEquals( nrRows, total );
+    assertTrue( "slow copy got " + received.get( 0 ).size() + " rows", received.get( 0 ).size() < nrRows / 4 );
+  }
+
+  private static List<RowSet> createRowSets( int nrRowSets, int size ) {
+    RowSet[] rowSets = new RowSet[nrRowSets];
+    for ( int i = 0; i < nrRowSets; i++ ) {
+      rowSets[i] = new BlockingRowSet( size );
+    }
+    return Arrays.asList( rowSets );
+  }
+
+  private static void putRows( RowSet rowSet, int nrRows ) {
+    for ( long i = 0; i < nrRows; i++ ) {
+      rowSet.putRow( ROW_META, new Object[] { i } );
+    }
+  }
+
+  private static StepInterface createStep( List<RowSet> rowSets, AtomicLong linesWritten ) {
+    StepInterface step = mock( StepInterface.class );
+    when( step.getOutputRowSets() ).thenReturn( rowSets );
+    when( step.getLinesWritten() ).thenAnswer( invocation -> linesWritten.get() );
+    return step;
+  }
+}
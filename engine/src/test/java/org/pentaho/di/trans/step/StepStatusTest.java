@@ -22,8 +22,12 @@
 package org.pentaho.di.trans.step;
 
 import org.junit.Test;
+import org.pentaho.di.core.metrics.LatencyHistogram;
+import org.pentaho.di.trans.step.BaseStepData.StepExecutionStatus;
 
 import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 public class StepStatusTest {
 
@@ -34,4 +38,35 @@ public class StepStatusTest {
     String[] overrides = status.getTransLogFields( "Override" );
     assertEquals( "Override", overrides[10] );
   }
+
+  @Test
+  public void testUtilization() throws Exception {
+    LatencyHistogram inputWait = new LatencyHistogram();
+    inputWait.record( 300000000L );
+    LatencyHistogram outputWait = new LatencyHistogram();
+    outputWait.record( 100000000L );
+    StepInterface step = mock( StepInterface.class );
+    when( step.getStepname() ).thenReturn( "step" );
+    when( step.getStatus() ).thenReturn( StepExecutionStatus.STATUS_RUNNING );
+    when( step.getRuntime() ).thenReturn( 1000L );
+    when( step.getInputWaitLatency() ).thenReturn( inputWait );
+    when( step.getOutputWaitLatency() ).thenReturn( outputWait );
+
+    StepStatus status = new StepStatus( step );
+    assertEquals( 60.0, status.getBusyPercentage(), 0.001 );
+    assertEquals( 30.0, status.getInputWaitPercentage(), 0.001 );
+    assertEquals( 10.0, status.getOutputWaitPercentage(), 0.001 );
+    String[] fields = status.getTransLogFields();
+    assertEquals( "60% / 30% / 10%", fields[fields.length - 1] );
+
+    StepStatus copy = new StepStatus().fromXML( status.getXML() );
+    assertEquals( "60% / 30% / 10%", copy.getUtilization() );
+  }
+
+  @Test
+  public void testUtilizationUnknown() {
+    StepStatus status = new StepStatus();
+    assertEquals( "-", status.getUtilization() );
+    assertEquals( -1.0, status.getBusyPercentage(), 0.001 );
+  }
 }
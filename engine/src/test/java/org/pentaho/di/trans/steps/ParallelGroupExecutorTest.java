@@ -0,0 +1,110 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2021 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.pentaho.di.trans.steps;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.pentaho.di.core.exception.KettleException;
+
+public class ParallelGroupExecutorTest {
+
+  @Test
+  public void testOrderedResultsWithBoundedParallelism() throws Exception {
+    final AtomicInteger running = new AtomicInteger();
+    final AtomicInteger maxRunning = new AtomicInteger();
+    final List<Integer> collected = new CopyOnWriteArrayList<>();
+
+    ParallelGroupExecutor<Integer> executor = new ParallelGroupExecutor<>( 3, true, group -> {
+      maxRunning.accumulateAndGet( running.incrementAndGet(), Math::max );
+      try {
+        Thread.sleep( ( 6 - group ) * 5L );
+      } catch ( InterruptedException e ) {
+        throw new KettleException( e );
+      } finally {
+        running.decrementAndGet();
+      }
+    }, collected::add );
+
+    for ( int i = 0; i < 6; i++ ) {
+      executor.submit( i );
+      assertTrue( executor.getNrPendingGroups() <= 3 );
+    }
+    executor.finish();
+
+    assertEquals( Arrays.asList( 0, 1, 2, 3, 4, 5 ), collected );
+    assertTrue( maxRunning.get() <= 3 );
+    assertEquals( 0, executor.getNrPendingGroups() );
+    assertTrue( executor.getActiveGroups().isEmpty() );
+  }
+
+  @Test
+  public void testUnorderedResultsInOrderOfCompletion() throws Exception {
+    final CountDownLatch release = new CountDownLatch( 1 );
+    final List<Integer> collected = new CopyOnWriteArrayList<>();
+
+    ParallelGroupExecutor<Integer> executor = new ParallelGroupExecutor<>( 2, false, group -> {
+      if ( group == 0 ) {
+        try {
+          assertTrue( release.await( 10, TimeUnit.SECONDS ) );
+        } catch ( InterruptedException e ) {
+          throw new KettleException( e );
+        }
+      }
+    }, group -> {
+      collected.add( group );
+      release.countDown();
+    } );
+
+    executor.submit( 0 );
+    executor.submit( 1 );
+    executor.finish();
+
+    assertEquals( Arrays.asList( 1, 0 ), collected );
+  }
+
+  @Test
+  public void testExecutionErrorIsRethrown() throws Exception {
+    ParallelGroupExecutor<Integer> executor = new ParallelGroupExecutor<>( 2, true, group -> {
+      throw new KettleException( "failed group " + group );
+    }, group -> fail( "Failed groups are not collected" ) );
+
+    try {
+      executor.submit( 0 );
+      executor.finish();
+      fail( "Expected the error of the group" );
+    } catch ( KettleException e ) {
+      assertTrue( e.getMessage().contains( "failed group 0" ) );
+    }
+    assertTrue( executor.getActiveGroups().isEmpty() );
+  }
+}
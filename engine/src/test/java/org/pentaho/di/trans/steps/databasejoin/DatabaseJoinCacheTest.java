@@ -0,0 +1,92 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2021 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.pentaho.di.trans.steps.databasejoin;
+
+import org.junit.Test;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class DatabaseJoinCacheTest {
+
+  private RowMeta createParameterMeta() {
+    RowMeta parameterMeta = new RowMeta();
+    parameterMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    return parameterMeta;
+  }
+
+  @Test
+  public void getRowsReturnsStoredRows() {
+    RowMeta parameterMeta = createParameterMeta();
+    DatabaseJoinCache cache = new DatabaseJoinCache( 10, 0 );
+    List<Object[]> rows = Collections.singletonList( new Object[] { "one" } );
+
+    assertNull( cache.getRows( parameterMeta, new Object[] { 1L } ) );
+    cache.putRows( parameterMeta, new Object[] { 1L }, rows );
+    assertSame( rows, cache.getRows( parameterMeta, new Object[] { 1L } ) );
+
+    // An empty result is remembered too
+    cache.putRows( parameterMeta, new Object[] { 2L }, Collections.<Object[]>emptyList() );
+    assertEquals( 0, cache.getRows( parameterMeta, new Object[] { 2L } ).size() );
+
+    assertEquals( 2, cache.getHits() );
+    assertEquals( 1, cache.getMisses() );
+    assertEquals( 66.7, cache.getHitRatio(), 0.1 );
+  }
+
+  @Test
+  public void leastRecentlyUsedParametersAreEvicted() {
+    RowMeta parameterMeta = createParameterMeta();
+    DatabaseJoinCache cache = new DatabaseJoinCache( 2, 0 );
+    List<Object[]> rows = Collections.emptyList();
+
+    cache.putRows( parameterMeta, new Object[] { 1L }, rows );
+    cache.putRows( parameterMeta, new Object[] { 2L }, rows );
+    assertNotNull( cache.getRows( parameterMeta, new Object[] { 1L } ) );
+    cache.putRows( parameterMeta, new Object[] { 3L }, rows );
+
+    assertEquals( 2, cache.size() );
+    assertNotNull( cache.getRows( parameterMeta, new Object[] { 1L } ) );
+    assertNull( cache.getRows( parameterMeta, new Object[] { 2L } ) );
+    assertNotNull( cache.getRows( parameterMeta, new Object[] { 3L } ) );
+  }
+
+  @Test
+  public void expiredRowsAreNotReturned() throws Exception {
+    RowMeta parameterMeta = createParameterMeta();
+    DatabaseJoinCache cache = new DatabaseJoinCache( 0, 1 );
+
+    cache.putRows( parameterMeta, new Object[] { 1L }, Collections.<Object[]>emptyList() );
+    Thread.sleep( 10 );
+
+    assertNull( cache.getRows( parameterMeta, new Object[] { 1L } ) );
+    assertEquals( 0, cache.size() );
+  }
+}
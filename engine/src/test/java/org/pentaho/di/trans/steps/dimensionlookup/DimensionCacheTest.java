@@ -23,11 +23,16 @@
 package org.pentaho.di.trans.steps.dimensionlookup;
 
 import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
 
 import org.junit.Test;
 import org.pentaho.di.core.row.RowMeta;
 import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaString;
 import org.pentaho.di.core.row.value.ValueMetaTimestamp;
 import org.pentaho.di.core.util.Assert;
 
@@ -74,6 +79,117 @@ public class DimensionCacheTest {
     assertCompareDateInterval( dc, null, D4, D5, null, -1 ); // NPE
   }
 
+  @Test
+  public void testLookupRowOffHeap() throws Exception {
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "TK" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "NK" ) );
+    rowMeta.addValueMeta( new ValueMetaTimestamp( "DATE_FROM" ) );
+    rowMeta.addValueMeta( new ValueMetaTimestamp( "DATE_TO" ) );
+
+    final Date D1 = new Timestamp( 1425300000000L );
+    final Date D2 = new Timestamp( 1425300000000L + 3600000L );
+
+    List<Object[]> rows = new ArrayList<Object[]>();
+    for ( int i = 0; i < 100; i++ ) {
+      rows.add( new Object[] { (long) ( 2 * i + 1 ), "key" + ( 100 + i ), null, D2 } );
+      rows.add( new Object[] { (long) ( 2 * i + 2 ), "key" + ( 100 + i ), D2, null } );
+    }
+    DimensionCache dc = new DimensionCache( rowMeta, new int[] { 1 }, 2, 3 );
+    dc.setRowCache( rows );
+    dc.sortRows();
+
+    OffHeapRowList offHeapRows = dc.moveOffHeap();
+    Assert.assertTrue( offHeapRows.size() == 200, "All rows should be moved off-heap" );
+    Assert.assertTrue( offHeapRows.getDataSize() > 0, "Off-heap data size should be known" );
+
+    int index = dc.lookupRow( new Object[] { null, "key150", D1, null } );
+    Assert.assertTrue( index >= 0, "Row should be found" );
+    Assert.assertTrue( Long.valueOf( 101L ).equals( dc.getRow( index )[0] ), "Wrong version found: {0}",
+      dc.getRow( index )[0] );
+
+    index = dc.lookupRow( new Object[] { null, "key150", D2, null } );
+    Assert.assertTrue( index >= 0, "Row should be found" );
+    Assert.assertTrue( Long.valueOf( 102L ).equals( dc.getRow( index )[0] ), "Wrong version found: {0}",
+      dc.getRow( index )[0] );
+  }
+
+  @Test
+  public void testOffHeapRowListSpansBlocks() {
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "TK" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "NK" ) );
+
+    // Use small blocks to make sure the rows span more than one block of direct memory
+    //
+    OffHeapRowList list = new OffHeapRowList( rowMeta, 1, new int[] { 1 }, 64 );
+    for ( int i = 0; i < 1000; i++ ) {
+      list.add( new Object[] { (long) i, "key" + i } );
+    }
+    Assert.assertTrue( list.size() == 1000, "Wrong size: {0}", list.size() );
+    for ( int i = 0; i < 1000; i++ ) {
+      Object[] row = list.get( i );
+      Assert.assertTrue( Long.valueOf( i ).equals( row[0] ) && ( "key" + i ).equals( row[1] ),
+        "Wrong row on index {0}", i );
+      Object[] searchRow = list.getSearchRows().get( i );
+      Assert.assertTrue( searchRow[0] == null && ( "key" + i ).equals( searchRow[1] ),
+        "Wrong search row on index {0}", i );
+    }
+  }
+
+  /**
+   * Looks up every natural key of a pre-loaded cache of 200,000 versioned rows, first with the rows on the heap and
+   * then with the same rows moved off-heap. Both must find the same versions, and the lookups/sec of both, together
+   * with the bytes used per row off-heap, end up in the failure message if reading rows back from direct memory turns
+   * out to be much slower than reading them from the heap.
+   */
+  @Test( timeout = 120000 )
+  public void testOffHeapLookupThroughput() throws Exception {
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "TK" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "NK" ) );
+    rowMeta.addValueMeta( new ValueMetaTimestamp( "DATE_FROM" ) );
+    rowMeta.addValueMeta( new ValueMetaTimestamp( "DATE_TO" ) );
+
+    final int nrKeys = 100000;
+    final Date D1 = new Timestamp( 1425300000000L );
+    final Date D2 = new Timestamp( 1425300000000L + 3600000L );
+    List<Object[]> rows = new ArrayList<Object[]>();
+    for ( int i = 0; i < nrKeys; i++ ) {
+      rows.add( new Object[] { (long) ( 2 * i + 1 ), "key" + ( 1000000 + i ), null, D2 } );
+      rows.add( new Object[] { (long) ( 2 * i + 2 ), "key" + ( 1000000 + i ), D2, null } );
+    }
+    DimensionCache dc = new DimensionCache( rowMeta, new int[] { 1 }, 2, 3 );
+    dc.setRowCache( rows );
+    dc.sortRows();
+
+    long[] onHeapKeys = new long[ nrKeys ];
+    long onHeapNanos = lookupAll( dc, nrKeys, D1, onHeapKeys );
+
+    OffHeapRowList offHeapRows = dc.moveOffHeap();
+    long[] offHeapKeys = new long[ nrKeys ];
+    long offHeapNanos = lookupAll( dc, nrKeys, D1, offHeapKeys );
+
+    Assert.assertTrue( Arrays.equals( onHeapKeys, offHeapKeys ), "Off-heap lookups found other versions" );
+
+    long onHeapRate = nrKeys * 1000000000L / Math.max( onHeapNanos, 1L );
+    long offHeapRate = nrKeys * 1000000000L / Math.max( offHeapNanos, 1L );
+    long bytesPerRow = ( offHeapRows.getDataSize() + offHeapRows.getIndexSize() ) / offHeapRows.size();
+    Assert.assertTrue( offHeapRate * 20 >= onHeapRate,
+      "Off-heap lookups are too slow: {0} lookups/sec on-heap, {1} lookups/sec off-heap using {2} bytes/row",
+      onHeapRate, offHeapRate, bytesPerRow );
+  }
+
+  private static long lookupAll( DimensionCache dc, int nrKeys, Date date, long[] keys ) throws Exception {
+    long start = System.nanoTime();
+    for ( int i = 0; i < nrKeys; i++ ) {
+      int index = dc.lookupRow( new Object[] { null, "key" + ( 1000000 + i ), date, null } );
+      Assert.assertTrue( index >= 0, "Row {0} should be found", i );
+      keys[ i ] = (Long) dc.getRow( index )[0];
+    }
+    return System.nanoTime() - start;
+  }
+
   private static void assertCompareDateInterval( DimensionCache dc, Object from1, Object to1, Object from2, Object to2,
       int expectedValue ) {
 
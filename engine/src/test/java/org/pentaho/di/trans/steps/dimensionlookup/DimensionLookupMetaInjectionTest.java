@@ -174,6 +174,18 @@ public class DimensionLookupMetaInjectionTest extends BaseMetadataInjectionTest<
         return meta.isPreloadingCache();
       }
     } );
+    check( "PRELOAD_CACHE_OFF_HEAP", new BooleanGetter() {
+      @Override
+      public boolean get() {
+        return meta.isPreloadingCacheOffHeap();
+      }
+    } );
+    check( "TECHNICAL_KEY_SEQUENCE_BLOCK_SIZE", new IntGetter() {
+      @Override
+      public int get() {
+        return meta.getSequenceBlockSize();
+      }
+    } );
     check( "CONNECTION_NAME", new StringGetter() {
       public String get() {
         return "My Connection";
@@ -95,7 +95,8 @@ public class DimensionLookupMetaTest implements InitializerInterface<StepMetaInt
         Arrays.asList( "schemaName", "tableName", "update", "dateField", "dateFrom", "dateTo", "keyField", "keyRename",
             "autoIncrement", "versionField", "commitSize", "useBatchUpdate", "minYear", "maxYear", "techKeyCreation",
             "cacheSize", "usingStartDateAlternative", "startDateAlternative", "startDateFieldName", "preloadingCache", "keyStream",
-            "keyLookup", "fieldStream", "fieldLookup", "fieldUpdate", "databaseMeta", "sequenceName" );
+            "keyLookup", "fieldStream", "fieldLookup", "fieldUpdate", "databaseMeta", "sequenceName",
+            "preloadingCacheOffHeap", "sequenceBlockSize" );
 
     Map<String, String> getterMap = new HashMap<String, String>() {
       {
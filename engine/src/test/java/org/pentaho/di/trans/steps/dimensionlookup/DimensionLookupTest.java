@@ -26,6 +26,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.pentaho.di.core.database.Database;
 import org.pentaho.di.core.database.DatabaseMeta;
+import org.pentaho.di.core.exception.KettleDatabaseException;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.trans.Trans;
 import org.pentaho.di.trans.TransMeta;
@@ -36,6 +37,8 @@ import java.sql.Connection;
 import java.util.Date;
 import java.util.List;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
@@ -43,6 +46,7 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class DimensionLookupTest {
   private DatabaseMeta databaseMeta;
@@ -102,4 +106,47 @@ public class DimensionLookupTest {
     dimensionLookupSpy.dimInsert( rowMetaInterface, objects, null, true, null, date, date );
     verify( databaseMeta, times( 2 ) ).supportsAutoGeneratedKeys();
   }
+
+  @Test
+  public void testSequenceBlocks() throws Exception {
+    doReturn( "SEQ" ).when( dimensionLookupMeta ).getSequenceName();
+    doReturn( 10 ).when( dimensionLookupMeta ).getSequenceBlockSize();
+    when( dimensionLookupData.db.getNextSequenceValue( null, "SEQ", null ) ).thenReturn( 1L, 11L );
+    when( dimensionLookupData.db.getSequenceIncrement( null, "SEQ" ) ).thenReturn( 10L );
+
+    for ( long key = 1; key <= 20; key++ ) {
+      assertEquals( Long.valueOf( key ), dimensionLookup.getNextSequenceValue() );
+    }
+    verify( dimensionLookupData.db, times( 2 ) ).getNextSequenceValue( null, "SEQ", null );
+    verify( dimensionLookupData.db, times( 1 ) ).getSequenceIncrement( null, "SEQ" );
+  }
+
+  @Test( expected = KettleDatabaseException.class )
+  public void testSequenceIncrementSmallerThanBlock() throws Exception {
+    doReturn( "SEQ" ).when( dimensionLookupMeta ).getSequenceName();
+    doReturn( 10 ).when( dimensionLookupMeta ).getSequenceBlockSize();
+    when( dimensionLookupData.db.getNextSequenceValue( null, "SEQ", null ) ).thenReturn( 1L );
+    when( dimensionLookupData.db.getSequenceIncrement( null, "SEQ" ) ).thenReturn( 1L );
+
+    dimensionLookup.getNextSequenceValue();
+  }
+
+  @Test
+  public void testOverlappingSequenceBlocks() throws Exception {
+    // The database can't tell the increment: the overlap shows up with the second block
+    //
+    doReturn( "SEQ" ).when( dimensionLookupMeta ).getSequenceName();
+    doReturn( 10 ).when( dimensionLookupMeta ).getSequenceBlockSize();
+    when( dimensionLookupData.db.getNextSequenceValue( null, "SEQ", null ) ).thenReturn( 1L, 2L );
+
+    for ( long key = 1; key <= 10; key++ ) {
+      assertEquals( Long.valueOf( key ), dimensionLookup.getNextSequenceValue() );
+    }
+    try {
+      dimensionLookup.getNextSequenceValue();
+      fail( "Overlapping blocks of keys should be refused" );
+    } catch ( KettleDatabaseException e ) {
+      // expected
+    }
+  }
 }
@@ -57,6 +57,11 @@ public class InsertUpdateMetaInjectionTest extends BaseMetadataInjectionTest<Ins
         return meta.isUpdateBypassed();
       }
     } );
+    check( "MERGE_MODE", new BooleanGetter() {
+      public boolean get() {
+        return meta.isMergeMode();
+      }
+    } );
     check( "KEY_STREAM", new StringGetter() {
       public String get() {
         return meta.getKeyStream()[0];
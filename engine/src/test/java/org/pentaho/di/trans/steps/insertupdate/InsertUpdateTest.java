@@ -0,0 +1,213 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2021 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.pentaho.di.trans.steps.insertupdate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.startsWith;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.powermock.reflect.Whitebox.setInternalState;
+
+import java.sql.PreparedStatement;
+import java.util.Date;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.pentaho.di.core.database.Database;
+import org.pentaho.di.core.database.DatabaseMeta;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaString;
+import org.pentaho.di.trans.steps.mock.StepMockUtil;
+
+public class InsertUpdateTest {
+
+  private InsertUpdate step;
+  private InsertUpdateMeta meta;
+  private InsertUpdateData data;
+  private DatabaseMeta databaseMeta;
+  private Database db;
+  private PreparedStatement stagingStatement;
+  private PreparedStatement mergeStatement;
+  private RowMetaInterface rowMeta;
+
+  @Before
+  public void setUp() throws Exception {
+    databaseMeta = mock( DatabaseMeta.class );
+    when( databaseMeta.quoteField( anyString() ) ).then( returnsFirstArg() );
+    when( databaseMeta.getQuotedSchemaTableCombination( anyString(), anyString() ) ).then(
+      invocation -> invocation.getArguments()[0] == null ? invocation.getArguments()[1]
+        : invocation.getArguments()[0] + "." + invocation.getArguments()[1] );
+    when( databaseMeta.getSQLMergeFromTable( anyString(), anyString(), any( String[].class ), any( String[].class ),
+      any( String[].class ) ) ).thenReturn( "MERGE" );
+
+    stagingStatement = mock( PreparedStatement.class );
+    mergeStatement = mock( PreparedStatement.class );
+    db = mock( Database.class );
+    when( db.isAutoCommit() ).thenReturn( true );
+    when( db.getInsertStatement( anyString(), anyString(), any( RowMetaInterface.class ) ) ).thenReturn( "INSERT" );
+    when( db.getCreateTableStatement( anyString(), any( RowMetaInterface.class ), anyString(), anyBoolean(),
+      anyString(), anyBoolean() ) ).thenReturn( "CREATE TABLE" );
+    when( db.getCreateSessionTableStatement( anyString(), any( RowMetaInterface.class ) ) )
+      .thenReturn( "CREATE TEMPORARY TABLE" );
+    when( db.getTablenames( anyString(), eq( false ) ) ).thenReturn( new String[0] );
+    when( db.prepareSQL( "INSERT" ) ).thenReturn( stagingStatement );
+    when( db.prepareSQL( "MERGE" ) ).thenReturn( mergeStatement );
+
+    meta = new InsertUpdateMeta();
+    meta.setDefault();
+    meta.setDatabaseMeta( databaseMeta );
+    meta.setSchemaName( "schema" );
+    meta.setTableName( "target" );
+    meta.setCommitSize( "3" );
+    meta.setKeyLookup( new String[] { "id" } );
+    meta.setKeyCondition( new String[] { "=" } );
+    meta.setKeyStream( new String[] { "id" } );
+    meta.setKeyStream2( new String[] { null } );
+    meta.setUpdateLookup( new String[] { "id", "name" } );
+    meta.setUpdateStream( new String[] { "id", "name" } );
+    meta.setUpdate( new Boolean[] { false, true } );
+    meta.setMergeMode( true );
+
+    data = new InsertUpdateData();
+    data.db = db;
+    data.schemaTable = "schema.target";
+    data.valuenrs = new int[] { 0, 1 };
+
+    rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "name" ) );
+
+    step = StepMockUtil.getStep( InsertUpdate.class, InsertUpdateMeta.class, "InsertUpdateTest" );
+    setInternalState( step, "meta", meta );
+    setInternalState( step, "data", data );
+  }
+
+  @Test
+  public void mergedRowsAreCountedFromTheMergeUpdateCount() throws Exception {
+    when( databaseMeta.supportsSessionTables() ).thenReturn( true );
+    when( databaseMeta.getSessionTableName( anyString() ) ).then( invocation -> "#" + invocation.getArguments()[0] );
+    when( mergeStatement.executeUpdate() ).thenReturn( 2, 1 );
+
+    assertTrue( step.prepareMerge( rowMeta ) );
+    verify( db ).execStatement( "CREATE TEMPORARY TABLE" );
+    verify( db, never() ).getTablenames( anyString(), anyBoolean() );
+    assertTrue( data.stagingSchemaTable.startsWith( "#KSTG_" ) );
+
+    // The third row fills the batch of three
+    step.stageRow( rowMeta, new Object[] { 1L, "one" } );
+    step.stageRow( rowMeta, new Object[] { 2L, "two" } );
+    step.stageRow( rowMeta, new Object[] { 3L, "three" } );
+    verify( stagingStatement, times( 3 ) ).addBatch();
+    verify( mergeStatement ).executeUpdate();
+    verify( db ).execStatement( "DELETE FROM " + data.stagingSchemaTable );
+    assertEquals( 3, step.getLinesInput() );
+    assertEquals( 2, step.getLinesOutput() );
+    assertEquals( 1, step.getLinesSkipped() );
+
+    // A key that's already staged merges the batch first, a merge can't touch the same row twice
+    step.stageRow( rowMeta, new Object[] { 4L, "four" } );
+    step.stageRow( rowMeta, new Object[] { 4L, "four again" } );
+    verify( mergeStatement, times( 2 ) ).executeUpdate();
+    assertEquals( 4, step.getLinesInput() );
+    assertEquals( 3, step.getLinesOutput() );
+    assertEquals( 1, step.getLinesSkipped() );
+    assertEquals( 1, data.stagedRows );
+
+    step.mergeStagedRows();
+    verify( mergeStatement, times( 3 ) ).executeUpdate();
+    assertEquals( 5, step.getLinesInput() );
+    assertEquals( 0, data.stagedRows );
+
+    step.mergeStagedRows();
+    verify( mergeStatement, times( 3 ) ).executeUpdate();
+  }
+
+  @Test
+  public void regularStagingTablesLeftBehindAreDropped() throws Exception {
+    when( databaseMeta.supportsSessionTables() ).thenReturn( false );
+    String stale = InsertUpdate.getStagingTableName( new Date( System.currentTimeMillis() - 2 * 24 * 3600 * 1000L ) );
+    String recent = InsertUpdate.getStagingTableName( new Date() );
+    when( db.getTablenames( "schema", false ) ).thenReturn( new String[] { "target", stale, recent } );
+
+    assertTrue( step.prepareMerge( rowMeta ) );
+    verify( db ).execStatement( "DROP TABLE schema." + stale );
+    verify( db, never() ).execStatement( "DROP TABLE schema." + recent );
+    verify( db, never() ).execStatement( "DROP TABLE schema.target" );
+    verify( db ).execStatement( "CREATE TABLE" );
+    assertTrue( data.stagingSchemaTable.startsWith( "schema.KSTG_" ) );
+  }
+
+  @Test
+  public void rowsAreLookedUpOneByOneWithoutMergeSupport() throws Exception {
+    when( databaseMeta.getSQLMergeFromTable( anyString(), anyString(), any( String[].class ), any( String[].class ),
+      any( String[].class ) ) ).thenReturn( null );
+
+    assertFalse( step.prepareMerge( rowMeta ) );
+    verify( db, never() ).execStatement( anyString() );
+    verify( db, never() ).prepareSQL( anyString() );
+  }
+
+  @Test
+  public void rowsAreLookedUpOneByOneForOtherConditions() throws Exception {
+    meta.setKeyCondition( new String[] { "BETWEEN" } );
+
+    assertFalse( step.prepareMerge( rowMeta ) );
+    verify( db, never() ).execStatement( anyString() );
+  }
+
+  @Test
+  public void rowsAreLookedUpOneByOneWithErrorHandling() throws Exception {
+    doReturn( true ).when( step.getStepMeta() ).isDoingErrorHandling();
+
+    assertFalse( step.prepareMerge( rowMeta ) );
+    verify( db, never() ).execStatement( startsWith( "CREATE" ) );
+  }
+
+  @Test
+  public void stagingTableNamesTellWhenTheyWereCreated() {
+    Date created = new Date( 1700000000000L );
+    String name = InsertUpdate.getStagingTableName( created );
+    assertEquals( 26, name.length() );
+    assertEquals( created.getTime() / 60000L, InsertUpdate.getStagingTableCreation( name ).getTime() / 60000L );
+    assertEquals( created.getTime() / 60000L,
+      InsertUpdate.getStagingTableCreation( name.toLowerCase() ).getTime() / 60000L );
+
+    assertNull( InsertUpdate.getStagingTableCreation( "target" ) );
+    assertNull( InsertUpdate.getStagingTableCreation( "KSTG_1A2B3C4D5E6F7A8B9C0D1E" ) );
+    assertNull( InsertUpdate.getStagingTableCreation( null ) );
+  }
+}
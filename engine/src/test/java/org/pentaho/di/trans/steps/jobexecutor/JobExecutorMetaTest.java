@@ -74,7 +74,8 @@ public class JobExecutorMetaTest {
   public void setUp() throws Exception {
 
     List<String> attributes =
-        Arrays.asList( "fileName", "jobName", "directoryPath", "groupSize", "groupField", "groupTime",
+        Arrays.asList( "fileName", "jobName", "directoryPath", "groupSize", "groupField", "groupTime", "parallelism",
+            "orderedResults",
             "executionTimeField", "executionFilesRetrievedField", "executionLogTextField",
             "executionLogChannelIdField", "executionResultField", "executionNrErrorsField", "executionLinesReadField",
             "executionLinesWrittenField", "executionLinesInputField", "executionLinesOutputField",
@@ -0,0 +1,297 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2021 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.pentaho.di.trans.steps.mapping;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.KettleEnvironment;
+import org.pentaho.di.core.ObjectLocationSpecificationMethod;
+import org.pentaho.di.core.RowMetaAndData;
+import org.pentaho.di.core.logging.LogChannel;
+import org.pentaho.di.core.plugins.PluginRegistry;
+import org.pentaho.di.core.plugins.StepPluginType;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaString;
+import org.pentaho.di.core.variables.VariableSpace;
+import org.pentaho.di.core.variables.Variables;
+import org.pentaho.di.core.xml.XMLHandler;
+import org.pentaho.di.junit.rules.RestorePDIEngineEnvironment;
+import org.pentaho.di.trans.RowProducer;
+import org.pentaho.di.trans.RowStepCollector;
+import org.pentaho.di.trans.Trans;
+import org.pentaho.di.trans.TransHopMeta;
+import org.pentaho.di.trans.TransMeta;
+import org.pentaho.di.trans.step.StepMeta;
+import org.pentaho.di.trans.step.StepMetaInterface;
+import org.pentaho.di.trans.steps.dummytrans.DummyTransMeta;
+import org.pentaho.di.trans.steps.injector.InjectorMeta;
+import org.pentaho.di.trans.steps.mappinginput.MappingInputMeta;
+import org.pentaho.di.trans.steps.mappingoutput.MappingOutputMeta;
+
+public class MappingInlinerTest {
+  @ClassRule public static RestorePDIEngineEnvironment env = new RestorePDIEngineEnvironment();
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  @BeforeClass
+  public static void initKettle() throws Exception {
+    KettleEnvironment.init();
+  }
+
+  @Test
+  public void testMappingStepsAreSplicedIn() throws Exception {
+    TransMeta transMeta = createParent( new MappingMeta() );
+    TransMeta mappingTransMeta = createMapping();
+    MappingInliner inliner = createInliner( mappingTransMeta );
+
+    TransMeta inlined = inliner.inlineMappings( transMeta, new Variables() );
+
+    assertNotSame( transMeta, inlined );
+    assertNotNull( transMeta.findStep( "mapping" ) );
+    assertNull( inlined.findStep( "mapping" ) );
+    assertEquals( 5, inlined.nrSteps() );
+
+    StepMeta source = inlined.findStep( "source" );
+    StepMeta mappingInput = inlined.findStep( "mapping/input" );
+    StepMeta work = inlined.findStep( "mapping/work" );
+    StepMeta mappingOutput = inlined.findStep( "mapping/output" );
+    StepMeta target = inlined.findStep( "target" );
+    assertEquals( 4, inlined.nrTransHops() );
+    assertNotNull( inlined.findTransHop( source, mappingInput ) );
+    assertNotNull( inlined.findTransHop( mappingInput, work ) );
+    assertNotNull( inlined.findTransHop( work, mappingOutput ) );
+    assertNotNull( inlined.findTransHop( mappingOutput, target ) );
+    for ( int i = 0; i < inlined.nrTransHops(); i++ ) {
+      TransHopMeta hop = inlined.getTransHop( i );
+      assertSame( inlined.findStep( hop.getFromStep().getName() ), hop.getFromStep() );
+      assertSame( inlined.findStep( hop.getToStep().getName() ), hop.getToStep() );
+    }
+
+    MappingInputMeta mappingInputMeta = (MappingInputMeta) mappingInput.getStepMetaInterface();
+    assertTrue( mappingInputMeta.isInlined() );
+    MappingOutputMeta mappingOutputMeta = (MappingOutputMeta) mappingOutput.getStepMetaInterface();
+    assertTrue( mappingOutputMeta.isInlined() );
+    assertEquals( 1, mappingOutputMeta.getInputValueRenames().size() );
+
+    // The steps of the mapping use the variables of the mapping
+    //
+    assertSame( mappingTransMeta, inliner.getVariableSpace( work ) );
+    assertNull( inliner.getVariableSpace( source ) );
+
+    // The field renames are part of the metadata of the inlined transformation
+    //
+    RowMetaInterface row = new RowMeta();
+    row.addValueMeta( new ValueMetaString( "customer" ) );
+    mappingInputMeta.getFields( row, "mapping/input", null, null, inlined, null, null );
+    assertEquals( "id", row.getValueMeta( 0 ).getName() );
+    mappingOutputMeta.getFields( row, "mapping/output", null, null, inlined, null, null );
+    assertEquals( "customer", row.getValueMeta( 0 ).getName() );
+  }
+
+  @Test
+  public void testMappingWithParametersIsNotInlined() throws Exception {
+    MappingMeta mappingMeta = new MappingMeta();
+    mappingMeta.getMappingParameters().setVariable( new String[] { "PARAM" } );
+    mappingMeta.getMappingParameters().setInputField( new String[] { "value" } );
+    TransMeta transMeta = createParent( mappingMeta );
+
+    assertSame( transMeta, createInliner( createMapping() ).inlineMappings( transMeta, new Variables() ) );
+  }
+
+  @Test
+  public void testRowsRunThroughInlinedMapping() throws Exception {
+    // Two inputs and two outputs: customers get renamed on the way in and back on the way out, orders get renamed on
+    // the way out only.
+    //
+    MappingIODefinition customersIn = new MappingIODefinition( "customers", "customersIn" );
+    customersIn.setRenamingOnOutput( true );
+    customersIn.getValueRenames().add( new MappingValueRename( "customer", "id" ) );
+    MappingIODefinition ordersIn = new MappingIODefinition( "orders", "ordersIn" );
+    MappingIODefinition customersOut = new MappingIODefinition( "customersOut", "customerTarget" );
+    MappingIODefinition ordersOut = new MappingIODefinition( "ordersOut", "orderTarget" );
+    ordersOut.getValueRenames().add( new MappingValueRename( "amount", "total" ) );
+
+    MappingMeta mappingMeta = new MappingMeta();
+    mappingMeta.setSpecificationMethod( ObjectLocationSpecificationMethod.FILENAME );
+    mappingMeta.setFileName( writeMapping( createMapping( "customers", "orders" ) ) );
+    mappingMeta.setInputMappings( Arrays.asList( customersIn, ordersIn ) );
+    mappingMeta.setOutputMappings( Arrays.asList( customersOut, ordersOut ) );
+
+    TransMeta transMeta = new TransMeta();
+    StepMeta customers = addStep( transMeta, "customers", new InjectorMeta() );
+    StepMeta orders = addStep( transMeta, "orders", new InjectorMeta() );
+    StepMeta mapping = addStep( transMeta, "mapping", mappingMeta );
+    StepMeta customerTarget = addStep( transMeta, "customerTarget", new DummyTransMeta() );
+    StepMeta orderTarget = addStep( transMeta, "orderTarget", new DummyTransMeta() );
+    transMeta.addTransHop( new TransHopMeta( customers, mapping ) );
+    transMeta.addTransHop( new TransHopMeta( orders, mapping ) );
+    transMeta.addTransHop( new TransHopMeta( mapping, customerTarget ) );
+    transMeta.addTransHop( new TransHopMeta( mapping, orderTarget ) );
+
+    Trans trans = new Trans( transMeta );
+    trans.setVariable( Const.KETTLE_INLINE_MAPPINGS, "Y" );
+    trans.prepareExecution( null );
+
+    // The steps of the mapping run in the transformation itself, which is still shown the way it was designed
+    //
+    assertNull( trans.findRunThread( "mapping" ) );
+    assertNotNull( trans.findRunThread( "mapping/customersIn" ) );
+    assertSame( transMeta, trans.getTransMeta() );
+    assertNotNull( transMeta.findStep( "mapping" ) );
+    assertNull( transMeta.findStep( "mapping/customersIn" ) );
+
+    RowStepCollector customerWork = new RowStepCollector();
+    trans.findRunThread( "mapping/customersWork" ).addRowListener( customerWork );
+    RowStepCollector customerRows = new RowStepCollector();
+    trans.findRunThread( "customerTarget" ).addRowListener( customerRows );
+    RowStepCollector orderRows = new RowStepCollector();
+    trans.findRunThread( "orderTarget" ).addRowListener( orderRows );
+
+    RowProducer customerProducer = trans.addRowProducer( "customers", 0 );
+    RowProducer orderProducer = trans.addRowProducer( "orders", 0 );
+    trans.startThreads();
+
+    RowMetaInterface customerRowMeta = createRowMeta( "customer", "name" );
+    customerProducer.putRow( customerRowMeta, new Object[] { "c1", "Alice" } );
+    customerProducer.putRow( customerRowMeta, new Object[] { "c2", "Bob" } );
+    customerProducer.finished();
+    RowMetaInterface orderRowMeta = createRowMeta( "order", "amount" );
+    orderProducer.putRow( orderRowMeta, new Object[] { "o1", "10" } );
+    orderProducer.finished();
+    trans.waitUntilFinished();
+
+    assertEquals( 0, trans.getErrors() );
+
+    List<RowMetaAndData> rows = customerWork.getRowsRead();
+    assertEquals( 2, rows.size() );
+    assertEquals( "id", rows.get( 0 ).getRowMeta().getValueMeta( 0 ).getName() );
+    assertEquals( "c1", rows.get( 0 ).getString( "id", null ) );
+
+    rows = customerRows.getRowsRead();
+    assertEquals( 2, rows.size() );
+    assertEquals( "customer", rows.get( 0 ).getRowMeta().getValueMeta( 0 ).getName() );
+    assertEquals( "c1", rows.get( 0 ).getString( "customer", null ) );
+    assertEquals( "Bob", rows.get( 1 ).getString( "name", null ) );
+
+    rows = orderRows.getRowsRead();
+    assertEquals( 1, rows.size() );
+    assertEquals( "total", rows.get( 0 ).getRowMeta().getValueMeta( 1 ).getName() );
+    assertEquals( "10", rows.get( 0 ).getString( "total", null ) );
+  }
+
+  private String writeMapping( TransMeta mappingTransMeta ) throws Exception {
+    File file = folder.newFile( "mapping.ktr" );
+    String xml = XMLHandler.getXMLHeader() + mappingTransMeta.getXML();
+    Files.write( file.toPath(), xml.getBytes( StandardCharsets.UTF_8 ) );
+    return file.getAbsolutePath();
+  }
+
+  private static RowMetaInterface createRowMeta( String... fieldNames ) {
+    RowMetaInterface rowMeta = new RowMeta();
+    for ( String fieldName : fieldNames ) {
+      rowMeta.addValueMeta( new ValueMetaString( fieldName ) );
+    }
+    return rowMeta;
+  }
+
+  private static MappingInliner createInliner( final TransMeta mappingTransMeta ) {
+    return new MappingInliner( new LogChannel( "test" ) ) {
+      @Override
+      protected TransMeta loadMappingMeta( TransMeta transMeta, MappingMeta mappingMeta, VariableSpace space ) {
+        return mappingTransMeta;
+      }
+    };
+  }
+
+  private static TransMeta createParent( MappingMeta mappingMeta ) {
+    MappingIODefinition inputDefinition = new MappingIODefinition();
+    inputDefinition.setMainDataPath( true );
+    inputDefinition.setRenamingOnOutput( true );
+    inputDefinition.getValueRenames().add( new MappingValueRename( "customer", "id" ) );
+    mappingMeta.setInputMappings( Collections.singletonList( inputDefinition ) );
+    MappingIODefinition outputDefinition = new MappingIODefinition();
+    outputDefinition.setMainDataPath( true );
+    mappingMeta.setOutputMappings( Collections.singletonList( outputDefinition ) );
+
+    TransMeta transMeta = new TransMeta();
+    StepMeta source = addStep( transMeta, "source", new DummyTransMeta() );
+    StepMeta mapping = addStep( transMeta, "mapping", mappingMeta );
+    StepMeta target = addStep( transMeta, "target", new DummyTransMeta() );
+    transMeta.addTransHop( new TransHopMeta( source, mapping ) );
+    transMeta.addTransHop( new TransHopMeta( mapping, target ) );
+    return transMeta;
+  }
+
+  private static TransMeta createMapping() {
+    TransMeta mappingTransMeta = new TransMeta();
+    addPath( mappingTransMeta, "input", "work", "output" );
+    return mappingTransMeta;
+  }
+
+  /**
+   * @return a mapping with an input, work and output step for each of the paths.
+   */
+  private static TransMeta createMapping( String... paths ) {
+    TransMeta mappingTransMeta = new TransMeta();
+    for ( String path : paths ) {
+      addPath( mappingTransMeta, path + "In", path + "Work", path + "Out" );
+    }
+    return mappingTransMeta;
+  }
+
+  private static void addPath( TransMeta mappingTransMeta, String inputName, String workName, String outputName ) {
+    MappingInputMeta mappingInputMeta = new MappingInputMeta();
+    mappingInputMeta.allocate( 0 );
+    StepMeta input = addStep( mappingTransMeta, inputName, mappingInputMeta );
+    StepMeta work = addStep( mappingTransMeta, workName, new DummyTransMeta() );
+    StepMeta output = addStep( mappingTransMeta, outputName, new MappingOutputMeta() );
+    mappingTransMeta.addTransHop( new TransHopMeta( input, work ) );
+    mappingTransMeta.addTransHop( new TransHopMeta( work, output ) );
+  }
+
+  private static StepMeta addStep( TransMeta transMeta, String name, StepMetaInterface meta ) {
+    String stepId = PluginRegistry.getInstance().getPluginId( StepPluginType.class, meta );
+    StepMeta stepMeta = new StepMeta( stepId, name, meta );
+    transMeta.addStep( stepMeta );
+    return stepMeta;
+  }
+}
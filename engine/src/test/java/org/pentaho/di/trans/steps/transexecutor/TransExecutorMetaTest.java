@@ -81,7 +81,8 @@ public class TransExecutorMetaTest {
   public void setUp() throws Exception {
 
     List<String> attributes =
-      Arrays.asList( "fileName", "transName", "directoryPath", "groupSize", "groupField", "groupTime",
+      Arrays.asList( "fileName", "transName", "directoryPath", "groupSize", "groupField", "groupTime", "parallelism",
+        "orderedResults",
         "executionTimeField", "executionFilesRetrievedField", "executionLogTextField",
         "executionLogChannelIdField", "executionResultField", "executionNrErrorsField", "executionLinesReadField",
         "executionLinesWrittenField", "executionLinesInputField", "executionLinesOutputField",
@@ -22,7 +22,9 @@
 
 package org.pentaho.di.trans.steps.transexecutor;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -30,6 +32,7 @@ import org.junit.BeforeClass;
 import org.junit.ClassRule;
 import org.junit.Test;
 import org.mockito.Mockito;
+import org.pentaho.di.core.Const;
 import org.pentaho.di.core.KettleEnvironment;
 import org.pentaho.di.core.QueueRowSet;
 import org.pentaho.di.core.Result;
@@ -41,6 +44,8 @@ import org.pentaho.di.core.exception.KettleStepException;
 import org.pentaho.di.core.logging.LogChannel;
 import org.pentaho.di.core.logging.LogChannelInterface;
 import org.pentaho.di.core.logging.LogLevel;
+import org.pentaho.di.core.plugins.PluginRegistry;
+import org.pentaho.di.core.plugins.StepPluginType;
 import org.pentaho.di.core.row.RowMeta;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.core.row.value.ValueMetaString;
@@ -48,9 +53,15 @@ import org.pentaho.di.core.variables.VariableSpace;
 import org.pentaho.di.junit.rules.RestorePDIEngineEnvironment;
 import org.pentaho.di.repository.Repository;
 import org.pentaho.di.trans.Trans;
+import org.pentaho.di.trans.TransHopMeta;
 import org.pentaho.di.trans.TransMeta;
+import org.pentaho.di.trans.TransMeta.TransformationType;
 import org.pentaho.di.trans.step.StepMeta;
+import org.pentaho.di.trans.step.StepMetaInterface;
 import org.pentaho.di.trans.steps.StepMockUtil;
+import org.pentaho.di.trans.steps.dummytrans.DummyTransMeta;
+import org.pentaho.di.trans.steps.rowsfromresult.RowsFromResultMeta;
+import org.pentaho.di.trans.steps.rowstoresult.RowsToResultMeta;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
@@ -394,6 +405,52 @@ public class TransExecutorUnitTest {
     verify( executor, never() ).putRowTo( any(), any(), any() );
   }
 
+  /**
+   * Given a transformation executor that reuses its transformation and sends groups of two rows to it.
+   * <br/>
+   * When four groups pass through a step between "Get rows from result" and "Copy rows to result",
+   * then every row of every group should come back from the transformation.
+   */
+  @Test
+  public void reusedTransformationReturnsRowsOfEveryGroup() throws Exception {
+    prepareMultipleRowsForExecutor();
+    TransMeta executorTransMeta = createPassThroughTransMeta();
+    doReturn( executorTransMeta ).when( executor ).loadExecutorTransMeta();
+    Mockito.doCallRealMethod().when( executor ).createInternalTrans();
+    Mockito.when( executor.getLogLevel() ).thenReturn( LogLevel.NOTHING );
+
+    RowSet rowSet = new QueueRowSet();
+    StepMeta stepMeta = mockStepAndMapItToRowSet( "stepMetaMock", rowSet );
+    meta.setOutputRowsSourceStepMeta( stepMeta );
+    meta.setGroupSize( "2" );
+
+    Trans parent = new Trans();
+    parent.setLog( new LogChannel( this ) );
+    Mockito.when( executor.getTrans() ).thenReturn( parent );
+
+    executor.setVariable( Const.KETTLE_TRANS_EXECUTOR_REUSE_TRANS, "Y" );
+    executor.init( meta, data );
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaString( "groupField" ) );
+    executor.setInputRowMeta( rowMeta );
+
+    while ( executor.processRow( meta, data ) ) {
+      // send all the rows
+    }
+    assertNotNull( "The transformation should be reused", data.reusedTransExecutor );
+    assertEquals( "The transformation runs single threaded as a copy", TransformationType.Normal,
+      executorTransMeta.getTransformationType() );
+
+    List<Object> values = new ArrayList<>();
+    for ( Object[] row = rowSet.getRowImmediate(); row != null; row = rowSet.getRowImmediate() ) {
+      values.add( row[ 0 ] );
+    }
+    assertEquals( Arrays.<Object>asList( "value1", "value1", "value1", "value1", "value12", "value12", "value12" ),
+      values );
+
+    executor.dispose( meta, data );
+  }
+
   // values to be grouped
   private void prepareMultipleRowsForExecutor() throws KettleException {
     doReturn( new Object[] { "value1" } )
@@ -411,6 +468,24 @@ public class TransExecutorUnitTest {
     doReturn( new Object[] { "row" } ).doReturn( null ).when( executor ).getRow();
   }
 
+  private static TransMeta createPassThroughTransMeta() {
+    PluginRegistry registry = PluginRegistry.getInstance();
+    TransMeta transMeta = new TransMeta();
+
+    StepMetaInterface fromMeta = new RowsFromResultMeta();
+    StepMeta from = new StepMeta( registry.getPluginId( StepPluginType.class, fromMeta ), "from", fromMeta );
+    StepMetaInterface middleMeta = new DummyTransMeta();
+    StepMeta middle = new StepMeta( registry.getPluginId( StepPluginType.class, middleMeta ), "middle", middleMeta );
+    StepMetaInterface toMeta = new RowsToResultMeta();
+    StepMeta to = new StepMeta( registry.getPluginId( StepPluginType.class, toMeta ), "to", toMeta );
+    transMeta.addStep( from );
+    transMeta.addStep( middle );
+    transMeta.addStep( to );
+    transMeta.addTransHop( new TransHopMeta( from, middle ) );
+    transMeta.addTransHop( new TransHopMeta( middle, to ) );
+    return transMeta;
+  }
+
   private StepMeta mockStepAndMapItToRowSet( String stepName, RowSet rowSet ) throws KettleStepException {
     StepMeta stepMeta = mock( StepMeta.class );
     when( stepMeta.getName() ).thenReturn( stepName );
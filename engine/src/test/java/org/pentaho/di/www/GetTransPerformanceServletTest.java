@@ -0,0 +1,109 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2021 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.pentaho.di.www;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.pentaho.di.trans.Trans;
+import org.pentaho.di.trans.performance.StepPerformanceSnapShot;
+import org.pentaho.di.trans.performance.StepPerformanceSnapShotHistory;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class GetTransPerformanceServletTest {
+  private TransformationMap mockTransformationMap;
+  private HttpServletRequest mockHttpServletRequest;
+  private HttpServletResponse mockHttpServletResponse;
+  private StringWriter out;
+
+  private GetTransPerformanceServlet getTransPerformanceServlet;
+
+  @Before
+  public void setup() throws Exception {
+    mockTransformationMap = mock( TransformationMap.class );
+    mockHttpServletRequest = mock( HttpServletRequest.class );
+    mockHttpServletResponse = mock( HttpServletResponse.class );
+    out = new StringWriter();
+    when( mockHttpServletRequest.getContextPath() ).thenReturn( GetTransPerformanceServlet.CONTEXT_PATH );
+    when( mockHttpServletRequest.getParameter( "name" ) ).thenReturn( "trans" );
+    when( mockHttpServletRequest.getParameter( "id" ) ).thenReturn( "123" );
+    when( mockHttpServletResponse.getWriter() ).thenReturn( new PrintWriter( out ) );
+    getTransPerformanceServlet = new GetTransPerformanceServlet( mockTransformationMap );
+  }
+
+  @Test
+  public void testTransNotFound() throws Exception {
+    getTransPerformanceServlet.doGet( mockHttpServletRequest, mockHttpServletResponse );
+
+    assertTrue( out.toString().contains( WebResult.XML_TAG ) );
+    assertTrue( out.toString().contains( WebResult.STRING_ERROR ) );
+  }
+
+  @Test
+  public void testSnapShotsOfStep() throws Exception {
+    Map<String, List<StepPerformanceSnapShot>> snapShots = new HashMap<>();
+    snapShots.put( "Input.0", createHistory( "Input" ) );
+    snapShots.put( "Output.0", createHistory( "Output" ) );
+    Trans mockTrans = mock( Trans.class );
+    when( mockTrans.getStepPerformanceSnapShots() ).thenReturn( snapShots );
+    when( mockTransformationMap.getTransformation( any( CarteObjectEntry.class ) ) ).thenReturn( mockTrans );
+    when( mockHttpServletRequest.getParameter( "step" ) ).thenReturn( "Output" );
+
+    getTransPerformanceServlet.doGet( mockHttpServletRequest, mockHttpServletResponse );
+
+    String xml = out.toString();
+    assertTrue( xml.contains( "<" + GetTransPerformanceServlet.XML_TAG + ">" ) );
+    assertEquals( 2, xml.split( "<" + StepPerformanceSnapShot.XML_TAG + ">" ).length - 1 );
+    assertTrue( xml.contains( "<step_name>Output</step_name>" ) );
+    assertFalse( xml.contains( "<step_name>Input</step_name>" ) );
+  }
+
+  private StepPerformanceSnapShotHistory createHistory( String stepName ) {
+    StepPerformanceSnapShotHistory history = new StepPerformanceSnapShotHistory( 0 );
+    StepPerformanceSnapShot previous = null;
+    for ( int i = 1; i <= 2; i++ ) {
+      StepPerformanceSnapShot snapShot =
+        new StepPerformanceSnapShot( i, 1L, new Date( i * 1000L ), "trans", stepName, 0, i * 10L, 0L, 0L, 0L, 0L,
+          0L, 0L );
+      snapShot.diff( previous, 0L, 0L );
+      history.add( snapShot );
+      previous = snapShot;
+    }
+    return history;
+  }
+}
@@ -0,0 +1,110 @@
+/*! ******************************************************************************
+ *
+ * Pentaho Data Integration
+ *
+ * Copyright (C) 2002-2021 by Hitachi Vantara : http://www.pentaho.com
+ *
+ *******************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.pentaho.di.www;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.pentaho.di.trans.Trans;
+import org.pentaho.di.trans.step.BaseStepData.StepExecutionStatus;
+import org.pentaho.di.trans.step.StepInterface;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TransStatusTrackerTest {
+  private TransStatusTracker tracker;
+  private Trans trans;
+  private StepInterface input;
+  private StepInterface output;
+
+  @Before
+  public void setup() {
+    tracker = new TransStatusTracker();
+    input = mockStep( "Input" );
+    output = mockStep( "Output" );
+    trans = mock( Trans.class );
+    when( trans.getStatus() ).thenReturn( Trans.STRING_RUNNING );
+    when( trans.nrSteps() ).thenReturn( 2 );
+    when( trans.getRunThread( 0 ) ).thenReturn( input );
+    when( trans.getRunThread( 1 ) ).thenReturn( output );
+  }
+
+  @Test
+  public void testEverythingIsNewAtFirst() {
+    List<TransStatusTracker.TransChanges> changes = new ArrayList<>();
+    long cursor = tracker.getChanges( Collections.singletonList( trans ), 0L, changes );
+
+    assertEquals( 1, changes.size() );
+    assertTrue( changes.get( 0 ).isStatusChanged() );
+    assertEquals( 2, changes.get( 0 ).getSteps().size() );
+    assertEquals( tracker.getVersion(), cursor );
+  }
+
+  @Test
+  public void testOnlyChangesSinceCursor() {
+    long cursor = tracker.getChanges( Collections.singletonList( trans ), 0L, new ArrayList<>() );
+
+    List<TransStatusTracker.TransChanges> changes = new ArrayList<>();
+    assertEquals( cursor, tracker.getChanges( Collections.singletonList( trans ), cursor, changes ) );
+    assertTrue( changes.isEmpty() );
+
+    when( output.getLinesWritten() ).thenReturn( 100L );
+    cursor = tracker.getChanges( Collections.singletonList( trans ), cursor, changes );
+    assertEquals( 1, changes.size() );
+    assertFalse( changes.get( 0 ).isStatusChanged() );
+    assertEquals( 1, changes.get( 0 ).getSteps().size() );
+    assertEquals( "Output", changes.get( 0 ).getSteps().get( 0 ).getStepname() );
+
+    // An older cursor still sees the change
+    changes.clear();
+    tracker.getChanges( Collections.singletonList( trans ), cursor - 1, changes );
+    assertEquals( 1, changes.size() );
+  }
+
+  @Test
+  public void testTransStatusChange() {
+    long cursor = tracker.getChanges( Collections.singletonList( trans ), 0L, new ArrayList<>() );
+
+    when( trans.getStatus() ).thenReturn( Trans.STRING_FINISHED );
+    List<TransStatusTracker.TransChanges> changes = new ArrayList<>();
+    tracker.getChanges( Collections.singletonList( trans ), cursor, changes );
+    assertEquals( 1, changes.size() );
+    assertTrue( changes.get( 0 ).isStatusChanged() );
+    assertTrue( changes.get( 0 ).getSteps().isEmpty() );
+  }
+
+  private StepInterface mockStep( String name ) {
+    StepInterface step = mock( StepInterface.class );
+    when( step.getStepname() ).thenReturn( name );
+    when( step.isRunning() ).thenReturn( true );
+    when( step.getStatus() ).thenReturn( StepExecutionStatus.STATUS_RUNNING );
+    return step;
+  }
+}
@@ -366,14 +366,13 @@ public class MetaInject extends BaseStep implements StepInterface {
     if ( log.isDetailed() ) {
       logDetailed( "Handing step '" + targetStep + "' injection!" );
     }
-    BeanInjectionInfo injectionInfo = new BeanInjectionInfo( targetStepMeta.getClass() );
-    BeanInjector injector = new BeanInjector( injectionInfo );
+    BeanInjector injector = data.stepInjectorsMap.get( targetStep );
 
     // Collect all the metadata for this target step...
     //
     Map<TargetStepAttribute, SourceStepField> targetMap = meta.getTargetSourceMapping();
     boolean wasInjection = false;
-    for ( TargetStepAttribute target : targetMap.keySet() ) {
+    for ( TargetStepAttribute target : getTargets( targetStep ) ) {
       SourceStepField source = targetMap.get( target );
 
       if ( target.getStepname().equalsIgnoreCase( targetStep ) ) {
@@ -423,14 +422,13 @@ public class MetaInject extends BaseStep implements StepInterface {
     if ( log.isDetailed() ) {
       logDetailed( "Handing step '" + targetStep + "' constants injection!" );
     }
-    BeanInjectionInfo injectionInfo = new BeanInjectionInfo( targetStepMeta.getClass() );
-    BeanInjector injector = new BeanInjector( injectionInfo );
+    BeanInjector injector = data.stepInjectorsMap.get( targetStep );
 
     // Collect all the metadata for this target step...
+    Map<TargetStepAttribute, SourceStepField> targetMap = meta.getTargetSourceMapping();
     boolean wasInjection = false;
-    for ( Map.Entry<TargetStepAttribute, SourceStepField> entry  : meta.getTargetSourceMapping().entrySet() ) {
-      TargetStepAttribute target = entry.getKey();
-      SourceStepField source = entry.getValue();
+    for ( TargetStepAttribute target : getTargets( targetStep ) ) {
+      SourceStepField source = targetMap.get( target );
       if ( target.getStepname().equalsIgnoreCase( targetStep ) ) {
         // This is the step to collect data for...
         // We also know which step to read the data from. (source)
@@ -476,7 +474,7 @@ public class MetaInject extends BaseStep implements StepInterface {
     // Collect all the metadata for this target step...
     //
     Map<TargetStepAttribute, SourceStepField> targetMap = meta.getTargetSourceMapping();
-    for ( TargetStepAttribute target : targetMap.keySet() ) {
+    for ( TargetStepAttribute target : getTargets( targetStep ) ) {
       SourceStepField source = targetMap.get( target );
 
       if ( target.getStepname().equalsIgnoreCase( targetStep ) ) {
@@ -575,6 +573,14 @@ public class MetaInject extends BaseStep implements StepInterface {
     injectionInterface.injectStepMetadataEntries( inject );
   }
 
+  /**
+   * @return the targets of the mapping in the given step
+   */
+  private List<TargetStepAttribute> getTargets( String targetStep ) {
+    List<TargetStepAttribute> targets = data.stepTargetsMap.get( targetStep.toUpperCase() );
+    return targets != null ? targets : Collections.<TargetStepAttribute>emptyList();
+  }
+
   private void copyResult( Trans trans ) {
     Result result = trans.getResult();
     setLinesInput( result.getNrLinesInput() );
@@ -679,10 +685,13 @@ public class MetaInject extends BaseStep implements StepInterface {
         //
         // Get new injection info
         data.stepInjectionMetasMap = new HashMap<String, StepMetaInterface>();
+        data.stepInjectorsMap = new HashMap<String, BeanInjector>();
         for ( StepMeta stepMeta : data.transMeta.getUsedSteps() ) {
           StepMetaInterface meta = stepMeta.getStepMetaInterface();
           if ( BeanInjectionInfo.isInjectionSupported( meta.getClass() ) ) {
             data.stepInjectionMetasMap.put( stepMeta.getName(), meta );
+            data.stepInjectorsMap.put( stepMeta.getName(),
+              new BeanInjector( BeanInjectionInfo.getInjectionInfo( meta.getClass() ) ) );
           }
         }
         // Get old injection info
@@ -695,6 +704,14 @@ public class MetaInject extends BaseStep implements StepInterface {
           }
         }
 
+        // Group the targets of the mapping by step, instead of going over all of them for every step
+        //
+        data.stepTargetsMap = new HashMap<String, List<TargetStepAttribute>>();
+        for ( TargetStepAttribute target : meta.getTargetSourceMapping().keySet() ) {
+          data.stepTargetsMap.computeIfAbsent( target.getStepname().toUpperCase(),
+            stepname -> new ArrayList<TargetStepAttribute>() ).add( target );
+        }
+
         // See if we need to stream data from a specific step into the template
         //
         if ( meta.getStreamSourceStep() != null && !Utils.isEmpty( meta.getStreamTargetStepname() ) ) {
@@ -780,7 +797,7 @@ public class MetaInject extends BaseStep implements StepInterface {
     for ( StepMeta step : transMeta.getUsedSteps() ) {
       Class<? extends StepMetaInterface> stepMetaClass = step.getStepMetaInterface().getClass();
       if ( BeanInjectionInfo.isInjectionSupported( stepMetaClass ) ) {
-        res.put( step.getName().toUpperCase(), new BeanInjectionInfo( stepMetaClass ) );
+        res.put( step.getName().toUpperCase(), BeanInjectionInfo.getInjectionInfo( stepMetaClass ) );
       }
     }
     return res;
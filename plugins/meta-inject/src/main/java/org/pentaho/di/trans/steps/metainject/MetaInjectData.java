@@ -26,6 +26,7 @@ import java.util.List;
 import java.util.Map;
 
 import org.pentaho.di.core.RowMetaAndData;
+import org.pentaho.di.core.injection.bean.BeanInjector;
 import org.pentaho.di.trans.TransMeta;
 import org.pentaho.di.trans.step.BaseStepData;
 import org.pentaho.di.trans.step.StepDataInterface;
@@ -40,6 +41,10 @@ public class MetaInjectData extends BaseStepData implements StepDataInterface {
   public TransMeta transMeta;
   public Map<String, StepMetaInjectionInterface> stepInjectionMap;
   public Map<String, StepMetaInterface> stepInjectionMetasMap;
+  /** The injectors of the steps in stepInjectionMetasMap, by step name */
+  public Map<String, BeanInjector> stepInjectorsMap;
+  /** The targets of the mapping by upper case step name, so they are looked up once per execution */
+  public Map<String, List<TargetStepAttribute>> stepTargetsMap;
   public Map<String, List<RowMetaAndData>> rowMap;
   public boolean streaming;
   public String streamingSourceStepname;
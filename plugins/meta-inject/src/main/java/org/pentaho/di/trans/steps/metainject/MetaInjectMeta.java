@@ -22,6 +22,7 @@
 
 package org.pentaho.di.trans.steps.metainject;
 
+import org.pentaho.di.base.MetaCache;
 import org.pentaho.di.core.Const;
 import org.pentaho.di.core.ObjectLocationSpecificationMethod;
 import org.pentaho.di.core.annotations.Step;
@@ -510,6 +511,8 @@ public class MetaInjectMeta extends BaseStepMeta implements StepMetaInterface, S
                                                                      IMetaStore metaStore, VariableSpace space )
     throws KettleException {
     TransMeta mappingTransMeta = null;
+    MetaCache metaCache = MetaCache.getInstance();
+    boolean useCache = metaCache.isEnabled( space );
 
     CurrentDirectoryResolver resolver = new CurrentDirectoryResolver();
     VariableSpace tmpSpace =
@@ -531,7 +534,8 @@ public class MetaInjectMeta extends BaseStepMeta implements StepMetaInterface, S
               String dirStr = realFilename.substring( 0, realFilename.lastIndexOf( "/" ) );
               String tmpFilename = realFilename.substring( realFilename.lastIndexOf( "/" ) + 1 );
               RepositoryDirectoryInterface dir = rep.findDirectory( dirStr );
-              mappingTransMeta = rep.loadTransformation( tmpFilename, dir, null, true, null );
+              mappingTransMeta = useCache ? metaCache.loadTransMeta( rep, tmpFilename, dir )
+                : rep.loadTransformation( tmpFilename, dir, null, true, null );
             } catch ( KettleException ke ) {
               // try without extension
               if ( realFilename.endsWith( Const.STRING_TRANS_DEFAULT_EXT ) ) {
@@ -541,7 +545,8 @@ public class MetaInjectMeta extends BaseStepMeta implements StepMetaInterface, S
                       + Const.STRING_TRANS_DEFAULT_EXT ) );
                   String dirStr = realFilename.substring( 0, realFilename.lastIndexOf( "/" ) );
                   RepositoryDirectoryInterface dir = rep.findDirectory( dirStr );
-                  mappingTransMeta = rep.loadTransformation( tmpFilename, dir, null, true, null );
+                  mappingTransMeta = useCache ? metaCache.loadTransMeta( rep, tmpFilename, dir )
+                    : rep.loadTransformation( tmpFilename, dir, null, true, null );
                 } catch ( KettleException ke2 ) {
                   // fall back to try loading from file system (transMeta is going to be null)
                 }
@@ -549,7 +554,8 @@ public class MetaInjectMeta extends BaseStepMeta implements StepMetaInterface, S
             }
           }
           if ( mappingTransMeta == null ) {
-            mappingTransMeta = new TransMeta( realFilename, metaStore, rep, false, tmpSpace, null );
+            mappingTransMeta = useCache ? metaCache.loadTransMeta( realFilename, metaStore, rep, false, tmpSpace )
+              : new TransMeta( realFilename, metaStore, rep, false, tmpSpace, null );
             mappingTransMeta.getLogChannel().logDetailed( "Loading Mapping from repository",
               "Mapping transformation was loaded from XML file [" + realFilename + "]" );
           }
@@ -571,7 +577,8 @@ public class MetaInjectMeta extends BaseStepMeta implements StepMetaInterface, S
                 //
                 // TODO: FIXME: see if we need to pass external MetaStore references to the repository?
                 //
-                mappingTransMeta = rep.loadTransformation( realTransname, repdir, null, true, null );
+                mappingTransMeta = useCache ? metaCache.loadTransMeta( rep, realTransname, repdir )
+                  : rep.loadTransformation( realTransname, repdir, null, true, null );
 
                 mappingTransMeta.getLogChannel().logDetailed( "Loading Mapping from repository",
                   "Mapping transformation [" + realTransname + "] was loaded from the repository" );
@@ -585,14 +592,15 @@ public class MetaInjectMeta extends BaseStepMeta implements StepMetaInterface, S
           }
         } else {
           try {
-            mappingTransMeta =
-              new TransMeta( realDirectory + "/" + realTransname, metaStore, rep, true, tmpSpace, null );
+            String transFilename = realDirectory + "/" + realTransname;
+            mappingTransMeta = useCache ? metaCache.loadTransMeta( transFilename, metaStore, rep, true, tmpSpace )
+              : new TransMeta( transFilename, metaStore, rep, true, tmpSpace, null );
           } catch ( KettleException ke ) {
             try {
               // add .ktr extension and try again
-              mappingTransMeta =
-                new TransMeta( realDirectory + "/" + realTransname + "." + Const.STRING_TRANS_DEFAULT_EXT, metaStore,
-                  rep, true, tmpSpace, null );
+              String transFilename = realDirectory + "/" + realTransname + "." + Const.STRING_TRANS_DEFAULT_EXT;
+              mappingTransMeta = useCache ? metaCache.loadTransMeta( transFilename, metaStore, rep, true, tmpSpace )
+                : new TransMeta( transFilename, metaStore, rep, true, tmpSpace, null );
             } catch ( KettleException ke2 ) {
               throw new KettleException( BaseMessages.getString( PKG, "StepWithMappingMeta.Exception.UnableToLoadTrans",
                 realTransname ) + realDirectory );
@@ -602,7 +610,8 @@ public class MetaInjectMeta extends BaseStepMeta implements StepMetaInterface, S
         break;
       case REPOSITORY_BY_REFERENCE:
         // Read the last revision by reference...
-        mappingTransMeta = rep.loadTransformation( injectMeta.getTransObjectId(), null );
+        mappingTransMeta = useCache ? metaCache.loadTransMeta( rep, injectMeta.getTransObjectId() )
+          : rep.loadTransformation( injectMeta.getTransObjectId(), null );
         break;
       default:
         break;
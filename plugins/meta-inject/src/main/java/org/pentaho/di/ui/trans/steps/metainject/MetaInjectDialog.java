@@ -1047,7 +1047,7 @@ public class MetaInjectDialog extends BaseStepDialog implements StepDialogInterf
   }
 
   private void processNewMDIDescription( StepMeta stepMeta, TreeItem stepItem, StepMetaInterface metaInterface ) {
-    BeanInjectionInfo stepInjectionInfo = new BeanInjectionInfo( metaInterface.getClass() );
+    BeanInjectionInfo stepInjectionInfo = BeanInjectionInfo.getInjectionInfo( metaInterface.getClass() );
 
     for ( BeanInjectionInfo.Group gr : stepInjectionInfo.getGroups() ) {
       boolean rootGroup = StringUtils.isEmpty( gr.getName() );
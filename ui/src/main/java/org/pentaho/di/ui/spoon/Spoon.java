@@ -333,10 +333,10 @@ import javax.swing.UIManager;
 import javax.swing.plaf.metal.MetalLookAndFeel;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
-import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.OutputStream;
 import java.io.PrintStream;
 import java.lang.reflect.Method;
 import java.net.MalformedURLException;
@@ -6181,12 +6181,22 @@ public class Spoon extends ApplicationWindow implements AddUndoPositionInterface
 
     boolean saved = false;
     try {
-      String xml = XMLHandler.getXMLHeader() + meta.getXML();
-
       VariableSpace variableSpace = meta instanceof VariableSpace ? (VariableSpace) meta : null;
-      DataOutputStream dos = new DataOutputStream( KettleVFS.getOutputStream( filename, variableSpace, false ) );
-      dos.write( xml.getBytes( Const.XML_ENCODING ) );
-      dos.close();
+
+      // Write to a file next to the target first, so that a failure half way leaves the existing file intact
+      //
+      FileObject file = KettleVFS.getFileObject( filename, variableSpace );
+      FileObject tempFile = KettleVFS.getFileObject( filename + ".tmp", variableSpace );
+      try {
+        try ( OutputStream outputStream = KettleVFS.getOutputStream( tempFile, false ) ) {
+          meta.writeXML( outputStream );
+        }
+        tempFile.moveTo( file );
+      } finally {
+        if ( tempFile.exists() ) {
+          tempFile.delete();
+        }
+      }
 
       saved = true;
 
@@ -293,7 +293,8 @@ public class SpoonSlave extends Composite implements TabItemInterface {
       new ColumnInfo( BaseMessages.getString( PKG, "SpoonSlave.Column.Speed" ), ColumnInfo.COLUMN_TYPE_TEXT, false, true ),
       new ColumnInfo( BaseMessages.getString( PKG, "SpoonSlave.Column.PriorityBufferSizes" ), ColumnInfo.COLUMN_TYPE_TEXT, false, true ),
       new ColumnInfo( BaseMessages.getString( PKG, "SpoonSlave.Column.CarteObjectId" ), ColumnInfo.COLUMN_TYPE_TEXT, false, true ),
-      new ColumnInfo( BaseMessages.getString( PKG, "SpoonSlave.Column.LogDate" ), ColumnInfo.COLUMN_TYPE_TEXT, false, true ), };
+      new ColumnInfo( BaseMessages.getString( PKG, "SpoonSlave.Column.LogDate" ), ColumnInfo.COLUMN_TYPE_TEXT, false, true ),
+      new ColumnInfo( BaseMessages.getString( PKG, "SpoonSlave.Column.Utilization" ), ColumnInfo.COLUMN_TYPE_TEXT, false, true ), };
 
     colinf[1].setAllignement( SWT.RIGHT );
     colinf[2].setAllignement( SWT.RIGHT );
@@ -308,6 +309,7 @@ public class SpoonSlave extends Composite implements TabItemInterface {
     colinf[11].setAllignement( SWT.RIGHT );
     colinf[12].setAllignement( SWT.RIGHT );
     colinf[13].setAllignement( SWT.RIGHT );
+    colinf[15].setAllignement( SWT.RIGHT );
 
     wTree = new Tree( sash, SWT.SINGLE | SWT.V_SCROLL | SWT.H_SCROLL );
     wTree.setHeaderVisible( true );
@@ -192,6 +192,9 @@ public class TransGridDelegate extends SpoonDelegate implements XulEventHandler
           BaseMessages.getString( PKG, "TransLog.Column.Speed" ), ColumnInfo.COLUMN_TYPE_TEXT, false, true ),
         new ColumnInfo(
           BaseMessages.getString( PKG, "TransLog.Column.PriorityBufferSizes" ), ColumnInfo.COLUMN_TYPE_TEXT,
+          false, true ),
+        new ColumnInfo(
+          BaseMessages.getString( PKG, "TransLog.Column.Utilization" ), ColumnInfo.COLUMN_TYPE_TEXT,
           false, true ), };
 
     colinf[1].setAllignement( SWT.RIGHT );
@@ -206,6 +209,7 @@ public class TransGridDelegate extends SpoonDelegate implements XulEventHandler
     colinf[10].setAllignement( SWT.RIGHT );
     colinf[11].setAllignement( SWT.RIGHT );
     colinf[12].setAllignement( SWT.RIGHT );
+    colinf[13].setAllignement( SWT.RIGHT );
 
     transGridView = new TableView( transGraph.getManagedObject(), transGridComposite, SWT.BORDER
       | SWT.FULL_SELECTION | SWT.MULTI, colinf, 1,
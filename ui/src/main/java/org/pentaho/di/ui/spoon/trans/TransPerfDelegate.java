@@ -86,6 +86,8 @@ public class TransPerfDelegate extends SpoonDelegate {
   private static final int DATA_CHOICE_REJECTED = 5;
   private static final int DATA_CHOICE_INPUT_BUFFER_SIZE = 6;
   private static final int DATA_CHOICE_OUTPUT_BUFFER_SIZE = 7;
+  private static final int DATA_CHOICE_MIN_SPEED = 8;
+  private static final int DATA_CHOICE_MAX_SPEED = 9;
 
   private static String[] dataChoices = new String[] {
     BaseMessages.getString( PKG, "StepPerformanceSnapShotDialog.Written" ),
@@ -95,7 +97,9 @@ public class TransPerfDelegate extends SpoonDelegate {
     BaseMessages.getString( PKG, "StepPerformanceSnapShotDialog.Updated" ),
     BaseMessages.getString( PKG, "StepPerformanceSnapShotDialog.Rejected" ),
     BaseMessages.getString( PKG, "StepPerformanceSnapShotDialog.InputBufferSize" ),
-    BaseMessages.getString( PKG, "StepPerformanceSnapShotDialog.OutputBufferSize" ), };
+    BaseMessages.getString( PKG, "StepPerformanceSnapShotDialog.OutputBufferSize" ),
+    BaseMessages.getString( PKG, "StepPerformanceSnapShotDialog.MinSpeed" ),
+    BaseMessages.getString( PKG, "StepPerformanceSnapShotDialog.MaxSpeed" ), };
 
   private TransGraph transGraph;
 
@@ -449,7 +453,15 @@ public class TransPerfDelegate extends SpoonDelegate {
       String stepNameCopy = selectedSteps[t];
 
       List<StepPerformanceSnapShot> snapShotList = stepPerformanceSnapShots.get( stepNameCopy );
+      if ( snapShotList != null ) {
+        // The sampler keeps adding (and merging) snapshots while we draw
+        //
+        synchronized ( snapShotList ) {
+          snapShotList = new ArrayList<StepPerformanceSnapShot>( snapShotList );
+        }
+      }
       if ( snapShotList != null && snapShotList.size() > 1 ) {
+        long startTime = snapShotList.get( 0 ).getDate().getTime();
         totalTimeInSeconds =
           (int) Math
             .round( ( (double) ( snapShotList.get( snapShotList.size() - 1 ).getDate().getTime() - snapShotList
@@ -468,7 +480,9 @@ public class TransPerfDelegate extends SpoonDelegate {
               } else {
                 dataType = dataChoices[dataIndices[d]];
               }
-              String xLabel = Integer.toString( Math.round( i * timeDifference / 1000 ) );
+              // Older snapshots can cover multiple samples, so use their actual time
+              //
+              String xLabel = Long.toString( Math.round( ( snapShot.getDate().getTime() - startTime ) / 1000.0 ) );
               Double metric = null;
               switch ( dataIndices[d] ) {
                 case DATA_CHOICE_INPUT:
@@ -495,6 +509,12 @@ public class TransPerfDelegate extends SpoonDelegate {
                 case DATA_CHOICE_OUTPUT_BUFFER_SIZE:
                   metric = (double) snapShot.getOutputBufferSize();
                   break;
+                case DATA_CHOICE_MIN_SPEED:
+                  metric = snapShot.getMinRowsPerSecond();
+                  break;
+                case DATA_CHOICE_MAX_SPEED:
+                  metric = snapShot.getMaxRowsPerSecond();
+                  break;
                 default:
                   break;
               }
@@ -310,6 +310,7 @@ public class TransHopDialog extends Dialog {
     } else if ( transMeta.hasLoop( input.getToStep() ) ) {
       input.setFromStep( fromBackup );
       input.setToStep( toBackup );
+      transMeta.clearCaches();
       MessageBox mb = new MessageBox( shell, SWT.OK | SWT.ICON_ERROR );
       mb.setMessage( BaseMessages.getString( PKG, "TransHopDialog.LoopsNotAllowed.DialogMessage" ) );
       mb.setText( BaseMessages.getString( PKG, "TransHopDialog.LoopsNotAllowed.DialogTitle" ) );
@@ -127,6 +127,9 @@ public class DimensionLookupDialog extends BaseStepDialog implements StepDialogI
   private Label wlPreloadCache;
   private Button wPreloadCache;
 
+  private Label wlPreloadCacheOffHeap;
+  private Button wPreloadCacheOffHeap;
+
   private Label wlCacheSize;
   private Text wCacheSize;
 
@@ -148,6 +151,9 @@ public class DimensionLookupDialog extends BaseStepDialog implements StepDialogI
   private Button wSeqButton;
   private Text wSeq;
 
+  private Label wlSeqBlockSize;
+  private Text wSeqBlockSize;
+
   private Label wlVersion;
   private CCombo wVersion;
 
@@ -464,6 +470,30 @@ public class DimensionLookupDialog extends BaseStepDialog implements StepDialogI
     fdPreloadCache.right = new FormAttachment( 100, 0 );
     wPreloadCache.setLayoutData( fdPreloadCache );
 
+    // Keep the pre-loaded cache off-heap?
+    wlPreloadCacheOffHeap = new Label( comp, SWT.RIGHT );
+    wlPreloadCacheOffHeap.setText( BaseMessages.getString( PKG, "DimensionLookupDialog.PreloadCacheOffHeap.Label" ) );
+    props.setLook( wlPreloadCacheOffHeap );
+    FormData fdlPreloadCacheOffHeap = new FormData();
+    fdlPreloadCacheOffHeap.left = new FormAttachment( 0, 0 );
+    fdlPreloadCacheOffHeap.right = new FormAttachment( middle, -margin );
+    fdlPreloadCacheOffHeap.top = new FormAttachment( wPreloadCache, margin );
+    wlPreloadCacheOffHeap.setLayoutData( fdlPreloadCacheOffHeap );
+    wPreloadCacheOffHeap = new Button( comp, SWT.CHECK );
+    props.setLook( wPreloadCacheOffHeap );
+    wPreloadCacheOffHeap.setToolTipText(
+      BaseMessages.getString( PKG, "DimensionLookupDialog.PreloadCacheOffHeap.Tooltip" ) );
+    wPreloadCacheOffHeap.addSelectionListener( new SelectionAdapter() {
+      public void widgetSelected( SelectionEvent arg0 ) {
+        input.setChanged();
+      }
+    } );
+    FormData fdPreloadCacheOffHeap = new FormData();
+    fdPreloadCacheOffHeap.left = new FormAttachment( middle, 0 );
+    fdPreloadCacheOffHeap.top = new FormAttachment( wPreloadCache, margin );
+    fdPreloadCacheOffHeap.right = new FormAttachment( 100, 0 );
+    wPreloadCacheOffHeap.setLayoutData( fdPreloadCacheOffHeap );
+
     // Cache size ...
     wlCacheSize = new Label( comp, SWT.RIGHT );
     wlCacheSize.setText( BaseMessages.getString( PKG, "DimensionLookupDialog.CacheSize.Label" ) );
@@ -471,14 +501,14 @@ public class DimensionLookupDialog extends BaseStepDialog implements StepDialogI
     FormData fdlCacheSize = new FormData();
     fdlCacheSize.left = new FormAttachment( 0, 0 );
     fdlCacheSize.right = new FormAttachment( middle, -margin );
-    fdlCacheSize.top = new FormAttachment( wPreloadCache, margin );
+    fdlCacheSize.top = new FormAttachment( wPreloadCacheOffHeap, margin );
     wlCacheSize.setLayoutData( fdlCacheSize );
     wCacheSize = new Text( comp, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
     props.setLook( wCacheSize );
     wCacheSize.addModifyListener( lsMod );
     FormData fdCacheSize = new FormData();
     fdCacheSize.left = new FormAttachment( middle, 0 );
-    fdCacheSize.top = new FormAttachment( wPreloadCache, margin );
+    fdCacheSize.top = new FormAttachment( wPreloadCacheOffHeap, margin );
     fdCacheSize.right = new FormAttachment( 100, 0 );
     wCacheSize.setLayoutData( fdCacheSize );
 
@@ -751,6 +781,20 @@ public class DimensionLookupDialog extends BaseStepDialog implements StepDialogI
       }
     } );
 
+    // Number of keys obtained from the sequence in one call
+    new Label( gTechGroup, SWT.NONE );
+    wlSeqBlockSize = new Label( gTechGroup, SWT.LEFT );
+    wlSeqBlockSize.setText( BaseMessages.getString( PKG, "DimensionLookupDialog.SequenceBlockSize.Label" ) );
+    props.setLook( wlSeqBlockSize );
+    GridData gdlSeqBlockSize = new GridData();
+    wlSeqBlockSize.setLayoutData( gdlSeqBlockSize );
+    wSeqBlockSize = new Text( gTechGroup, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wSeqBlockSize );
+    wSeqBlockSize.setToolTipText( BaseMessages.getString( PKG, "DimensionLookupDialog.SequenceBlockSize.Tooltip" ) );
+    wSeqBlockSize.addModifyListener( lsMod );
+    GridData gdSeqBlockSize = new GridData( GridData.FILL_HORIZONTAL );
+    wSeqBlockSize.setLayoutData( gdSeqBlockSize );
+
     // Use an autoincrement field?
     wAutoinc = new Button( gTechGroup, SWT.RADIO );
     props.setLook( wAutoinc );
@@ -1200,6 +1244,8 @@ public class DimensionLookupDialog extends BaseStepDialog implements StepDialogI
     //
     wlPreloadCache.setEnabled( wUseCache.getSelection() && !wUpdate.getSelection() );
     wPreloadCache.setEnabled( wUseCache.getSelection() && !wUpdate.getSelection() );
+    wlPreloadCacheOffHeap.setEnabled( wPreloadCache.isEnabled() && wPreloadCache.getSelection() );
+    wPreloadCacheOffHeap.setEnabled( wPreloadCache.isEnabled() && wPreloadCache.getSelection() );
 
     wlCacheSize.setEnabled( wUseCache.getSelection() && !wPreloadCache.getSelection() );
     wCacheSize.setEnabled( wUseCache.getSelection() && !wPreloadCache.getSelection() );
@@ -1243,6 +1289,8 @@ public class DimensionLookupDialog extends BaseStepDialog implements StepDialogI
   public void setSequence() {
     boolean seq = ( ci == null ) || ci.supportsSequences();
     wSeq.setEnabled( seq );
+    wlSeqBlockSize.setEnabled( seq );
+    wSeqBlockSize.setEnabled( seq );
     wlSeqButton.setEnabled( seq );
     wSeqButton.setEnabled( seq );
     if ( !seq && wSeqButton.getSelection() ) {
@@ -1368,9 +1416,11 @@ public class DimensionLookupDialog extends BaseStepDialog implements StepDialogI
     }
 
     wCommit.setText( "" + input.getCommitSize() );
+    wSeqBlockSize.setText( "" + input.getSequenceBlockSize() );
 
     wUseCache.setSelection( input.getCacheSize() >= 0 );
     wPreloadCache.setSelection( input.isPreloadingCache() );
+    wPreloadCacheOffHeap.setSelection( input.isPreloadingCacheOffHeap() );
     if ( input.getCacheSize() >= 0 ) {
       wCacheSize.setText( "" + input.getCacheSize() );
     }
@@ -1488,6 +1538,7 @@ public class DimensionLookupDialog extends BaseStepDialog implements StepDialogI
     in.setDateTo( wTodate.getText() );
 
     in.setCommitSize( Const.toInt( wCommit.getText(), 0 ) );
+    in.setSequenceBlockSize( Const.toInt( wSeqBlockSize.getText(), 1 ) );
 
     if ( wUseCache.getSelection() ) {
       in.setCacheSize( Const.toInt( wCacheSize.getText(), -1 ) );
@@ -1495,6 +1546,7 @@ public class DimensionLookupDialog extends BaseStepDialog implements StepDialogI
       in.setCacheSize( -1 );
     }
     in.setPreloadingCache( wPreloadCache.getSelection() );
+    in.setPreloadingCacheOffHeap( wPreloadCache.getSelection() && wPreloadCacheOffHeap.getSelection() );
     if ( wPreloadCache.getSelection() ) {
       in.setCacheSize( 0 );
     }
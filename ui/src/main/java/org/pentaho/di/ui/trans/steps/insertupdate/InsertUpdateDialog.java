@@ -111,6 +111,10 @@ public class InsertUpdateDialog extends BaseStepDialog implements StepDialogInte
   private Button wUpdateBypassed;
   private FormData fdlUpdateBypassed, fdUpdateBypassed;
 
+  private Label wlMergeMode;
+  private Button wMergeMode;
+  private FormData fdlMergeMode, fdMergeMode;
+
   private Button wGetLU;
   private FormData fdGetLU;
   private Listener lsGetLU;
@@ -291,12 +295,32 @@ public class InsertUpdateDialog extends BaseStepDialog implements StepDialogInte
     wUpdateBypassed.setLayoutData( fdUpdateBypassed );
     wUpdateBypassed.addSelectionListener( new ComponentSelectionListener( input ) );
 
+    // MergeMode line
+    wlMergeMode = new Label( shell, SWT.RIGHT );
+    wlMergeMode.setText( BaseMessages.getString( PKG, "InsertUpdateDialog.MergeMode.Label" ) );
+    wlMergeMode.setToolTipText( BaseMessages.getString( PKG, "InsertUpdateDialog.MergeMode.Tooltip" ) );
+    props.setLook( wlMergeMode );
+    fdlMergeMode = new FormData();
+    fdlMergeMode.left = new FormAttachment( 0, 0 );
+    fdlMergeMode.top = new FormAttachment( wUpdateBypassed, margin );
+    fdlMergeMode.right = new FormAttachment( middle, -margin );
+    wlMergeMode.setLayoutData( fdlMergeMode );
+    wMergeMode = new Button( shell, SWT.CHECK );
+    wMergeMode.setToolTipText( BaseMessages.getString( PKG, "InsertUpdateDialog.MergeMode.Tooltip" ) );
+    props.setLook( wMergeMode );
+    fdMergeMode = new FormData();
+    fdMergeMode.left = new FormAttachment( middle, 0 );
+    fdMergeMode.top = new FormAttachment( wUpdateBypassed, margin );
+    fdMergeMode.right = new FormAttachment( 100, 0 );
+    wMergeMode.setLayoutData( fdMergeMode );
+    wMergeMode.addSelectionListener( new ComponentSelectionListener( input ) );
+
     wlKey = new Label( shell, SWT.NONE );
     wlKey.setText( BaseMessages.getString( PKG, "InsertUpdateDialog.Keys.Label" ) );
     props.setLook( wlKey );
     fdlKey = new FormData();
     fdlKey.left = new FormAttachment( 0, 0 );
-    fdlKey.top = new FormAttachment( wUpdateBypassed, margin );
+    fdlKey.top = new FormAttachment( wMergeMode, margin );
     wlKey.setLayoutData( fdlKey );
 
     int nrKeyCols = 4;
@@ -665,6 +689,7 @@ public class InsertUpdateDialog extends BaseStepDialog implements StepDialogInte
 
     wCommit.setText( input.getCommitSizeVar() );
     wUpdateBypassed.setSelection( input.isUpdateBypassed() );
+    wMergeMode.setSelection( input.isMergeMode() );
 
     if ( input.getKeyStream() != null ) {
       for ( int i = 0; i < input.getKeyStream().length; i++ ) {
@@ -737,6 +762,7 @@ public class InsertUpdateDialog extends BaseStepDialog implements StepDialogInte
 
     inf.setCommitSize( wCommit.getText() );
     inf.setUpdateBypassed( wUpdateBypassed.getSelection() );
+    inf.setMergeMode( wMergeMode.getSelection() );
 
     if ( log.isDebug() ) {
       logDebug( BaseMessages.getString( PKG, "InsertUpdateDialog.Log.FoundKeys", nrkeys + "" ) );
@@ -118,6 +118,9 @@ public class JobExecutorDialog extends BaseStepDialog implements StepDialogInter
   private CCombo wGroupField;
   private Label wlGroupTime;
   private TextVar wGroupTime;
+  private Label wlParallelism;
+  private TextVar wParallelism;
+  private Button wOrderedResults;
 
   private Label wlExecutionResultTarget;
   private CCombo wExecutionResultTarget;
@@ -520,6 +523,8 @@ public class JobExecutorDialog extends BaseStepDialog implements StepDialogInter
 
     wGroupSize.setText( Const.NVL( jobExecutorMeta.getGroupSize(), "" ) );
     wGroupTime.setText( Const.NVL( jobExecutorMeta.getGroupTime(), "" ) );
+    wParallelism.setText( Const.NVL( jobExecutorMeta.getParallelism(), "" ) );
+    wOrderedResults.setSelection( jobExecutorMeta.isOrderedResults() );
     wGroupField.setText( Const.NVL( jobExecutorMeta.getGroupField(), "" ) );
 
     wExecutionResultTarget.setText( jobExecutorMeta.getExecutionResultTargetStepMeta() == null
@@ -802,6 +807,34 @@ public class JobExecutorDialog extends BaseStepDialog implements StepDialogInter
     fdGroupTime.left = new FormAttachment( 0, 0 );
     wGroupTime.setLayoutData( fdGroupTime );
 
+    // Number of groups executed at the same time
+    //
+    wlParallelism = new Label( wInputComposite, SWT.RIGHT );
+    props.setLook( wlParallelism );
+    wlParallelism.setText( BaseMessages.getString( PKG, "JobExecutorDialog.Parallelism.Label" ) );
+    FormData fdlParallelism = new FormData();
+    fdlParallelism.top = new FormAttachment( wGroupTime, 10 );
+    fdlParallelism.left = new FormAttachment( 0, 0 );
+    wlParallelism.setLayoutData( fdlParallelism );
+
+    wParallelism = new TextVar( transMeta, wInputComposite, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wParallelism );
+    wParallelism.addModifyListener( lsMod );
+    FormData fdParallelism = new FormData();
+    fdParallelism.width = 250;
+    fdParallelism.top = new FormAttachment( wlParallelism, 5 );
+    fdParallelism.left = new FormAttachment( 0, 0 );
+    wParallelism.setLayoutData( fdParallelism );
+
+    wOrderedResults = new Button( wInputComposite, SWT.CHECK );
+    wOrderedResults.setText( BaseMessages.getString( PKG, "JobExecutorDialog.OrderedResults.Label" ) );
+    props.setLook( wOrderedResults );
+    wOrderedResults.addListener( SWT.Selection, e -> doMod() );
+    FormData fdOrderedResults = new FormData();
+    fdOrderedResults.top = new FormAttachment( wParallelism, 10 );
+    fdOrderedResults.left = new FormAttachment( 0, 0 );
+    wOrderedResults.setLayoutData( fdOrderedResults );
+
     wTab.setControl( wInputComposite );
     wTabFolder.setSelection( wTab );
   }
@@ -1178,6 +1211,8 @@ public class JobExecutorDialog extends BaseStepDialog implements StepDialogInter
     jobExecutorMeta.setGroupSize( wGroupSize.getText() );
     jobExecutorMeta.setGroupField( wGroupField.getText() );
     jobExecutorMeta.setGroupTime( wGroupTime.getText() );
+    jobExecutorMeta.setParallelism( wParallelism.getText() );
+    jobExecutorMeta.setOrderedResults( wOrderedResults.getSelection() );
 
     jobExecutorMeta.setExecutionResultTargetStep( wExecutionResultTarget.getText() );
     jobExecutorMeta.setExecutionResultTargetStepMeta( transMeta.findStep( wExecutionResultTarget.getText() ) );
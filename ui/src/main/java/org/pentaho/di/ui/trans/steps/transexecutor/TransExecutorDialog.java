@@ -116,6 +116,9 @@ public class TransExecutorDialog extends BaseStepDialog implements StepDialogInt
   private CCombo wGroupField;
   private Label wlGroupTime;
   private TextVar wGroupTime;
+  private Label wlParallelism;
+  private TextVar wParallelism;
+  private Button wOrderedResults;
 
   private Label wlExecutionResultTarget;
   private CCombo wExecutionResultTarget;
@@ -522,6 +525,8 @@ public class TransExecutorDialog extends BaseStepDialog implements StepDialogInt
 
     wGroupSize.setText( Const.NVL( transExecutorMeta.getGroupSize(), "" ) );
     wGroupTime.setText( Const.NVL( transExecutorMeta.getGroupTime(), "" ) );
+    wParallelism.setText( Const.NVL( transExecutorMeta.getParallelism(), "" ) );
+    wOrderedResults.setSelection( transExecutorMeta.isOrderedResults() );
     wGroupField.setText( Const.NVL( transExecutorMeta.getGroupField(), "" ) );
 
     wExecutionResultTarget.setText( transExecutorMeta.getExecutionResultTargetStepMeta() == null ? ""
@@ -790,6 +795,34 @@ public class TransExecutorDialog extends BaseStepDialog implements StepDialogInt
     fdGroupTime.left = new FormAttachment( 0, 0 );
     wGroupTime.setLayoutData( fdGroupTime );
 
+    // Number of groups executed at the same time
+    //
+    wlParallelism = new Label( wInputComposite, SWT.RIGHT );
+    props.setLook( wlParallelism );
+    wlParallelism.setText( BaseMessages.getString( PKG, "TransExecutorDialog.Parallelism.Label" ) );
+    FormData fdlParallelism = new FormData();
+    fdlParallelism.top = new FormAttachment( wGroupTime, 10 );
+    fdlParallelism.left = new FormAttachment( 0, 0 );
+    wlParallelism.setLayoutData( fdlParallelism );
+
+    wParallelism = new TextVar( transMeta, wInputComposite, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wParallelism );
+    wParallelism.addModifyListener( lsMod );
+    FormData fdParallelism = new FormData();
+    fdParallelism.width = 250;
+    fdParallelism.top = new FormAttachment( wlParallelism, 5 );
+    fdParallelism.left = new FormAttachment( 0, 0 );
+    wParallelism.setLayoutData( fdParallelism );
+
+    wOrderedResults = new Button( wInputComposite, SWT.CHECK );
+    wOrderedResults.setText( BaseMessages.getString( PKG, "TransExecutorDialog.OrderedResults.Label" ) );
+    props.setLook( wOrderedResults );
+    wOrderedResults.addListener( SWT.Selection, e -> doMod() );
+    FormData fdOrderedResults = new FormData();
+    fdOrderedResults.top = new FormAttachment( wParallelism, 10 );
+    fdOrderedResults.left = new FormAttachment( 0, 0 );
+    wOrderedResults.setLayoutData( fdOrderedResults );
+
     wTab.setControl( wInputComposite );
     wTabFolder.setSelection( wTab );
   }
@@ -1164,6 +1197,8 @@ public class TransExecutorDialog extends BaseStepDialog implements StepDialogInt
     transExecutorMeta.setGroupSize( wGroupSize.getText() );
     transExecutorMeta.setGroupField( wGroupField.getText() );
     transExecutorMeta.setGroupTime( wGroupTime.getText() );
+    transExecutorMeta.setParallelism( wParallelism.getText() );
+    transExecutorMeta.setOrderedResults( wOrderedResults.getSelection() );
 
     transExecutorMeta.setExecutionResultTargetStep( wExecutionResultTarget.getText() );
     transExecutorMeta.setExecutionResultTargetStepMeta( transMeta.findStep( wExecutionResultTarget.getText() ) );